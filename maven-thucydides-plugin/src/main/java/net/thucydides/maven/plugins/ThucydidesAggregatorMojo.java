@@ -102,6 +102,19 @@ public class ThucydidesAggregatorMojo extends AbstractMojo {
      */
     public String statisticsUrl;
 
+    /**
+     * Number of threads used to read the test outcomes before generating the aggregate reports.
+     * Defaults to the number of available processors.
+     * @parameter expression="${thucydides.report.loader.threads}"
+     */
+    public String reportLoaderThreads;
+
+    /**
+     * Only regenerate the aggregate report pages whose test outcomes have changed since the last aggregate report.
+     * @parameter expression="${thucydides.incremental.reports}"
+     */
+    public String incrementalReports;
+
     EnvironmentVariables environmentVariables;
 
     /**
@@ -160,6 +173,8 @@ public class ThucydidesAggregatorMojo extends AbstractMojo {
         updateSystemProperty("thucydides.statistics.dialect", statisticsDialect);
 
         updateSystemProperty("thucydides.test.requirements.basedir", requirementsBaseDir);
+        updateSystemProperty(ThucydidesSystemProperty.REPORT_LOADER_THREADS.getPropertyName(), reportLoaderThreads);
+        updateSystemProperty(ThucydidesSystemProperty.INCREMENTAL_REPORTS.getPropertyName(), incrementalReports);
     }
 
     private void updateSystemProperty(String key, String value, String defaultValue) {
@@ -59,6 +59,30 @@ public enum ThucydidesSystemProperty {
      */
     REPORT_RESOURCE_PATH("thucydides.report.resources"),
 
+    /**
+     * The number of threads used to read the XML test outcomes when generating the aggregate reports.
+     * Defaults to the number of available processors.
+     */
+    REPORT_LOADER_THREADS("thucydides.report.loader.threads"),
+
+    /**
+     * The number of threads used to render the pages of the aggregate reports.
+     * Defaults to the number of available processors.
+     */
+    REPORT_THREADS("thucydides.report.threads"),
+
+    /**
+     * Also store each test outcome in a compact binary format, which is faster to load than the XML reports
+     * when generating the aggregate reports. This writes an extra file for each test, so it is off by default.
+     */
+    BINARY_REPORTS("thucydides.binary.reports"),
+
+    /**
+     * Only regenerate the aggregate report pages whose test outcomes have changed since the previous aggregate report.
+     * Unchanged pages keep the historical statistics they were generated with.
+     */
+    INCREMENTAL_REPORTS("thucydides.incremental.reports"),
+
     /**
      * Where should reports be generated.
      */
@@ -139,6 +163,33 @@ public enum ThucydidesSystemProperty {
      */
     UNIQUE_BROWSER("thucydides.use.unique.browser"),
 
+    /**
+     * Keep browsers that are no longer used by a test, and reuse them in later tests instead of starting
+     * a new browser. Reused browsers have their cookies, storage and extra windows cleared. False by default.
+     */
+    DRIVER_POOL("thucydides.driver.pool"),
+
+    /**
+     * The maximum number of unused browsers of each type kept in the driver pool. Defaults to 2.
+     */
+    DRIVER_POOL_MAX_IDLE("thucydides.driver.pool.max.idle"),
+
+    /**
+     * How long an unused browser is kept in the driver pool before it is closed, in seconds. Defaults to 300.
+     */
+    DRIVER_POOL_IDLE_TIMEOUT("thucydides.driver.pool.idle.timeout"),
+
+    /**
+     * How many tests can use a pooled browser before it is closed and replaced by a new one. Defaults to 50.
+     */
+    DRIVER_POOL_MAX_USES("thucydides.driver.pool.max.uses"),
+
+    /**
+     * How many browsers of each type the driver pool launches in the background before they are needed.
+     * A new browser is launched each time one of these is used. Defaults to 0.
+     */
+    DRIVER_POOL_PRELAUNCH("thucydides.driver.pool.prelaunch"),
+
     /**
      * The estimated number of steps in a pending scenario.
      * This is used for stories where no scenarios have been defined.
@@ -189,6 +240,23 @@ public enum ThucydidesSystemProperty {
      */
     HISTORY_BASE_DIRECTORY("thucydides.history"),
 
+    /**
+     * How many days of test result history to keep. By default, the history is kept indefinitely.
+     */
+    HISTORY_RETENTION_DAYS("thucydides.history.retention.days"),
+
+    /**
+     * How many days of test result history to keep in full detail.
+     * Older history is reduced to the last snapshot of each day. Defaults to 30 days.
+     */
+    HISTORY_DETAILED_DAYS("thucydides.history.detailed.days"),
+
+    /**
+     * The number of most recent test result snapshots shown in the history report.
+     * By default, every snapshot that has been kept is shown.
+     */
+    HISTORY_REPORT_SNAPSHOTS("thucydides.history.report.snapshots"),
+
     /**
      *  Redimension the browser to enable larger screenshots.
      */
@@ -203,6 +271,24 @@ public enum ThucydidesSystemProperty {
      */
     RESIZED_WIDTH("thucydides.resized.image.width"),
 
+    /**
+     * How screenshots are resized and moved into the output directory once they have been taken.
+     * Allowed values - SINGLE_THREAD (default) and MULTITHREAD
+     */
+    SCREENSHOT_PROCESSOR("thucydides.screenshot.processor"),
+
+    /**
+     * The number of worker threads used to process screenshots when the MULTITHREAD screenshot processor is used.
+     * Defaults to the number of available processors.
+     */
+    SCREENSHOT_PROCESSOR_THREADS("thucydides.screenshot.processor.threads"),
+
+    /**
+     * The maximum number of screenshots waiting to be processed by the MULTITHREAD screenshot processor.
+     * When the queue is full, the test thread processes the screenshot itself rather than queuing more work.
+     */
+    SCREENSHOT_PROCESSOR_QUEUE_SIZE("thucydides.screenshot.processor.queue.size"),
+
     /**
      * Public URL where the Thucydides reports will be displayed.
      * This is mainly for use by plugins.
@@ -226,7 +312,7 @@ public enum ThucydidesSystemProperty {
 
     /**
      * Batch strategy to use for parallel batches.
-     * Allowed values - DIVIDE_EQUALLY (default) and DIVIDE_BY_TEST_COUNT
+     * Allowed values - DIVIDE_EQUALLY (default), DIVIDE_BY_TEST_COUNT and DIVIDE_DYNAMICALLY
      */
     BATCH_STRATEGY("thucydides.batch.strategy"),
 
@@ -245,6 +331,26 @@ public enum ThucydidesSystemProperty {
      */
     BATCH_NUMBER("thucydides.batch.number"),
 
+    /**
+     * Identifies the batches that belong to the same test run, when using the DIVIDE_DYNAMICALLY batch strategy.
+     * This needs to be different for each test run, e.g. a CI build number.
+     */
+    BATCH_RUN_ID("thucydides.batch.run.id"),
+
+    /**
+     * The directory containing the queues shared by batches using the DIVIDE_DYNAMICALLY batch strategy.
+     * All of the batches must be able to read and write to this directory.
+     * Defaults to a directory in the Thucydides home directory.
+     */
+    BATCH_QUEUE_DIRECTORY("thucydides.batch.queue.directory"),
+
+    /**
+     * Set to 'history' to run the test methods of each test class in an order based on their recorded history:
+     * tests that failed recently and long tests are run first.
+     * This needs test statistics to be recorded (see RECORD_STATISTICS).
+     */
+    TEST_ORDER("thucydides.test.order"),
+
     /**
      * HTTP Proxy URL configuration for Firefox
      */
@@ -261,6 +367,24 @@ public enum ThucydidesSystemProperty {
      */
     TIMEOUTS_IMPLICIT_WAIT("webdriver.timeouts.implicitlywait"),
 
+    /**
+     * How long webdriver waits for asynchronous scripts to finish, in milliseconds.
+     */
+    TIMEOUTS_SCRIPT("webdriver.timeouts.script"),
+
+    /**
+     * Let the waits returned by waitForCondition() start polling with short pauses, backing off to the polling
+     * interval they were given, rather than always pausing for the full interval. False by default.
+     */
+    ADAPTIVE_WAITS("thucydides.adaptive.waits"),
+
+    /**
+     * End the pauses of element waits, and of adaptive page waits, as soon as the page changes, instead of sleeping
+     * for the whole polling interval. This needs a browser that supports MutationObserver, and
+     * webdriver.timeouts.script must be longer than the polling interval. False by default.
+     */
+    WAIT_FOR_DOM_CHANGES("thucydides.wait.for.dom.changes"),
+
     /**
      * Extension packages. This is a list of packages that will be scanned for custom TagProvider implementations.
      * To add a custom tag provider, just implement the TagProvider interface and specify the root package for this
@@ -368,6 +492,31 @@ public enum ThucydidesSystemProperty {
     STATISTICS_PASSWORD("thucydides.statistics.password"),
     STATISTICS_DIALECT("thucydides.statistics.dialect"),
 
+    /**
+     * How many test outcomes are written to the statistics database in each JDBC batch and each transaction
+     * at the end of a test suite. Defaults to 50.
+     */
+    STATISTICS_BATCH_SIZE("thucydides.statistics.batch.size"),
+
+    /**
+     * Store test statistics on a separate writer thread, shared by all the test suites. Each suite still waits
+     * until its statistics have been stored. Defaults to false.
+     */
+    STATISTICS_RECORD_IN_BACKGROUND("thucydides.statistics.record.in.background"),
+
+    /**
+     * How many test outcomes can be waiting to be stored in the statistics database when statistics are
+     * recorded in the background. When the queue is full, test suites wait until there is room. Defaults to 10000.
+     */
+    STATISTICS_QUEUE_SIZE("thucydides.statistics.queue.size"),
+
+    /**
+     * Where test statistics are stored: "database" (the default) stores them in the statistics database,
+     * and "files" stores them in a directory of history files in the Thucydides home directory,
+     * without needing a database server.
+     */
+    STATISTICS_STORE("thucydides.statistics.store"),
+
     /**
      *  The base directory in which requirements are kept. It is assumed that this directory contains sub folders
      *  src/test/resources. If this property is set, the requirements are read from src/test/resources under this folder
@@ -385,6 +534,13 @@ public enum ThucydidesSystemProperty {
      */
     THUCYDIDES_STORE_HTML_SOURCE("thucydides.store.html.source"),
 
+    /**
+     * If set to true, Thucydides checks whether the page has changed (using a small injected script) before
+     * taking a screenshot, and reuses the previous screenshot if it has not. This saves a lot of time with
+     * remote drivers. False by default.
+     */
+    THUCYDIDES_SKIP_UNCHANGED_SCREENSHOTS("thucydides.skip.unchanged.screenshots"),
+
     /**
      * If set to true, a copy of the original screenshot will be kept when screenshots are scaled for the reports.
      * False by default to conserve disk space.
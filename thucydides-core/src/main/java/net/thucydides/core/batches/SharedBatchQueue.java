@@ -0,0 +1,81 @@
+package net.thucydides.core.batches;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+
+/**
+ * A queue of test cases shared by all of the batches in a test run, kept in a file that each batch locks
+ * while it claims the next test case. The first batch to claim a test case runs it, so batches that finish
+ * their tests quickly go on to run more of them.
+ * Each claim is recorded on a line of its own, as the name of the test case followed by the batch number.
+ */
+class SharedBatchQueue {
+
+    private static final String SEPARATOR = "\t";
+
+    /**
+     * File locks are held by the whole JVM, so batches running in the same JVM take turns.
+     */
+    private static final Object QUEUE_MONITOR = new Object();
+
+    private final File queueFile;
+
+    SharedBatchQueue(final File queueFile) {
+        this.queueFile = queueFile;
+    }
+
+    public File getQueueFile() {
+        return queueFile;
+    }
+
+    /**
+     * @return true if this batch has claimed the test case, either now or earlier.
+     */
+    public boolean claim(final String testCaseName, final int batchNumber) {
+        try {
+            return claimTestCase(testCaseName, Integer.toString(batchNumber));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read the batch queue in " + queueFile, e);
+        }
+    }
+
+    private boolean claimTestCase(final String testCaseName, final String batchNumber) throws IOException {
+        synchronized (QUEUE_MONITOR) {
+            File queueDirectory = queueFile.getParentFile();
+            if (queueDirectory != null && !queueDirectory.exists() && !queueDirectory.mkdirs()) {
+                throw new IOException("Could not create batch queue directory " + queueDirectory);
+            }
+            RandomAccessFile queue = new RandomAccessFile(queueFile, "rw");
+            try {
+                FileLock lock = queue.getChannel().lock();
+                try {
+                    String claimingBatch = batchClaiming(testCaseName, queue);
+                    if (claimingBatch == null) {
+                        queue.seek(queue.length());
+                        queue.write((testCaseName + SEPARATOR + batchNumber + "\n").getBytes("UTF-8"));
+                        return true;
+                    }
+                    return claimingBatch.equals(batchNumber);
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                queue.close();
+            }
+        }
+    }
+
+    private String batchClaiming(final String testCaseName, final RandomAccessFile queue) throws IOException {
+        byte[] contents = new byte[(int) queue.length()];
+        queue.readFully(contents);
+        String prefix = testCaseName + SEPARATOR;
+        for (String claim : new String(contents, "UTF-8").split("\n")) {
+            if (claim.startsWith(prefix)) {
+                return claim.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package net.thucydides.core.batches;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import net.thucydides.core.Thucydides;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+import static net.thucydides.core.ThucydidesSystemProperty.BATCH_QUEUE_DIRECTORY;
+import static net.thucydides.core.ThucydidesSystemProperty.BATCH_RUN_ID;
+import static net.thucydides.core.ThucydidesSystemProperty.PROJECT_KEY;
+import static net.thucydides.core.ThucydidesSystemProperty.THUCYDIDES_HOME;
+
+/**
+ * Shares out test cases between batches as they run, rather than deciding in advance which batch runs
+ * which test case. Each batch takes the next test case that no other batch has started yet from a queue
+ * shared by all the batches, so a batch that is given long tests simply runs fewer of them, and all the
+ * batches finish at about the same time.
+ * <p/>
+ * The queue is kept in a file, so the batches must share a file system. Batches of the same test run
+ * are identified by the "thucydides.batch.run.id" property, which needs to be different for each test run.
+ * If it is not set, test cases are divided equally between the batches instead.
+ */
+@Singleton
+public class SharedQueueBatchManager extends SystemVariableBasedBatchManager {
+
+    private final SharedBatchQueue queue;
+    private volatile String currentTestCase;
+
+    private final Logger logger = LoggerFactory.getLogger(SharedQueueBatchManager.class);
+
+    @Inject
+    public SharedQueueBatchManager(EnvironmentVariables environmentVariables) {
+        super(environmentVariables);
+        this.queue = sharedQueueFor(environmentVariables);
+    }
+
+    private SharedBatchQueue sharedQueueFor(EnvironmentVariables environmentVariables) {
+        String runId = BATCH_RUN_ID.from(environmentVariables);
+        if (StringUtils.isEmpty(runId)) {
+            if (batchCount > 0) {
+                logger.warn("No batch run id defined in thucydides.batch.run.id: dividing tests equally between batches");
+            }
+            return null;
+        }
+        return new SharedBatchQueue(new File(queueDirectoryFrom(environmentVariables), runId + ".queue"));
+    }
+
+    private File queueDirectoryFrom(EnvironmentVariables environmentVariables) {
+        String defaultThucydidesDirectory = environmentVariables.getProperty("user.home") + "/.thucydides";
+        String thucydidesHomeDirectory = THUCYDIDES_HOME.from(environmentVariables, defaultThucydidesDirectory);
+        String projectKey = PROJECT_KEY.from(environmentVariables, Thucydides.getDefaultProjectKey());
+        File defaultQueueDirectory = new File(thucydidesHomeDirectory, "batches-" + projectKey);
+        return new File(BATCH_QUEUE_DIRECTORY.from(environmentVariables, defaultQueueDirectory.getPath()));
+    }
+
+    @Override
+    public void registerTestCase(Class<?> klass) {
+        currentTestCase = klass.getName();
+        super.registerTestCase(klass);
+    }
+
+    @Override
+    public void registerTestCase(String testCaseName) {
+        currentTestCase = testCaseName;
+        super.registerTestCase(testCaseName);
+    }
+
+    @Override
+    public boolean shouldExecuteThisTest(int testCount) {
+        if (batchCount == 0 || queue == null || currentTestCase == null) {
+            return super.shouldExecuteThisTest(testCount);
+        }
+        return queue.claim(currentTestCase, getActualBatchNumber());
+    }
+}
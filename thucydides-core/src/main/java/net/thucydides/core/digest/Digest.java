@@ -6,4 +6,8 @@ public class Digest {
     public static String ofTextValue(final String text) {
         return DigestUtils.sha256Hex(text);
     }
+
+    public static String ofBytes(final byte[] data) {
+        return DigestUtils.sha256Hex(data);
+    }
 }
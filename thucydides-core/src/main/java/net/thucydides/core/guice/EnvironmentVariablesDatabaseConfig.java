@@ -18,6 +18,7 @@ import java.util.Properties;
 public class EnvironmentVariablesDatabaseConfig implements DatabaseConfig {
 
     private static final int TABLE_NAME_COLUMN  = 3;
+    public static final int DEFAULT_BATCH_SIZE = 50;
 
     private final EnvironmentVariables environmentVariables;
     private final LocalDatabase localDatabase;
@@ -45,9 +46,15 @@ public class EnvironmentVariablesDatabaseConfig implements DatabaseConfig {
         properties.put("hibernate.connection.password", password);
         properties.put("hibernate.dialect", dialect);
         properties.put("hibernate.connection.pool_size", "1");
+        properties.put("hibernate.jdbc.batch_size", Integer.toString(getBatchSize()));
+        properties.put("hibernate.order_inserts", "true");
         return properties;
     }
 
+    private int getBatchSize() {
+        return environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.STATISTICS_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
     public Properties getProperties() {
         Properties properties = getConnectionProperties();
 
@@ -2,8 +2,11 @@ package net.thucydides.core.guice;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.batches.BatchManager;
 import net.thucydides.core.batches.SystemVariableBasedBatchManager;
 import net.thucydides.core.issues.IssueTracking;
@@ -19,12 +22,15 @@ import net.thucydides.core.reports.templates.FreeMarkerTemplateManager;
 import net.thucydides.core.reports.templates.TemplateManager;
 import net.thucydides.core.requirements.ClasspathRequirementsProviderService;
 import net.thucydides.core.requirements.RequirementsProviderService;
+import net.thucydides.core.screenshots.MultithreadScreenshotProcessor;
 import net.thucydides.core.screenshots.ScreenshotProcessor;
 import net.thucydides.core.screenshots.SingleThreadScreenshotProcessor;
 import net.thucydides.core.statistics.HibernateTestStatisticsProvider;
+import net.thucydides.core.statistics.HistoricalTestOrder;
 import net.thucydides.core.statistics.Statistics;
 import net.thucydides.core.statistics.StatisticsListener;
 import net.thucydides.core.statistics.TestStatisticsProvider;
+import net.thucydides.core.statistics.dao.FileTestOutcomeHistoryDAO;
 import net.thucydides.core.statistics.dao.HibernateTestOutcomeHistoryDAO;
 import net.thucydides.core.statistics.dao.TestOutcomeHistoryDAO;
 import net.thucydides.core.statistics.database.LocalDatabase;
@@ -45,6 +51,7 @@ import net.thucydides.core.webdriver.SystemPropertiesConfiguration;
 import net.thucydides.core.webdriver.ThucydidesElementProxyCreator;
 import net.thucydides.core.webdriver.ThucydidesWebdriverManager;
 import net.thucydides.core.webdriver.WebdriverManager;
+import net.thucydides.core.webdriver.WebdriverPool;
 import net.thucydides.core.webdriver.smart.SmartElementProxyCreator;
 
 import org.slf4j.Logger;
@@ -61,6 +68,10 @@ public class ThucydidesModule extends AbstractModule {
     private static final ThreadLocal<EntityManager> ENTITY_MANAGER_CACHE
             = new ThreadLocal<EntityManager>();
 
+    private static final String SINGLE_THREAD = "SINGLE_THREAD";
+    private static final String MULTITHREAD = "MULTITHREAD";
+    private static final String FILE_STATISTICS_STORE = "files";
+
     private final Logger LOGGER = LoggerFactory.getLogger(ThucydidesModule.class);
 
     @Override
@@ -73,10 +84,9 @@ public class ThucydidesModule extends AbstractModule {
         bind(WebdriverManager.class).to(ThucydidesWebdriverManager.class).in(Singleton.class);
         bind(BatchManager.class).to(SystemVariableBasedBatchManager.class);
         bind(LinkGenerator.class).to(SaucelabsLinkGenerator.class);
-        bind(ScreenshotProcessor.class).to(SingleThreadScreenshotProcessor.class).in(Singleton.class);
 
         bind(DatabaseConfig.class).to(EnvironmentVariablesDatabaseConfig.class).in(Singleton.class);
-        bind(TestOutcomeHistoryDAO.class).to(HibernateTestOutcomeHistoryDAO.class).in(Singleton.class);
+        bind(TestOutcomeHistoryDAO.class).toProvider(TestOutcomeHistoryDAOProvider.class).in(Singleton.class);
         bind(TestStatisticsProvider.class).to(HibernateTestStatisticsProvider.class).in(Singleton.class);
         bind(TagProviderService.class).to(ClasspathTagProviderService.class).in(Singleton.class);
         bind(RequirementsProviderService.class).to(ClasspathRequirementsProviderService.class).in(Singleton.class);
@@ -85,6 +95,8 @@ public class ThucydidesModule extends AbstractModule {
         bind(StepListener.class).annotatedWith(Statistics.class).to(StatisticsListener.class).in(Singleton.class);
         bind(StepListener.class).annotatedWith(ThucydidesLogging.class).to(ConsoleLoggingListener.class).in(Singleton.class);
         bind(ElementProxyCreator.class).to(SmartElementProxyCreator.class).in(Singleton.class);
+        bind(WebdriverPool.class).in(Singleton.class);
+        bind(HistoricalTestOrder.class).in(Singleton.class);
     }
 
     @Provides
@@ -104,6 +116,43 @@ public class ThucydidesModule extends AbstractModule {
         return environmentVariables;
     }
 
+    @Provides
+    @Singleton
+    @Inject
+    public ScreenshotProcessor provideScreenshotProcessor(EnvironmentVariables environmentVariables) {
+        String screenshotProcessor = ThucydidesSystemProperty.SCREENSHOT_PROCESSOR.from(environmentVariables, SINGLE_THREAD);
+        if (screenshotProcessor.equalsIgnoreCase(MULTITHREAD)) {
+            return new MultithreadScreenshotProcessor(environmentVariables);
+        } else {
+            return new SingleThreadScreenshotProcessor(environmentVariables);
+        }
+    }
+
+    /**
+     * Test statistics are stored in the statistics database unless the thucydides.statistics.store property
+     * is set to "files". The database is only started if it is needed.
+     */
+    public static class TestOutcomeHistoryDAOProvider implements Provider<TestOutcomeHistoryDAO> {
+
+        private final Injector injector;
+        private final EnvironmentVariables environmentVariables;
+
+        @Inject
+        public TestOutcomeHistoryDAOProvider(Injector injector, EnvironmentVariables environmentVariables) {
+            this.injector = injector;
+            this.environmentVariables = environmentVariables;
+        }
+
+        public TestOutcomeHistoryDAO get() {
+            String statisticsStore = ThucydidesSystemProperty.STATISTICS_STORE.from(environmentVariables, "database");
+            if (statisticsStore.equalsIgnoreCase(FILE_STATISTICS_STORE)) {
+                return injector.getInstance(FileTestOutcomeHistoryDAO.class);
+            } else {
+                return injector.getInstance(HibernateTestOutcomeHistoryDAO.class);
+            }
+        }
+    }
+
     @Provides
     @Singleton
     @Inject
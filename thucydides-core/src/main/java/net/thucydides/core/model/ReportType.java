@@ -11,7 +11,10 @@ public enum ReportType {
     XML("xml"),
 
     /** HTML reports. */
-    HTML("html");
+    HTML("html"),
+
+    /** Compact binary test outcomes, used for aggregate reporting. */
+    BINARY("outcome");
 
     private String suffix;
 
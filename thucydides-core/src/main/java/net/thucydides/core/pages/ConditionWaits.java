@@ -0,0 +1,40 @@
+package net.thucydides.core.pages;
+
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.scheduling.AdaptiveFluentWait;
+import net.thucydides.core.scheduling.DomMutationWait;
+import net.thucydides.core.scheduling.NormalFluentWait;
+import net.thucydides.core.scheduling.ThucydidesFluentWait;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Clock;
+import org.openqa.selenium.support.ui.Sleeper;
+
+/**
+ * Creates the waits returned by waitForCondition().
+ * These waits poll at the fixed interval given to pollingEvery(), unless adaptive waits have been enabled,
+ * in which case they start with shorter pauses and back off to that interval (see AdaptiveFluentWait).
+ * The settings are read once, when the ConditionWaits is created, so page objects can keep one for all their waits.
+ */
+class ConditionWaits {
+
+    private final boolean adaptiveWaits;
+    private final DomMutationWait domMutationWait;
+
+    ConditionWaits() {
+        this(Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    ConditionWaits(final EnvironmentVariables environmentVariables) {
+        this.adaptiveWaits = environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.ADAPTIVE_WAITS, false);
+        this.domMutationWait = new DomMutationWait(environmentVariables);
+    }
+
+    ThucydidesFluentWait<WebDriver> newWaitOn(final WebDriver driver, final Clock clock, final Sleeper sleeper) {
+        if (adaptiveWaits) {
+            return new AdaptiveFluentWait<WebDriver>(driver, clock, sleeper, domMutationWait);
+        }
+        return new NormalFluentWait<WebDriver>(driver, clock, sleeper);
+    }
+}
@@ -0,0 +1,100 @@
+package net.thucydides.core.pages;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A snapshot of the state of a web element, as it was when it was read.
+ * Element states are read in a single round trip to the browser by an ElementStateQuery, so a page can check
+ * many elements without one WebDriver call for each property of each element.
+ */
+public class ElementState {
+
+    private final boolean present;
+    private final boolean visible;
+    private final boolean enabled;
+    private final boolean selected;
+    private final String tagName;
+    private final String text;
+    private final String value;
+    private final List<String> selectOptions;
+
+    private static final ElementState NOT_PRESENT
+            = new ElementState(false, false, false, false, "", "", null, Collections.<String>emptyList());
+
+    ElementState(final boolean present, final boolean visible, final boolean enabled, final boolean selected,
+                 final String tagName, final String text, final String value, final List<String> selectOptions) {
+        this.present = present;
+        this.visible = visible;
+        this.enabled = enabled;
+        this.selected = selected;
+        this.tagName = tagName;
+        this.text = text;
+        this.value = value;
+        this.selectOptions = ImmutableList.copyOf(selectOptions);
+    }
+
+    static ElementState notPresent() {
+        return NOT_PRESENT;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isSelected() {
+        return selected;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    /**
+     * The visible text of the element, or an empty string if the element is not visible.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * The value of a form field, or null for elements with no value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * The labels of the options of a dropdown list, or an empty list for other elements.
+     */
+    public List<String> getSelectOptions() {
+        return selectOptions;
+    }
+
+    public boolean containsText(final String value) {
+        return text.contains(value);
+    }
+
+    public boolean containsSelectOption(final String value) {
+        return selectOptions.contains(value);
+    }
+
+    @Override
+    public String toString() {
+        if (!present) {
+            return "<not present>";
+        }
+        return "<" + tagName + (visible ? "" : " hidden") + (enabled ? "" : " disabled") + (selected ? " selected" : "")
+                + (value == null ? "" : " value='" + value + "'") + ">" + text;
+    }
+}
@@ -0,0 +1,164 @@
+package net.thucydides.core.pages;
+
+import ch.lambdaj.function.convert.Converter;
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.io.Resources;
+import net.thucydides.core.webdriver.ImmediateElementLookup;
+import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static ch.lambdaj.Lambda.convert;
+import static net.thucydides.core.webdriver.javascript.JavascriptSupport.javascriptIsSupportedIn;
+
+/**
+ * Reads the current state of a number of web elements in a single round trip to the browser.
+ * Elements are looked up without waiting for them to appear, and elements that are not on the page are
+ * reported as not present. If the driver does not support Javascript, each element is read in the usual way.
+ */
+public class ElementStateQuery {
+
+    private static final String ELEMENT_STATES_SCRIPT = "pages/element-states.js";
+
+    private static String elementStatesScript;
+
+    private final WebDriver driver;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElementStateQuery.class);
+
+    public ElementStateQuery(final WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * The state of each of the elements, in the same order as the elements.
+     */
+    public List<ElementState> statesOf(final List<? extends WebElement> elements) {
+        List<WebElement> locatedElements = new ArrayList<WebElement>();
+        for (WebElement element : elements) {
+            locatedElements.add(locate(element));
+        }
+        Optional<List<ElementState>> states = readInOneQuery(locatedElements);
+        if (states.isPresent()) {
+            return states.get();
+        }
+        return readOneByOne(locatedElements);
+    }
+
+    private WebElement locate(final WebElement element) {
+        try {
+            return ImmediateElementLookup.locate(element);
+        } catch (NoSuchElementException elementNotOnThePage) {
+            return null;
+        }
+    }
+
+    private Optional<List<ElementState>> readInOneQuery(final List<WebElement> locatedElements) {
+        if (driver == null || !javascriptIsSupportedIn(driver)) {
+            return Optional.absent();
+        }
+        List<WebElement> presentElements = new ArrayList<WebElement>();
+        for (WebElement element : locatedElements) {
+            if (element != null) {
+                presentElements.add(element);
+            }
+        }
+        try {
+            List<ElementState> presentElementStates = presentElements.isEmpty()
+                    ? Collections.<ElementState>emptyList()
+                    : statesFrom(new JavascriptExecutorFacade(driver).executeScript(getElementStatesScript(),
+                                                                                    presentElements));
+            if (presentElementStates.size() != presentElements.size()) {
+                return Optional.absent();
+            }
+            List<ElementState> states = new ArrayList<ElementState>();
+            int presentElementIndex = 0;
+            for (WebElement element : locatedElements) {
+                states.add((element == null) ? ElementState.notPresent()
+                                             : presentElementStates.get(presentElementIndex++));
+            }
+            return Optional.of(states);
+        } catch (Throwable e) {
+            LOGGER.debug("Could not read the element states in one query: " + e.getMessage());
+            return Optional.absent();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ElementState> statesFrom(final Object scriptResult) {
+        if (!(scriptResult instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<ElementState> states = new ArrayList<ElementState>();
+        for (Object state : (List<Object>) scriptResult) {
+            Map<String, Object> fields = (Map<String, Object>) state;
+            states.add(new ElementState(true,
+                                        Boolean.TRUE.equals(fields.get("visible")),
+                                        Boolean.TRUE.equals(fields.get("enabled")),
+                                        Boolean.TRUE.equals(fields.get("selected")),
+                                        (String) fields.get("tagName"),
+                                        (String) fields.get("text"),
+                                        (String) fields.get("value"),
+                                        (List<String>) fields.get("options")));
+        }
+        return states;
+    }
+
+    private List<ElementState> readOneByOne(final List<WebElement> locatedElements) {
+        List<ElementState> states = new ArrayList<ElementState>();
+        for (WebElement element : locatedElements) {
+            states.add(stateOf(element));
+        }
+        return states;
+    }
+
+    private ElementState stateOf(final WebElement element) {
+        if (element == null) {
+            return ElementState.notPresent();
+        }
+        try {
+            boolean visible = element.isDisplayed();
+            String tagName = element.getTagName();
+            return new ElementState(true,
+                                    visible,
+                                    element.isEnabled(),
+                                    element.isSelected(),
+                                    tagName,
+                                    visible ? element.getText() : "",
+                                    element.getAttribute("value"),
+                                    selectOptionsOf(element, tagName));
+        } catch (StaleElementReferenceException elementNoLongerOnThePage) {
+            return ElementState.notPresent();
+        }
+    }
+
+    private List<String> selectOptionsOf(final WebElement element, final String tagName) {
+        if (!"select".equalsIgnoreCase(tagName)) {
+            return Collections.emptyList();
+        }
+        return convert(element.findElements(By.tagName("option")), new Converter<WebElement, String>() {
+            public String convert(WebElement from) {
+                return from.getText();
+            }
+        });
+    }
+
+    private static synchronized String getElementStatesScript() throws IOException {
+        if (elementStatesScript == null) {
+            elementStatesScript = Resources.toString(Resources.getResource(ELEMENT_STATES_SCRIPT), Charsets.UTF_8);
+        }
+        return elementStatesScript;
+    }
+}
@@ -9,7 +9,6 @@ import net.thucydides.core.pages.components.Dropdown;
 import net.thucydides.core.pages.components.FileToUpload;
 import net.thucydides.core.pages.jquery.JQueryEnabledPage;
 import net.thucydides.core.scheduling.FluentWaitWithRefresh;
-import net.thucydides.core.scheduling.NormalFluentWait;
 import net.thucydides.core.scheduling.ThucydidesFluentWait;
 import net.thucydides.core.steps.StepDelayer;
 import net.thucydides.core.steps.StepEventBus;
@@ -41,6 +40,7 @@ import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -81,6 +81,7 @@ public abstract class PageObject {
     private final Sleeper sleeper;
     private final Clock webdriverClock;
     private final JavascriptExecutorFacade javascriptExecutorFacade;
+    private final ConditionWaits conditionWaits;
 
     private boolean jquerySupportActivated = false;
 
@@ -90,6 +91,7 @@ public abstract class PageObject {
         this.sleeper = Sleeper.SYSTEM_SLEEPER;
         this.driver = driver;
         this.javascriptExecutorFacade = new JavascriptExecutorFacade(driver);
+        this.conditionWaits = new ConditionWaits();
 
         setupPageUrls();
         callback.apply(this); //need to handle return value
@@ -151,7 +153,7 @@ public abstract class PageObject {
 
     protected RenderedPageObjectView getRenderedView() {
         if (renderedView == null) {
-            renderedView = new RenderedPageObjectView(driver, waitForTimeoutInMilliseconds);
+            renderedView = new RenderedPageObjectView(driver, waitForTimeoutInMilliseconds, conditionWaits);
         }
         return renderedView;
     }
@@ -721,6 +723,25 @@ public abstract class PageObject {
         return convert(matchingWebElements, toWebElementFacades());
     }
 
+    /**
+     * Reads the current state of several elements in a single round trip to the browser,
+     * rather than asking the browser about each property of each element in turn.
+     */
+    public List<ElementState> getElementStates(WebElement... webElements) {
+        return getElementStates(Arrays.asList(webElements));
+    }
+
+    public List<ElementState> getElementStates(List<? extends WebElement> webElements) {
+        return new ElementStateQuery(driver).statesOf(webElements);
+    }
+
+    /**
+     * Reads the current state of all the elements matching a selector in a single round trip to the browser.
+     */
+    public List<ElementState> getElementStates(By bySelector) {
+        return getElementStates(driver.findElements(bySelector));
+    }
+
     private Converter<WebElement, WebElementFacadeImpl> toWebElementFacades() {
         return new Converter<WebElement, WebElementFacadeImpl>() {
             public WebElementFacadeImpl convert(WebElement from) {
@@ -807,7 +828,7 @@ public abstract class PageObject {
     }
 
     public ThucydidesFluentWait<WebDriver> waitForCondition() {
-        return new NormalFluentWait<WebDriver>(driver, webdriverClock, sleeper)
+        return conditionWaits.newWaitOn(driver, webdriverClock, sleeper)
                 .withTimeout(waitForTimeoutInMilliseconds, TimeUnit.MILLISECONDS)
                 .pollingEvery(WAIT_FOR_ELEMENT_PAUSE_LENGTH, TimeUnit.MILLISECONDS)
                 .ignoring(NoSuchElementException.class, NoSuchFrameException.class);
@@ -1,6 +1,5 @@
 package net.thucydides.core.pages;
 
-import net.thucydides.core.scheduling.NormalFluentWait;
 import net.thucydides.core.scheduling.ThucydidesFluentWait;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.openqa.selenium.By;
@@ -33,6 +32,7 @@ class RenderedPageObjectView {
     private transient long waitForTimeoutInMilliseconds;
     private final Clock webdriverClock;
     private final Sleeper sleeper;
+    private final ConditionWaits conditionWaits;
 
     private static final int WAIT_FOR_ELEMENT_PAUSE_LENGTH = 50;
 
@@ -40,14 +40,19 @@ class RenderedPageObjectView {
             .getLogger(RenderedPageObjectView.class);
 
     public RenderedPageObjectView(final WebDriver driver, final long waitForTimeout) {
+        this(driver, waitForTimeout, new ConditionWaits());
+    }
+
+    RenderedPageObjectView(final WebDriver driver, final long waitForTimeout, final ConditionWaits conditionWaits) {
         this.driver = driver;
         this.waitForTimeoutInMilliseconds = waitForTimeout;
         this.webdriverClock = new SystemClock();
         this.sleeper = Sleeper.SYSTEM_SLEEPER;
+        this.conditionWaits = conditionWaits;
     }
 
     public ThucydidesFluentWait<WebDriver> waitForCondition() {
-        return new NormalFluentWait<WebDriver>(driver, webdriverClock, sleeper)
+        return conditionWaits.newWaitOn(driver, webdriverClock, sleeper)
                 .withTimeout(waitForTimeoutInMilliseconds, TimeUnit.MILLISECONDS)
                 .pollingEvery(WAIT_FOR_ELEMENT_PAUSE_LENGTH, TimeUnit.MILLISECONDS)
                 .ignoring(NoSuchElementException.class, NoSuchFrameException.class);
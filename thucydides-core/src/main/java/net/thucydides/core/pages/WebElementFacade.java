@@ -59,15 +59,21 @@ public interface WebElementFacade extends WebElement, WrapsElement, Locatable{
 	/**
 	 * Is this web element present and visible on the screen
 	 * This method will not throw an exception if the element is not on the screen at all.
-	 * The method will fail immediately if the element is not visible on the screen.
-	 * There is a little black magic going on here - the web element class will detect if it is being called
-	 * by a method called "isCurrently*" and, if so, fail immediately without waiting as it would normally do.
+	 * The method will fail immediately if the element is not visible on the screen,
+	 * without waiting for the element to appear as it would normally do.
 	 */
 	@DelayElementLocation
 	public abstract boolean isCurrentlyVisible();
 
 	public abstract boolean isCurrentlyEnabled();
 
+	/**
+	 * The current state of this element (visibility, text, value and so on), read in a single round trip to the
+	 * browser. The element is not waited for: if it is not on the screen, the state says it is not present.
+	 */
+	@DelayElementLocation
+	public abstract ElementState getState();
+
 	/**
 	 * Checks whether a web element is visible.
 	 * Throws an AssertionError if the element is not rendered.
@@ -11,6 +11,7 @@ import net.thucydides.core.steps.StepEventBus;
 import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.util.SystemEnvironmentVariables;
 import net.thucydides.core.webdriver.Configuration;
+import net.thucydides.core.webdriver.ImmediateElementLookup;
 import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.By;
@@ -230,26 +231,40 @@ public class WebElementFacadeImpl implements WebElementFacade {
      * Is this web element present and visible on the screen
      * This method will not throw an exception if the element is not on the screen at all.
      * The method will fail immediately if the element is not visible on the screen.
-     * There is a little black magic going on here - the web element class will detect if it is being called
-     * by a method called "isCurrently*" and, if so, fail immediately without waiting as it would normally do.
+     * The element locators look the element up immediately while this method runs, rather than waiting
+     * for it to appear as they would normally do.
      */
     @Override
     @DelayElementLocation
 	public boolean isCurrentlyVisible() {
-        return isVisible();
+        ImmediateElementLookup.start();
+        try {
+            return isVisible();
+        } finally {
+            ImmediateElementLookup.finish();
+        }
     }
 
     @Override
 	public boolean isCurrentlyEnabled() {
+        ImmediateElementLookup.start();
         try {
             return getElement().isEnabled();
         } catch (NoSuchElementException e) {
             return false;
         } catch (StaleElementReferenceException se) {
             return false;
+        } finally {
+            ImmediateElementLookup.finish();
         }
     }
 
+    @Override
+    @DelayElementLocation
+    public ElementState getState() {
+        return new ElementStateQuery(driver).statesOf(ImmutableList.of(this)).get(0);
+    }
+
     /**
      * Checks whether a web element is visible.
      * Throws an AssertionError if the element is not rendered.
@@ -571,10 +586,13 @@ public class WebElementFacadeImpl implements WebElementFacade {
             return this;
         }
 
+        ImmediateElementLookup.start();
         try {
             waitForCondition().until(elementIsDisplayed());
         } catch (Throwable error) {
             throwErrorWithCauseIfPresent(error, error.getMessage());
+        } finally {
+            ImmediateElementLookup.finish();
         }
         return this;
     }
@@ -714,11 +732,14 @@ public class WebElementFacadeImpl implements WebElementFacade {
             return this;
         }
 
+        ImmediateElementLookup.start();
         try {
             waitForCondition().until(elementIsEnabled());
             return this;
         } catch (TimeoutException timeout) {
             throw new ElementNotVisibleException("Expected enabled element " + this + "was not enabled" , timeout);
+        } finally {
+            ImmediateElementLookup.finish();
         }
     }
 
@@ -861,7 +882,7 @@ public class WebElementFacadeImpl implements WebElementFacade {
 	}
 
 	public WebElement getWrappedElement() {
-		return webElement;
+		return getElement();
 	}
 
 	@Override
@@ -1,13 +1,23 @@
 package net.thucydides.core.pages.components;
 
 import ch.lambdaj.function.convert.Converter;
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
 import net.thucydides.core.matchers.BeanMatcher;
+import net.thucydides.core.webdriver.ImmediateElementLookup;
+import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -16,14 +26,21 @@ import java.util.Map;
 
 import static ch.lambdaj.Lambda.by;
 import static ch.lambdaj.Lambda.convert;
+import static net.thucydides.core.webdriver.javascript.JavascriptSupport.javascriptIsSupportedIn;
 
 /**
  * Class designed to make it easier reading from and reasoning about data in HTML tables.
  */
 public class HtmlTable {
+    private static final String TABLE_CONTENTS_SCRIPT = "pages/table-contents.js";
+
+    private static String tableContentsScript;
+
     private final WebElement tableElement;
     private List<String> headings;
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(HtmlTable.class);
+
     public HtmlTable(final WebElement tableElement) {
         this.tableElement = tableElement;
         this.headings = null;
@@ -54,6 +71,61 @@ public class HtmlTable {
         return results;
     }
 
+    /**
+     * Reads the headings and the rows of the table in a single round trip to the browser, rather than asking the
+     * browser for each cell in turn. If the browser cannot run the query, the table is read as in getRows().
+     */
+    public TableContents readContents() {
+        Optional<TableContents> contents = readContentsInOneQuery();
+        if (contents.isPresent()) {
+            return contents.get();
+        }
+        return new TableContents(getHeadings(), getRows());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<TableContents> readContentsInOneQuery() {
+        try {
+            WebElement table = ImmediateElementLookup.locate(tableElement);
+            if (!(table instanceof WrapsDriver)) {
+                return Optional.absent();
+            }
+            WebDriver driver = ((WrapsDriver) table).getWrappedDriver();
+            if (driver == null || !javascriptIsSupportedIn(driver)) {
+                return Optional.absent();
+            }
+            Map<String, List<?>> tableContents
+                    = (Map<String, List<?>>) new JavascriptExecutorFacade(driver).executeScript(getTableContentsScript(),
+                                                                                               table);
+            return Optional.of(tableContentsFrom(tableContents));
+        } catch (Throwable e) {
+            LOGGER.debug("Could not read the table contents in one query: " + e.getMessage());
+            return Optional.absent();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private TableContents tableContentsFrom(final Map<String, List<?>> tableContents) {
+        List<String> headingValues = (List<String>) tableContents.get("headings");
+        if (headings == null) {
+            headings = headingValues.isEmpty() ? (List<String>) tableContents.get("firstRow") : headingValues;
+        }
+        List<List<String>> rowValues = new ArrayList<List<String>>();
+        for (List<String> cellValues : (List<List<String>>) tableContents.get("rows")) {
+            if (cellValues.size() >= headings.size()) {
+                rowValues.add(cellValues);
+            }
+        }
+        if (!rowValues.isEmpty() && rowValues.get(0).subList(0, headings.size()).equals(headings)) {
+            rowValues.remove(0);
+        }
+        List<Map<Object, String>> rows = new ArrayList<Map<Object, String>>();
+        for (List<String> cellValues : rowValues) {
+            rows.add(rowDataFromCellValues(cellValues, headings));
+        }
+        return new TableContents(headings, rows);
+    }
+
     public WebElement findFirstRowWhere(final BeanMatcher... matchers) {
         List<WebElement> rows = getRowElementsWhere(matchers);
         if (rows.isEmpty()) {
@@ -210,11 +282,19 @@ public class HtmlTable {
 
 
     private Map<Object,String> rowDataFrom(List<WebElement> cells, List<String> headings) {
+        List<String> cellValues = new ArrayList<String>();
+        for (int column = 0; column < headings.size(); column++) {
+            cellValues.add(cellValueAt(column, cells));
+        }
+        return rowDataFromCellValues(cellValues, headings);
+    }
+
+    private Map<Object,String> rowDataFromCellValues(List<String> cellValues, List<String> headings) {
         Map<Object,String> rowData = new HashMap<Object, String>();
 
         int column = 0;
         for (String heading : headings) {
-            String cell = cellValueAt(column++, cells);
+            String cell = cellValues.get(column++);
             if (!StringUtils.isEmpty(heading)) {
                 rowData.put(heading, cell);
             }
@@ -239,6 +319,13 @@ public class HtmlTable {
         };
     }
 
+    private static synchronized String getTableContentsScript() throws IOException {
+        if (tableContentsScript == null) {
+            tableContentsScript = Resources.toString(Resources.getResource(TABLE_CONTENTS_SCRIPT), Charsets.UTF_8);
+        }
+        return tableContentsScript;
+    }
+
     public static List<Map<Object, String>> rowsFrom(final WebElement table) {
         return new HtmlTable(table).getRows();
     }
@@ -0,0 +1,54 @@
+package net.thucydides.core.pages.components;
+
+import com.google.common.collect.ImmutableList;
+import net.thucydides.core.matchers.BeanMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of the headings and rows of an HTML table, as read by HtmlTable.readContents().
+ * Rows are maps of cell values, keyed both by heading and by column number (starting at 1), as in HtmlTable.getRows().
+ */
+public class TableContents {
+
+    private final List<String> headings;
+    private final List<Map<Object, String>> rows;
+
+    public TableContents(final List<String> headings, final List<Map<Object, String>> rows) {
+        this.headings = ImmutableList.copyOf(headings);
+        this.rows = ImmutableList.copyOf(rows);
+    }
+
+    public List<String> getHeadings() {
+        return headings;
+    }
+
+    public List<Map<Object, String>> getRows() {
+        return rows;
+    }
+
+    public List<Map<Object, String>> getRowsWhere(final BeanMatcher... matchers) {
+        List<Map<Object, String>> matchingRows = new ArrayList<Map<Object, String>>();
+        for (Map<Object, String> row : rows) {
+            if (matches(row, matchers)) {
+                matchingRows.add(row);
+            }
+        }
+        return matchingRows;
+    }
+
+    public boolean containsRowsWhere(final BeanMatcher... matchers) {
+        return !getRowsWhere(matchers).isEmpty();
+    }
+
+    private boolean matches(final Map<Object, String> row, final BeanMatcher[] matchers) {
+        for (BeanMatcher matcher : matchers) {
+            if (!matcher.matches(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
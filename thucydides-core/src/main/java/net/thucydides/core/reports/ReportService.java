@@ -1,6 +1,10 @@
 package net.thucydides.core.reports;
 
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.binary.BinaryTestOutcomeReporter;
+import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.webdriver.Configuration;
 import sun.misc.Service;
 
@@ -87,6 +91,13 @@ public class ReportService {
      * @return a list of default reporters.
      */
     public static List<AcceptanceTestReporter> getDefaultReporters() {
+        return getDefaultReporters(Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    /**
+     * The default reporters, plus the binary reporter if binary reports have been enabled.
+     */
+    public static List<AcceptanceTestReporter> getDefaultReporters(final EnvironmentVariables environmentVariables) {
         List<AcceptanceTestReporter> reporters = new ArrayList<AcceptanceTestReporter>();
 
         Iterator<?> reporterImplementations = Service.providers(AcceptanceTestReporter.class);
@@ -94,6 +105,9 @@ public class ReportService {
         while (reporterImplementations.hasNext()) {
             reporters.add((AcceptanceTestReporter)reporterImplementations.next());
         }
+        if (environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.BINARY_REPORTS, false)) {
+            reporters.add(new BinaryTestOutcomeReporter());
+        }
         return reporters;
     }
 
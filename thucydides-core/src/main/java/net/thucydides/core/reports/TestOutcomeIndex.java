@@ -0,0 +1,218 @@
+package net.thucydides.core.reports;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import net.thucydides.core.model.DataTableRow;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestTag;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Inverted indexes over a set of test outcomes, from tag types, tags and results to the matching outcomes,
+ * along with the test and step counts for each result.
+ * The index is built in a single pass over the outcomes, so that the report templates can drill down
+ * into a set of test outcomes without scanning every outcome and every tag each time.
+ * Tag names are indexed in lower case, as tag names are compared without regard to case.
+ */
+class TestOutcomeIndex {
+
+    private final List<String> tagTypes;
+    private final List<String> tagNames;
+    private final List<TestTag> tags;
+    private final Map<String, List<String>> tagNamesByType;
+
+    private final ImmutableListMultimap<String, TestOutcome> outcomesByTagType;
+    private final ImmutableListMultimap<String, TestOutcome> outcomesByTagName;
+    private final ImmutableListMultimap<TestTag, TestOutcome> outcomesByTag;
+    private final ImmutableListMultimap<TestResult, TestOutcome> outcomesByResult;
+
+    private final Map<TestResult, Integer> testCountsByResult;
+    private final Map<TestResult, Integer> stepCountsByResult;
+    private final int stepCount;
+    private final int testCount;
+    private final int implementedTestCount;
+
+    TestOutcomeIndex(List<? extends TestOutcome> outcomes) {
+        SortedSet<String> allTagTypes = new TreeSet<String>();
+        SortedSet<String> allTagNames = new TreeSet<String>();
+        Set<TestTag> allTags = Sets.newLinkedHashSet();
+        Map<String, SortedSet<String>> allTagNamesByType = new TreeMap<String, SortedSet<String>>();
+
+        ImmutableListMultimap.Builder<String, TestOutcome> byTagType = ImmutableListMultimap.builder();
+        ImmutableListMultimap.Builder<String, TestOutcome> byTagName = ImmutableListMultimap.builder();
+        ImmutableListMultimap.Builder<TestTag, TestOutcome> byTag = ImmutableListMultimap.builder();
+        ImmutableListMultimap.Builder<TestResult, TestOutcome> byResult = ImmutableListMultimap.builder();
+
+        Map<TestResult, Integer> testCounts = new EnumMap<TestResult, Integer>(TestResult.class);
+        Map<TestResult, Integer> stepCounts = new EnumMap<TestResult, Integer>(TestResult.class);
+        int totalSteps = 0;
+        int totalTests = 0;
+        int totalImplementedTests = 0;
+
+        for (TestOutcome outcome : outcomes) {
+            Set<String> outcomeTagTypes = Sets.newHashSet();
+            Set<String> outcomeTagNames = Sets.newHashSet();
+            for (TestTag tag : outcome.getTags()) {
+                String tagType = tag.getType().toLowerCase();
+                String tagName = tag.getName().toLowerCase();
+                allTagTypes.add(tagType);
+                allTagNames.add(tagName);
+                allTags.add(tag);
+                tagNamesOfType(allTagNamesByType, tagType).add(tagName);
+
+                if (outcomeTagTypes.add(tag.getType())) {
+                    byTagType.put(tag.getType(), outcome);
+                }
+                if (outcomeTagNames.add(tagName)) {
+                    byTagName.put(tagName, outcome);
+                }
+                byTag.put(tag, outcome);
+            }
+
+            TestResult result = outcome.getResult();
+            byResult.put(result, outcome);
+
+            int nestedStepCount = outcome.getNestedStepCount();
+            if (outcome.isDataDriven()) {
+                addDataRowCounts(outcome, nestedStepCount, testCounts, stepCounts);
+            } else {
+                increment(testCounts, result, 1);
+                increment(stepCounts, result, nestedStepCount);
+            }
+            totalSteps += nestedStepCount;
+            totalTests += outcome.getTestCount();
+            totalImplementedTests += outcome.getImplementedTestCount();
+        }
+
+        this.tagTypes = ImmutableList.copyOf(allTagTypes);
+        this.tagNames = ImmutableList.copyOf(allTagNames);
+        this.tags = ImmutableList.copyOf(allTags);
+        this.tagNamesByType = immutableCopyOf(allTagNamesByType);
+        this.outcomesByTagType = byTagType.build();
+        this.outcomesByTagName = byTagName.build();
+        this.outcomesByTag = byTag.build();
+        this.outcomesByResult = byResult.build();
+        this.testCountsByResult = testCounts;
+        this.stepCountsByResult = stepCounts;
+        this.stepCount = totalSteps;
+        this.testCount = totalTests;
+        this.implementedTestCount = totalImplementedTests;
+    }
+
+    /**
+     * Each row of a data-driven test counts as a test, and the steps of the test are shared out between the rows.
+     */
+    private void addDataRowCounts(TestOutcome outcome, int nestedStepCount,
+                                  Map<TestResult, Integer> testCounts,
+                                  Map<TestResult, Integer> stepCounts) {
+        Map<TestResult, Integer> rowCounts = new EnumMap<TestResult, Integer>(TestResult.class);
+        List<DataTableRow> rows = outcome.getDataTable().getRows();
+        for (DataTableRow row : rows) {
+            increment(rowCounts, row.getResult(), 1);
+        }
+        for (Map.Entry<TestResult, Integer> rowCount : rowCounts.entrySet()) {
+            increment(testCounts, rowCount.getKey(), rowCount.getValue());
+            increment(stepCounts, rowCount.getKey(), nestedStepCount * rowCount.getValue() / rows.size());
+        }
+    }
+
+    private static SortedSet<String> tagNamesOfType(Map<String, SortedSet<String>> tagNamesByType, String tagType) {
+        SortedSet<String> tagNames = tagNamesByType.get(tagType);
+        if (tagNames == null) {
+            tagNames = new TreeSet<String>();
+            tagNamesByType.put(tagType, tagNames);
+        }
+        return tagNames;
+    }
+
+    private static void increment(Map<TestResult, Integer> counts, TestResult result, int amount) {
+        Integer count = counts.get(result);
+        counts.put(result, (count == null) ? amount : count + amount);
+    }
+
+    private static Map<String, List<String>> immutableCopyOf(Map<String, SortedSet<String>> tagNamesByType) {
+        ImmutableMap.Builder<String, List<String>> copy = ImmutableMap.builder();
+        for (Map.Entry<String, SortedSet<String>> entry : tagNamesByType.entrySet()) {
+            copy.put(entry.getKey(), ImmutableList.copyOf(entry.getValue()));
+        }
+        return copy.build();
+    }
+
+    /**
+     * @return the different tag types, in lower case and in alphabetical order.
+     */
+    public List<String> getTagTypes() {
+        return tagTypes;
+    }
+
+    /**
+     * @return the different tag names, in lower case and in alphabetical order.
+     */
+    public List<String> getTagNames() {
+        return tagNames;
+    }
+
+    public List<TestTag> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return the names of the tags of a given type, in lower case and in alphabetical order.
+     */
+    public List<String> getTagNamesOfType(String tagType) {
+        List<String> tagNamesOfType = tagNamesByType.get(tagType.toLowerCase());
+        return (tagNamesOfType == null) ? Collections.<String>emptyList() : tagNamesOfType;
+    }
+
+    public List<TestOutcome> getOutcomesWithTagType(String tagType) {
+        return outcomesByTagType.get(tagType);
+    }
+
+    public List<TestOutcome> getOutcomesWithTagName(String tagName) {
+        return outcomesByTagName.get(tagName.toLowerCase());
+    }
+
+    public List<TestOutcome> getOutcomesWithTag(TestTag tag) {
+        return outcomesByTag.get(tag);
+    }
+
+    public List<TestOutcome> getOutcomesWithResult(TestResult result) {
+        return outcomesByResult.get(result);
+    }
+
+    /**
+     * @return the number of tests with a given result, counting each row of a data-driven test as a test.
+     */
+    public int countTestsWithResult(TestResult result) {
+        Integer count = testCountsByResult.get(result);
+        return (count == null) ? 0 : count;
+    }
+
+    public int countStepsWithResult(TestResult result) {
+        Integer count = stepCountsByResult.get(result);
+        return (count == null) ? 0 : count;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public int getTestCount() {
+        return testCount;
+    }
+
+    public int getImplementedTestCount() {
+        return implementedTestCount;
+    }
+}
@@ -1,51 +1,141 @@
 package net.thucydides.core.reports;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.model.ReportType;
 import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.binary.BinaryTestOutcomeReporter;
 import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.apache.commons.io.FilenameUtils;
 
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Loads test outcomes from a given directory, and reports on their contents.
  * This class is used for aggregate reporting.
+ * Report files are parsed in parallel, a few files ahead of the caller. Callers that only need one outcome at a time
+ * can use outcomesIn() to avoid holding every outcome in memory; loadFrom() and testOutcomesIn() still load them all.
+ * When a test outcome has been stored in both the binary and the XML formats, only the most recently written one is read.
  */
 public class TestOutcomeLoader {
 
+    private static final int READ_AHEAD_PER_THREAD = 4;
+    private static final String XML_SUFFIX = "." + ReportType.XML;
+    private static final String BINARY_SUFFIX = "." + ReportType.BINARY;
+
+    private final EnvironmentVariables environmentVariables;
+    private final XMLTestOutcomeReporter xmlTestOutcomeReporter;
+    private final BinaryTestOutcomeReporter binaryTestOutcomeReporter;
+
+    public TestOutcomeLoader() {
+        this(Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    public TestOutcomeLoader(EnvironmentVariables environmentVariables) {
+        this.environmentVariables = environmentVariables;
+        this.xmlTestOutcomeReporter = new XMLTestOutcomeReporter();
+        this.binaryTestOutcomeReporter = new BinaryTestOutcomeReporter();
+    }
+
     /**
      * Load the test outcomes from a given directory.
-     * @param reportDirectory An existing directory that contains the test outcomes in XML format.
+     * @param reportDirectory An existing directory that contains the test outcomes in binary or XML format.
      * @return The full list of test outcomes.
      * @throws java.io.IOException Thrown if the specified directory was invalid.
      */
     public List<TestOutcome> loadFrom(final File reportDirectory) throws IOException {
+        try {
+            return ImmutableList.copyOf(outcomesIn(reportDirectory));
+        } catch (ReportGenerationFailedError e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
 
-        XMLTestOutcomeReporter testOutcomeReporter = new XMLTestOutcomeReporter();
-
-        List<File> reportFiles = getAllXMLFilesFrom(reportDirectory);
+    /**
+     * Iterate over the test outcomes in a given directory, in the same order as loadFrom().
+     * Outcomes are read lazily: only the files currently being parsed ahead of the iterator are held in memory.
+     * @param reportDirectory An existing directory that contains the test outcomes in binary or XML format.
+     * @throws java.io.IOException Thrown if the specified directory was invalid.
+     */
+    public Iterable<TestOutcome> outcomesIn(final File reportDirectory) throws IOException {
+        final List<File> reportFiles = getAllReportFilesFrom(reportDirectory);
+        return new Iterable<TestOutcome>() {
+            public Iterator<TestOutcome> iterator() {
+                return new ParallelTestOutcomeIterator(reportFiles);
+            }
+        };
+    }
 
-        List<TestOutcome> testOutcomes = Lists.newArrayList();
-        for (File reportFile : reportFiles) {
-            Optional<TestOutcome> testOutcome = testOutcomeReporter.loadReportFrom(reportFile);
-            testOutcomes.addAll(testOutcome.asSet());
+    private List<File> getAllReportFilesFrom(final File reportsDirectory) throws IOException{
+        File[] matchingFiles = reportsDirectory.listFiles(new ReportFilenameFilter());
+        if (matchingFiles == null) {
+            throw new IOException("Could not find directory " + reportsDirectory);
+        }
+        Map<String, File> reportFilesByName = Maps.newLinkedHashMap();
+        for (File reportFile : matchingFiles) {
+            String reportName = FilenameUtils.getBaseName(reportFile.getName());
+            File otherFormat = reportFilesByName.get(reportName);
+            if ((otherFormat == null) || isMoreRecent(reportFile, otherFormat)) {
+                reportFilesByName.put(reportName, reportFile);
+            }
         }
+        return Lists.newArrayList(reportFilesByName.values());
+    }
 
-        return ImmutableList.copyOf(testOutcomes);
+    /**
+     * Binary reports left over from an earlier run must not hide the XML reports of a later one,
+     * so the most recently written format wins. The binary format is preferred when both were written together.
+     */
+    private static boolean isMoreRecent(final File reportFile, final File otherFormat) {
+        long lastModified = reportFile.lastModified();
+        long otherLastModified = otherFormat.lastModified();
+        if (lastModified == otherLastModified) {
+            return isBinary(reportFile);
+        }
+        return lastModified > otherLastModified;
     }
 
+    private static boolean isBinary(final File reportFile) {
+        return reportFile.getName().toLowerCase(Locale.getDefault()).endsWith(BINARY_SUFFIX);
+    }
 
-    private List<File> getAllXMLFilesFrom(final File reportsDirectory) throws IOException{
-        File[] matchingFiles = reportsDirectory.listFiles(new XmlFilenameFilter());
-        if (matchingFiles == null) {
-            throw new IOException("Could not find directory " + reportsDirectory);
+    private Optional<TestOutcome> loadReportFrom(final File reportFile) throws IOException {
+        if (isBinary(reportFile)) {
+            return binaryTestOutcomeReporter.loadReportFrom(reportFile);
+        } else {
+            return xmlTestOutcomeReporter.loadReportFrom(reportFile);
         }
-        return ImmutableList.copyOf(matchingFiles);
+    }
+
+    private int getLoaderThreads() {
+        int threads = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.REPORT_LOADER_THREADS,
+                                                                Runtime.getRuntime().availableProcessors());
+        return Math.max(threads, 1);
     }
 
     public static TestOutcomes testOutcomesIn(final File reportsDirectory) throws IOException {
@@ -53,9 +143,82 @@ public class TestOutcomeLoader {
         return TestOutcomes.of(loader.loadFrom(reportsDirectory));
     }
 
-    private static final class XmlFilenameFilter implements FilenameFilter {
+    private class ParallelTestOutcomeIterator extends AbstractIterator<TestOutcome> {
+
+        private final Iterator<File> reportFiles;
+        private final Queue<Future<Optional<TestOutcome>>> pendingOutcomes = new LinkedList<Future<Optional<TestOutcome>>>();
+        private final ThreadPoolExecutor executor;
+        private final int readAheadLimit;
+
+        ParallelTestOutcomeIterator(List<File> reportFiles) {
+            int threads = getLoaderThreads();
+            this.reportFiles = reportFiles.iterator();
+            this.readAheadLimit = threads * READ_AHEAD_PER_THREAD;
+            this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS,
+                                                   new LinkedBlockingQueue<Runnable>(),
+                                                   new LoaderThreadFactory());
+            this.executor.allowCoreThreadTimeOut(true);
+            readAhead();
+        }
+
+        @Override
+        protected TestOutcome computeNext() {
+            while (!pendingOutcomes.isEmpty()) {
+                Optional<TestOutcome> testOutcome = waitFor(pendingOutcomes.remove());
+                readAhead();
+                if (testOutcome.isPresent()) {
+                    return testOutcome.get();
+                }
+            }
+            executor.shutdown();
+            return endOfData();
+        }
+
+        private void readAhead() {
+            while ((pendingOutcomes.size() < readAheadLimit) && reportFiles.hasNext()) {
+                final File reportFile = reportFiles.next();
+                pendingOutcomes.add(executor.submit(new Callable<Optional<TestOutcome>>() {
+                    public Optional<TestOutcome> call() throws Exception {
+                        return loadReportFrom(reportFile);
+                    }
+                }));
+            }
+        }
+
+        private Optional<TestOutcome> waitFor(Future<Optional<TestOutcome>> pendingOutcome) {
+            try {
+                return pendingOutcome.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw abort(e);
+            } catch (ExecutionException e) {
+                throw abort(e.getCause());
+            }
+        }
+
+        private ReportGenerationFailedError abort(Throwable cause) {
+            executor.shutdownNow();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            return new ReportGenerationFailedError("Failed to load test outcomes", cause);
+        }
+    }
+
+    private static final class LoaderThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "thucydides-outcome-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static final class ReportFilenameFilter implements FilenameFilter {
         public boolean accept(final File file, final String filename) {
-            return filename.toLowerCase(Locale.getDefault()).endsWith(".xml");
+            String lowercaseFilename = filename.toLowerCase(Locale.getDefault());
+            return lowercaseFilename.endsWith(XML_SUFFIX) || lowercaseFilename.endsWith(BINARY_SUFFIX);
         }
     }
 }
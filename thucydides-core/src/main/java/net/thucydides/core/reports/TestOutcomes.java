@@ -4,7 +4,6 @@ import ch.lambdaj.function.convert.Converter;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.CoverageFormatter;
@@ -16,7 +15,6 @@ import net.thucydides.core.model.TestTag;
 import net.thucydides.core.requirements.model.Requirement;
 import net.thucydides.core.statistics.HibernateTestStatisticsProvider;
 import net.thucydides.core.statistics.TestStatisticsProvider;
-import net.thucydides.core.statistics.With;
 import net.thucydides.core.statistics.model.TestStatistics;
 import net.thucydides.core.webdriver.Configuration;
 import org.apache.commons.lang3.StringUtils;
@@ -27,10 +25,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static ch.lambdaj.Lambda.convert;
-import static ch.lambdaj.Lambda.extract;
 import static ch.lambdaj.Lambda.filter;
 import static ch.lambdaj.Lambda.having;
 import static ch.lambdaj.Lambda.on;
@@ -41,10 +40,6 @@ import static net.thucydides.core.model.TestResult.FAILURE;
 import static net.thucydides.core.model.TestResult.PENDING;
 import static net.thucydides.core.model.TestResult.SKIPPED;
 import static net.thucydides.core.model.TestResult.SUCCESS;
-import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.havingTag;
-import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.havingTagName;
-import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.havingTagType;
-import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.withResult;
 import static org.hamcrest.Matchers.is;
 
 /**
@@ -55,6 +50,8 @@ import static org.hamcrest.Matchers.is;
  * The TestOutcomes object will usually return a list of TestOutcome objects. You can also inject
  * statistics and test run history by using the withHistory() method. This will return a list
  * of TestOutcomeWithHistory instances.
+ * The tags and results of the test outcomes are indexed the first time they are needed, and the filtered
+ * test outcome sets are kept once they have been built, as the reports ask for the same ones many times over.
  */
 public class TestOutcomes {
 
@@ -73,6 +70,14 @@ public class TestOutcomes {
     private final HibernateTestStatisticsProvider testStatisticsProvider;
     private static final Integer DEFAULT_ESTIMATED_TOTAL_STEPS = 3;
 
+    private volatile TestOutcomeIndex index;
+    private volatile List<? extends TestOutcome> sortedOutcomes;
+
+    private final ConcurrentMap<String, TestOutcomes> outcomesByTagType = new ConcurrentHashMap<String, TestOutcomes>();
+    private final ConcurrentMap<String, TestOutcomes> outcomesByTagName = new ConcurrentHashMap<String, TestOutcomes>();
+    private final ConcurrentMap<TestTag, TestOutcomes> outcomesByTag = new ConcurrentHashMap<TestTag, TestOutcomes>();
+    private final ConcurrentMap<String, TestOutcomes> outcomesByResult = new ConcurrentHashMap<String, TestOutcomes>();
+
     @Inject
     protected TestOutcomes(List<? extends TestOutcome> outcomes,
                            double estimatedAverageStepCount,
@@ -124,82 +129,47 @@ public class TestOutcomes {
         return label;
     }
 
+    private TestOutcomeIndex getIndex() {
+        TestOutcomeIndex currentIndex = index;
+        if (currentIndex == null) {
+            currentIndex = new TestOutcomeIndex(outcomes);
+            index = currentIndex;
+        }
+        return currentIndex;
+    }
+
     /**
      * @return The list of all of the different tag types that appear in the test outcomes.
      */
     public List<String> getTagTypes() {
-        Set<String> tagTypes = Sets.newHashSet();
-        for (TestOutcome outcome : outcomes) {
-            addTagTypesFrom(outcome, tagTypes);
-            //tagTypes.addAll(extract(outcome.getTags(), on(TestTag.class).getType().toLowerCase()));
-        }
-        return sort(ImmutableList.copyOf(tagTypes), on(String.class));
+        return getIndex().getTagTypes();
     }
 
     /**
      * @return The list of all the names of the different tags in these test outcomes
      */
     public List<String> getTagNames() {
-        Set<String> tags = Sets.newHashSet();
-        for (TestOutcome outcome : outcomes) {
-            addTagNamesFrom(outcome, tags);
-        }
-        return sort(ImmutableList.copyOf(tags), on(String.class));
-    }
-
-    private void addTagNamesFrom(TestOutcome outcome, Set<String> tags) {
-        for (TestTag tag : outcome.getTags()) {
-            String normalizedForm = tag.getName().toLowerCase();
-            if (!tags.contains(normalizedForm)) {
-                tags.add(normalizedForm);
-            }
-        }
-    }
-
-    private void addTagTypesFrom(TestOutcome outcome, Set<String> tags) {
-        for (TestTag tag : outcome.getTags()) {
-            String normalizedForm = tag.getType().toLowerCase();
-            if (!tags.contains(normalizedForm)) {
-                tags.add(normalizedForm);
-            }
-        }
+        return getIndex().getTagNames();
     }
 
     /**
      * @return The list of all the different tags in these test outcomes
      */
     public List<TestTag> getTags() {
-        Set<TestTag> tags = Sets.newHashSet();
-        for (TestOutcome outcome : outcomes) {
-            tags.addAll(outcome.getTags());
-        }
-        return ImmutableList.copyOf(tags);
+        return getIndex().getTags();
     }
 
     /**
      * @return The list of all the tags associated with a given tag type.
      */
     public List<String> getTagsOfType(String tagType) {
-        Set<String> tags = Sets.newHashSet();
-        for (TestOutcome outcome : outcomes) {
-            tags.addAll(tagsOfType(tagType).in(outcome));
-        }
-        return sort(ImmutableList.copyOf(tags), on(String.class));
+        return getIndex().getTagNamesOfType(tagType);
     }
 
     public List<String> getTagsOfTypeExcluding(String tagType, String excludedTags) {
-        Set<String> tags = Sets.newHashSet();
-
-        for (TestOutcome outcome : outcomes) {
-            List<String> allTagsOfType = tagsOfType(tagType).in(outcome);
-            allTagsOfType.remove(excludedTags.toLowerCase());
-            tags.addAll(allTagsOfType);
-        }
-        return sort(ImmutableList.copyOf(tags), on(String.class));
-    }
-
-    private TagFinder tagsOfType(String tagType) {
-        return new TagFinder(tagType);
+        List<String> tags = Lists.newArrayList(getIndex().getTagNamesOfType(tagType));
+        tags.remove(excludedTags.toLowerCase());
+        return ImmutableList.copyOf(tags);
     }
 
     public TestOutcomes getRootOutcomes() {
@@ -214,24 +184,6 @@ public class TestOutcomes {
         return getTags().contains(testTag);
     }
 
-    private class TagFinder {
-        private final String tagType;
-
-        private TagFinder(String tagType) {
-            this.tagType = tagType;
-        }
-
-        List<String> in(TestOutcome testOutcome) {
-            List<String> matchingTags = Lists.newArrayList();
-            for (TestTag tag : testOutcome.getTags()) {
-                if (tag.getType().compareToIgnoreCase(tagType) == 0) {
-                    matchingTags.add(tag.getName().toLowerCase());
-                }
-            }
-            return matchingTags;
-        }
-    }
-
     /**
      * Find the test outcomes with a given tag type
      *
@@ -239,7 +191,16 @@ public class TestOutcomes {
      * @return A new set of test outcomes for this tag type
      */
     public TestOutcomes withTagType(String tagType) {
-        return TestOutcomes.of(filter(havingTagType(tagType), outcomes)).withLabel(tagType).withRootOutcomes(this.getRootOutcomes());
+        TestOutcomes outcomesWithTagType = outcomesByTagType.get(tagType);
+        if (outcomesWithTagType == null) {
+            outcomesWithTagType = subset(getIndex().getOutcomesWithTagType(tagType), tagType);
+            outcomesByTagType.putIfAbsent(tagType, outcomesWithTagType);
+        }
+        return outcomesWithTagType;
+    }
+
+    private TestOutcomes subset(List<? extends TestOutcome> matchingOutcomes, String label) {
+        return new TestOutcomes(matchingOutcomes, this.estimatedAverageStepCount, label, this.testStatisticsProvider, getRootOutcomes());
     }
 
     private TestOutcomes withRootOutcomes(TestOutcomes rootOutcomes) {
@@ -253,31 +214,43 @@ public class TestOutcomes {
      * @return A new set of test outcomes for this tag name
      */
     public TestOutcomes withTag(String tagName) {
-        return TestOutcomes.of(filter(havingTagName(tagName), outcomes)).withLabel(tagName).withRootOutcomes(getRootOutcomes());
+        TestOutcomes outcomesWithTag = outcomesByTagName.get(tagName);
+        if (outcomesWithTag == null) {
+            outcomesWithTag = subset(getIndex().getOutcomesWithTagName(tagName), tagName);
+            outcomesByTagName.putIfAbsent(tagName, outcomesWithTag);
+        }
+        return outcomesWithTag;
     }
 
     public TestOutcomes withTag(TestTag tag) {
-        return TestOutcomes.of(filter(havingTag(tag), outcomes)).withLabel(tag.getName()).withRootOutcomes(getRootOutcomes());
+        TestOutcomes outcomesWithTag = outcomesByTag.get(tag);
+        if (outcomesWithTag == null) {
+            outcomesWithTag = subset(getIndex().getOutcomesWithTag(tag), tag.getName());
+            outcomesByTag.putIfAbsent(tag, outcomesWithTag);
+        }
+        return outcomesWithTag;
     }
 
     /**
      * Return a copy of the current test outcomes, with test run history and statistics.
+     * The statistics for all the test outcomes are read from the statistics database in one go.
      *
      * @return a TestOutcome instance containing a list of TestOutcomeWithHistory instances.
      */
     public TestOutcomes withHistory() {
-        return TestOutcomes.of(convert(outcomes, toOutcomesWithHistory()));
+        Map<String, TestStatistics> statistics = testStatisticsProvider.statisticsForTestsWithTitles(titlesOf(outcomes));
+        for (TestOutcome testOutcome : outcomes) {
+            testOutcome.setStatistics(statistics.get(testOutcome.getTitle()));
+        }
+        return TestOutcomes.of(outcomes);
     }
 
-    private Converter<TestOutcome, TestOutcome> toOutcomesWithHistory() {
-        return new Converter<TestOutcome, TestOutcome>() {
-
-            public TestOutcome convert(TestOutcome testOutcome) {
-                TestStatistics statistics = testStatisticsProvider.statisticsForTests(With.title(testOutcome.getTitle()));
-                testOutcome.setStatistics(statistics);
-                return testOutcome;
-            }
-        };
+    private List<String> titlesOf(List<? extends TestOutcome> testOutcomes) {
+        List<String> titles = Lists.newArrayList();
+        for (TestOutcome testOutcome : testOutcomes) {
+            titles.add(testOutcome.getTitle());
+        }
+        return titles;
     }
 
     /**
@@ -286,15 +259,38 @@ public class TestOutcomes {
      * @return A new set of test outcomes containing only the failing tests
      */
     public TestOutcomes getFailingTests() {
-        return TestOutcomes.of(filter(withResult(TestResult.FAILURE), outcomes))
-                .withLabel(labelForTestsWithStatus("failing tests"))
-                .withRootOutcomes(getRootOutcomes());
+        return outcomesWithResults("failing tests", FAILURE);
     }
 
     public TestOutcomes getErrorTests() {
-        return TestOutcomes.of(filter(withResult(TestResult.ERROR), outcomes))
-                .withLabel(labelForTestsWithStatus("failing tests"))
-                .withRootOutcomes(getRootOutcomes());
+        return outcomesWithResults("failing tests", ERROR);
+    }
+
+    private TestOutcomes outcomesWithResults(String status, TestResult... possibleResults) {
+        String key = status + Arrays.toString(possibleResults);
+        TestOutcomes outcomesWithResults = outcomesByResult.get(key);
+        if (outcomesWithResults == null) {
+            outcomesWithResults = subset(outcomesWithResults(possibleResults), labelForTestsWithStatus(status));
+            outcomesByResult.putIfAbsent(key, outcomesWithResults);
+        }
+        return outcomesWithResults;
+    }
+
+    /**
+     * The outcomes with any of the given results, in their original order.
+     */
+    private List<TestOutcome> outcomesWithResults(TestResult... possibleResults) {
+        if (possibleResults.length == 1) {
+            return getIndex().getOutcomesWithResult(possibleResults[0]);
+        }
+        List<TestOutcome> validOutcomes = Lists.newArrayList();
+        List<TestResult> possibleResultsList = Arrays.asList(possibleResults);
+        for (TestOutcome outcome : outcomes) {
+            if (possibleResultsList.contains(outcome.getResult())) {
+                validOutcomes.add(outcome);
+            }
+        }
+        return validOutcomes;
     }
 
     private String labelForTestsWithStatus(String status) {
@@ -311,9 +307,7 @@ public class TestOutcomes {
      * @return A new set of test outcomes containing only the successful tests
      */
     public TestOutcomes getPassingTests() {
-        return TestOutcomes.of(filter(withResult(TestResult.SUCCESS), outcomes))
-                .withLabel(labelForTestsWithStatus("passing tests"))
-                .withRootOutcomes(getRootOutcomes());
+        return outcomesWithResults("passing tests", SUCCESS);
     }
 
     /**
@@ -321,33 +315,21 @@ public class TestOutcomes {
      *
      * @return A new set of test outcomes containing only the pending or ignored tests
      */
-    @SuppressWarnings("unchecked")
     public TestOutcomes getPendingTests() {
-
-        List<TestOutcome> pendingOrSkippedOutcomes = outcomesWithResults(outcomes, PENDING, SKIPPED);
-        return TestOutcomes.of(pendingOrSkippedOutcomes)
-                .withLabel(labelForTestsWithStatus("pending tests"))
-                .withRootOutcomes(getRootOutcomes());
-
-    }
-
-    private List<TestOutcome> outcomesWithResults(List<? extends TestOutcome> outcomes,
-                                                  TestResult... possibleResults) {
-        List<TestOutcome> validOutcomes = Lists.newArrayList();
-        List<TestResult> possibleResultsList = Arrays.asList(possibleResults);
-        for(TestOutcome outcome : outcomes) {
-            if (possibleResultsList.contains(outcome.getResult())) {
-                validOutcomes.add(outcome);
-            }
-        }
-        return validOutcomes;
+        return outcomesWithResults("pending tests", PENDING, SKIPPED);
     }
 
     /**
      * @return The list of TestOutcomes contained in this test outcome set.
      */
     public List<? extends TestOutcome> getTests() {
-        return sort(outcomes, on(TestOutcome.class).getTitle());
+        List<? extends TestOutcome> sortedTests = sortedOutcomes;
+        if (sortedTests == null) {
+            List<TestOutcome> sortedByTitle = sort(outcomes, on(TestOutcome.class).getTitle());
+            sortedTests = ImmutableList.copyOf(sortedByTitle);
+            sortedOutcomes = sortedTests;
+        }
+        return sortedTests;
     }
 
     /**
@@ -372,7 +354,7 @@ public class TestOutcomes {
      * @return The total number of test runs in this set (including rows in data-driven tests).
      */
     public int getTotal() {
-        return sum(outcomes, on(TestOutcome.class).getTestCount());
+        return getIndex().getTestCount();
     }
 
     /**
@@ -406,21 +388,21 @@ public class TestOutcomes {
      * @return The total number of nested steps in these test outcomes.
      */
     public int getStepCount() {
-        return sum(extract(outcomes, on(TestOutcome.class).getNestedStepCount())).intValue();
+        return getIndex().getStepCount();
     }
 
     /**
      * @return The number of successful tests in this set.
      */
     public int getSuccessCount() {
-        return sum(outcomes, on(TestOutcome.class).countResults(SUCCESS));
+        return countTestsWithResult(SUCCESS);
     }
 
     /**
      * @return How many test cases contain at least one failing test.
      */
     public int getFailureCount() {
-        return sum(outcomes, on(TestOutcome.class).countResults(FAILURE));
+        return countTestsWithResult(FAILURE);
     }
 
     /**
@@ -428,21 +410,21 @@ public class TestOutcomes {
      * @return how many tests contain at least one test with an error
      */
     public int getErrorCount() {
-        return sum(outcomes, on(TestOutcome.class).countResults(ERROR));
+        return countTestsWithResult(ERROR);
     }
 
     /**
      * @return How many test cases contain at least one pending test.
      */
     public int getPendingCount() {
-        return sum(outcomes, on(TestOutcome.class).countResults(PENDING));
+        return countTestsWithResult(PENDING);
     }
 
     /**
      * @return How many tests have been skipped.
      */
     public int getSkipCount() {
-        return sum(outcomes, on(TestOutcome.class).countResults(SKIPPED));
+        return countTestsWithResult(SKIPPED);
     }
 
     /**
@@ -564,11 +546,11 @@ public class TestOutcomes {
 
 
     private int countStepsWithResult(TestResult expectedResult) {
-        return sum(outcomes, on(TestOutcome.class).countNestedStepsWithResult(expectedResult));
+        return getIndex().countStepsWithResult(expectedResult);
     }
 
     private int countTestsWithResult(TestResult expectedResult) {
-        return sum(outcomes, on(TestOutcome.class).countResults(expectedResult));
+        return getIndex().countTestsWithResult(expectedResult);
     }
 
     private Integer getEstimatedTotalStepCount() {
@@ -609,11 +591,11 @@ public class TestOutcomes {
     }
 
     public int getTestCount() {
-        return sum(outcomes, on(TestOutcome.class).getTestCount());
+        return getIndex().getTestCount();
     }
 
     private int totalImplementedTests() {
-        return sum(outcomes, on(TestOutcome.class).getImplementedTestCount());
+        return getIndex().getImplementedTestCount();
     }
 
     public boolean hasDataDrivenTests() {
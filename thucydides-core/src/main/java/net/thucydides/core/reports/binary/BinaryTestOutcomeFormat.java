@@ -0,0 +1,19 @@
+package net.thucydides.core.reports.binary;
+
+/**
+ * Constants shared by the binary test outcome reader and writer.
+ * Every file starts with a magic number and a format version, so that files written by a different
+ * version of Thucydides can be recognized and skipped rather than misread.
+ */
+final class BinaryTestOutcomeFormat {
+
+    static final int MAGIC_NUMBER = 0x54485543;  // "THUC"
+    static final byte FORMAT_VERSION = 1;
+
+    static final byte TEST_STEP = 0;
+    static final byte TEST_GROUP = 1;
+
+    static final int NULL_LENGTH = -1;
+
+    private BinaryTestOutcomeFormat() {}
+}
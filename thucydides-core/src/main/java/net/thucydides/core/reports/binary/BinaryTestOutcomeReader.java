@@ -0,0 +1,192 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import net.thucydides.core.model.DataTable;
+import net.thucydides.core.model.DataTableRow;
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.model.TestTag;
+import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
+
+import java.io.File;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.*;
+
+/**
+ * Reads a test outcome directly from a buffer in the binary test outcome format.
+ * The buffer is typically a memory-mapped report file, so only the strings themselves are copied out of it.
+ */
+class BinaryTestOutcomeReader {
+
+    private final ByteBuffer buffer;
+
+    BinaryTestOutcomeReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return the test outcome, or nothing if the buffer does not contain a test outcome in a supported version
+     * of the binary format.
+     */
+    public Optional<TestOutcome> read() {
+        try {
+            if ((buffer.remaining() < 5) || (buffer.getInt() != MAGIC_NUMBER) || (buffer.get() != FORMAT_VERSION)) {
+                return Optional.absent();
+            }
+            return Optional.of(readTestOutcome());
+        } catch (BufferUnderflowException e) {
+            return Optional.absent();
+        } catch (IllegalArgumentException e) {
+            return Optional.absent();
+        }
+    }
+
+    private TestOutcome readTestOutcome() {
+        TestOutcome testOutcome = new TestOutcome(readString());
+        testOutcome.setTitle(readString());
+        String qualifier = readString();
+        if (qualifier != null) {
+            testOutcome = testOutcome.withQualifier(qualifier);
+        }
+        TestResult savedTestResult = TestResult.valueOf(readString());
+        testOutcome.setDuration(buffer.getLong());
+        testOutcome.setSessionId(readString());
+
+        readUserStory(testOutcome);
+        for (String issue : readStrings()) {
+            testOutcome.isRelatedToIssue(issue);
+        }
+        readTags(testOutcome);
+        readExamples(testOutcome);
+        readSteps(testOutcome);
+
+        if (testOutcome.getStepCount().equals(0)) {
+            testOutcome.setAnnotatedResult(savedTestResult);
+        }
+        return testOutcome;
+    }
+
+    private void readUserStory(TestOutcome testOutcome) {
+        if (buffer.get() != 0) {
+            String storyId = readString();
+            String storyName = readString();
+            String storyPath = readString();
+            if (buffer.get() != 0) {
+                String featureId = readString();
+                String featureName = readString();
+                testOutcome.setUserStory(Story.withId(storyId, storyName, featureId, featureName));
+            } else {
+                testOutcome.setUserStory(Story.withIdAndPath(storyId, storyName, storyPath));
+            }
+        }
+    }
+
+    private void readTags(TestOutcome testOutcome) {
+        int tagCount = buffer.getInt();
+        if (tagCount > 0) {
+            Set<TestTag> tags = new HashSet<TestTag>();
+            for (int i = 0; i < tagCount; i++) {
+                String name = readString();
+                String type = readString();
+                tags.add(TestTag.withName(name).andType(type));
+            }
+            testOutcome.setTags(tags);
+        }
+    }
+
+    /**
+     * Rows without a recorded result are read as successful, as they are in the XML reports.
+     */
+    private void readExamples(TestOutcome testOutcome) {
+        if (buffer.get() != 0) {
+            List<String> headers = readStrings();
+            int rowCount = buffer.getInt();
+            List<DataTableRow> rows = Lists.newArrayListWithCapacity(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                TestResult result = TestResult.valueOf(readString());
+                DataTableRow row = new DataTableRow(readStrings());
+                if ((result == TestResult.UNDEFINED) && (!row.getValues().isEmpty())) {
+                    result = TestResult.SUCCESS;
+                }
+                row.setResult(result);
+                rows.add(row);
+            }
+            testOutcome.useExamplesFrom(DataTable.withHeaders(headers).andRowData(rows).build());
+        }
+    }
+
+    private void readSteps(TestOutcome testOutcome) {
+        int stepCount = buffer.getInt();
+        for (int i = 0; i < stepCount; i++) {
+            readStep(testOutcome);
+        }
+    }
+
+    private void readStep(TestOutcome testOutcome) {
+        byte stepType = buffer.get();
+        String description = readString();
+        TestResult result = TestResult.valueOf(readString());
+        long duration = buffer.getLong();
+
+        TestStep step = new TestStep(description);
+        step.setResult(result);
+        step.setDuration(duration);
+        readScreenshots(step);
+        testOutcome.recordStep(step);
+
+        if (stepType == TEST_GROUP) {
+            testOutcome.startGroup();
+            readSteps(testOutcome);
+            testOutcome.endGroup();
+        }
+    }
+
+    private void readScreenshots(TestStep step) {
+        int screenshotCount = buffer.getInt();
+        for (int i = 0; i < screenshotCount; i++) {
+            String screenshot = readString();
+            String source = readString();
+            if (source != null) {
+                step.addScreenshot(new ScreenshotAndHtmlSource(new File(screenshot), new File(source)));
+            } else {
+                step.addScreenshot(new ScreenshotAndHtmlSource(new File(screenshot)));
+            }
+        }
+    }
+
+    private List<String> readStrings() {
+        int count = buffer.getInt();
+        List<String> values = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    private String readString() {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if ((length < 0) || (length > buffer.remaining())) {
+            throw new BufferUnderflowException();
+        }
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, Charsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, Charsets.UTF_8);
+    }
+}
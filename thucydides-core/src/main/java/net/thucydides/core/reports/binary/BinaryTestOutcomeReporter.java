@@ -0,0 +1,102 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.io.Files;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.AcceptanceTestReporter;
+import net.thucydides.core.reports.TestOutcomes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static net.thucydides.core.model.ReportType.BINARY;
+
+/**
+ * Stores test outcomes in a compact binary format, which is much faster to load than the XML reports
+ * when generating the aggregate reports.
+ * Binary reports are only written if thucydides.binary.reports is set, in which case the ReportService adds this
+ * reporter to the default reporters.
+ */
+public class BinaryTestOutcomeReporter implements AcceptanceTestReporter {
+
+    /**
+     * Smaller files are cheaper to read into memory than to map.
+     */
+    private static final long MEMORY_MAPPING_THRESHOLD = 64 * 1024;
+
+    private File outputDirectory;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryTestOutcomeReporter.class);
+
+    private transient String qualifier;
+
+    public void setQualifier(final String qualifier) {
+        this.qualifier = qualifier;
+    }
+
+    /**
+     * We don't need any resources for binary reports.
+     */
+    public void setResourceDirectory(final String resourceDirectoryPath) {
+    }
+
+    public String getName() {
+        return "binary";
+    }
+
+    /**
+     * Generate a binary report for a given test run.
+     */
+    public File generateReportFor(final TestOutcome testOutcome, final TestOutcomes allTestOutcomes) throws IOException {
+        Preconditions.checkNotNull(outputDirectory);
+
+        TestOutcome storedTestOutcome = testOutcome.withQualifier(qualifier);
+        File report = new File(getOutputDirectory(), storedTestOutcome.getReportName(BINARY));
+
+        LOGGER.debug("Writing binary report to {}", report.getAbsolutePath());
+        OutputStream output = new BufferedOutputStream(new FileOutputStream(report));
+        try {
+            new BinaryTestOutcomeWriter(output).write(storedTestOutcome);
+        } finally {
+            output.close();
+        }
+        return report;
+    }
+
+    public Optional<TestOutcome> loadReportFrom(final File reportFile) throws IOException {
+        Optional<TestOutcome> testOutcome = new BinaryTestOutcomeReader(contentsOf(reportFile)).read();
+        if (!testOutcome.isPresent()) {
+            LOGGER.warn("Tried to load a file that is not a supported thucydides binary report: " + reportFile);
+        }
+        return testOutcome;
+    }
+
+    private ByteBuffer contentsOf(final File reportFile) throws IOException {
+        if (reportFile.length() < MEMORY_MAPPING_THRESHOLD) {
+            return ByteBuffer.wrap(Files.toByteArray(reportFile));
+        }
+        RandomAccessFile file = new RandomAccessFile(reportFile, "r");
+        try {
+            return file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        } finally {
+            file.close();
+        }
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(final File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+}
@@ -0,0 +1,144 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.base.Charsets;
+import net.thucydides.core.model.DataTable;
+import net.thucydides.core.model.DataTableRow;
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.model.TestTag;
+import net.thucydides.core.model.features.ApplicationFeature;
+import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+
+import static net.thucydides.core.reports.binary.BinaryTestOutcomeFormat.*;
+
+/**
+ * Writes a test outcome in the binary test outcome format, streaming it directly to the output
+ * rather than building the whole document in memory first.
+ * Strings are stored as a length followed by their UTF-8 bytes, and a length of -1 stands for null.
+ */
+class BinaryTestOutcomeWriter {
+
+    private final DataOutputStream output;
+
+    BinaryTestOutcomeWriter(OutputStream output) {
+        this.output = new DataOutputStream(output);
+    }
+
+    public void write(TestOutcome testOutcome) throws IOException {
+        output.writeInt(MAGIC_NUMBER);
+        output.writeByte(FORMAT_VERSION);
+
+        writeString(nameFrom(testOutcome));
+        writeString(testOutcome.getTitle());
+        writeString(qualifierFrom(testOutcome));
+        writeString(testOutcome.getResult().name());
+        output.writeLong(testOutcome.getDuration());
+        writeString(testOutcome.getSessionId());
+
+        writeUserStory(testOutcome.getUserStory());
+        writeStrings(testOutcome.getIssues());
+        writeTags(testOutcome);
+        writeExamples(testOutcome.getDataTable());
+        writeSteps(testOutcome.getTestSteps());
+        output.flush();
+    }
+
+    private String nameFrom(TestOutcome testOutcome) {
+        return (testOutcome.getMethodName() != null) ? testOutcome.getMethodName() : testOutcome.getTitle();
+    }
+
+    private String qualifierFrom(TestOutcome testOutcome) {
+        if (testOutcome.getQualifier() != null && testOutcome.getQualifier().isPresent()) {
+            return testOutcome.getQualifier().get();
+        }
+        return null;
+    }
+
+    private void writeUserStory(Story userStory) throws IOException {
+        output.writeBoolean(userStory != null);
+        if (userStory != null) {
+            writeString(userStory.getId());
+            writeString(userStory.getName());
+            writeString(userStory.getPath());
+            ApplicationFeature feature = (userStory.getFeatureClass() != null) ? ApplicationFeature.from(userStory.getFeatureClass()) : null;
+            output.writeBoolean(feature != null);
+            if (feature != null) {
+                writeString(feature.getId());
+                writeString(feature.getName());
+            }
+        }
+    }
+
+    private void writeTags(TestOutcome testOutcome) throws IOException {
+        Collection<TestTag> tags = testOutcome.getTags();
+        output.writeInt(tags.size());
+        for (TestTag tag : tags) {
+            writeString(tag.getName());
+            writeString(tag.getType());
+        }
+    }
+
+    private void writeExamples(DataTable dataTable) throws IOException {
+        boolean hasExamples = (dataTable != null) && (!dataTable.getRows().isEmpty());
+        output.writeBoolean(hasExamples);
+        if (hasExamples) {
+            writeStrings(dataTable.getHeaders());
+            output.writeInt(dataTable.getRows().size());
+            for (DataTableRow row : dataTable.getRows()) {
+                writeString(row.getResult().name());
+                writeStrings(row.getStringValues());
+            }
+        }
+    }
+
+    private void writeSteps(List<TestStep> steps) throws IOException {
+        output.writeInt(steps.size());
+        for (TestStep step : steps) {
+            writeStep(step);
+        }
+    }
+
+    private void writeStep(TestStep step) throws IOException {
+        output.writeByte(step.isAGroup() ? TEST_GROUP : TEST_STEP);
+        writeString(step.getDescription());
+        writeString(step.getResult().name());
+        output.writeLong(step.getDuration());
+        writeScreenshots(step.getScreenshots());
+        if (step.isAGroup()) {
+            writeSteps(step.getChildren());
+        }
+    }
+
+    private void writeScreenshots(List<ScreenshotAndHtmlSource> screenshots) throws IOException {
+        output.writeInt(screenshots.size());
+        for (ScreenshotAndHtmlSource screenshot : screenshots) {
+            writeString(screenshot.getScreenshotFile().getName());
+            writeString(screenshot.getSourcecode().isPresent() ? screenshot.getSourcecode().get().getName() : null);
+        }
+    }
+
+    private void writeStrings(Collection<String> values) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            output.writeInt(NULL_LENGTH);
+        } else {
+            byte[] bytes = value.getBytes(Charsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package net.thucydides.core.reports.history;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An append-only file of history snapshots, one line per snapshot, with the fields separated by tabs
+ * and the time of the snapshot first.
+ * Snapshots are appended in the order they are recorded, so the most recent ones are at the end of the file
+ * and can be read without reading the rest of it.
+ * Snapshots older than the retention period are discarded, and snapshots older than the detailed history period
+ * are downsampled to the last snapshot of each day, when the file is compacted (see append()).
+ */
+abstract class HistoryFile<T extends Comparable<T>> {
+
+    private static final char SEPARATOR = '\t';
+    private static final int READ_BLOCK_SIZE = 8 * 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoryFile.class);
+
+    private final File file;
+    private final HistoryRetention retention;
+
+    protected HistoryFile(File file, HistoryRetention retention) {
+        this.file = file;
+        this.retention = retention;
+    }
+
+    protected abstract DateTime timeOf(T snapshot);
+
+    /**
+     * Snapshots are downsampled separately for each series, e.g. for each requirement type.
+     */
+    protected abstract String seriesOf(T snapshot);
+
+    protected abstract List<String> fieldsOf(T snapshot);
+
+    protected abstract T snapshotFrom(DateTime time, List<String> fields);
+
+    /**
+     * Add new snapshots to the file, and apply the retention rules to the snapshots already in it.
+     * The file is locked while this happens, so that builds running at the same time do not lose each other's snapshots.
+     * New snapshots normally come after the existing ones, and are simply appended to the end of the file: only the
+     * first and last snapshots in the file are read to check this. The whole file is only read and rewritten when
+     * the snapshots are out of order, when the oldest snapshot has expired, or once a day to downsample the snapshots
+     * that have become older than the detailed history period.
+     */
+    public void append(List<T> newSnapshots) throws IOException {
+        if (newSnapshots.isEmpty()) {
+            return;
+        }
+        List<T> sortedNewSnapshots = sorted(Lists.newArrayList(newSnapshots));
+        RandomAccessFile history = new RandomAccessFile(file, "rw");
+        try {
+            FileLock lock = history.getChannel().lock();
+            try {
+                if (canBeAppended(sortedNewSnapshots, history)) {
+                    String separator = endsWithIncompleteLine(history) ? "\n" : "";
+                    history.seek(history.length());
+                    history.write((separator + linesFor(sortedNewSnapshots)).getBytes(Charsets.UTF_8));
+                } else {
+                    rewrite(history, sortedNewSnapshots);
+                }
+            } finally {
+                lock.release();
+            }
+        } finally {
+            history.close();
+        }
+    }
+
+    private boolean canBeAppended(List<T> sortedNewSnapshots, RandomAccessFile history) throws IOException {
+        DateTime now = timeOf(sortedNewSnapshots.get(sortedNewSnapshots.size() - 1));
+        if (retention.applyTo(sortedNewSnapshots, this, now).size() != sortedNewSnapshots.size()) {
+            return false;
+        }
+        Optional<T> oldestExistingSnapshot = oldestSnapshotIn(history);
+        Optional<T> latestExistingSnapshot = latestSnapshotIn(history);
+        if (!latestExistingSnapshot.isPresent()) {
+            return !oldestExistingSnapshot.isPresent();
+        }
+        return (sortedNewSnapshots.get(0).compareTo(latestExistingSnapshot.get()) >= 0)
+                && !retention.hasExpired(timeOf(oldestExistingSnapshot.get()), now)
+                && !retention.hasMoreSnapshotsToDownsample(timeOf(latestExistingSnapshot.get()), now);
+    }
+
+    private void rewrite(RandomAccessFile history, List<T> newSnapshots) throws IOException {
+        List<T> snapshots = parse(readFrom(history, 0));
+        snapshots.addAll(newSnapshots);
+        sorted(snapshots);
+
+        DateTime now = timeOf(snapshots.get(snapshots.size() - 1));
+        List<T> retainedSnapshots = retention.applyTo(snapshots, this, now);
+        history.setLength(0);
+        history.write(linesFor(retainedSnapshots).getBytes(Charsets.UTF_8));
+    }
+
+    private boolean endsWithIncompleteLine(RandomAccessFile history) throws IOException {
+        if (history.length() == 0) {
+            return false;
+        }
+        history.seek(history.length() - 1);
+        return history.read() != '\n';
+    }
+
+    /**
+     * The file is kept in chronological order, so the oldest snapshot is the first one that can be read.
+     */
+    private Optional<T> oldestSnapshotIn(RandomAccessFile history) throws IOException {
+        long end = 0;
+        while (end < history.length()) {
+            end = Math.min(history.length(), end + READ_BLOCK_SIZE);
+            String contents = readFrom(history, 0, end);
+            int endOfLastCompleteLine = contents.lastIndexOf('\n');
+            List<T> snapshots = parse((end == history.length()) ? contents : contents.substring(0, endOfLastCompleteLine + 1));
+            if (!snapshots.isEmpty()) {
+                return Optional.of(snapshots.get(0));
+            }
+        }
+        return Optional.absent();
+    }
+
+    private Optional<T> latestSnapshotIn(RandomAccessFile history) throws IOException {
+        List<T> latestSnapshots = readLatestFrom(history, 1);
+        return latestSnapshots.isEmpty() ? Optional.<T>absent() : Optional.of(latestSnapshots.get(0));
+    }
+
+    private String linesFor(List<T> snapshots) {
+        StringBuilder lines = new StringBuilder();
+        for (T snapshot : snapshots) {
+            lines.append(lineFor(snapshot));
+        }
+        return lines.toString();
+    }
+
+    /**
+     * @return every snapshot in the file, oldest first.
+     */
+    public List<T> readAll() throws IOException {
+        if (!file.exists()) {
+            return Lists.newArrayList();
+        }
+        RandomAccessFile history = new RandomAccessFile(file, "r");
+        try {
+            return sorted(parse(readFrom(history, 0)));
+        } finally {
+            history.close();
+        }
+    }
+
+    /**
+     * @return at most the given number of the most recent snapshots, oldest first.
+     * Only the end of the file is read.
+     */
+    public List<T> readLatest(int count) throws IOException {
+        if (!file.exists() || count <= 0) {
+            return Lists.newArrayList();
+        }
+        RandomAccessFile history = new RandomAccessFile(file, "r");
+        try {
+            return readLatestFrom(history, count);
+        } finally {
+            history.close();
+        }
+    }
+
+    private List<T> readLatestFrom(RandomAccessFile history, int count) throws IOException {
+        long start = history.length();
+        List<T> snapshots;
+        do {
+            start = Math.max(0, start - READ_BLOCK_SIZE);
+            snapshots = parse(completeLinesFrom(history, start));
+        } while (snapshots.size() < count && start > 0);
+
+        List<T> latestSnapshots = sorted(snapshots);
+        return Lists.newArrayList(latestSnapshots.subList(Math.max(0, latestSnapshots.size() - count),
+                                                          latestSnapshots.size()));
+    }
+
+    public void delete() {
+        if (file.exists() && !file.delete()) {
+            LOGGER.warn("Could not delete history file {}", file);
+        }
+    }
+
+    private String completeLinesFrom(RandomAccessFile history, long start) throws IOException {
+        String contents = readFrom(history, start);
+        if (start > 0) {
+            int endOfFirstLine = contents.indexOf('\n');
+            return (endOfFirstLine < 0) ? "" : contents.substring(endOfFirstLine + 1);
+        }
+        return contents;
+    }
+
+    private String readFrom(RandomAccessFile history, long start) throws IOException {
+        return readFrom(history, start, history.length());
+    }
+
+    private String readFrom(RandomAccessFile history, long start, long end) throws IOException {
+        byte[] contents = new byte[(int) (end - start)];
+        history.seek(start);
+        history.readFully(contents);
+        return new String(contents, Charsets.UTF_8);
+    }
+
+    /**
+     * Lines that cannot be read, such as a line left incomplete by an interrupted build, are ignored.
+     */
+    private List<T> parse(String contents) {
+        List<T> snapshots = Lists.newArrayList();
+        for (String line : contents.split("\n")) {
+            if (line.length() > 0) {
+                try {
+                    List<String> fields = split(line);
+                    snapshots.add(snapshotFrom(new DateTime(Long.parseLong(fields.get(0))), fields.subList(1, fields.size())));
+                } catch (RuntimeException badLine) {
+                    LOGGER.debug("Ignoring unreadable history entry in {}: {}", file, line);
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    private List<T> sorted(List<T> snapshots) {
+        Collections.sort(snapshots);
+        return snapshots;
+    }
+
+    private String lineFor(T snapshot) {
+        StringBuilder line = new StringBuilder();
+        line.append(timeOf(snapshot).getMillis());
+        for (String field : fieldsOf(snapshot)) {
+            line.append(SEPARATOR).append(escape(field));
+        }
+        return line.append('\n').toString();
+    }
+
+    private static String escape(String field) {
+        if (field == null) {
+            return "\\0";
+        }
+        return field.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = Lists.newArrayList();
+        StringBuilder field = new StringBuilder();
+        boolean nullField = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == SEPARATOR) {
+                fields.add(nullField ? null : field.toString());
+                field.setLength(0);
+                nullField = false;
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char escaped = line.charAt(++i);
+                switch (escaped) {
+                    case 't': field.append('\t'); break;
+                    case 'n': field.append('\n'); break;
+                    case 'r': field.append('\r'); break;
+                    case '0': nullField = true; break;
+                    default: field.append(escaped);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(nullField ? null : field.toString());
+        return fields;
+    }
+
+    /**
+     * How long history snapshots are kept, and how long they are kept in full detail.
+     * A retention period of zero days keeps snapshots forever.
+     */
+    static class HistoryRetention {
+        private final int retentionDays;
+        private final int detailedDays;
+
+        HistoryRetention(int retentionDays, int detailedDays) {
+            this.retentionDays = retentionDays;
+            this.detailedDays = detailedDays;
+        }
+
+        boolean hasExpired(DateTime time, DateTime now) {
+            return (retentionDays > 0) && time.isBefore(now.minusDays(retentionDays));
+        }
+
+        /**
+         * Snapshots are downsampled by day, so this is only worth doing when the detailed history period
+         * has moved on to another day since the given time.
+         */
+        boolean hasMoreSnapshotsToDownsample(DateTime lastTime, DateTime now) {
+            LocalDate oldestDetailedDay = new LocalDate(now.minusDays(detailedDays));
+            return oldestDetailedDay.isAfter(new LocalDate(lastTime.minusDays(detailedDays)));
+        }
+
+        <T extends Comparable<T>> List<T> applyTo(List<T> snapshots, HistoryFile<T> historyFile, DateTime now) {
+            DateTime oldestRetainedTime = (retentionDays > 0) ? now.minusDays(retentionDays) : null;
+            DateTime oldestDetailedTime = now.minusDays(detailedDays);
+
+            List<T> newestFirst = Lists.newArrayList(snapshots);
+            Collections.sort(newestFirst, Collections.<T>reverseOrder());
+
+            Set<String> downsampledDays = new HashSet<String>();
+            List<T> retainedSnapshots = Lists.newArrayList();
+            for (T snapshot : newestFirst) {
+                DateTime time = historyFile.timeOf(snapshot);
+                if (oldestRetainedTime != null && time.isBefore(oldestRetainedTime)) {
+                    continue;
+                }
+                if (time.isBefore(oldestDetailedTime)) {
+                    String day = historyFile.seriesOf(snapshot) + SEPARATOR + new LocalDate(time);
+                    if (!downsampledDays.add(day)) {
+                        continue;
+                    }
+                }
+                retainedSnapshots.add(snapshot);
+            }
+            Collections.reverse(retainedSnapshots);
+            return retainedSnapshots;
+        }
+    }
+
+    static HistoryFile<TestResultSnapshot> forTestResults(File file, HistoryRetention retention) {
+        return new HistoryFile<TestResultSnapshot>(file, retention) {
+            @Override
+            protected DateTime timeOf(TestResultSnapshot snapshot) {
+                return snapshot.getTime();
+            }
+
+            @Override
+            protected String seriesOf(TestResultSnapshot snapshot) {
+                return "";
+            }
+
+            @Override
+            protected List<String> fieldsOf(TestResultSnapshot snapshot) {
+                return Lists.newArrayList(Integer.toString(snapshot.getSpecifiedSteps()),
+                                          Integer.toString(snapshot.getPassingSteps()),
+                                          Integer.toString(snapshot.getFailingSteps()),
+                                          Integer.toString(snapshot.getSkippedSteps()),
+                                          snapshot.getBuildId());
+            }
+
+            @Override
+            protected TestResultSnapshot snapshotFrom(DateTime time, List<String> fields) {
+                return new TestResultSnapshot(time,
+                                              Integer.parseInt(fields.get(0)),
+                                              Integer.parseInt(fields.get(1)),
+                                              Integer.parseInt(fields.get(2)),
+                                              Integer.parseInt(fields.get(3)),
+                                              fields.get(4));
+            }
+        };
+    }
+
+    static HistoryFile<ProgressSnapshot> forProgress(File file, HistoryRetention retention) {
+        return new HistoryFile<ProgressSnapshot>(file, retention) {
+            @Override
+            protected DateTime timeOf(ProgressSnapshot snapshot) {
+                return snapshot.getTime();
+            }
+
+            @Override
+            protected String seriesOf(ProgressSnapshot snapshot) {
+                return snapshot.getRequirementType();
+            }
+
+            @Override
+            protected List<String> fieldsOf(ProgressSnapshot snapshot) {
+                return Lists.newArrayList(snapshot.getRequirementType(),
+                                          Integer.toString(snapshot.getTotal()),
+                                          Integer.toString(snapshot.getCompleted()),
+                                          Integer.toString(snapshot.getEstimated()),
+                                          Integer.toString(snapshot.getFailed()),
+                                          snapshot.getBuildId());
+            }
+
+            @Override
+            protected ProgressSnapshot snapshotFrom(DateTime time, List<String> fields) {
+                return ProgressSnapshot.forRequirementType(fields.get(0))
+                                       .atTime(time)
+                                       .outOf(Integer.parseInt(fields.get(1)))
+                                       .with(Integer.parseInt(fields.get(2))).completed()
+                                       .and(Integer.parseInt(fields.get(3))).estimated()
+                                       .and(Integer.parseInt(fields.get(4))).failed()
+                                       .forBuild(fields.get(5));
+            }
+        };
+    }
+}
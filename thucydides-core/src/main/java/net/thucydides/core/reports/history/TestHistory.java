@@ -1,36 +1,48 @@
 package net.thucydides.core.reports.history;
 
 import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.StreamException;
+import com.thoughtworks.xstream.converters.reflection.Sun14ReflectionProvider;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.reports.TestOutcomes;
 import net.thucydides.core.requirements.reports.RequirementsOutcomes;
 import net.thucydides.core.util.EnvironmentVariables;
 import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Keep track of the test results over time.
+ * Test result and progress snapshots are appended to one history file each in the project history directory.
+ * Snapshots stored in the older format, with one file per snapshot, are moved into the history files
+ * the first time the history is used.
  */
 public class TestHistory {
 
     private static final String BUILD_ID = "BUILD_ID";
+    private static final String TEST_RESULT_HISTORY = "thucydides-outcomes.history";
+    private static final String PROGRESS_HISTORY = "thucydides-progress.history";
+    private static final int DEFAULT_DETAILED_HISTORY_DAYS = 30;
+    private static final String UNREADABLE_SUFFIX = ".unreadable";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestHistory.class);
+
     private final File dataDirectory;
     private final String projectName;
     private final DateProvider dateProvider;
+    private boolean legacySnapshotsImported = false;
+    private final List<File> importedSnapshotFiles = new ArrayList<File>();
 
     protected EnvironmentVariables environmentVariables;
 
@@ -90,11 +102,7 @@ public class TestHistory {
                                                                 skippedSteps,
                                                                 buildId);
 
-        try {
-            save(newSnapshot);
-        } catch (FileNotFoundException e) {
-            throw new IllegalArgumentException("Unable to store history data", e);
-        }
+        save(newSnapshot);
     }
 
     public void updateProgressHistory(RequirementsOutcomes requirementsOutcome) {
@@ -111,37 +119,40 @@ public class TestHistory {
                                                         .outOf(totalRequirements)
                                                         .forBuild(buildId);
 
+        save(newSnapshot);
+    }
+
+    private <T extends Comparable<T>> void save(List<T> snapshots, HistoryFile<T> historyFile) {
         try {
-            save(newSnapshot);
-        } catch (FileNotFoundException e) {
+            historyFile.append(snapshots);
+        } catch (IOException e) {
             throw new IllegalArgumentException("Unable to store history data", e);
         }
     }
 
-    private void save(TestResultSnapshot snapshot) throws FileNotFoundException {
-        XStream xstream = new XStream();
-        File snapshotFile = new File(getDirectory(), outcomesPrefix() + snapshot.getTime().getMillis());
-        OutputStream out = null;
-        try {
-            out = new FileOutputStream(snapshotFile);
-            xstream.toXML(snapshot, out);
-        } finally {
-            close(out);
-        }
+    private void save(TestResultSnapshot snapshot) {
+        importLegacySnapshots();
+        save(Collections.singletonList(snapshot), testResultHistory());
+    }
 
+    private void save(ProgressSnapshot snapshot) {
+        importLegacySnapshots();
+        save(Collections.singletonList(snapshot), progressHistory());
     }
 
-    private void save(ProgressSnapshot snapshot) throws FileNotFoundException {
-        XStream xstream = new XStream();
-        File snapshotFile = new File(getDirectory(), progressPrefix() + snapshot.getTime().getMillis());
-        OutputStream out = null;
-        try {
-            out = new FileOutputStream(snapshotFile);
-            xstream.toXML(snapshot, out);
-        } finally {
-            close(out);
-        }
+    private HistoryFile<TestResultSnapshot> testResultHistory() {
+        return HistoryFile.forTestResults(new File(getDirectory(), TEST_RESULT_HISTORY), getRetention());
+    }
+
+    private HistoryFile<ProgressSnapshot> progressHistory() {
+        return HistoryFile.forProgress(new File(getDirectory(), PROGRESS_HISTORY), getRetention());
+    }
 
+    private HistoryFile.HistoryRetention getRetention() {
+        int retentionDays = getEnvironmentVariables().getPropertyAsInteger(ThucydidesSystemProperty.HISTORY_RETENTION_DAYS, 0);
+        int detailedDays = getEnvironmentVariables().getPropertyAsInteger(ThucydidesSystemProperty.HISTORY_DETAILED_DAYS,
+                                                                         DEFAULT_DETAILED_HISTORY_DAYS);
+        return new HistoryFile.HistoryRetention(retentionDays, detailedDays);
     }
 
     private void close(Closeable stream) {
@@ -162,60 +173,108 @@ public class TestHistory {
     }
 
     public List<TestResultSnapshot> getHistory() {
-        File[] historyFiles = getOutcomeFiles();
-
-        List<TestResultSnapshot> resultSnapshots = new ArrayList<TestResultSnapshot>();
+        importLegacySnapshots();
+        try {
+            return testResultHistory().readAll();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read history data", e);
+        }
+    }
 
-        XStream xstream = new XStream();
-        for(File historyFile : historyFiles) {
-            TestResultSnapshot snapshot = null;
-            InputStream inputStream = null;
-            try {
-                inputStream = new FileInputStream(historyFile);
-                snapshot = (TestResultSnapshot) xstream.fromXML(inputStream);
-            } catch (FileNotFoundException e) {
-                throw new IllegalArgumentException("Unable to read history data in " + historyFile, e);
-            } catch (StreamException streamException) {
-                throw new IllegalArgumentException("Unable to parse history data in " + historyFile, streamException);
-            } finally {
-                close(inputStream);
-            }
-            resultSnapshots.add(snapshot);
+    /**
+     * @return the most recent test result snapshots, oldest first.
+     */
+    public List<TestResultSnapshot> getHistory(int maximumSnapshots) {
+        importLegacySnapshots();
+        try {
+            return testResultHistory().readLatest(maximumSnapshots);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read history data", e);
         }
-        Collections.sort(resultSnapshots);
-        return resultSnapshots;
     }
 
     public List<ProgressSnapshot> getProgress() {
-        File[] historyFiles = getProgressFiles();
+        importLegacySnapshots();
+        try {
+            return progressHistory().readAll();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read history data", e);
+        }
+    }
 
-        List<ProgressSnapshot> resultSnapshots = new ArrayList<ProgressSnapshot>();
+    /**
+     * Move any snapshots stored one per file by earlier versions into the history files.
+     * Snapshot files that cannot be parsed are renamed with an ".unreadable" suffix, so that they are only tried once.
+     * The snapshot classes have no default constructor, so they are read with the same reflection provider
+     * that was needed to write them, whatever JVM the reports are now being generated on.
+     */
+    private synchronized void importLegacySnapshots() {
+        if (legacySnapshotsImported) {
+            return;
+        }
+        legacySnapshotsImported = true;
+        List<TestResultSnapshot> resultSnapshots = readLegacySnapshots(getOutcomeFiles(), TestResultSnapshot.class);
+        List<ProgressSnapshot> progressSnapshots = readLegacySnapshots(getProgressFiles(), ProgressSnapshot.class);
+        if (resultSnapshots.isEmpty() && progressSnapshots.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Moving {} history snapshots into the history files", resultSnapshots.size() + progressSnapshots.size());
+        save(resultSnapshots, testResultHistory());
+        save(progressSnapshots, progressHistory());
+        deleteImportedSnapshotFiles();
+    }
 
-        XStream xstream = new XStream();
-        for(File historyFile : historyFiles) {
-            ProgressSnapshot snapshot = null;
+    private <T extends Comparable<T>> List<T> readLegacySnapshots(File[] snapshotFiles, Class<T> snapshotType) {
+        List<T> snapshots = new ArrayList<T>();
+        if (snapshotFiles == null) {
+            return snapshots;
+        }
+        XStream xstream = new XStream(new Sun14ReflectionProvider());
+        List<File> unreadableSnapshotFiles = new ArrayList<File>();
+        for (File snapshotFile : snapshotFiles) {
             InputStream inputStream = null;
             try {
-                inputStream = new FileInputStream(historyFile);
-                snapshot = (ProgressSnapshot) xstream.fromXML(inputStream);
+                inputStream = new FileInputStream(snapshotFile);
+                snapshots.add(snapshotType.cast(xstream.fromXML(inputStream)));
+                importedSnapshotFiles.add(snapshotFile);
             } catch (FileNotFoundException e) {
-                throw new IllegalArgumentException("Unable to read history data in " + historyFile, e);
-            } catch (StreamException streamException) {
-                throw new IllegalArgumentException("Unable to parse history data in " + historyFile, streamException);
+                LOGGER.warn("Unable to read history data in " + snapshotFile, e);
+            } catch (RuntimeException unreadableSnapshot) {
+                LOGGER.warn("Unable to parse history data in {}: {}", snapshotFile, unreadableSnapshot.getMessage());
+                unreadableSnapshotFiles.add(snapshotFile);
             } finally {
-                close(inputStream);
+                if (inputStream != null) {
+                    close(inputStream);
+                }
             }
-            resultSnapshots.add(snapshot);
         }
-        Collections.sort(resultSnapshots);
-        return resultSnapshots;
+        setAsideUnreadableSnapshotFiles(unreadableSnapshotFiles);
+        Collections.sort(snapshots);
+        return snapshots;
     }
 
+    private void setAsideUnreadableSnapshotFiles(List<File> unreadableSnapshotFiles) {
+        for (File snapshotFile : unreadableSnapshotFiles) {
+            File setAsideFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + UNREADABLE_SUFFIX);
+            if (!snapshotFile.renameTo(setAsideFile)) {
+                LOGGER.warn("Could not rename unreadable history file {}", snapshotFile);
+            }
+        }
+    }
+
+    private void deleteImportedSnapshotFiles() {
+        for (File snapshotFile : importedSnapshotFiles) {
+            if (!snapshotFile.delete()) {
+                LOGGER.warn("Could not delete history file {}", snapshotFile);
+            }
+        }
+        importedSnapshotFiles.clear();
+    }
 
     private File[] getOutcomeFiles() {
         return getDirectory().listFiles(new FilenameFilter() {
             public boolean accept(File directory, String filename) {
-                return filename.startsWith(outcomesPrefix());
+                return filename.startsWith(outcomesPrefix()) && !filename.endsWith(UNREADABLE_SUFFIX);
             }
         });
     }
@@ -224,7 +283,7 @@ public class TestHistory {
     private File[] getProgressFiles() {
         return getDirectory().listFiles(new FilenameFilter() {
             public boolean accept(File directory, String filename) {
-                return filename.startsWith(progressPrefix());
+                return filename.startsWith(progressPrefix()) && !filename.endsWith(UNREADABLE_SUFFIX);
             }
         });
     }
@@ -250,6 +309,8 @@ public class TestHistory {
         for(File historyFile : historyFiles) {
             historyFile.delete();
         }
+        testResultHistory().delete();
+        progressHistory().delete();
     }
 
     protected EnvironmentVariables getEnvironmentVariables() {
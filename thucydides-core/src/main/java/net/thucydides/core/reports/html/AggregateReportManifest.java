@@ -0,0 +1,237 @@
+package net.thucydides.core.reports.html;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.digest.Digest;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.TestOutcomes;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Records which test outcome files each aggregate report page was generated from.
+ * Each page gets a fingerprint made from the hashes of the outcome files it displays. When an aggregate report
+ * is generated again, pages whose fingerprint has not changed since the previous run can be left as they are.
+ * The manifest is stored in the output directory, next to the reports it describes.
+ * The whole manifest is discarded if the report settings or the Thucydides build have changed since it was saved,
+ * as the templates and resources come from the Thucydides jar.
+ */
+class AggregateReportManifest {
+
+    static final String MANIFEST_FILE = "aggregate-report.manifest";
+
+    private static final String MANIFEST_VERSION = "1";
+    private static final String RESOURCES_ENTRY = "@resources";
+    private static final String SETTINGS_ENTRY = "@settings";
+
+    /**
+     * The properties that change the contents of the aggregate report pages.
+     */
+    private static final ThucydidesSystemProperty[] REPORT_PROPERTIES = {
+            ThucydidesSystemProperty.SHOW_STEP_DETAILS,
+            ThucydidesSystemProperty.ISSUE_TRACKER_URL,
+            ThucydidesSystemProperty.JIRA_URL,
+            ThucydidesSystemProperty.JIRA_PROJECT,
+            ThucydidesSystemProperty.REPORT_RESOURCE_PATH,
+            ThucydidesSystemProperty.CAPABILITY_TYPES,
+            ThucydidesSystemProperty.ESTIMATED_TESTS_PER_REQUIREMENT,
+            ThucydidesSystemProperty.THUCYDIDES_TEST_ROOT,
+            ThucydidesSystemProperty.TEST_REQUIREMENTS_ROOT
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AggregateReportManifest.class);
+
+    private final File outputDirectory;
+    private final Map<String, String> outcomeFileHashes;
+    private final Properties previousFingerprints;
+    private final Properties currentFingerprints = new Properties();
+
+    private int pagesSkipped = 0;
+
+    private AggregateReportManifest(File outputDirectory, Map<String, String> outcomeFileHashes,
+                                    Properties previousFingerprints, String reportSettings) {
+        this.outputDirectory = outputDirectory;
+        this.outcomeFileHashes = outcomeFileHashes;
+        this.previousFingerprints = previousFingerprints;
+        if (!reportSettings.equals(previousFingerprints.getProperty(SETTINGS_ENTRY))) {
+            previousFingerprints.clear();
+        }
+        currentFingerprints.setProperty(SETTINGS_ENTRY, reportSettings);
+    }
+
+    /**
+     * Hash the outcome files in the source directory, and load the manifest left by the previous run, if any.
+     */
+    public static AggregateReportManifest forOutcomesIn(File sourceDirectory, File outputDirectory,
+                                                        EnvironmentVariables environmentVariables) throws IOException {
+        return new AggregateReportManifest(outputDirectory,
+                                           hashesOfOutcomeFilesIn(sourceDirectory),
+                                           previousManifestIn(outputDirectory),
+                                           reportSettingsFrom(environmentVariables));
+    }
+
+    /**
+     * Is the report page already up to date with respect to the given test outcomes?
+     * The page fingerprint is recorded either way, so that it can be saved for the next run.
+     * @param reportName the name of the generated page, relative to the output directory.
+     * @param testOutcomes the test outcomes displayed on the page.
+     * @param otherInputs anything other than the test outcomes that the contents of the page depend on.
+     */
+    public boolean isUpToDate(String reportName, TestOutcomes testOutcomes, Object... otherInputs) {
+        String fingerprint = fingerprintOf(testOutcomes, otherInputs);
+        if (fingerprint == null) {
+            return false;
+        }
+        currentFingerprints.setProperty(reportName, fingerprint);
+        boolean upToDate = fingerprint.equals(previousFingerprints.getProperty(reportName))
+                           && new File(outputDirectory, reportName).exists();
+        if (upToDate) {
+            recordSkippedPage();
+        }
+        return upToDate;
+    }
+
+    /**
+     * Have the report resources (stylesheets, images...) already been copied from the given resource directory?
+     */
+    public boolean resourcesAlreadyCopiedFrom(String resourceDirectory) {
+        currentFingerprints.setProperty(RESOURCES_ENTRY, resourceDirectory);
+        return resourceDirectory.equals(previousFingerprints.getProperty(RESOURCES_ENTRY));
+    }
+
+    public synchronized int getPagesSkipped() {
+        return pagesSkipped;
+    }
+
+    public void save() throws IOException {
+        OutputStream output = new FileOutputStream(new File(outputDirectory, MANIFEST_FILE));
+        try {
+            currentFingerprints.store(output, "Thucydides aggregate report manifest");
+        } finally {
+            output.close();
+        }
+        LOGGER.info("Incremental aggregate reports: {} unchanged pages were not regenerated", getPagesSkipped());
+    }
+
+    private synchronized void recordSkippedPage() {
+        pagesSkipped++;
+    }
+
+    /**
+     * Pages are fingerprinted on the outcomes they show and on the tag types of the whole test run,
+     * which appear in the navigation menu of every page.
+     * If any of the outcomes did not come from a known report file, the page has no fingerprint and is always generated.
+     */
+    private String fingerprintOf(TestOutcomes testOutcomes, Object... otherInputs) {
+        List<String> outcomeHashes = Lists.newArrayList();
+        for (TestOutcome testOutcome : testOutcomes.getTests()) {
+            String outcomeHash = outcomeFileHashes.get(testOutcome.getReportName());
+            if (outcomeHash == null) {
+                return null;
+            }
+            outcomeHashes.add(outcomeHash);
+        }
+        Collections.sort(outcomeHashes);
+
+        StringBuilder fingerprint = new StringBuilder(MANIFEST_VERSION);
+        fingerprint.append(testOutcomes.getRootOutcomes().getTagTypes());
+        for (Object input : otherInputs) {
+            fingerprint.append('|').append(input);
+        }
+        for (String outcomeHash : outcomeHashes) {
+            fingerprint.append('|').append(outcomeHash);
+        }
+        return Digest.ofTextValue(fingerprint.toString());
+    }
+
+    private static String reportSettingsFrom(EnvironmentVariables environmentVariables) {
+        StringBuilder settings = new StringBuilder(thucydidesBuild());
+        for (ThucydidesSystemProperty property : REPORT_PROPERTIES) {
+            settings.append('|').append(property.getPropertyName())
+                    .append('=').append(environmentVariables.getProperty(property.getPropertyName(), ""));
+        }
+        return Digest.ofTextValue(settings.toString());
+    }
+
+    /**
+     * The version of Thucydides, and when the jar (or class directory) it was loaded from was last modified.
+     */
+    private static String thucydidesBuild() {
+        String version = AggregateReportManifest.class.getPackage().getImplementationVersion();
+        return version + "@" + lastModifiedTimeOfThucydidesJar();
+    }
+
+    private static long lastModifiedTimeOfThucydidesJar() {
+        CodeSource codeSource = AggregateReportManifest.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return 0;
+        }
+        try {
+            return new File(codeSource.getLocation().toURI()).lastModified();
+        } catch (URISyntaxException e) {
+            return 0;
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private static Map<String, String> hashesOfOutcomeFilesIn(File sourceDirectory) throws IOException {
+        Map<String, String> hashes = new HashMap<String, String>();
+        File[] outcomeFiles = sourceDirectory.listFiles();
+        if (outcomeFiles == null) {
+            return hashes;
+        }
+        // listFiles() order is unspecified, and the hashes of the two formats of a report must be combined in the same order
+        Arrays.sort(outcomeFiles);
+        for (File outcomeFile : outcomeFiles) {
+            if (isAnOutcomeFile(outcomeFile)) {
+                String reportName = FilenameUtils.getBaseName(outcomeFile.getName());
+                String hash = Digest.ofBytes(Files.toByteArray(outcomeFile));
+                String otherFormatHash = hashes.get(reportName);
+                hashes.put(reportName, (otherFormatHash == null) ? hash : Digest.ofTextValue(otherFormatHash + hash));
+            }
+        }
+        return hashes;
+    }
+
+    private static boolean isAnOutcomeFile(File file) {
+        String extension = FilenameUtils.getExtension(file.getName()).toLowerCase(Locale.getDefault());
+        return file.isFile() && (extension.equals("xml") || extension.equals("outcome"));
+    }
+
+    private static Properties previousManifestIn(File outputDirectory) throws IOException {
+        Properties previousManifest = new Properties();
+        File manifestFile = new File(outputDirectory, MANIFEST_FILE);
+        if (manifestFile.exists()) {
+            InputStream input = new FileInputStream(manifestFile);
+            try {
+                previousManifest.load(input);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Ignoring corrupted aggregate report manifest: " + e.getMessage());
+                previousManifest.clear();
+            } finally {
+                input.close();
+            }
+        }
+        return previousManifest;
+    }
+}
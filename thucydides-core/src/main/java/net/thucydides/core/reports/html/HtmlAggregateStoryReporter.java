@@ -1,5 +1,6 @@
 package net.thucydides.core.reports.html;
 
+import com.google.common.collect.Lists;
 import net.thucydides.core.ThucydidesSystemProperties;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.guice.Injectors;
@@ -53,6 +54,8 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
     private final RequirmentsOutcomeFactory requirementsFactory;
     private final HtmlRequirementsReporter htmlRequirementsReporter;
     private final HtmlProgressReporter htmlProgressReporter;
+    private AggregateReportManifest manifest;
+    private ParallelReportPageGenerator pageGenerator;
 
     public HtmlAggregateStoryReporter(final String projectName) {
         this(projectName, Injectors.getInjector().getInstance(IssueTracking.class));
@@ -66,6 +69,14 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
     public HtmlAggregateStoryReporter(final String projectName,
                                       final IssueTracking issueTracking,
                                       final TestHistory testHistory) {
+        this(projectName, issueTracking, testHistory, Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    public HtmlAggregateStoryReporter(final String projectName,
+                                      final IssueTracking issueTracking,
+                                      final TestHistory testHistory,
+                                      final EnvironmentVariables environmentVariables) {
+        super(environmentVariables);
         this.projectName = projectName;
         this.issueTracking = issueTracking;
         this.testHistory = testHistory;
@@ -100,26 +111,88 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
 
         updateHistoryFor(requirementsOutcomes);
 
-        copyResourcesToOutputDirectory();
-
-        generateAggregateReportFor(allTestOutcomes);
-        generateTagReportsFor(allTestOutcomes);
-        generateTagTypeReportsFor(allTestOutcomes);
-        generateResultReportsFor(allTestOutcomes);
-        generateHistoryReportFor(allTestOutcomes);
-        generateCoverageReportsFor(allTestOutcomes);
-        generateRequirementsReportsFor(requirementsOutcomes);
+        manifest = incrementalReportsEnabled() ? AggregateReportManifest.forOutcomesIn(sourceDirectory, getOutputDirectory(), getEnvironmentVariables()) : null;
+
+        copyResourcesUnlessAlreadyPresent();
+
+        pageGenerator = new ParallelReportPageGenerator(getReportThreads());
+        try {
+            generateAggregateReportFor(allTestOutcomes);
+            generateTagReportsFor(allTestOutcomes);
+            generateTagTypeReportsFor(allTestOutcomes);
+            generateResultReportsFor(allTestOutcomes);
+            generateHistoryReportFor(allTestOutcomes);
+            generateCoverageReportsFor(allTestOutcomes);
+            generateRequirementsReportsFor(requirementsOutcomes);
+            pageGenerator.waitForAllPages();
+        } finally {
+            pageGenerator.shutdown();
+            pageGenerator = null;
+        }
 
+        if (manifest != null) {
+            manifest.save();
+        }
         return allTestOutcomes;
     }
 
-    public void generateRequirementsReportsFor(RequirementsOutcomes requirementsOutcomes) throws IOException {
+    private int getReportThreads() {
+        return getEnvironmentVariables().getPropertyAsInteger(ThucydidesSystemProperty.REPORT_THREADS,
+                                                              Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * While the aggregate reports are being generated, pages are rendered in parallel.
+     * The pages to render, and the test outcomes they display, are worked out on the calling thread.
+     */
+    private void generate(ParallelReportPageGenerator.ReportPage page) throws IOException {
+        if (pageGenerator != null) {
+            pageGenerator.generate(page);
+        } else {
+            page.generate();
+        }
+    }
+
+    private boolean incrementalReportsEnabled() {
+        return getEnvironmentVariables().getPropertyAsBoolean(ThucydidesSystemProperty.INCREMENTAL_REPORTS, false);
+    }
+
+    /**
+     * In incremental mode, a page only needs to be generated if the outcomes (or anything else) it displays have changed.
+     */
+    private boolean isUpToDate(String reportName, TestOutcomes testOutcomes, Object... otherInputs) {
+        return (manifest != null) && manifest.isUpToDate(reportName, testOutcomes, otherInputs);
+    }
+
+    private void copyResourcesUnlessAlreadyPresent() throws IOException {
+        String resourceDirectory = getEnvironmentVariables().getProperty(ThucydidesSystemProperty.REPORT_RESOURCE_PATH,
+                                                                         getResourceDirectory());
+        if ((manifest != null) && manifest.resourcesAlreadyCopiedFrom(resourceDirectory)) {
+            useExistingResources();
+            htmlRequirementsReporter.useExistingResources();
+            htmlProgressReporter.useExistingResources();
+        } else {
+            copyResourcesToOutputDirectory();
+        }
+    }
+
+    public void generateRequirementsReportsFor(final RequirementsOutcomes requirementsOutcomes) throws IOException {
 
         htmlRequirementsReporter.setOutputDirectory(getOutputDirectory());
-        htmlRequirementsReporter.generateReportFor(requirementsOutcomes);
+        if (!isUpToDate("capabilities.html", requirementsOutcomes.getTestOutcomes(), requirementsIn(requirementsOutcomes))) {
+            generate(new ParallelReportPageGenerator.ReportPage() {
+                public void generate() throws IOException {
+                    htmlRequirementsReporter.generateReportFor(requirementsOutcomes);
+                }
+            });
+        }
 
         htmlProgressReporter.setOutputDirectory(getOutputDirectory());
-        htmlProgressReporter.generateReportFor(requirementsOutcomes);
+        generate(new ParallelReportPageGenerator.ReportPage() {
+            public void generate() throws IOException {
+                htmlProgressReporter.generateReportFor(requirementsOutcomes);
+            }
+        });
 
         generateRequirementsReportsForChildRequirements(requirementsOutcomes);
     }
@@ -134,21 +207,42 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
         }
     }
 
-    private void generateNestedRequirementsReportsFor(Requirement parentRequirement, RequirementsOutcomes requirementsOutcomes) throws IOException {
+    private void generateNestedRequirementsReportsFor(Requirement parentRequirement,
+                                                      final RequirementsOutcomes requirementsOutcomes) throws IOException {
         htmlRequirementsReporter.setOutputDirectory(getOutputDirectory());
-        String reportName = reportNameProvider.forRequirement(parentRequirement);
-        htmlRequirementsReporter.generateReportFor(requirementsOutcomes, requirementsOutcomes.getTestOutcomes(), reportName);
+        final String reportName = reportNameProvider.forRequirement(parentRequirement);
+        if (!isUpToDate(reportName, requirementsOutcomes.getTestOutcomes(), parentRequirement, requirementsIn(requirementsOutcomes))) {
+            generate(new ParallelReportPageGenerator.ReportPage() {
+                public void generate() throws IOException {
+                    htmlRequirementsReporter.generateReportFor(requirementsOutcomes, requirementsOutcomes.getTestOutcomes(), reportName);
+                }
+            });
+        }
 
         generateRequirementsReportsForChildRequirements(requirementsOutcomes);
 
     }
 
+    private List<Requirement> requirementsIn(RequirementsOutcomes requirementsOutcomes) {
+        List<Requirement> requirements = Lists.newArrayList();
+        for (RequirementOutcome outcome : requirementsOutcomes.getRequirementOutcomes()) {
+            requirements.add(outcome.getRequirement());
+        }
+        return requirements;
+    }
+
+    /**
+     * Every outcome is loaded before any page is rendered, as the tag, result, coverage and requirements pages
+     * each select their own subset of the complete set of outcomes.
+     */
     private TestOutcomes loadTestOutcomesFrom(File sourceDirectory) throws IOException {
         return TestOutcomeLoader.testOutcomesIn(sourceDirectory).withHistory();
     }
 
     private void generateAggregateReportFor(TestOutcomes testOutcomes) throws IOException {
-
+        if (isUpToDate("index.html", testOutcomes)) {
+            return;
+        }
         ReportNameProvider defaultNameProvider = new ReportNameProvider();
         Map<String, Object> context = buildContext(testOutcomes, defaultNameProvider);
         context.put("report", ReportProperties.forAggregateResultsReport());
@@ -201,30 +295,39 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
     }
 
     private void generateResultReport(TestOutcomes testOutcomes, ReportNameProvider reportName, String tagType, String testResult) throws IOException {
+        String report = reportName.forTestResult(testResult);
+        if (isUpToDate(report, testOutcomes, tagType)) {
+            return;
+        }
         Map<String, Object> context = buildContext(testOutcomes, reportName);
         context.put("report", ReportProperties.forTestResultsReport());
         context.put("currentTagType", tagType);
-        String report = reportName.forTestResult(testResult);
         generateReportPage(context, TEST_OUTCOME_TEMPLATE_PATH, report);
     }
 
     private void generateTagReport(TestOutcomes testOutcomes, ReportNameProvider reportName, TestTag tag) throws IOException {
         TestOutcomes testOutcomesForTag = testOutcomes.withTag(tag.getName());
+        String report = reportName.forTag(tag.getName());
+        if (isUpToDate(report, testOutcomesForTag, tag.getType())) {
+            return;
+        }
         Map<String, Object> context = buildContext(testOutcomesForTag, reportName);
         context.put("report", ReportProperties.forTagResultsReport());
         context.put("currentTagType", tag.getType());
-        String report = reportName.forTag(tag.getName());
         generateReportPage(context, TEST_OUTCOME_TEMPLATE_PATH, report);
     }
 
     private void generateTagTypeReport(TestOutcomes testOutcomes, ReportNameProvider reportName, String tagType) throws IOException {
         TestOutcomes testOutcomesForTagType = testOutcomes.withTagType(tagType);
+        String report = reportName.forTagType(tagType);
+        if (isUpToDate(report, testOutcomesForTagType)) {
+            return;
+        }
 
         Map<String, Object> context = buildContext(testOutcomesForTagType, reportName);
         context.put("report", ReportProperties.forTagTypeResultsReport());
         context.put("tagType", tagType);
 
-        String report = reportName.forTagType(tagType);
         generateReportPage(context, TAGTYPE_TEMPLATE_PATH, report);
     }
 
@@ -251,39 +354,60 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
     }
 
     private void generateHistoryReportFor(TestOutcomes testOutcomes) throws IOException {
-        List<TestResultSnapshot> history = getTestHistory().getHistory();
+        List<TestResultSnapshot> history = loadHistoryForReport();
         Map<String, Object> context = new HashMap<String, Object>();
         context.put("history", history);
         context.put("allTestOutcomes", testOutcomes);
         context.put("reportName", reportNameProvider);
         context.put("rowcount", history.size());
         addFormattersToContext(context);
-        String htmlContents = mergeTemplate(HISTORY_TEMPLATE_PATH).usingContext(context);
         LOGGER.debug("Writing history page");
-        writeReportToOutputDirectory("history.html", htmlContents);
+        generateReportPage(context, HISTORY_TEMPLATE_PATH, "history.html");
+    }
 
+    /**
+     * Only the end of the history file needs to be read if the history report is limited to the latest snapshots.
+     */
+    private List<TestResultSnapshot> loadHistoryForReport() {
+        int snapshotsToShow = getEnvironmentVariables().getPropertyAsInteger(ThucydidesSystemProperty.HISTORY_REPORT_SNAPSHOTS, 0);
+        if (snapshotsToShow > 0) {
+            return getTestHistory().getHistory(snapshotsToShow);
+        }
+        return getTestHistory().getHistory();
     }
 
     private void generateReportPage(final Map<String, Object> context,
                                     final String template,
                                     final String outputFile) throws IOException {
-        String htmlContents = mergeTemplate(template).usingContext(context);
-        writeReportToOutputDirectory(outputFile, htmlContents);
-    }
-
-    private void generateCoverageData(final TestOutcomes testOutcomes, String tagType) throws IOException {
-        Map<String, Object> context = new HashMap<String, Object>();
-
-        JSONResultTree resultTree = new JSONResultTree();
-        for (String tag : testOutcomes.getTagsOfType(tagType)) {
-            resultTree.addTestOutcomesForTag(tag, testOutcomes.withTag(tag));
+        generate(new ParallelReportPageGenerator.ReportPage() {
+            public void generate() throws IOException {
+                String htmlContents = mergeTemplate(template).usingContext(context);
+                writeReportToOutputDirectory(outputFile, htmlContents);
+            }
+        });
+    }
+
+    private void generateCoverageData(final TestOutcomes testOutcomes, final String tagType) throws IOException {
+        final String report = tagType + "-coverage.js";
+        if (isUpToDate(report, testOutcomes.withTagType(tagType))) {
+            return;
         }
-
-        context.put("coverageData", resultTree.toJSON());
-        addFormattersToContext(context);
-
-        String javascriptCoverageData = mergeTemplate(COVERAGE_DATA_TEMPLATE_PATH).usingContext(context);
-        writeReportToOutputDirectory(tagType + "-coverage.js", javascriptCoverageData);
+        generate(new ParallelReportPageGenerator.ReportPage() {
+            public void generate() throws IOException {
+                Map<String, Object> context = new HashMap<String, Object>();
+
+                JSONResultTree resultTree = new JSONResultTree();
+                for (String tag : testOutcomes.getTagsOfType(tagType)) {
+                    resultTree.addTestOutcomesForTag(tag, testOutcomes.withTag(tag));
+                }
+
+                context.put("coverageData", resultTree.toJSON());
+                addFormattersToContext(context);
+
+                String javascriptCoverageData = mergeTemplate(COVERAGE_DATA_TEMPLATE_PATH).usingContext(context);
+                writeReportToOutputDirectory(report, javascriptCoverageData);
+            }
+        });
     }
 
 //    private void generateOutcomeData(final TestOutcomes testOutcomes) throws IOException {
@@ -71,7 +71,7 @@ public abstract class HtmlReporter {
 
     private boolean alreadyCopied = false;
 
-    protected void copyResourcesToOutputDirectory() throws IOException {
+    protected synchronized void copyResourcesToOutputDirectory() throws IOException {
         if (!alreadyCopied) {
             updateResourceDirectoryFromSystemPropertyIfDefined();
             HtmlResourceCopier copier = new HtmlResourceCopier(getResourceDirectory());
@@ -81,6 +81,13 @@ public abstract class HtmlReporter {
         }
     }
 
+    /**
+     * The resources are already in the output directory, so they don't need to be copied again.
+     */
+    protected synchronized void useExistingResources() {
+        alreadyCopied = true;
+    }
+
     private void updateResourceDirectoryFromSystemPropertyIfDefined() {
 
         String systemDefinedResourceDirectory
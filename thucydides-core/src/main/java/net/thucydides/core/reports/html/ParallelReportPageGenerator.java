@@ -0,0 +1,110 @@
+package net.thucydides.core.reports.html;
+
+import com.google.common.collect.Lists;
+import net.thucydides.core.reports.ReportGenerationFailedError;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders report pages on a bounded pool of worker threads.
+ * Each page is an independent template merge and file write, so pages can be rendered in any order.
+ * When the workers fall behind, the calling thread renders the next page itself rather than queuing
+ * an unbounded number of pages.
+ */
+class ParallelReportPageGenerator {
+
+    /**
+     * A single report page.
+     */
+    interface ReportPage {
+        void generate() throws IOException;
+    }
+
+    private static final int QUEUED_PAGES_PER_THREAD = 4;
+
+    private final ThreadPoolExecutor executor;
+    private final List<Future<Void>> pages = Lists.newArrayList();
+
+    ParallelReportPageGenerator(int threads) {
+        this.executor = new ThreadPoolExecutor(threads, threads,
+                                               1L, TimeUnit.SECONDS,
+                                               new LinkedBlockingQueue<Runnable>(threads * QUEUED_PAGES_PER_THREAD),
+                                               new ReportThreadFactory(),
+                                               new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public void generate(final ReportPage page) {
+        pages.add(executor.submit(new Callable<Void>() {
+            public Void call() throws IOException {
+                page.generate();
+                return null;
+            }
+        }));
+    }
+
+    /**
+     * Wait for every page to be written, and release the worker threads.
+     * The first page that failed causes the whole report to fail.
+     */
+    public void waitForAllPages() throws IOException {
+        try {
+            for (Future<Void> page : pages) {
+                waitFor(page);
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Abandon any pages that have not been written yet, and release the worker threads.
+     * This is safe to call more than once, and must be called if the report fails before waitForAllPages().
+     */
+    public void shutdown() {
+        for (Future<Void> page : pages) {
+            page.cancel(true);
+        }
+        pages.clear();
+        executor.shutdownNow();
+    }
+
+    private void waitFor(Future<Void> page) throws IOException {
+        try {
+            page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportGenerationFailedError("Interrupted while generating report pages", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ReportGenerationFailedError("Failed to generate report page", cause);
+        }
+    }
+
+    private static final class ReportThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "thucydides-report-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -3,14 +3,20 @@ package net.thucydides.core.reports.templates;
 import freemarker.template.Configuration;
 import freemarker.template.DefaultObjectWrapper;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Manages velocity templates.
- *
+ * The configuration and the parsed templates are shared by all the reporters, and can be used by several
+ * report writer threads at once: once loaded, a FreeMarker template can be processed concurrently.
  */
 public class FreeMarkerTemplateManager implements TemplateManager {
 
     Configuration cfg;
 
+    private final ConcurrentMap<String, ReportTemplate> templates = new ConcurrentHashMap<String, ReportTemplate>();
+
     public FreeMarkerTemplateManager() throws Exception {
         cfg = new Configuration();
         cfg.setClassForTemplateLoading(getClass(), "/");
@@ -18,7 +24,12 @@ public class FreeMarkerTemplateManager implements TemplateManager {
     }
 
     public ReportTemplate getTemplateFrom(final String template) throws Exception {
-        return new FreemarkerReportTemplate(cfg, template);
+        ReportTemplate reportTemplate = templates.get(template);
+        if (reportTemplate == null) {
+            templates.putIfAbsent(template, new FreemarkerReportTemplate(cfg, template));
+            reportTemplate = templates.get(template);
+        }
+        return reportTemplate;
     }
 
 }
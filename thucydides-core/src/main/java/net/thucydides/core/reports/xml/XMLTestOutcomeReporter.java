@@ -13,6 +13,7 @@ import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FilenameFilter;
@@ -35,6 +36,18 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
 
     private transient String qualifier;
 
+    /**
+     * XStream is expensive to configure but thread-safe once configured, so the same instances are shared.
+     */
+    private static final XStream XML_WRITER = configured(new XStream(new DomDriver("UTF-8")));
+    private static final XStream XML_READER = configured(new XStream());
+
+    private static XStream configured(XStream xstream) {
+        xstream.alias("acceptance-test-run", TestOutcome.class);
+        xstream.registerConverter(new TestOutcomeConverter());
+        return xstream;
+    }
+
     public void setQualifier(final String qualifier) {
         this.qualifier = qualifier;
     }
@@ -63,10 +76,7 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
 
         Preconditions.checkNotNull(outputDirectory);
 
-        XStream xstream = new XStream(new DomDriver("UTF-8"));;
-        xstream.alias("acceptance-test-run", TestOutcome.class);
-        xstream.registerConverter(usingXmlConverter());
-        String xmlContents = xstream.toXML(storedTestOutcome);
+        String xmlContents = XML_WRITER.toXML(storedTestOutcome);
 
         String reportFilename = reportFor(storedTestOutcome);
         LOGGER.debug("Calculated report filename: {}", reportFilename);
@@ -79,10 +89,6 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
         return report;
     }
 
-    private TestOutcomeConverter usingXmlConverter() {
-        return new TestOutcomeConverter();
-    }
-
     private String reportFor(final TestOutcome testOutcome) {
         return testOutcome.withQualifier(qualifier).getReportName(XML);
     }
@@ -91,16 +97,15 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
 
         InputStream input = null;
         try {
-            XStream xstream = new XStream();
-            xstream.alias("acceptance-test-run", TestOutcome.class);
-            xstream.registerConverter(usingXmlConverter());
-            input = new FileInputStream(reportFile);
-            return Optional.of((TestOutcome) xstream.fromXML(input));
+            input = new BufferedInputStream(new FileInputStream(reportFile));
+            return Optional.of((TestOutcome) XML_READER.fromXML(input));
         } catch (CannotResolveClassException e) {
             LOGGER.warn("Tried to load a file that is not a thucydides report: " + reportFile);
             return Optional.absent();
         } finally {
-            input.close();
+            if (input != null) {
+                input.close();
+            }
         }
     }
 
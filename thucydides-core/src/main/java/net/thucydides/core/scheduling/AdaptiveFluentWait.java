@@ -0,0 +1,50 @@
+package net.thucydides.core.scheduling;
+
+import com.google.common.base.Function;
+import org.openqa.selenium.support.ui.Clock;
+import org.openqa.selenium.support.ui.Duration;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.SystemClock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A wait that polls quickly at first and then backs off to the usual polling interval, so that
+ * it does not overshoot conditions that are met shortly after the wait starts.
+ * When waiting on a web page, the pauses can also end as soon as the page changes (see DomMutationWait).
+ */
+public class AdaptiveFluentWait<T> extends ThucydidesFluentWait<T> {
+
+    private final DomMutationWait domMutationWait;
+    private PollingBackoff backoff;
+
+    public AdaptiveFluentWait(T input) {
+        this(input, new SystemClock(), Sleeper.SYSTEM_SLEEPER);
+    }
+
+    public AdaptiveFluentWait(T input, Clock clock, Sleeper sleeper) {
+        this(input, clock, sleeper, new DomMutationWait());
+    }
+
+    public AdaptiveFluentWait(T input, Clock clock, Sleeper sleeper, DomMutationWait domMutationWait) {
+        super(input, clock, sleeper);
+        this.domMutationWait = domMutationWait;
+    }
+
+    @Override
+    public <V> V until(Function<? super T, V> isTrue) {
+        backoff = new PollingBackoff(interval.in(MILLISECONDS));
+        return super.until(isTrue);
+    }
+
+    @Override
+    public void doWait() throws InterruptedException {
+        if (backoff == null) {
+            backoff = new PollingBackoff(interval.in(MILLISECONDS));
+        }
+        long pauseInMillis = backoff.nextIntervalInMillis();
+        if (!domMutationWait.waitForChangesIn(getInput(), pauseInMillis)) {
+            getSleeper().sleep(new Duration(pauseInMillis, MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.thucydides.core.scheduling;
+
+import com.google.common.collect.MapMaker;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Pauses a wait until the page changes, rather than for a fixed time.
+ * A MutationObserver is injected into the page, and the pause ends as soon as the DOM is modified,
+ * or when the polling interval is over if nothing happens in the meantime.
+ * This is only done when the thucydides.wait.for.dom.changes property is set, and the driver's
+ * asynchronous script timeout (webdriver.timeouts.script) must be longer than the polling interval.
+ * For drivers that cannot run the script, the caller is told to pause in the usual way.
+ */
+public class DomMutationWait {
+
+    /**
+     * Don't end the pause before this time, even if the page changes, so that pages that are always
+     * changing (e.g. with animations) are not polled continuously.
+     */
+    private static final long MINIMUM_PAUSE_IN_MILLIS = 10;
+
+    private static final String WAIT_FOR_DOM_CHANGES
+            = "var callback = arguments[arguments.length - 1];"
+            + "var maximumPause = arguments[0], minimumPause = arguments[1];"
+            + "var Observer = window.MutationObserver || window.WebKitMutationObserver;"
+            + "if (!Observer || !document.documentElement) { callback(false); return; }"
+            + "var started = new Date().getTime(), finished = false, observer;"
+            + "var finish = function() {"
+            + "  if (!finished) { finished = true; observer.disconnect(); callback(true); }"
+            + "};"
+            + "observer = new Observer(function() {"
+            + "  setTimeout(finish, Math.max(0, started + minimumPause - new Date().getTime()));"
+            + "});"
+            + "observer.observe(document.documentElement,"
+            + "                 {childList: true, attributes: true, characterData: true, subtree: true});"
+            + "setTimeout(finish, maximumPause);";
+
+    private static final Set<WebDriver> UNSUPPORTED_DRIVERS
+            = Collections.newSetFromMap(new MapMaker().weakKeys().<WebDriver, Boolean>makeMap());
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomMutationWait.class);
+
+    private final boolean enabled;
+
+    public DomMutationWait() {
+        this(Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    public DomMutationWait(EnvironmentVariables environmentVariables) {
+        this.enabled = environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.WAIT_FOR_DOM_CHANGES, false);
+    }
+
+    /**
+     * Pause until the DOM of the current page changes, or for at most maximumPauseInMillis.
+     *
+     * @return false if the pause could not be done this way, in which case the caller should sleep instead.
+     */
+    public boolean waitForChangesIn(Object input, long maximumPauseInMillis) {
+        if (!canWaitForChangesIn(input)) {
+            return false;
+        }
+        WebDriver driver = (WebDriver) input;
+        try {
+            Object changed = ((JavascriptExecutor) driver).executeAsyncScript(WAIT_FOR_DOM_CHANGES,
+                                                                               maximumPauseInMillis,
+                                                                               MINIMUM_PAUSE_IN_MILLIS);
+            if (Boolean.TRUE.equals(changed)) {
+                return true;
+            }
+            LOGGER.debug("This browser does not support MutationObserver, so waits will poll the page instead");
+        } catch (WebDriverException scriptFailed) {
+            LOGGER.warn("Could not wait for changes to the page, so waits will poll the page instead "
+                        + "(is webdriver.timeouts.script longer than the polling interval?): {}",
+                        scriptFailed.getMessage());
+        }
+        UNSUPPORTED_DRIVERS.add(driver);
+        return false;
+    }
+
+    private boolean canWaitForChangesIn(Object input) {
+        return enabled
+                && (input instanceof WebDriver)
+                && (input instanceof JavascriptExecutor)
+                && !UNSUPPORTED_DRIVERS.contains(input);
+    }
+}
@@ -0,0 +1,25 @@
+package net.thucydides.core.scheduling;
+
+/**
+ * Works out how long to pause between two polls of a wait.
+ * The first polls come quickly, so that conditions that are almost met are noticed straight away,
+ * and the pauses then double until they reach the usual polling interval of the wait.
+ */
+public class PollingBackoff {
+
+    public static final long INITIAL_INTERVAL_IN_MILLIS = 50;
+
+    private final long maximumIntervalInMillis;
+    private long nextIntervalInMillis;
+
+    public PollingBackoff(long maximumIntervalInMillis) {
+        this.maximumIntervalInMillis = Math.max(maximumIntervalInMillis, 0);
+        this.nextIntervalInMillis = Math.min(INITIAL_INTERVAL_IN_MILLIS, this.maximumIntervalInMillis);
+    }
+
+    public long nextIntervalInMillis() {
+        long currentIntervalInMillis = nextIntervalInMillis;
+        nextIntervalInMillis = Math.min(Math.max(currentIntervalInMillis * 2, 1), maximumIntervalInMillis);
+        return currentIntervalInMillis;
+    }
+}
@@ -50,6 +50,15 @@ public abstract class ThucydidesFluentWait<T> implements Wait<T> {
     }
 
     public <V> V until(Function<? super T, V> isTrue) {
+        long start = getClock().now();
+        try {
+            return waitUntil(isTrue);
+        } finally {
+            WaitTimes.getWaitTimes().recordWait(getClock().now() - start);
+        }
+    }
+
+    private <V> V waitUntil(Function<? super T, V> isTrue) {
         long end = getClock().laterBy(timeout.in(MILLISECONDS));
         RuntimeException lastException = null;
         while (true) {
@@ -0,0 +1,70 @@
+package net.thucydides.core.scheduling;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps a histogram of how long the waits in this JVM took, from the start of the wait until the
+ * condition was met or the wait timed out.
+ * Each wait is counted in the first bucket whose upper limit is at least as long as the wait.
+ */
+public class WaitTimes {
+
+    private static final long[] BUCKET_LIMITS_IN_MILLIS = {50, 100, 250, 500, 1000, 2500, 5000, 10000, Long.MAX_VALUE};
+
+    private static final WaitTimes WAIT_TIMES = new WaitTimes();
+
+    private final AtomicLongArray waitCounts = new AtomicLongArray(BUCKET_LIMITS_IN_MILLIS.length);
+    private final AtomicLong totalWaitTimeInMillis = new AtomicLong();
+
+    public static WaitTimes getWaitTimes() {
+        return WAIT_TIMES;
+    }
+
+    public void recordWait(long durationInMillis) {
+        waitCounts.incrementAndGet(bucketFor(durationInMillis));
+        totalWaitTimeInMillis.addAndGet(Math.max(durationInMillis, 0));
+    }
+
+    private int bucketFor(long durationInMillis) {
+        int bucket = 0;
+        while (durationInMillis > BUCKET_LIMITS_IN_MILLIS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    public long getWaitCount() {
+        long waitCount = 0;
+        for (int bucket = 0; bucket < waitCounts.length(); bucket++) {
+            waitCount += waitCounts.get(bucket);
+        }
+        return waitCount;
+    }
+
+    public long getTotalWaitTimeInMillis() {
+        return totalWaitTimeInMillis.get();
+    }
+
+    /**
+     * The number of waits in each bucket, keyed by the upper limit of the bucket in milliseconds.
+     * Waits longer than the largest limit are counted against Long.MAX_VALUE.
+     */
+    public SortedMap<Long, Long> getWaitCountsByDuration() {
+        ImmutableSortedMap.Builder<Long, Long> waitCountsByDuration = ImmutableSortedMap.naturalOrder();
+        for (int bucket = 0; bucket < BUCKET_LIMITS_IN_MILLIS.length; bucket++) {
+            waitCountsByDuration.put(BUCKET_LIMITS_IN_MILLIS[bucket], waitCounts.get(bucket));
+        }
+        return waitCountsByDuration.build();
+    }
+
+    public void clear() {
+        for (int bucket = 0; bucket < waitCounts.length(); bucket++) {
+            waitCounts.set(bucket, 0);
+        }
+        totalWaitTimeInMillis.set(0);
+    }
+}
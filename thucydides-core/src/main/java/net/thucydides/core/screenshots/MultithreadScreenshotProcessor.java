@@ -0,0 +1,190 @@
+package net.thucydides.core.screenshots;
+
+import com.google.inject.Inject;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Processes screenshots using a bounded pool of worker threads.
+ * The number of workers and the maximum number of waiting screenshots can be configured using the
+ * thucydides.screenshot.processor.threads and thucydides.screenshot.processor.queue.size properties.
+ * When the queue is full, the calling thread processes the screenshot itself, which slows the tests down
+ * just enough to let the workers catch up.
+ */
+public class MultithreadScreenshotProcessor implements ScreenshotProcessor {
+
+    private static final int QUEUED_SCREENSHOTS_PER_THREAD = 4;
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 60;
+
+    private final ThreadPoolExecutor executor;
+    private final ScreenshotResizer screenshotResizer;
+    private final Thread shutdownHook;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition allScreenshotsProcessed = lock.newCondition();
+    private int pendingScreenshots = 0;
+
+    private final Logger logger = LoggerFactory.getLogger(MultithreadScreenshotProcessor.class);
+
+    @Inject
+    public MultithreadScreenshotProcessor(EnvironmentVariables environmentVariables) {
+        this.screenshotResizer = new ScreenshotResizer(environmentVariables);
+        int threadCount = getThreadCountFrom(environmentVariables);
+        int queueSize = getQueueSizeFrom(environmentVariables, threadCount);
+        this.executor = new ThreadPoolExecutor(threadCount, threadCount,
+                                               0L, TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<Runnable>(queueSize),
+                                               new ScreenshotThreadFactory(),
+                                               new ProcessInCallingThread());
+        this.shutdownHook = new Thread() {
+            @Override
+            public void run() {
+                finishProcessing();
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private int getThreadCountFrom(EnvironmentVariables environmentVariables) {
+        int threadCount = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.SCREENSHOT_PROCESSOR_THREADS,
+                                                                    Runtime.getRuntime().availableProcessors());
+        return Math.max(threadCount, 1);
+    }
+
+    private int getQueueSizeFrom(EnvironmentVariables environmentVariables, int threadCount) {
+        int queueSize = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.SCREENSHOT_PROCESSOR_QUEUE_SIZE,
+                                                                  threadCount * QUEUED_SCREENSHOTS_PER_THREAD);
+        return Math.max(queueSize, 1);
+    }
+
+    public void queueScreenshot(QueuedScreenshot queuedScreenshot) {
+        screenshotQueued();
+        executor.execute(new ScreenshotTask(queuedScreenshot));
+    }
+
+    public void waitUntilDone() {
+        lock.lock();
+        try {
+            while (pendingScreenshots > 0) {
+                allScreenshotsProcessed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return (pendingScreenshots == 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finish processing any queued screenshots and stop the worker threads.
+     * Screenshots queued after shutdown are processed on the calling thread.
+     * The shutdown hook is removed, so processors that are shut down explicitly are not kept until the JVM exits.
+     */
+    public void shutdown() {
+        removeShutdownHook();
+        finishProcessing();
+    }
+
+    private void removeShutdownHook() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException alreadyShuttingDown) {
+            logger.debug("JVM is already shutting down");
+        }
+    }
+
+    private void finishProcessing() {
+        waitUntilDone();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Screenshot processing threads did not terminate cleanly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void screenshotQueued() {
+        lock.lock();
+        try {
+            pendingScreenshots++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void screenshotProcessed() {
+        lock.lock();
+        try {
+            pendingScreenshots--;
+            if (pendingScreenshots == 0) {
+                allScreenshotsProcessed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    class ScreenshotTask implements Runnable {
+
+        private final QueuedScreenshot queuedScreenshot;
+
+        ScreenshotTask(QueuedScreenshot queuedScreenshot) {
+            this.queuedScreenshot = queuedScreenshot;
+        }
+
+        public void run() {
+            try {
+                screenshotResizer.process(queuedScreenshot);
+            } finally {
+                screenshotProcessed();
+            }
+        }
+    }
+
+    /**
+     * Provides back-pressure when the queue is full, and makes sure screenshots queued during shutdown
+     * are still saved.
+     */
+    static final class ProcessInCallingThread implements RejectedExecutionHandler {
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            task.run();
+        }
+    }
+
+    static final class ScreenshotThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String poolName;
+
+        ScreenshotThreadFactory() {
+            poolName = "screenshot-processor-" + POOL_NUMBER.getAndIncrement();
+        }
+
+        public Thread newThread(final Runnable r) {
+            Thread thread = new Thread(r, poolName + "-thread-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
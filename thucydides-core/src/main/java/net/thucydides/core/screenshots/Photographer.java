@@ -2,6 +2,7 @@ package net.thucydides.core.screenshots;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.io.Files;
 import com.jhlabs.image.BoxBlurFilter;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.digest.Digest;
@@ -20,16 +21,15 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.WritableRaster;
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.UUID;
 
 /**
  * The photographer takes and stores screenshots during the test.
  * The actual screenshots are taken using the specified web driver,
  * and are stored in the specified target directory. Screenshots
- * are numbered sequentially.
+ * are named after a hash of their contents, so identical screenshots are only stored once.
  *
  * @author johnsmart
  */
@@ -38,19 +38,17 @@ public class Photographer {
     private static final int PNG_SUFFIX_LENGTH = ".png".length();
     private final WebDriver driver;
     private final File targetDirectory;
-    private final ScreenshotSequence screenshotSequence;
     private Optional<BlurLevel> blurLevel;
 
     private final Logger logger = LoggerFactory.getLogger(Photographer.class);
     private ScreenshotProcessor screenshotProcessor;
     private EnvironmentVariables environmentVariables;
+    private Optional<ScreenChangeDetector> screenChangeDetector = Optional.absent();
 
     protected Logger getLogger() {
         return logger;
     }
 
-    private static final ScreenshotSequence DEFAULT_SCREENSHOT_SEQUENCE = new ScreenshotSequence();
-
     public Photographer(final WebDriver driver, final File targetDirectory) {
         this(driver, targetDirectory, Injectors.getInjector().getInstance(ScreenshotProcessor.class), null);
     }
@@ -83,7 +81,6 @@ public class Photographer {
         this.driver = driver;
         this.targetDirectory = targetDirectory;
         this.screenshotProcessor = screenshotProcessor;
-        this.screenshotSequence = DEFAULT_SCREENSHOT_SEQUENCE;
         this.blurLevel = Optional.fromNullable(blurLevel);
         this.environmentVariables = environmentVariables;
     }
@@ -92,64 +89,108 @@ public class Photographer {
         return blurLevel;
     }
 
-    protected long nextScreenshotNumber() {
-        return screenshotSequence.next();
+    /**
+     * Screenshots are stored by content: identical screenshots share the same file name,
+     * so each distinct image is only written once, however many steps or tests it appears in.
+     */
+    protected String screenshotNameFor(final byte[] screenshotData) {
+        String blurSuffix = blurLevel.isPresent() ? "-" + blurLevel.get().name().toLowerCase() : "";
+        return "screenshot-" + Digest.ofBytes(screenshotData) + blurSuffix + ".png";
     }
 
-    private String nextScreenshotName(final String prefix) {
-        long nextScreenshotNumber = nextScreenshotNumber();
-        return "screenshot-" + Digest.ofTextValue(prefix) + nextScreenshotNumber + ".png";
+    /**
+     * Take a screenshot of the current browser and store it in the output directory, along with the HTML source
+     * of the page if configured.
+     * The screenshot is only decoded here if it needs to be blurred; otherwise the raw PNG data is handed
+     * straight to the screenshot processor, which writes it to disk once.
+     * If an identical screenshot has already been stored, the existing file is returned and nothing is written.
+     */
+    public Optional<ScreenshotAndHtmlSource> takeScreenshot() {
+        if (!driverCanTakeSnapshots()) {
+            return Optional.absent();
+        }
+        Optional<File> screenshot = previousScreenshotIfScreenUnchanged();
+        if (!screenshot.isPresent()) {
+            screenshot = captureScreenshot();
+        }
+        if (!screenshot.isPresent()) {
+            return Optional.absent();
+        }
+        Optional<File> pageSource = Optional.absent();
+        if (!blurLevel.isPresent() && shouldSavePageSource()) {
+            pageSource = savePageSource();
+        }
+        return Optional.of(new ScreenshotAndHtmlSource(screenshot.get(), pageSource.orNull()));
     }
 
     /**
-     * Take a screenshot of the current browser and store it in the output directory.
+     * @deprecated Screenshots are named after their contents, so the prefix is no longer used.
+     * Use takeScreenshot() instead.
      */
+    @Deprecated
     public Optional<File> takeScreenshot(final String prefix) {
-        if (driverCanTakeSnapshots()) {
-            try {
-                File screenshotFile = null;
-                Object capturedScreenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-                if (isAFile(capturedScreenshot)) {
-                    screenshotFile = (File) capturedScreenshot;
-                } else if (isByteArray(capturedScreenshot)) {
-                    screenshotFile = saveScreenshotData((byte[]) capturedScreenshot);
-                }
-                if (screenshotFile != null && blurLevel.isPresent()) {
-                    screenshotFile = blur(screenshotFile);
-                }
-                if (screenshotFile != null) {
-                    File savedScreenshot = targetScreenshot(prefix);
-                    screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotFile, savedScreenshot));
+        Optional<ScreenshotAndHtmlSource> screenshot = takeScreenshot();
+        if (screenshot.isPresent()) {
+            return Optional.of(screenshot.get().getScreenshotFile());
+        }
+        return Optional.absent();
+    }
 
-                    if (!blurLevel.isPresent() && shouldSavePageSource()) {
-                        savePageSourceFor(savedScreenshot.getAbsolutePath());
-                    }
+    private Optional<File> captureScreenshot() {
+        try {
+            Object capturedScreenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            if (isAFile(capturedScreenshot) || isByteArray(capturedScreenshot)) {
+                byte[] screenshotData = screenshotDataFrom(capturedScreenshot);
+                File savedScreenshot = targetScreenshot(screenshotData);
+                if (!savedScreenshot.exists()) {
+                    screenshotProcessor.queueScreenshot(queuedScreenshotFor(screenshotData, savedScreenshot));
+                }
 
-                    return Optional.of(savedScreenshot);
+                if (screenChangeDetector.isPresent()) {
+                    screenChangeDetector.get().recordScreenshot(savedScreenshot);
                 }
-            } catch (Throwable e) {
-                getLogger().warn("Failed to write screenshot (possibly an out of memory error): " + e.getMessage());
+                return Optional.of(savedScreenshot);
             }
+        } catch (Throwable e) {
+            getLogger().warn("Failed to write screenshot (possibly an out of memory error): " + e.getMessage());
+        }
+        return Optional.absent();
+    }
+
+    private Optional<File> previousScreenshotIfScreenUnchanged() {
+        if (screenChangeDetector.isPresent()) {
+            return screenChangeDetector.get().previousScreenshotIfUnchanged(driver);
         }
         return Optional.absent();
     }
 
+    private byte[] screenshotDataFrom(Object capturedScreenshot) throws IOException {
+        if (isAFile(capturedScreenshot)) {
+            return Files.toByteArray((File) capturedScreenshot);
+        } else {
+            return (byte[]) capturedScreenshot;
+        }
+    }
+
+    private QueuedScreenshot queuedScreenshotFor(byte[] screenshotData, File savedScreenshot) throws IOException {
+        if (blurLevel.isPresent()) {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(screenshotData));
+            return new QueuedScreenshot(blur(image), savedScreenshot);
+        } else {
+            return new QueuedScreenshot(screenshotData, savedScreenshot);
+        }
+    }
+
     private boolean shouldSavePageSource() {
         return environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_STORE_HTML_SOURCE, false);
     }
 
-    protected File blur(File srcFile) throws IOException {
-        BufferedImage srcImage = ImageIO.read(srcFile);
+    protected BufferedImage blur(BufferedImage srcImage) {
         BufferedImage destImage = deepCopy(srcImage);
         BoxBlurFilter boxBlurFilter = new BoxBlurFilter();
         boxBlurFilter.setRadius(blurLevel.get().getRadius());
         boxBlurFilter.setIterations(3);
-        destImage = boxBlurFilter.filter(srcImage, destImage);
-
-        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-        ImageIO.write(destImage, "png", outStream);
-
-        return  saveScreenshotData(outStream.toByteArray());
+        return boxBlurFilter.filter(srcImage, destImage);
     }
 
     private BufferedImage deepCopy(BufferedImage srcImage) {
@@ -159,20 +200,6 @@ public class Photographer {
         return new BufferedImage(cm, raster, isAlphaPremultiplied, null);
     }
 
-    private File saveScreenshotData(byte[] capturedScreenshot) throws IOException {
-        File screenshotFile;
-        String screenshotTempFileName = "screenshot_" + UUID.randomUUID();
-        screenshotFile = new File(FileUtils.getTempDirectory(), screenshotTempFileName);
-        byte[] screenshotData = capturedScreenshot;
-        screenshotFile.deleteOnExit();
-        if (screenshotData.length > 0) {
-            FileUtils.writeByteArrayToFile(screenshotFile, screenshotData);
-        } else {
-            FileUtils.touch(screenshotFile);
-        }
-        return screenshotFile;
-    }
-
     private boolean isAFile(Object screenshot) {
         return (screenshot instanceof File);
     }
@@ -181,9 +208,9 @@ public class Photographer {
         return (screenshot instanceof byte[]);
     }
 
-    private File targetScreenshot(String prefix) {
+    private File targetScreenshot(byte[] screenshotData) {
         targetDirectory.mkdirs();
-        return new File(targetDirectory, nextScreenshotName(prefix));
+        return new File(targetDirectory, screenshotNameFor(screenshotData));
     }
 
     protected boolean driverCanTakeSnapshots() {
@@ -197,16 +224,31 @@ public class Photographer {
         }
     }
 
-    private void savePageSourceFor(final String screenshotFile) throws IOException {
+    /**
+     * The HTML source is named after a hash of its own contents rather than after the screenshot, as identical
+     * screenshots can be taken of pages with different sources.
+     */
+    private Optional<File> savePageSource() {
         try {
-            WebDriver webdriver = driver;
-            String pageSource = webdriver.getPageSource();
-
-            File savedSource = new File(sourceCodeFileFor(screenshotFile));
-            FileUtils.writeStringToFile(savedSource, pageSource);
+            String pageSource = driver.getPageSource();
+
+            File savedSource = new File(targetDirectory, "source-" + Digest.ofTextValue(pageSource) + ".html");
+            if (!savedSource.exists()) {
+                File temporarySource = ScreenshotFiles.temporaryFileFor(savedSource);
+                try {
+                    FileUtils.writeStringToFile(temporarySource, pageSource);
+                    ScreenshotFiles.moveIntoPlace(temporarySource, savedSource);
+                } finally {
+                    temporarySource.delete();
+                }
+            }
+            return Optional.of(savedSource);
         } catch (WebDriverException e) {
             getLogger().warn("Failed to save screen source code", e);
+        } catch (IOException e) {
+            getLogger().warn("Failed to save screen source code", e);
         }
+        return Optional.absent();
     }
 
 
@@ -215,6 +257,11 @@ public class Photographer {
         return rootFilename + ".html";
     }
 
+    /**
+     * @deprecated Only finds the HTML source of screenshots stored by earlier versions, which was named
+     * after the screenshot. The source saved with a new screenshot is returned by takeScreenshot().
+     */
+    @Deprecated
     public File getMatchingSourceCodeFor(final File screenshot) {
         if (screenshot != null) {
             return new File(sourceCodeFileFor(screenshot.getAbsolutePath()));
@@ -227,6 +274,14 @@ public class Photographer {
         this.screenshotProcessor = screenshotProcessor;
     }
 
+    /**
+     * If a screen change detector is provided, screenshots are only taken when the screen has changed
+     * since the last screenshot; otherwise the last screenshot is returned.
+     */
+    public void setScreenChangeDetector(ScreenChangeDetector screenChangeDetector) {
+        this.screenChangeDetector = Optional.fromNullable(screenChangeDetector);
+    }
+
     protected ScreenshotProcessor getScreenshotProcessor() {
         return screenshotProcessor;
     }
@@ -1,15 +1,38 @@
 package net.thucydides.core.screenshots;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 
+/**
+ * A screenshot waiting to be saved to its destination file.
+ * The screenshot can come from a temporary file, from the raw PNG data returned by the driver,
+ * or from an image that has already been decoded (e.g. to blur it), so that it never needs
+ * to be written to disk and read back before being saved.
+ */
 public class QueuedScreenshot {
 
     private final File filename;
     private final File sourceFilename;
+    private final byte[] screenshotData;
+    private final BufferedImage image;
 
     public QueuedScreenshot(File sourceFilename, File targetFilename) {
+        this(sourceFilename, null, null, targetFilename);
+    }
+
+    public QueuedScreenshot(byte[] screenshotData, File targetFilename) {
+        this(null, screenshotData, null, targetFilename);
+    }
+
+    public QueuedScreenshot(BufferedImage image, File targetFilename) {
+        this(null, null, image, targetFilename);
+    }
+
+    private QueuedScreenshot(File sourceFilename, byte[] screenshotData, BufferedImage image, File targetFilename) {
         this.filename = targetFilename;
         this.sourceFilename = sourceFilename;
+        this.screenshotData = screenshotData;
+        this.image = image;
     }
 
     public File getDestinationFile() {
@@ -19,4 +42,24 @@ public class QueuedScreenshot {
     public File getSourceFile() {
         return sourceFilename;
     }
+
+    public byte[] getScreenshotData() {
+        return screenshotData;
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public boolean hasSourceFile() {
+        return (sourceFilename != null);
+    }
+
+    public boolean hasScreenshotData() {
+        return (screenshotData != null);
+    }
+
+    public boolean hasImage() {
+        return (image != null);
+    }
 }
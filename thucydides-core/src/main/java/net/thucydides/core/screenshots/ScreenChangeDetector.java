@@ -0,0 +1,95 @@
+package net.thucydides.core.screenshots;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.io.Resources;
+import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+import static net.thucydides.core.webdriver.javascript.JavascriptSupport.javascriptIsSupportedIn;
+
+/**
+ * Decides whether the screen has changed since the last screenshot, without taking a new screenshot.
+ * A small script is injected into the page to count DOM mutations and user input events: if the count
+ * (and the page) is the same as when the last screenshot was taken, the last screenshot can be reused,
+ * saving a full screenshot round-trip to the browser.
+ * Detectors keep track of how many screenshots were taken and skipped for the current test.
+ */
+public class ScreenChangeDetector {
+
+    private static final String SCREEN_STATE_SCRIPT = "screenshots/screen-state.js";
+
+    private static String screenStateScript;
+
+    private Optional<String> lastScreenState = Optional.absent();
+    private Optional<File> lastScreenshot = Optional.absent();
+    private Optional<String> currentScreenState = Optional.absent();
+
+    private int screenshotsTaken = 0;
+    private int screenshotsSkipped = 0;
+
+    private final Logger logger = LoggerFactory.getLogger(ScreenChangeDetector.class);
+
+    /**
+     * Returns the last screenshot if the screen has not changed since it was taken.
+     * Otherwise, the current screen state is noted, ready to be associated with the next screenshot.
+     */
+    public synchronized Optional<File> previousScreenshotIfUnchanged(final WebDriver driver) {
+        currentScreenState = screenStateOf(driver);
+        if (currentScreenState.isPresent() && currentScreenState.equals(lastScreenState) && lastScreenshot.isPresent()) {
+            screenshotsSkipped++;
+            return lastScreenshot;
+        }
+        return Optional.absent();
+    }
+
+    public synchronized void recordScreenshot(final File screenshot) {
+        screenshotsTaken++;
+        lastScreenState = currentScreenState;
+        lastScreenshot = Optional.of(screenshot);
+    }
+
+    /**
+     * Forget the recorded screen state and statistics, e.g. at the start of a new test.
+     */
+    public synchronized void reset() {
+        lastScreenState = Optional.absent();
+        lastScreenshot = Optional.absent();
+        currentScreenState = Optional.absent();
+        screenshotsTaken = 0;
+        screenshotsSkipped = 0;
+    }
+
+    public synchronized int getScreenshotsTaken() {
+        return screenshotsTaken;
+    }
+
+    public synchronized int getScreenshotsSkipped() {
+        return screenshotsSkipped;
+    }
+
+    private Optional<String> screenStateOf(final WebDriver driver) {
+        if (driver == null || !javascriptIsSupportedIn(driver)) {
+            return Optional.absent();
+        }
+        try {
+            Object screenState = new JavascriptExecutorFacade(driver).executeScript(getScreenStateScript());
+            return (screenState == null) ? Optional.<String>absent() : Optional.of(screenState.toString());
+        } catch (Throwable e) {
+            logger.debug("Could not check for screen changes: " + e.getMessage());
+            return Optional.absent();
+        }
+    }
+
+    private static synchronized String getScreenStateScript() throws IOException {
+        if (screenStateScript == null) {
+            screenStateScript = Resources.toString(Resources.getResource(SCREEN_STATE_SCRIPT), Charsets.UTF_8);
+        }
+        return screenStateScript;
+    }
+}
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 import static org.apache.commons.io.FileUtils.checksumCRC32;
 
@@ -18,6 +19,8 @@ public class ScreenshotAndHtmlSource {
     private final File screenshot;
     private final File sourcecode;
 
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("screenshot-[0-9a-f]{64}(-[a-z]+)?\\.png");
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ScreenshotAndHtmlSource.class);
 
     public ScreenshotAndHtmlSource(File screenshot, File sourcecode) {
@@ -68,10 +71,21 @@ public class ScreenshotAndHtmlSource {
         return screenshot != null ? screenshot.hashCode() : 0;
     }
 
+    /**
+     * Screenshots are stored under a name derived from their contents, so two screenshots with the same name
+     * are identical, and two content-addressed screenshots with different names are not.
+     * Screenshots from older reports, with sequential names, are compared by checksum.
+     */
     public boolean hasIdenticalScreenshotsAs(ScreenshotAndHtmlSource anotherScreenshotAndHtmlSource) {
         if (hasNoScreenshot() || anotherScreenshotAndHtmlSource.hasNoScreenshot()) {
             return false;
         }
+        if (getScreenshotName().equals(anotherScreenshotAndHtmlSource.getScreenshotName())) {
+            return true;
+        }
+        if (isContentAddressed() && anotherScreenshotAndHtmlSource.isContentAddressed()) {
+            return false;
+        }
         try {
             File screenshotTargetDirectory = new File(getScreenshotFile().getParent());
             return (checksumCRC32(getScreenshotFile(screenshotTargetDirectory))
@@ -82,6 +96,14 @@ public class ScreenshotAndHtmlSource {
         return false;
     }
 
+    public String getScreenshotName() {
+        return getScreenshotFile().getName();
+    }
+
+    protected boolean isContentAddressed() {
+        return CONTENT_ADDRESSED_NAME.matcher(getScreenshotName()).matches();
+    }
+
     public File getScreenshotFile(File screenshotTargetDirectory) {
         return new File(screenshotTargetDirectory, getScreenshotFile().getName());
     }
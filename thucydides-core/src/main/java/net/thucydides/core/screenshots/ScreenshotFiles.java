@@ -0,0 +1,32 @@
+package net.thucydides.core.screenshots;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Screenshots and HTML sources are named after their contents, and a file that already exists is assumed to be
+ * complete and reused. So they are written to a temporary file in the same directory first, and then renamed
+ * into place, so that a file left half-written by a crashed or killed build is never picked up.
+ */
+final class ScreenshotFiles {
+
+    private ScreenshotFiles() {}
+
+    static File temporaryFileFor(final File destination) throws IOException {
+        File directory = destination.getParentFile();
+        directory.mkdirs();
+        return File.createTempFile(destination.getName() + "-", ".tmp", directory);
+    }
+
+    /**
+     * If another thread or process has already stored the same file, the existing one is kept.
+     */
+    static void moveIntoPlace(final File temporaryFile, final File destination) throws IOException {
+        if (!temporaryFile.renameTo(destination)) {
+            temporaryFile.delete();
+            if (!destination.exists()) {
+                throw new IOException("Could not rename " + temporaryFile + " to " + destination);
+            }
+        }
+    }
+}
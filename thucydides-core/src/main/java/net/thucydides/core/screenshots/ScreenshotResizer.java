@@ -0,0 +1,169 @@
+package net.thucydides.core.screenshots;
+
+import com.google.common.io.Files;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.images.SimpleImageInfo;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Saves a queued screenshot into its destination directory, resizing it on the way if a resized width
+ * has been configured. Used by the screenshot processors, so it needs to be safe to call from several threads.
+ */
+class ScreenshotResizer {
+
+    private final EnvironmentVariables environmentVariables;
+    private final Set<File> screenshotsInProgress = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+
+    private final Logger logger = LoggerFactory.getLogger(ScreenshotResizer.class);
+
+    ScreenshotResizer(EnvironmentVariables environmentVariables) {
+        this.environmentVariables = environmentVariables;
+    }
+
+    /**
+     * Screenshot file names are derived from their contents, so if the destination file already exists
+     * (or is being written by another thread) there is nothing more to do. Screenshots are only renamed
+     * into place once they have been completely written (see ScreenshotFiles).
+     */
+    public void process(QueuedScreenshot queuedScreenshot) {
+        File destination = queuedScreenshot.getDestinationFile();
+        if (destination.exists() || !screenshotsInProgress.add(destination)) {
+            discard(queuedScreenshot);
+            return;
+        }
+        try {
+            if (shouldResize(queuedScreenshot)) {
+                resizeScreenshot(queuedScreenshot);
+            } else {
+                saveScreenshot(queuedScreenshot);
+            }
+        } finally {
+            screenshotsInProgress.remove(destination);
+        }
+    }
+
+    private void discard(QueuedScreenshot queuedScreenshot) {
+        if (queuedScreenshot.hasSourceFile()) {
+            queuedScreenshot.getSourceFile().delete();
+        }
+    }
+
+    private int getResizedWidth() {
+        return environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.RESIZED_WIDTH, 0);
+    }
+
+    private boolean shouldResize(QueuedScreenshot queuedScreenshot) {
+        if (getResizedWidth() > 0) {
+            int width = widthOf(queuedScreenshot);
+            return (width > 0) && (width != getResizedWidth());
+        }
+        return false;
+    }
+
+    /**
+     * Only the PNG header is read here: the image itself is decoded at most once, and only if it needs resizing.
+     */
+    private int widthOf(QueuedScreenshot queuedScreenshot) {
+        try {
+            if (queuedScreenshot.hasImage()) {
+                return queuedScreenshot.getImage().getWidth();
+            } else if (queuedScreenshot.hasScreenshotData()) {
+                return new SimpleImageInfo(queuedScreenshot.getScreenshotData()).getWidth();
+            } else {
+                return new SimpleImageInfo(queuedScreenshot.getSourceFile()).getWidth();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read the stored screenshot dimensions: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private BufferedImage decode(QueuedScreenshot queuedScreenshot) throws IOException {
+        if (queuedScreenshot.hasImage()) {
+            return queuedScreenshot.getImage();
+        } else if (queuedScreenshot.hasScreenshotData()) {
+            return ImageIO.read(new ByteArrayInputStream(queuedScreenshot.getScreenshotData()));
+        } else {
+            return ImageIO.read(queuedScreenshot.getSourceFile());
+        }
+    }
+
+    private void saveScreenshot(QueuedScreenshot queuedScreenshot) {
+        try {
+            File destination = queuedScreenshot.getDestinationFile();
+            File temporaryFile = ScreenshotFiles.temporaryFileFor(destination);
+            try {
+                if (queuedScreenshot.hasImage()) {
+                    ImageIO.write(queuedScreenshot.getImage(), "png", temporaryFile);
+                } else if (queuedScreenshot.hasScreenshotData()) {
+                    Files.write(queuedScreenshot.getScreenshotData(), temporaryFile);
+                } else {
+                    Files.move(queuedScreenshot.getSourceFile(), temporaryFile);
+                }
+                ScreenshotFiles.moveIntoPlace(temporaryFile, destination);
+            } finally {
+                temporaryFile.delete();
+            }
+        } catch (Throwable e) {
+            logger.warn("Failed to save the screenshot to the destination directory: " + e.getMessage());
+        }
+    }
+
+    private void resizeScreenshot(QueuedScreenshot queuedScreenshot) {
+        try {
+            BufferedImage image = decode(queuedScreenshot);
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int targetWidth = getResizedWidth();
+            int targetHeight = (int) (((double) targetWidth / (double) width) * (double) height);
+
+            BufferedImage resizedImage = resize(image, targetWidth, targetHeight);
+            File destination = queuedScreenshot.getDestinationFile();
+            File temporaryFile = ScreenshotFiles.temporaryFileFor(destination);
+            try {
+                ImageIO.write(resizedImage, "png", temporaryFile);
+                ScreenshotFiles.moveIntoPlace(temporaryFile, destination);
+            } finally {
+                temporaryFile.delete();
+            }
+            if (queuedScreenshot.hasSourceFile()) {
+                queuedScreenshot.getSourceFile().delete();
+            }
+        } catch (Throwable e) {
+            logger.warn("Failed to resize screenshot: using original size " + e.getMessage());
+            saveScreenshot(queuedScreenshot);
+        }
+    }
+
+    private BufferedImage resize(BufferedImage image, int width, int height) {
+        int type = image.getType() == 0? BufferedImage.TYPE_INT_ARGB : image.getType();
+        BufferedImage resizedImage = new BufferedImage(width, height, type);
+        Graphics2D g = resizedImage.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+        g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                RenderingHints.VALUE_RENDER_QUALITY);
+
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return resizedImage;
+    }
+}
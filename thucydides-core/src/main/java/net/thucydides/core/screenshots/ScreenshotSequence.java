@@ -6,7 +6,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * A simple sequencer for screenshot numbers.
  * Numbers are guaranteed to be sequential.
  *
+ * @deprecated Screenshots are now named after a hash of their contents, so sequence numbers are no longer
+ * used in screenshot names. This class will be removed in a future release.
  */
+@Deprecated
 public class ScreenshotSequence {
     private AtomicLong sequenceNumber = new AtomicLong(1);
 
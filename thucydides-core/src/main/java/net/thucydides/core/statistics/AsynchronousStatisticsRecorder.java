@@ -0,0 +1,148 @@
+package net.thucydides.core.statistics;
+
+import com.google.common.collect.Lists;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.statistics.dao.TestOutcomeHistoryDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stores test outcomes in the statistics database on a separate writer thread.
+ * Test outcomes from all the test suites are queued, and the writer thread stores everything in the queue at once,
+ * so suites finishing at the same time share their database transactions.
+ * When the queue is full, recording waits until there is room, so no test outcomes are lost.
+ * Callers are expected to wait until the queued test outcomes are stored (see waitUntilStored()) before they
+ * finish, rather than leaving them to be stored while the JVM, and possibly the database, is shutting down.
+ */
+public class AsynchronousStatisticsRecorder {
+
+    private final TestOutcomeHistoryDAO testOutcomeHistoryDAO;
+    private final BlockingQueue<TestOutcome> queuedOutcomes;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition allOutcomesStored = lock.newCondition();
+    private int pendingOutcomes = 0;
+
+    private final AtomicLong storedOutcomeCount = new AtomicLong();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsynchronousStatisticsRecorder.class);
+
+    public AsynchronousStatisticsRecorder(TestOutcomeHistoryDAO testOutcomeHistoryDAO, int queueSize) {
+        this.testOutcomeHistoryDAO = testOutcomeHistoryDAO;
+        this.queuedOutcomes = new ArrayBlockingQueue<TestOutcome>(Math.max(queueSize, 1));
+        startWriterThread();
+    }
+
+    private void startWriterThread() {
+        Thread writer = new Thread(new StatisticsWriter(), "thucydides-statistics-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue test outcomes to be stored. If the queue is full, this waits until the writer thread has made room.
+     */
+    public void record(List<TestOutcome> testOutcomes) {
+        for (TestOutcome testOutcome : testOutcomes) {
+            outcomesQueued(1);
+            try {
+                queuedOutcomes.put(testOutcome);
+            } catch (InterruptedException e) {
+                outcomesProcessed(1);
+                Thread.currentThread().interrupt();
+                LOGGER.warn("Interrupted while queuing test outcomes: they will not be stored in the statistics database");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wait until all the queued test outcomes have been stored.
+     * @return false if there were still test outcomes waiting to be stored when the timeout expired.
+     */
+    public boolean waitUntilStored(long timeout, TimeUnit unit) {
+        long remainingTime = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (pendingOutcomes > 0) {
+                if (remainingTime <= 0) {
+                    return false;
+                }
+                remainingTime = allOutcomesStored.awaitNanos(remainingTime);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of test outcomes waiting to be stored.
+     */
+    public int getQueueDepth() {
+        return queuedOutcomes.size();
+    }
+
+    public long getStoredOutcomeCount() {
+        return storedOutcomeCount.get();
+    }
+
+    private void store(List<TestOutcome> testOutcomes) {
+        try {
+            testOutcomeHistoryDAO.storeTestOutcomes(testOutcomes);
+            storedOutcomeCount.addAndGet(testOutcomes.size());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to store test outcomes in the statistics database", e);
+        } finally {
+            outcomesProcessed(testOutcomes.size());
+        }
+    }
+
+    private void outcomesQueued(int count) {
+        lock.lock();
+        try {
+            pendingOutcomes += count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void outcomesProcessed(int count) {
+        lock.lock();
+        try {
+            pendingOutcomes -= count;
+            if (pendingOutcomes == 0) {
+                allOutcomesStored.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class StatisticsWriter implements Runnable {
+        public void run() {
+            while (true) {
+                List<TestOutcome> testOutcomes = Lists.newArrayList();
+                try {
+                    testOutcomes.add(queuedOutcomes.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queuedOutcomes.drainTo(testOutcomes);
+                store(testOutcomes);
+            }
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package net.thucydides.core.statistics;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Table;
 import com.google.inject.Inject;
 import net.thucydides.core.Thucydides;
 import net.thucydides.core.model.TestResult;
@@ -8,7 +14,9 @@ import net.thucydides.core.statistics.model.TestRun;
 import net.thucydides.core.statistics.model.TestRunTag;
 import net.thucydides.core.statistics.model.TestStatistics;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class HibernateTestStatisticsProvider implements TestStatisticsProvider {
 
@@ -45,6 +53,37 @@ public class HibernateTestStatisticsProvider implements TestStatisticsProvider {
         return null;
     }
 
+    @Override
+    public Map<String, TestStatistics> statisticsForTestsWithTitles(Collection<String> titles) {
+        Collection<String> distinctTitles = ImmutableSet.copyOf(titles);
+        Table<String, TestResult, Long> resultCounts = testOutcomeHistoryDAO.countTestRunsByTitleAndResult(distinctTitles);
+        ListMultimap<String, TestResult> results = testOutcomeHistoryDAO.getResultsForTestsWithTitles(distinctTitles);
+        SetMultimap<String, TestRunTag> latestTags = testOutcomeHistoryDAO.getLatestTagsForTestsWithTitles(distinctTitles);
+
+        Map<String, TestStatistics> statistics = Maps.newHashMap();
+        for (String title : distinctTitles) {
+            Map<TestResult, Long> resultCountsForTest = resultCounts.row(title);
+            statistics.put(title, new TestStatistics(totalOf(resultCountsForTest),
+                                                     countOf(TestResult.SUCCESS, resultCountsForTest),
+                                                     countOf(TestResult.FAILURE, resultCountsForTest),
+                                                     results.get(title),
+                                                     ImmutableList.copyOf(latestTags.get(title))));
+        }
+        return statistics;
+    }
+
+    private Long totalOf(Map<TestResult, Long> resultCounts) {
+        long total = 0;
+        for (Long count : resultCounts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    private Long countOf(TestResult result, Map<TestResult, Long> resultCounts) {
+        return resultCounts.containsKey(result) ? resultCounts.get(result) : 0L;
+    }
+
     private TestStatistics testStatisticsForTestsWithTag(WithTagNamed withCondition) {
         String tag = withCondition.getTag();
         Long totalTests = testOutcomeHistoryDAO.countTestRunsByTag(tag);
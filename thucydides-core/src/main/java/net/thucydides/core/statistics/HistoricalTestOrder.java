@@ -0,0 +1,123 @@
+package net.thucydides.core.statistics;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.statistics.dao.TestOutcomeHistoryDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Orders tests using their recorded history, so that the tests most likely to fail are run first, and
+ * long tests are started early. Tests that failed the last time they were run come first, followed by
+ * tests that have both passed and failed in their recent runs, then new tests, then tests that have
+ * been passing. Within each of these groups, the longest tests come first.
+ * The history of each test is read once and kept for the rest of the test run, and the history of all the
+ * tests being ordered is read together.
+ */
+public class HistoricalTestOrder {
+
+    private static final int RECENT_RUNS = 10;
+
+    private static final int RECENTLY_FAILING = 0;
+    private static final int FLAKY = 1;
+    private static final int NEW = 2;
+    private static final int PASSING = 3;
+
+    private final TestOutcomeHistoryDAO testOutcomeHistoryDAO;
+    private final Map<String, TestHistory> testHistories = new ConcurrentHashMap<String, TestHistory>();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoricalTestOrder.class);
+
+    @Inject
+    public HistoricalTestOrder(TestOutcomeHistoryDAO testOutcomeHistoryDAO) {
+        this.testOutcomeHistoryDAO = testOutcomeHistoryDAO;
+    }
+
+    private static class TestHistory {
+        private final int priority;
+        private final long averageDuration;
+
+        private TestHistory(List<TestResult> resultsMostRecentFirst, Long averageDuration) {
+            this.priority = priorityFrom(resultsMostRecentFirst);
+            this.averageDuration = (averageDuration == null) ? 0 : averageDuration;
+        }
+
+        private static int priorityFrom(List<TestResult> resultsMostRecentFirst) {
+            if (resultsMostRecentFirst.isEmpty()) {
+                return NEW;
+            }
+            if (isAFailure(resultsMostRecentFirst.get(0))) {
+                return RECENTLY_FAILING;
+            }
+            for (TestResult result : resultsMostRecentFirst.subList(0, Math.min(RECENT_RUNS,
+                                                                                resultsMostRecentFirst.size()))) {
+                if (isAFailure(result)) {
+                    return FLAKY;
+                }
+            }
+            return PASSING;
+        }
+
+        private static boolean isAFailure(TestResult result) {
+            return (result == TestResult.FAILURE) || (result == TestResult.ERROR);
+        }
+    }
+
+    /**
+     * @param titleOf the title under which the history of each test is recorded.
+     * @return the tests, in the order in which they should be run.
+     */
+    public <T> List<T> inPriorityOrder(final List<T> tests, final Function<T, String> titleOf) {
+        List<T> orderedTests = Lists.newArrayList(tests);
+        try {
+            loadHistoriesFor(Lists.transform(tests, titleOf));
+        } catch (RuntimeException couldNotReadHistory) {
+            LOGGER.warn("Could not read the test history, so tests will be run in their usual order",
+                        couldNotReadHistory);
+            return orderedTests;
+        }
+        Collections.sort(orderedTests, new Comparator<T>() {
+            public int compare(T test, T otherTest) {
+                TestHistory history = testHistories.get(titleOf.apply(test));
+                TestHistory otherHistory = testHistories.get(titleOf.apply(otherTest));
+                if (history.priority != otherHistory.priority) {
+                    return (history.priority < otherHistory.priority) ? -1 : 1;
+                }
+                if (history.averageDuration != otherHistory.averageDuration) {
+                    return (history.averageDuration > otherHistory.averageDuration) ? -1 : 1;
+                }
+                return 0;
+            }
+        });
+        return orderedTests;
+    }
+
+    private void loadHistoriesFor(Collection<String> titles) {
+        List<String> unknownTitles = Lists.newArrayList();
+        for (String title : titles) {
+            if (!testHistories.containsKey(title)) {
+                unknownTitles.add(title);
+            }
+        }
+        if (unknownTitles.isEmpty()) {
+            return;
+        }
+        ListMultimap<String, TestResult> results = testOutcomeHistoryDAO.getResultsForTestsWithTitles(unknownTitles);
+        Map<String, Long> averageDurations = testOutcomeHistoryDAO.getAverageDurationsForTestsWithTitles(unknownTitles);
+        for (String title : unknownTitles) {
+            testHistories.put(title, new TestHistory(ImmutableList.copyOf(results.get(title)),
+                                                     averageDurations.get(title)));
+        }
+    }
+}
@@ -12,21 +12,34 @@ import net.thucydides.core.steps.ExecutedStepDescription;
 import net.thucydides.core.steps.StepFailure;
 import net.thucydides.core.steps.StepListener;
 import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Records test results in a database, for reporting on test statistics.
+ * The results are stored at the end of each test suite. If thucydides.statistics.record.in.background is set,
+ * they are stored by an AsynchronousStatisticsRecorder, which lets suites finishing at the same time share their
+ * database transactions; the suite still waits until its results are stored, so that reports see every result
+ * and nothing is left to store while the JVM is shutting down.
  */
 public class StatisticsListener implements StepListener {
 
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final long RECORDING_TIMEOUT_IN_SECONDS = 60;
+
     private final TestOutcomeHistoryDAO testOutcomeHistoryDAO;
     private final EnvironmentVariables environmentVariables;
     private final List<TestOutcome> testOutcomes;
     private final DatabaseConfig databaseConfig;
+    private AsynchronousStatisticsRecorder recorder;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatisticsListener.class);
 
     @Inject
     public StatisticsListener(TestOutcomeHistoryDAO testOutcomeHistoryDAO,
@@ -63,16 +76,53 @@ public class StatisticsListener implements StepListener {
 
     public void testSuiteFinished() {
         if (historyActivated()) {
-            synchronized (testOutcomes) {
-                storePending(testOutcomes);
+            storePending(takePendingOutcomes());
+        }
+    }
+
+    private List<TestOutcome> takePendingOutcomes() {
+        synchronized (testOutcomes) {
+            List<TestOutcome> outcomesReadyToBeStored = ImmutableList.copyOf(testOutcomes);
+            testOutcomes.clear();
+            return outcomesReadyToBeStored;
+        }
+    }
+
+    private void storePending(List<TestOutcome> outcomesReadyToBeStored) {
+        if (recordInBackground()) {
+            getRecorder().record(outcomesReadyToBeStored);
+            if (!waitUntilRecorded(RECORDING_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("{} test outcomes had still not been stored in the statistics database after {} seconds",
+                            getRecorder().getQueueDepth(), RECORDING_TIMEOUT_IN_SECONDS);
             }
+        } else {
+            testOutcomeHistoryDAO.storeTestOutcomes(outcomesReadyToBeStored);
+        }
+    }
+
+    /**
+     * Wait until any test results being recorded in the background have been stored.
+     * @return false if some test results had still not been stored when the timeout expired.
+     */
+    public boolean waitUntilRecorded(long timeout, TimeUnit unit) {
+        AsynchronousStatisticsRecorder currentRecorder;
+        synchronized (this) {
+            currentRecorder = recorder;
+        }
+        return (currentRecorder == null) || currentRecorder.waitUntilStored(timeout, unit);
+    }
+
+    public synchronized AsynchronousStatisticsRecorder getRecorder() {
+        if (recorder == null) {
+            int queueSize = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.STATISTICS_QUEUE_SIZE,
+                                                                      DEFAULT_QUEUE_SIZE);
+            recorder = new AsynchronousStatisticsRecorder(testOutcomeHistoryDAO, queueSize);
         }
+        return recorder;
     }
 
-    private void storePending(List<TestOutcome> testOutcomes) {
-        List<TestOutcome> outcomesReadyToBeStored = ImmutableList.copyOf(testOutcomes);
-        testOutcomeHistoryDAO.storeTestOutcomes(outcomesReadyToBeStored);
-        testOutcomes.removeAll(outcomesReadyToBeStored);
+    private boolean recordInBackground() {
+        return environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.STATISTICS_RECORD_IN_BACKGROUND, false);
     }
 
 
@@ -4,7 +4,9 @@ import net.thucydides.core.statistics.model.TestRun;
 import net.thucydides.core.statistics.model.TestRunTag;
 import net.thucydides.core.statistics.model.TestStatistics;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A description goes here.
@@ -19,6 +21,12 @@ public interface TestStatisticsProvider {
 
     TestStatistics statisticsForTests(With withCondition);
 
+    /**
+     * Statistics for each of the tests with the given titles, indexed by title.
+     * The statistics for all the tests are read together, rather than test by test.
+     */
+    Map<String, TestStatistics> statisticsForTestsWithTitles(Collection<String> titles);
+
     List<TestRunTag> findAllTags();
 
     List<String> findAllTagTypes();
@@ -0,0 +1,431 @@
+package net.thucydides.core.statistics.dao;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Lists;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Table;
+import com.google.common.collect.TreeBasedTable;
+import com.google.inject.Inject;
+import net.thucydides.core.Thucydides;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestTag;
+import net.thucydides.core.pages.SystemClock;
+import net.thucydides.core.statistics.model.TestRun;
+import net.thucydides.core.statistics.model.TestRunTag;
+import net.thucydides.core.statistics.service.TagProvider;
+import net.thucydides.core.statistics.service.TagProviderService;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.joda.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Stores test statistics in a directory of files rather than in a database, so that no database server is needed.
+ * Run counts are read from daily rollups, and only queries that need the individual test runs read them.
+ * The statistics are kept in the "stats-[project key]-history" directory in the Thucydides home directory.
+ */
+public class FileTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
+
+    private final EnvironmentVariables environmentVariables;
+    private final TagProviderService tagProviderService;
+    private final SystemClock clock;
+
+    private TestRunArchive archive;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileTestOutcomeHistoryDAO.class);
+
+    @Inject
+    public FileTestOutcomeHistoryDAO(EnvironmentVariables environmentVariables,
+                                     TagProviderService tagProviderService,
+                                     SystemClock clock) {
+        this.environmentVariables = environmentVariables;
+        this.tagProviderService = tagProviderService;
+        this.clock = clock;
+    }
+
+    private String getProjectKey() {
+        return ThucydidesSystemProperty.PROJECT_KEY.from(environmentVariables,
+                Thucydides.getDefaultProjectKey());
+    }
+
+    public File getStatisticsDirectory() {
+        String defaultThucydidesDirectory = environmentVariables.getProperty("user.home") + "/.thucydides";
+        String thucydidesHomeDirectory = ThucydidesSystemProperty.THUCYDIDES_HOME.from(environmentVariables, defaultThucydidesDirectory);
+        return new File(thucydidesHomeDirectory, "stats-" + getProjectKey() + "-history");
+    }
+
+    private synchronized TestRunArchive getArchive() {
+        File statisticsDirectory = getStatisticsDirectory();
+        if (archive == null || !archive.getDirectory().equals(statisticsDirectory)) {
+            archive = new TestRunArchive(statisticsDirectory, getProjectKey());
+        }
+        return archive;
+    }
+
+    private TestRunArchive withRollups() {
+        TestRunArchive currentArchive = getArchive();
+        try {
+            currentArchive.refreshRollups();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read test statistics", e);
+        }
+        return currentArchive;
+    }
+
+    private TestRunArchive withRuns() {
+        TestRunArchive currentArchive = getArchive();
+        try {
+            currentArchive.refreshRuns();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read test statistics", e);
+        }
+        return currentArchive;
+    }
+
+    public synchronized List<TestRun> findAll() {
+        TestRunArchive runArchive = withRuns();
+        List<Integer> allRuns = Lists.newArrayList();
+        for (int run = 0; run < runArchive.getRuns().size(); run++) {
+            allRuns.add(run);
+        }
+        return testRunsFor(runArchive, oldestFirst(runArchive, allRuns));
+    }
+
+    public synchronized List<TestRun> findTestRunsByTitle(String title) {
+        TestRunArchive runArchive = withRuns();
+        return testRunsFor(runArchive, oldestFirst(runArchive, runArchive.getRuns().runsWithTitle(runArchive.titleIdOf(title))));
+    }
+
+    public synchronized void storeTestOutcomes(List<TestOutcome> testOutcomes) {
+        Date executionDate = clock.getCurrentTime().toDate();
+        List<TestRun> testRuns = Lists.newArrayList();
+        for (TestOutcome testOutcome : testOutcomes) {
+            testRuns.add(testRunFor(testOutcome, executionDate));
+        }
+        try {
+            getArchive().append(testRuns);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to store test outcome in history files", e);
+        }
+    }
+
+    public void storeTestOutcome(TestOutcome testOutcome) {
+        storeTestOutcomes(ImmutableList.of(testOutcome));
+    }
+
+    private TestRun testRunFor(TestOutcome testOutcome, Date executionDate) {
+        TestRun testRun = TestRun.from(testOutcome).inProject(getProjectKey()).at(executionDate);
+        for (TagProvider tagProvider : tagProviderService.getTagProviders()) {
+            for (TestTag tag : tagProvider.getTagsFor(testOutcome)) {
+                testRun.getTags().add(new TestRunTag(getProjectKey(), tag.getType(), tag.getName()));
+            }
+        }
+        return testRun;
+    }
+
+    public synchronized Long countTestRunsByTitle(String title) {
+        TestRunArchive rollups = withRollups();
+        return total(rollups.dailyResultCountsForTitle(rollups.titleIdOf(title)), null);
+    }
+
+    public synchronized Long countTestRunsByTitleAndResult(String title, TestResult result) {
+        TestRunArchive rollups = withRollups();
+        return total(rollups.dailyResultCountsForTitle(rollups.titleIdOf(title)), result);
+    }
+
+    /**
+     * The number of runs of a test on each day, by result, oldest first, read from the daily rollups.
+     */
+    public synchronized Table<LocalDate, TestResult, Long> countTestRunsByDayAndResult(String title) {
+        TestRunArchive rollups = withRollups();
+        Table<LocalDate, TestResult, Long> dailyResultCounts = TreeBasedTable.create();
+        for (Map.Entry<Integer, long[]> dailyCounts : rollups.dailyResultCountsForTitle(rollups.titleIdOf(title)).entrySet()) {
+            long[] resultCounts = dailyCounts.getValue();
+            for (int result = 0; result < resultCounts.length; result++) {
+                if (resultCounts[result] > 0) {
+                    dailyResultCounts.put(TestRunArchive.localDateOf(dailyCounts.getKey()),
+                                          TestRunArchive.resultFor(result),
+                                          resultCounts[result]);
+                }
+            }
+        }
+        return dailyResultCounts;
+    }
+
+    public synchronized List<TestRunTag> findAllTags() {
+        List<TestRunTag> tags = Lists.newArrayList(withRollups().getTags());
+        Collections.sort(tags, new Comparator<TestRunTag>() {
+            public int compare(TestRunTag tag, TestRunTag otherTag) {
+                return tag.getName().toLowerCase().compareTo(otherTag.getName().toLowerCase());
+            }
+        });
+        return tags;
+    }
+
+    public synchronized List<String> findAllTagTypes() {
+        SortedSet<String> tagTypes = new TreeSet<String>();
+        for (TestRunTag tag : withRollups().getTags()) {
+            if (tag.getType() != null) {
+                tagTypes.add(tag.getType());
+            }
+        }
+        return ImmutableList.copyOf(tagTypes);
+    }
+
+    public synchronized List<TestRunTag> findTagsMatching(TestRunTag tag) {
+        List<TestRunTag> matchingTags = Lists.newArrayList();
+        for (TestRunTag storedTag : withRollups().getTags()) {
+            if (storedTag.getName().equalsIgnoreCase(tag.getName())
+                    && storedTag.getType() != null && storedTag.getType().equals(tag.getType())
+                    && getProjectKey().equals(tag.getProjectKey())) {
+                matchingTags.add(storedTag);
+            }
+        }
+        return matchingTags;
+    }
+
+    public synchronized List<TestRunTag> getLatestTagsForTestWithTitleByTitle(String title) {
+        TestRunArchive runArchive = withRuns();
+        return latestTagsOf(runArchive, runArchive.getRuns().runsWithTitle(runArchive.titleIdOf(title)));
+    }
+
+    public synchronized List getResultsTestWithTitle(String title) {
+        TestRunArchive runArchive = withRuns();
+        return resultsOf(runArchive, runArchive.getRuns().runsWithTitle(runArchive.titleIdOf(title)));
+    }
+
+    public synchronized List<TestResult> getResultsForTestsWithTag(String tag) {
+        TestRunArchive runArchive = withRuns();
+        return resultsOf(runArchive, runsWithTags(runArchive, tagsNamed(runArchive, tag)));
+    }
+
+    public synchronized List<TestResult> getResultsForTestsWithTagType(String tagType) {
+        TestRunArchive runArchive = withRuns();
+        return resultsOf(runArchive, runsWithTags(runArchive, tagsOfType(runArchive, tagType)));
+    }
+
+    public synchronized Long countTestRunsByTag(String tag) {
+        TestRunArchive rollups = withRollups();
+        return totalForTags(rollups, tagsNamed(rollups, tag), null);
+    }
+
+    public synchronized Long countTestRunsByTagType(String tagType) {
+        TestRunArchive rollups = withRollups();
+        return totalForTags(rollups, tagsOfType(rollups, tagType), null);
+    }
+
+    public synchronized Long countTestRunsByTagAndResult(String tag, TestResult result) {
+        TestRunArchive rollups = withRollups();
+        return totalForTags(rollups, tagsNamed(rollups, tag), result);
+    }
+
+    public synchronized Long countTestRunsByTagTypeAndResult(String tagType, TestResult result) {
+        TestRunArchive rollups = withRollups();
+        return totalForTags(rollups, tagsOfType(rollups, tagType), result);
+    }
+
+    public synchronized List<TestRunTag> getLatestTagsForTestsWithTag(String tag) {
+        TestRunArchive runArchive = withRuns();
+        return latestTagsOf(runArchive, runsWithTags(runArchive, tagsNamed(runArchive, tag)));
+    }
+
+    public synchronized List<TestRunTag> getLatestTagsForTestsWithTagType(String tagType) {
+        TestRunArchive runArchive = withRuns();
+        return latestTagsOf(runArchive, runsWithTags(runArchive, tagsOfType(runArchive, tagType)));
+    }
+
+    public synchronized Table<String, TestResult, Long> countTestRunsByTitleAndResult(Collection<String> titles) {
+        TestRunArchive rollups = withRollups();
+        Table<String, TestResult, Long> resultCounts = HashBasedTable.create();
+        for (String title : titles) {
+            SortedMap<Integer, long[]> dailyCounts = rollups.dailyResultCountsForTitle(rollups.titleIdOf(title));
+            for (int result = 0; result < TestRunArchive.resultCount(); result++) {
+                long count = total(dailyCounts, TestRunArchive.resultFor(result));
+                if (count > 0) {
+                    resultCounts.put(title, TestRunArchive.resultFor(result), count);
+                }
+            }
+        }
+        return resultCounts;
+    }
+
+    public synchronized ListMultimap<String, TestResult> getResultsForTestsWithTitles(Collection<String> titles) {
+        TestRunArchive runArchive = withRuns();
+        ListMultimap<String, TestResult> results = ArrayListMultimap.create();
+        for (String title : titles) {
+            results.putAll(title, resultsOf(runArchive, runArchive.getRuns().runsWithTitle(runArchive.titleIdOf(title))));
+        }
+        return results;
+    }
+
+    public synchronized Map<String, Long> getAverageDurationsForTestsWithTitles(Collection<String> titles) {
+        TestRunArchive runArchive = withRuns();
+        Map<String, Long> averageDurations = Maps.newHashMap();
+        for (String title : titles) {
+            List<Integer> runs = runArchive.getRuns().runsWithTitle(runArchive.titleIdOf(title));
+            if (!runs.isEmpty()) {
+                long totalDuration = 0;
+                for (int run : runs) {
+                    totalDuration += runArchive.getRuns().durationOf(run);
+                }
+                averageDurations.put(title, totalDuration / runs.size());
+            }
+        }
+        return averageDurations;
+    }
+
+    public synchronized SetMultimap<String, TestRunTag> getLatestTagsForTestsWithTitles(Collection<String> titles) {
+        TestRunArchive runArchive = withRuns();
+        SetMultimap<String, TestRunTag> latestTags = LinkedHashMultimap.create();
+        for (String title : titles) {
+            latestTags.putAll(title, latestTagsOf(runArchive, runArchive.getRuns().runsWithTitle(runArchive.titleIdOf(title))));
+        }
+        return latestTags;
+    }
+
+    public synchronized void deleteAll() {
+        try {
+            getArchive().deleteAll();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete test history files", e);
+        }
+    }
+
+    private long total(SortedMap<Integer, long[]> dailyCounts, TestResult result) {
+        long total = 0;
+        for (long[] resultCounts : dailyCounts.values()) {
+            if (result == null) {
+                for (long count : resultCounts) {
+                    total += count;
+                }
+            } else {
+                total += resultCounts[result.ordinal()];
+            }
+        }
+        return total;
+    }
+
+    private long totalForTags(TestRunArchive rollups, List<Integer> tagIds, TestResult result) {
+        long total = 0;
+        for (int tagId : tagIds) {
+            total += total(rollups.dailyResultCountsForTag(tagId), result);
+        }
+        return total;
+    }
+
+    private List<Integer> tagsNamed(TestRunArchive runArchive, String name) {
+        List<Integer> tagIds = Lists.newArrayList();
+        List<TestRunTag> tags = runArchive.getTags();
+        for (int tagId = 0; tagId < tags.size(); tagId++) {
+            if (tags.get(tagId).getName().equalsIgnoreCase(name)) {
+                tagIds.add(tagId);
+            }
+        }
+        return tagIds;
+    }
+
+    private List<Integer> tagsOfType(TestRunArchive runArchive, String type) {
+        List<Integer> tagIds = Lists.newArrayList();
+        List<TestRunTag> tags = runArchive.getTags();
+        for (int tagId = 0; tagId < tags.size(); tagId++) {
+            if (type != null && type.equals(tags.get(tagId).getType())) {
+                tagIds.add(tagId);
+            }
+        }
+        return tagIds;
+    }
+
+    /**
+     * As with a join in the database, a run is included once for each of the tags it matches.
+     */
+    private List<Integer> runsWithTags(TestRunArchive runArchive, List<Integer> tagIds) {
+        List<Integer> runs = Lists.newArrayList();
+        for (int tagId : tagIds) {
+            runs.addAll(runArchive.getRuns().runsWithTag(tagId));
+        }
+        return runs;
+    }
+
+    private List<TestResult> resultsOf(TestRunArchive runArchive, List<Integer> runs) {
+        List<TestResult> results = Lists.newArrayList();
+        for (int run : newestFirst(runArchive, runs)) {
+            results.add(runArchive.getRuns().resultOf(run));
+        }
+        return results;
+    }
+
+    private List<TestRunTag> latestTagsOf(TestRunArchive runArchive, List<Integer> runs) {
+        if (runs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int latestRun = newestFirst(runArchive, runs).get(0);
+        return tagsOf(runArchive, latestRun);
+    }
+
+    private List<TestRunTag> tagsOf(TestRunArchive runArchive, int run) {
+        List<TestRunTag> tags = Lists.newArrayList();
+        for (int tagId : runArchive.getRuns().tagIdsOf(run)) {
+            tags.add(runArchive.getTags().get(tagId));
+        }
+        return tags;
+    }
+
+    private List<TestRun> testRunsFor(TestRunArchive runArchive, List<Integer> runs) {
+        TestRunArchive.RunColumns columns = runArchive.getRuns();
+        List<TestRun> testRuns = Lists.newArrayList();
+        for (int run : runs) {
+            TestRun testRun = TestRun.forTest(runArchive.getTitles().get(columns.titleIdOf(run)),
+                                              columns.resultOf(run),
+                                              columns.durationOf(run))
+                                     .inProject(getProjectKey())
+                                     .at(new Date(columns.executionTimeOf(run)));
+            testRun.getTags().addAll(tagsOf(runArchive, run));
+            testRuns.add(testRun);
+        }
+        return testRuns;
+    }
+
+    private List<Integer> oldestFirst(TestRunArchive runArchive, List<Integer> runs) {
+        List<Integer> sortedRuns = Lists.newArrayList(runs);
+        Collections.sort(sortedRuns, byExecutionTime(runArchive.getRuns()));
+        return sortedRuns;
+    }
+
+    private List<Integer> newestFirst(TestRunArchive runArchive, List<Integer> runs) {
+        List<Integer> sortedRuns = Lists.newArrayList(runs);
+        Collections.sort(sortedRuns, Collections.reverseOrder(byExecutionTime(runArchive.getRuns())));
+        return sortedRuns;
+    }
+
+    private Comparator<Integer> byExecutionTime(final TestRunArchive.RunColumns columns) {
+        return new Comparator<Integer>() {
+            public int compare(Integer run, Integer otherRun) {
+                long time = columns.executionTimeOf(run);
+                long otherTime = columns.executionTimeOf(otherRun);
+                if (time != otherTime) {
+                    return (time < otherTime) ? -1 : 1;
+                }
+                return run.compareTo(otherRun);
+            }
+        };
+    }
+}
@@ -2,11 +2,19 @@ package net.thucydides.core.statistics.dao;
 
 import ch.lambdaj.function.convert.Converter;
 import com.google.common.base.Optional;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Table;
 import com.google.inject.Inject;
 import net.thucydides.core.Thucydides;
 import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.EnvironmentVariablesDatabaseConfig;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import net.thucydides.core.model.TestTag;
@@ -21,8 +29,12 @@ import org.slf4j.LoggerFactory;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.FlushModeType;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static ch.lambdaj.Lambda.convert;
 
@@ -42,41 +54,34 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
             " left outer join test.tags as tag " +
             "where lower(tag.name) = :name " +
             "and test.result = :result " +
-            "and test.projectKey = :projectKey " +
-            "and test.executionDate = " +
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "and test.projectKey = :projectKey";
 
     private static final String COUNT_LATEST_TESTS_BY_TAG_TYPE_AND_RESULT
             = "select count(test) from TestRun test " +
             " left outer join test.tags as tag " +
             "where tag.type = :type " +
             "and test.result = :result " +
-            "and test.projectKey = :projectKey " +
-            "and test.executionDate = " +
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "and test.projectKey = :projectKey";
 
     private static final String SELECT_LATEST_TEST_BY_TITLE
             = "select t from TestRun t " +
             "where t.title = :title " +
             "and t.projectKey = :projectKey " +
-            "and t.executionDate = " +
-            "     (select max(tt.executionDate) from TestRun tt where tt.id = t.id)";
+            "order by t.executionDate desc";
 
     private static final String SELECT_LATEST_TEST_BY_TAG
             = "select test from TestRun test " +
             " left outer join test.tags as tag " +
             "where lower(tag.name) = :name " +
             "and test.projectKey = :projectKey " +
-            "and test.executionDate = " +
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "order by test.executionDate desc";
 
     private static final String SELECT_LATEST_TEST_BY_TAG_TYPE
             = "select test from TestRun test " +
             " left outer join test.tags as tag " +
             "where tag.type = :type " +
             "and test.projectKey = :projectKey " +
-            "and test.executionDate = " +
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "order by test.executionDate desc";
 
     private static final String SELECT_TEST_RESULTS_BY_TAG
             = "select test.result from TestRun test " +
@@ -96,17 +101,13 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
             = "select count(test) from TestRun test " +
             " left outer join test.tags as tag " +
             "where lower(tag.name) = :name " +
-            "and test.projectKey = :projectKey " +
-            "and test.executionDate = " +
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "and test.projectKey = :projectKey";
 
     private static final String COUNT_LATEST_TEST_BY_TAG_TYPE
             = "select count(test) from TestRun test " +
             " left outer join test.tags as tag " +
             "where tag.type = :type " +
-            "and test.projectKey = :projectKey " +
-            "and test.executionDate = " +
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "and test.projectKey = :projectKey";
 
     private static final String SELECT_TEST_RESULTS_BY_TITLE
             = "select test.result from TestRun test " +
@@ -114,6 +115,39 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
             "and test.projectKey = :projectKey " +
             "order by test.executionDate desc";
 
+    private static final String COUNT_TESTS_BY_RESULT_FOR_TITLES
+            = "select test.title, test.result, count(test) from TestRun test " +
+            "where test.title in (:titles) " +
+            "and test.projectKey = :projectKey " +
+            "group by test.title, test.result";
+
+    private static final String SELECT_TEST_RESULTS_FOR_TITLES
+            = "select test.title, test.result from TestRun test " +
+            "where test.title in (:titles) " +
+            "and test.projectKey = :projectKey " +
+            "order by test.executionDate desc";
+
+    private static final String SELECT_AVERAGE_DURATIONS_FOR_TITLES
+            = "select test.title, avg(test.duration) from TestRun test " +
+            "where test.title in (:titles) " +
+            "and test.projectKey = :projectKey " +
+            "group by test.title";
+
+    private static final String SELECT_LATEST_TAGS_FOR_TITLES
+            = "select test.title, tag from TestRun test " +
+            " join test.tags as tag " +
+            "where test.title in (:titles) " +
+            "and test.projectKey = :projectKey " +
+            "and test.executionDate = " +
+            "(select max(latest.executionDate) from TestRun latest " +
+            " where latest.title = test.title and latest.projectKey = test.projectKey)";
+
+    /**
+     * Titles are passed to the bulk queries in groups of this size, to stay within the limits
+     * some databases place on the number of values in an "in" clause.
+     */
+    private static final int TITLES_PER_QUERY = 500;
+
     protected EntityManagerFactory entityManagerFactory;
 
     private final SystemClock clock;
@@ -122,6 +156,9 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
 
     private TagProviderService tagProviderService;
 
+    private final AtomicLong storedTestOutcomeCount = new AtomicLong();
+    private final AtomicLong storageTimeInMillis = new AtomicLong();
+
     private static final Logger LOGGER = LoggerFactory.getLogger(HibernateTestOutcomeHistoryDAO.class);
 
     @Inject
@@ -161,20 +198,66 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
     }
 
 
+    /**
+     * Store the outcomes in batches, committing each batch in a separate transaction.
+     * Inserts are sent to the database as JDBC batches, and tags are only looked up once per batch.
+     * If a batch cannot be stored, it is rolled back and the remaining outcomes are not stored.
+     */
     public void storeTestOutcomes(List<TestOutcome> testOutcomes) {
+        long startTime = System.currentTimeMillis();
+        int storedOutcomes = 0;
         EntityManager entityManager = entityManagerFactory.createEntityManager();
-        entityManager.getTransaction().begin();
         try {
-            storeEachOutcomeIn(entityManager, testOutcomes);
-            entityManager.getTransaction().commit();
+            for (List<TestOutcome> batch : Lists.partition(testOutcomes, getBatchSize())) {
+                entityManager.getTransaction().begin();
+                storeEachOutcomeIn(entityManager, batch);
+                entityManager.getTransaction().commit();
+                entityManager.clear();
+                storedOutcomes += batch.size();
+            }
         } catch (Exception e) {
             LOGGER.warn("Failed to store test outcome in history database", e);
             rollbackIfPossible(entityManager);
         } finally {
             entityManager.close();
+            recordStorageOf(storedOutcomes, System.currentTimeMillis() - startTime);
         }
     }
 
+    private void recordStorageOf(int storedOutcomes, long elapsedTimeInMillis) {
+        storedTestOutcomeCount.addAndGet(storedOutcomes);
+        storageTimeInMillis.addAndGet(elapsedTimeInMillis);
+        LOGGER.debug("Stored {} test outcomes in the history database in {} ms", storedOutcomes, elapsedTimeInMillis);
+    }
+
+    /**
+     * @return the number of test outcomes stored by this DAO using storeTestOutcomes().
+     */
+    public long getStoredTestOutcomeCount() {
+        return storedTestOutcomeCount.get();
+    }
+
+    /**
+     * @return the total time spent storing test outcomes using storeTestOutcomes(), in milliseconds.
+     */
+    public long getStorageTimeInMillis() {
+        return storageTimeInMillis.get();
+    }
+
+    /**
+     * @return the average number of test outcomes stored per second using storeTestOutcomes().
+     */
+    public double getStorageThroughput() {
+        long elapsedTime = getStorageTimeInMillis();
+        return (elapsedTime == 0) ? 0.0 : getStoredTestOutcomeCount() * 1000.0 / elapsedTime;
+    }
+
+    private int getBatchSize() {
+        int batchSize = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.STATISTICS_BATCH_SIZE,
+                                                                  EnvironmentVariablesDatabaseConfig.DEFAULT_BATCH_SIZE);
+        return Math.max(1, batchSize);
+    }
+
     private void rollbackIfPossible(EntityManager entityManager) {
         try {
             entityManager.getTransaction().rollback();
@@ -188,26 +271,27 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
         try {
             entityManager.getTransaction().begin();
-            persistTestOutcome(entityManager, testOutcome);
+            persistTestOutcome(entityManager, testOutcome, new TagCache(entityManager));
             entityManager.getTransaction().commit();
         } finally {
             entityManager.close();
         }
     }
 
-    private void persistTestOutcome(EntityManager entityManager, TestOutcome testOutcome) {
+    private void persistTestOutcome(EntityManager entityManager, TestOutcome testOutcome, TagCache tagCache) {
         TestRun storedHistory = TestRun.from(testOutcome)
                 .inProject(getProjectKey())
                 .at(clock.getCurrentTime().toDate());
 
-        addTagsFrom(testOutcome, entityManager).to(storedHistory);
+        addTagsFrom(testOutcome, entityManager, tagCache).to(storedHistory);
         entityManager.persist(storedHistory);
     }
 
 
     private void storeEachOutcomeIn(EntityManager entityManager, List<TestOutcome> testOutcomes) {
+        TagCache tagCache = new TagCache(entityManager);
         for (TestOutcome testOutcome : testOutcomes) {
-            persistTestOutcome(entityManager, testOutcome);
+            persistTestOutcome(entityManager, testOutcome, tagCache);
         }
     }
 
@@ -216,18 +300,20 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
                 Thucydides.getDefaultProjectKey());
     }
 
-    private TagAdder addTagsFrom(TestOutcome testResult, EntityManager entityManager) {
-        return new TagAdder(testResult, entityManager);
+    private TagAdder addTagsFrom(TestOutcome testResult, EntityManager entityManager, TagCache tagCache) {
+        return new TagAdder(testResult, entityManager, tagCache);
     }
 
     private class TagAdder {
 
         private final TestOutcome testOutcome;
         private EntityManager entityManager;
+        private final TagCache tagCache;
 
-        private TagAdder(TestOutcome testOutcome, EntityManager entityManager) {
+        private TagAdder(TestOutcome testOutcome, EntityManager entityManager, TagCache tagCache) {
             this.testOutcome = testOutcome;
             this.entityManager = entityManager;
+            this.tagCache = tagCache;
         }
 
         public void to(TestRun storedTestRun) {
@@ -239,6 +325,7 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
 
                 for (TestRunTag tag : tagsToPersist) {
                     entityManager.persist(tag);
+                    tagCache.add(tag);
                     storedTestRun.getTags().add(tag);
                 }
             }
@@ -258,25 +345,67 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
             List<TestRunTag> matchedTags = Lists.newArrayList();
 
             for (TestRunTag tag : tags) {
-                Optional<TestRunTag> matchingStoredTag = tagInDatabaseWithIdenticalNameAs(tag);
+                Optional<TestRunTag> matchingStoredTag = tagCache.findTagMatching(tag);
                 if (matchingStoredTag.isPresent()) {
-                    TestRunTag matchingTag = matchingStoredTag.get();
-                    storedTestRun.getTags().add(matchingTag);
-                    matchingTag.getTestRuns().add(storedTestRun);
+                    storedTestRun.getTags().add(matchingStoredTag.get());
                     matchedTags.add(tag);
                 }
             }
             return ImmutableList.copyOf(matchedTags);
         }
+    }
+
+    /**
+     * Tags already stored or persisted in the current transaction, indexed by project, type and lower-case name.
+     * Each tag is only looked up in the database once per transaction.
+     * The test runs of a tag are the inverse side of the relationship and are not updated here,
+     * as this would load every stored run for that tag.
+     */
+    private class TagCache {
+
+        private final EntityManager entityManager;
+        private final Map<String, Optional<TestRunTag>> tags = Maps.newHashMap();
+
+        private TagCache(EntityManager entityManager) {
+            this.entityManager = entityManager;
+        }
+
+        public Optional<TestRunTag> findTagMatching(TestRunTag tag) {
+            String key = keyFor(tag);
+            if (!tags.containsKey(key)) {
+                tags.put(key, firstOf(findStoredTagsMatching(tag)));
+            }
+            return tags.get(key);
+        }
+
+        public void add(TestRunTag tag) {
+            tags.put(keyFor(tag), Optional.of(tag));
+        }
+
+        /**
+         * Tags persisted in this transaction are already in the cache, so there is no need to flush
+         * the pending inserts (and break up the current JDBC batch) before running the query.
+         */
+        private List<TestRunTag> findStoredTagsMatching(TestRunTag tag) {
+            return entityManager.createQuery(HibernateTestOutcomeHistoryDAO.FIND_TAG_BY_NAME_IGNORING_CASE)
+                    .setParameter("name", tag.getName().toLowerCase())
+                    .setParameter("type", tag.getType())
+                    .setParameter("projectKey", tag.getProjectKey())
+                    .setFlushMode(FlushModeType.COMMIT)
+                    .getResultList();
+        }
 
-        private Optional<TestRunTag> tagInDatabaseWithIdenticalNameAs(TestRunTag tag) {
-            List<TestRunTag> matchingStoredTags = findTagsMatching(entityManager, tag);
+        private Optional<TestRunTag> firstOf(List<TestRunTag> matchingStoredTags) {
             if (matchingStoredTags.isEmpty()) {
                 return Optional.absent();
             } else {
                 return Optional.of(matchingStoredTags.get(0));
             }
         }
+
+        private String keyFor(TestRunTag tag) {
+            return tag.getProjectKey() + ":" + tag.getType() + ":" + tag.getName().toLowerCase();
+        }
     }
 
     private List<TestRunTag> findTagsMatching(EntityManager entityManager, TestRunTag tag) {
@@ -361,6 +490,7 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
             List<TestRun> latestTestRuns = entityManager.createQuery(SELECT_LATEST_TEST_BY_TITLE)
                     .setParameter("title", title)
                     .setParameter("projectKey", getProjectKey())
+                    .setMaxResults(1)
                     .getResultList();
             if (latestTestRuns.isEmpty()) {
                 return Collections.emptyList();
@@ -473,6 +603,7 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
             List<TestRun> latestTestRuns = entityManager.createQuery(SELECT_LATEST_TEST_BY_TAG)
                     .setParameter("name", tag.toLowerCase())
                     .setParameter("projectKey", getProjectKey())
+                    .setMaxResults(1)
                     .getResultList();
             if (latestTestRuns.isEmpty()) {
                 return Collections.emptyList();
@@ -491,6 +622,7 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
             List<TestRun> latestTestRuns = entityManager.createQuery(SELECT_LATEST_TEST_BY_TAG_TYPE)
                     .setParameter("type", tagType)
                     .setParameter("projectKey", getProjectKey())
+                    .setMaxResults(1)
                     .getResultList();
             if (latestTestRuns.isEmpty()) {
                 return Collections.emptyList();
@@ -503,6 +635,88 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
     }
 
 
+    public Table<String, TestResult, Long> countTestRunsByTitleAndResult(Collection<String> titles) {
+        Table<String, TestResult, Long> resultCounts = HashBasedTable.create();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (List<String> someTitles : Lists.partition(ImmutableList.copyOf(titles), TITLES_PER_QUERY)) {
+                List<Object[]> rows = entityManager.createQuery(COUNT_TESTS_BY_RESULT_FOR_TITLES)
+                        .setParameter("titles", someTitles)
+                        .setParameter("projectKey", getProjectKey())
+                        .getResultList();
+                for (Object[] row : rows) {
+                    if (row[1] != null) {
+                        resultCounts.put((String) row[0], (TestResult) row[1], (Long) row[2]);
+                    }
+                }
+            }
+            return resultCounts;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+
+    public ListMultimap<String, TestResult> getResultsForTestsWithTitles(Collection<String> titles) {
+        ListMultimap<String, TestResult> results = ArrayListMultimap.create();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (List<String> someTitles : Lists.partition(ImmutableList.copyOf(titles), TITLES_PER_QUERY)) {
+                List<Object[]> rows = entityManager.createQuery(SELECT_TEST_RESULTS_FOR_TITLES)
+                        .setParameter("titles", someTitles)
+                        .setParameter("projectKey", getProjectKey())
+                        .getResultList();
+                for (Object[] row : rows) {
+                    results.put((String) row[0], (TestResult) row[1]);
+                }
+            }
+            return results;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+
+    public Map<String, Long> getAverageDurationsForTestsWithTitles(Collection<String> titles) {
+        Map<String, Long> averageDurations = Maps.newHashMap();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (List<String> someTitles : Lists.partition(ImmutableList.copyOf(titles), TITLES_PER_QUERY)) {
+                List<Object[]> rows = entityManager.createQuery(SELECT_AVERAGE_DURATIONS_FOR_TITLES)
+                        .setParameter("titles", someTitles)
+                        .setParameter("projectKey", getProjectKey())
+                        .getResultList();
+                for (Object[] row : rows) {
+                    averageDurations.put((String) row[0], ((Number) row[1]).longValue());
+                }
+            }
+            return averageDurations;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+
+    public SetMultimap<String, TestRunTag> getLatestTagsForTestsWithTitles(Collection<String> titles) {
+        SetMultimap<String, TestRunTag> latestTags = LinkedHashMultimap.create();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (List<String> someTitles : Lists.partition(ImmutableList.copyOf(titles), TITLES_PER_QUERY)) {
+                List<Object[]> rows = entityManager.createQuery(SELECT_LATEST_TAGS_FOR_TITLES)
+                        .setParameter("titles", someTitles)
+                        .setParameter("projectKey", getProjectKey())
+                        .getResultList();
+                for (Object[] row : rows) {
+                    latestTags.put((String) row[0], (TestRunTag) row[1]);
+                }
+            }
+            return latestTags;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+
     public List<String> findAllTagTypes() {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
         try {
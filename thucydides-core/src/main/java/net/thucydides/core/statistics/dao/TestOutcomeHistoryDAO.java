@@ -1,11 +1,16 @@
 package net.thucydides.core.statistics.dao;
 
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Table;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import net.thucydides.core.statistics.model.TestRun;
 import net.thucydides.core.statistics.model.TestRunTag;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface TestOutcomeHistoryDAO {
     List<TestRun> findAll();
@@ -44,6 +49,26 @@ public interface TestOutcomeHistoryDAO {
 
     List<String> findAllTagTypes();
 
+    /**
+     * Count the test runs of each of the given tests, grouped by result.
+     */
+    Table<String, TestResult, Long> countTestRunsByTitleAndResult(Collection<String> titles);
+
+    /**
+     * The results of each of the given tests, most recent first.
+     */
+    ListMultimap<String, TestResult> getResultsForTestsWithTitles(Collection<String> titles);
+
+    /**
+     * The average duration of each of the given tests, in milliseconds.
+     */
+    Map<String, Long> getAverageDurationsForTestsWithTitles(Collection<String> titles);
+
+    /**
+     * The tags of the most recent run of each of the given tests.
+     */
+    SetMultimap<String, TestRunTag> getLatestTagsForTestsWithTitles(Collection<String> titles);
+
     List<TestRunTag> findTagsMatching(TestRunTag tag);
 
     void deleteAll();
@@ -0,0 +1,733 @@
+package net.thucydides.core.statistics.dao;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.statistics.model.TestRun;
+import net.thucydides.core.statistics.model.TestRunTag;
+import org.joda.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The test runs of a project, kept in a directory of append-only binary files so that no database server is needed.
+ * Titles and tags are dictionary-encoded: each distinct title and tag is written once, to titles.dat and tags.dat,
+ * and the test runs refer to them by number. The test runs are partitioned by month, in runs-yyyy-MM.dat files.
+ * The number of runs of each test and of each tag with each result on each day is kept in a rollup file,
+ * so that run counts can be calculated without reading the test runs at all.
+ * The files are read incrementally into memory, one column per field, and each byte is only ever read once.
+ * Builds running at the same time on the same directory coordinate through a file lock.
+ */
+class TestRunArchive {
+
+    private static final String TITLES = "titles.dat";
+    private static final String TAGS = "tags.dat";
+    private static final String LOCK = "archive.lock";
+    private static final String PARTITION_PREFIX = "runs-";
+    private static final String ROLLUP_PREFIX = "rollups-";
+    private static final String SUFFIX = ".dat";
+    private static final String COMPACTED_ROLLUPS_IN_PROGRESS = "rollups-compacting.tmp";
+
+    private static final byte TITLE_ROLLUP = 0;
+    private static final byte TAG_ROLLUP = 1;
+
+    /**
+     * The rollup file is rewritten, with a single record per test or tag, day and result,
+     * when it holds more than this many records for each distinct one.
+     */
+    private static final int ROLLUP_COMPACTION_RATIO = 2;
+
+    private static final TestResult[] RESULTS = TestResult.values();
+
+    /**
+     * File locks are held by the whole JVM, so archives on the same directory also synchronize on a shared monitor.
+     */
+    private static final ConcurrentMap<String, Object> DIRECTORY_MONITORS = new ConcurrentHashMap<String, Object>();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestRunArchive.class);
+
+    private final File directory;
+    private final String projectKey;
+    private final Object directoryMonitor;
+
+    private final Map<String, Long> readPositions = Maps.newHashMap();
+    private final List<String> titles = Lists.newArrayList();
+    private final Map<String, Integer> titleIds = Maps.newHashMap();
+    private final List<TestRunTag> tags = Lists.newArrayList();
+    private final Map<String, Integer> tagIds = Maps.newHashMap();
+    private final Map<Integer, SortedMap<Integer, long[]>> titleRollups = Maps.newHashMap();
+    private final Map<Integer, SortedMap<Integer, long[]>> tagRollups = Maps.newHashMap();
+    private String rollupFile;
+    private int rollupRecordsInFile;
+    private final RunColumns runs = new RunColumns();
+    private boolean runsLoaded;
+
+    TestRunArchive(File directory, String projectKey) {
+        this.directory = directory;
+        this.projectKey = projectKey;
+        this.directoryMonitor = monitorFor(directory);
+    }
+
+    private static Object monitorFor(File directory) {
+        String path = directory.getAbsolutePath();
+        DIRECTORY_MONITORS.putIfAbsent(path, new Object());
+        return DIRECTORY_MONITORS.get(path);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Read any titles, tags and rollups recorded since the last call, but not the test runs themselves.
+     */
+    public void refreshRollups() throws IOException {
+        refresh(false);
+    }
+
+    /**
+     * Read everything recorded since the last call, including the test runs.
+     */
+    public void refreshRuns() throws IOException {
+        refresh(true);
+    }
+
+    private void refresh(final boolean includingRuns) throws IOException {
+        withLockedDirectory(new ArchiveOperation() {
+            public void apply() throws IOException {
+                readNewRecords(includingRuns || runsLoaded);
+            }
+        });
+    }
+
+    public void append(final List<TestRun> testRuns) throws IOException {
+        if (testRuns.isEmpty()) {
+            return;
+        }
+        withLockedDirectory(new ArchiveOperation() {
+            public void apply() throws IOException {
+                readNewRecords(runsLoaded);
+                new Appender().append(testRuns);
+                readNewRecords(runsLoaded);
+                compactRollupsIfNeeded();
+            }
+        });
+    }
+
+    public void deleteAll() throws IOException {
+        withLockedDirectory(new ArchiveOperation() {
+            public void apply() throws IOException {
+                for (File file : archiveFiles()) {
+                    if (!file.delete()) {
+                        throw new IOException("Could not delete " + file);
+                    }
+                }
+                clear();
+            }
+        });
+    }
+
+    public List<String> getTitles() {
+        return Collections.unmodifiableList(titles);
+    }
+
+    public List<TestRunTag> getTags() {
+        return Collections.unmodifiableList(tags);
+    }
+
+    /**
+     * @return the number used for this title in the archive, or -1 if it has never been recorded.
+     */
+    public int titleIdOf(String title) {
+        Integer id = titleIds.get(title);
+        return (id == null) ? -1 : id;
+    }
+
+    public SortedMap<Integer, long[]> dailyResultCountsForTitle(int titleId) {
+        return rollupsFor(titleRollups, titleId);
+    }
+
+    public SortedMap<Integer, long[]> dailyResultCountsForTag(int tagId) {
+        return rollupsFor(tagRollups, tagId);
+    }
+
+    private SortedMap<Integer, long[]> rollupsFor(Map<Integer, SortedMap<Integer, long[]>> rollups, int id) {
+        SortedMap<Integer, long[]> dailyCounts = rollups.get(id);
+        return (dailyCounts == null) ? new TreeMap<Integer, long[]>() : Collections.unmodifiableSortedMap(dailyCounts);
+    }
+
+    public RunColumns getRuns() {
+        return runs;
+    }
+
+    /**
+     * Days are stored as yyyyMMdd numbers, e.g. 20120131.
+     */
+    public static int dayOf(Date date) {
+        LocalDate day = new LocalDate(date);
+        return day.getYear() * 10000 + day.getMonthOfYear() * 100 + day.getDayOfMonth();
+    }
+
+    public static LocalDate localDateOf(int day) {
+        return new LocalDate(day / 10000, (day / 100) % 100, day % 100);
+    }
+
+    public static TestResult resultFor(int ordinal) {
+        return RESULTS[ordinal];
+    }
+
+    public static int resultCount() {
+        return RESULTS.length;
+    }
+
+    private interface ArchiveOperation {
+        void apply() throws IOException;
+    }
+
+    private void withLockedDirectory(ArchiveOperation operation) throws IOException {
+        synchronized (directoryMonitor) {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Could not create statistics directory " + directory);
+            }
+            RandomAccessFile lockFile = new RandomAccessFile(new File(directory, LOCK), "rw");
+            try {
+                FileLock lock = lockFile.getChannel().lock();
+                try {
+                    operation.apply();
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                lockFile.close();
+            }
+        }
+    }
+
+    private void clear() {
+        readPositions.clear();
+        titles.clear();
+        titleIds.clear();
+        tags.clear();
+        tagIds.clear();
+        titleRollups.clear();
+        tagRollups.clear();
+        rollupFile = null;
+        rollupRecordsInFile = 0;
+        runs.clear();
+    }
+
+    private void readNewRecords(boolean includingRuns) throws IOException {
+        if (filesHaveBeenReplaced()) {
+            clear();
+        }
+        readNewRecordsFrom(new File(directory, TITLES), new TitleReader());
+        readNewRecordsFrom(new File(directory, TAGS), new TagReader());
+        readRollups();
+        if (includingRuns) {
+            for (File partition : partitionFiles()) {
+                readNewRecordsFrom(partition, new RunReader());
+            }
+            runsLoaded = true;
+        }
+    }
+
+    /**
+     * Another build may have deleted the archive since it was last read.
+     */
+    private boolean filesHaveBeenReplaced() {
+        for (Map.Entry<String, Long> readPosition : readPositions.entrySet()) {
+            File file = new File(directory, readPosition.getKey());
+            if (file.length() < readPosition.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void readRollups() throws IOException {
+        File latestRollupFile = latestRollupFile();
+        if (latestRollupFile == null) {
+            return;
+        }
+        if (!latestRollupFile.getName().equals(rollupFile)) {
+            if (rollupFile != null) {
+                readPositions.remove(rollupFile);
+            }
+            titleRollups.clear();
+            tagRollups.clear();
+            rollupRecordsInFile = 0;
+            rollupFile = latestRollupFile.getName();
+        }
+        readNewRecordsFrom(latestRollupFile, new RollupReader());
+    }
+
+    private interface RecordReader {
+        /**
+         * Read a complete record before using any of it, so that an incomplete record has no effect.
+         */
+        void read(DataInputStream input) throws IOException;
+    }
+
+    private void readNewRecordsFrom(File file, RecordReader reader) throws IOException {
+        long position = readPositionOf(file);
+        if (!file.exists() || file.length() <= position) {
+            return;
+        }
+        RandomAccessFile records = new RandomAccessFile(file, "rw");
+        try {
+            byte[] newRecords = new byte[(int) (records.length() - position)];
+            records.seek(position);
+            records.readFully(newRecords);
+
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(newRecords));
+            int completeBytes = 0;
+            try {
+                while (completeBytes < newRecords.length) {
+                    reader.read(input);
+                    completeBytes = newRecords.length - input.available();
+                }
+            } catch (EOFException incompleteRecord) {
+                LOGGER.warn("Discarding an incomplete record at the end of {}", file);
+                records.setLength(position + completeBytes);
+            }
+            readPositions.put(file.getName(), position + completeBytes);
+        } finally {
+            records.close();
+        }
+    }
+
+    private long readPositionOf(File file) {
+        Long position = readPositions.get(file.getName());
+        return (position == null) ? 0 : position;
+    }
+
+    private class TitleReader implements RecordReader {
+        public void read(DataInputStream input) throws IOException {
+            String title = input.readUTF();
+            titleIds.put(title, titles.size());
+            titles.add(title);
+        }
+    }
+
+    private class TagReader implements RecordReader {
+        public void read(DataInputStream input) throws IOException {
+            String type = readNullableString(input);
+            String name = input.readUTF();
+            TestRunTag tag = new TestRunTag(projectKey, type, name);
+            tagIds.put(keyFor(tag), tags.size());
+            tags.add(tag);
+        }
+    }
+
+    private class RollupReader implements RecordReader {
+        public void read(DataInputStream input) throws IOException {
+            byte kind = input.readByte();
+            int id = input.readInt();
+            int day = input.readInt();
+            int result = input.readByte();
+            int count = input.readInt();
+            addToRollup((kind == TITLE_ROLLUP) ? titleRollups : tagRollups, id, day, result, count);
+            rollupRecordsInFile++;
+        }
+    }
+
+    private class RunReader implements RecordReader {
+        public void read(DataInputStream input) throws IOException {
+            long executionTime = input.readLong();
+            int titleId = input.readInt();
+            int result = input.readByte();
+            long duration = input.readLong();
+            int[] runTagIds = new int[input.readShort()];
+            for (int i = 0; i < runTagIds.length; i++) {
+                runTagIds[i] = input.readInt();
+            }
+            runs.add(executionTime, titleId, (byte) result, duration, runTagIds);
+        }
+    }
+
+    private static void addToRollup(Map<Integer, SortedMap<Integer, long[]>> rollups,
+                                    int id, int day, int result, long count) {
+        SortedMap<Integer, long[]> dailyCounts = rollups.get(id);
+        if (dailyCounts == null) {
+            dailyCounts = new TreeMap<Integer, long[]>();
+            rollups.put(id, dailyCounts);
+        }
+        long[] resultCounts = dailyCounts.get(day);
+        if (resultCounts == null) {
+            resultCounts = new long[RESULTS.length];
+            dailyCounts.put(day, resultCounts);
+        }
+        resultCounts[result] += count;
+    }
+
+    private static String readNullableString(DataInputStream input) throws IOException {
+        boolean present = input.readBoolean();
+        String value = input.readUTF();
+        return present ? value : null;
+    }
+
+    private static void writeNullableString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        output.writeUTF((value == null) ? "" : value);
+    }
+
+    private static String keyFor(TestRunTag tag) {
+        return tag.getType() + "\t" + tag.getName().toLowerCase();
+    }
+
+    /**
+     * Writes a batch of test runs, followed by the rollups for the batch, after any new titles and tags they use,
+     * so that a reader never sees a test run that refers to a title or tag it cannot find.
+     */
+    private class Appender {
+        private final ByteArrayOutputStream newTitles = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream newTags = new ByteArrayOutputStream();
+        private final Map<String, ByteArrayOutputStream> newRuns = new TreeMap<String, ByteArrayOutputStream>();
+        private final Map<List<Integer>, Long> newRollups = Maps.newLinkedHashMap();
+        private final Map<String, Integer> pendingTitleIds = Maps.newHashMap();
+        private final Map<String, Integer> pendingTagIds = Maps.newHashMap();
+
+        void append(List<TestRun> testRuns) throws IOException {
+            for (TestRun testRun : testRuns) {
+                add(testRun);
+            }
+            appendTo(new File(directory, TITLES), newTitles.toByteArray());
+            appendTo(new File(directory, TAGS), newTags.toByteArray());
+            for (Map.Entry<String, ByteArrayOutputStream> partition : newRuns.entrySet()) {
+                appendTo(new File(directory, partition.getKey()), partition.getValue().toByteArray());
+            }
+            appendTo(currentRollupFile(), rollupRecords());
+        }
+
+        private void add(TestRun testRun) throws IOException {
+            int titleId = titleIdFor(testRun.getTitle());
+            int[] runTagIds = tagIdsFor(testRun.getTags());
+            int result = testRun.getResult().ordinal();
+            int day = dayOf(testRun.getExecutionDate());
+
+            DataOutputStream output = new DataOutputStream(partitionFor(testRun.getExecutionDate()));
+            output.writeLong(testRun.getExecutionDate().getTime());
+            output.writeInt(titleId);
+            output.writeByte(result);
+            output.writeLong(testRun.getDuration());
+            output.writeShort(runTagIds.length);
+            for (int tagId : runTagIds) {
+                output.writeInt(tagId);
+            }
+
+            countRun(TITLE_ROLLUP, titleId, day, result);
+            for (int tagId : runTagIds) {
+                countRun(TAG_ROLLUP, tagId, day, result);
+            }
+        }
+
+        private ByteArrayOutputStream partitionFor(Date executionDate) {
+            LocalDate day = new LocalDate(executionDate);
+            String partition = String.format("%s%04d-%02d%s", PARTITION_PREFIX, day.getYear(), day.getMonthOfYear(), SUFFIX);
+            if (!newRuns.containsKey(partition)) {
+                newRuns.put(partition, new ByteArrayOutputStream());
+            }
+            return newRuns.get(partition);
+        }
+
+        private void countRun(byte kind, int id, int day, int result) {
+            List<Integer> key = ImmutableList.of((int) kind, id, day, result);
+            Long count = newRollups.get(key);
+            newRollups.put(key, (count == null) ? 1 : count + 1);
+        }
+
+        private byte[] rollupRecords() throws IOException {
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(records);
+            for (Map.Entry<List<Integer>, Long> rollup : newRollups.entrySet()) {
+                List<Integer> key = rollup.getKey();
+                writeRollup(output, key.get(0), key.get(1), key.get(2), key.get(3), rollup.getValue());
+            }
+            return records.toByteArray();
+        }
+
+        private int titleIdFor(String title) throws IOException {
+            if (titleIds.containsKey(title)) {
+                return titleIds.get(title);
+            }
+            if (!pendingTitleIds.containsKey(title)) {
+                pendingTitleIds.put(title, titles.size() + pendingTitleIds.size());
+                new DataOutputStream(newTitles).writeUTF(title);
+            }
+            return pendingTitleIds.get(title);
+        }
+
+        private int[] tagIdsFor(Iterable<TestRunTag> runTags) throws IOException {
+            List<Integer> ids = Lists.newArrayList();
+            for (TestRunTag tag : runTags) {
+                int tagId = tagIdFor(tag);
+                if (!ids.contains(tagId)) {
+                    ids.add(tagId);
+                }
+            }
+            int[] tagIdArray = new int[ids.size()];
+            for (int i = 0; i < tagIdArray.length; i++) {
+                tagIdArray[i] = ids.get(i);
+            }
+            return tagIdArray;
+        }
+
+        private int tagIdFor(TestRunTag tag) throws IOException {
+            String key = keyFor(tag);
+            if (tagIds.containsKey(key)) {
+                return tagIds.get(key);
+            }
+            if (!pendingTagIds.containsKey(key)) {
+                pendingTagIds.put(key, tags.size() + pendingTagIds.size());
+                DataOutputStream output = new DataOutputStream(newTags);
+                writeNullableString(output, tag.getType());
+                output.writeUTF(tag.getName());
+            }
+            return pendingTagIds.get(key);
+        }
+    }
+
+    private static void writeRollup(DataOutputStream output, int kind, int id, int day, int result, long count)
+            throws IOException {
+        output.writeByte(kind);
+        output.writeInt(id);
+        output.writeInt(day);
+        output.writeByte(result);
+        output.writeInt((int) count);
+    }
+
+    private void appendTo(File file, byte[] records) throws IOException {
+        if (records.length == 0) {
+            return;
+        }
+        RandomAccessFile output = new RandomAccessFile(file, "rw");
+        try {
+            output.seek(output.length());
+            output.write(records);
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Each build adds rollup records for the tests it ran, so over time there are many records for the same
+     * test and day. When there are too many, the totals are written to a new rollup file and the old one is deleted.
+     * The totals are only given the name of the next generation once they have been completely written, so a build
+     * killed during compaction leaves the previous generation in use.
+     */
+    private void compactRollupsIfNeeded() throws IOException {
+        int distinctRollups = distinctRecordsIn(titleRollups) + distinctRecordsIn(tagRollups);
+        if (rollupRecordsInFile <= distinctRollups * ROLLUP_COMPACTION_RATIO) {
+            return;
+        }
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(records);
+        writeRollups(output, TITLE_ROLLUP, titleRollups);
+        writeRollups(output, TAG_ROLLUP, tagRollups);
+
+        File previousRollupFile = currentRollupFile();
+        File compactedRollupFile = new File(directory, ROLLUP_PREFIX + (generationOf(previousRollupFile) + 1) + SUFFIX);
+        File temporaryRollupFile = new File(directory, COMPACTED_ROLLUPS_IN_PROGRESS);
+        Files.write(records.toByteArray(), temporaryRollupFile);
+        if (!temporaryRollupFile.renameTo(compactedRollupFile)) {
+            temporaryRollupFile.delete();
+            throw new IOException("Could not rename " + temporaryRollupFile + " to " + compactedRollupFile);
+        }
+        if (!previousRollupFile.delete()) {
+            LOGGER.warn("Could not delete old rollup file {}", previousRollupFile);
+        }
+        readRollups();
+    }
+
+    private int distinctRecordsIn(Map<Integer, SortedMap<Integer, long[]>> rollups) {
+        int records = 0;
+        for (SortedMap<Integer, long[]> dailyCounts : rollups.values()) {
+            for (long[] resultCounts : dailyCounts.values()) {
+                for (long count : resultCounts) {
+                    if (count > 0) {
+                        records++;
+                    }
+                }
+            }
+        }
+        return records;
+    }
+
+    private void writeRollups(DataOutputStream output, byte kind, Map<Integer, SortedMap<Integer, long[]>> rollups)
+            throws IOException {
+        for (Map.Entry<Integer, SortedMap<Integer, long[]>> rollup : rollups.entrySet()) {
+            for (Map.Entry<Integer, long[]> dailyCounts : rollup.getValue().entrySet()) {
+                long[] resultCounts = dailyCounts.getValue();
+                for (int result = 0; result < resultCounts.length; result++) {
+                    if (resultCounts[result] > 0) {
+                        writeRollup(output, kind, rollup.getKey(), dailyCounts.getKey(), result, resultCounts[result]);
+                    }
+                }
+            }
+        }
+    }
+
+    private File currentRollupFile() {
+        File latestRollupFile = latestRollupFile();
+        return (latestRollupFile == null) ? new File(directory, ROLLUP_PREFIX + 1 + SUFFIX) : latestRollupFile;
+    }
+
+    private File latestRollupFile() {
+        File latestRollupFile = null;
+        for (File file : filesStartingWith(ROLLUP_PREFIX)) {
+            if (latestRollupFile == null || generationOf(file) > generationOf(latestRollupFile)) {
+                latestRollupFile = file;
+            }
+        }
+        return latestRollupFile;
+    }
+
+    private int generationOf(File rollupFile) {
+        String name = rollupFile.getName();
+        return Integer.parseInt(name.substring(ROLLUP_PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private List<File> partitionFiles() {
+        List<File> partitions = filesStartingWith(PARTITION_PREFIX);
+        Collections.sort(partitions);
+        return partitions;
+    }
+
+    private List<File> archiveFiles() {
+        List<File> files = Lists.newArrayList(new File(directory, TITLES), new File(directory, TAGS));
+        files.addAll(filesStartingWith(PARTITION_PREFIX));
+        files.addAll(filesStartingWith(ROLLUP_PREFIX));
+        List<File> existingFiles = Lists.newArrayList();
+        for (File file : files) {
+            if (file.exists()) {
+                existingFiles.add(file);
+            }
+        }
+        return existingFiles;
+    }
+
+    private List<File> filesStartingWith(final String prefix) {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix) && name.endsWith(SUFFIX);
+            }
+        });
+        return (files == null) ? Lists.<File>newArrayList() : Lists.newArrayList(Arrays.asList(files));
+    }
+
+    /**
+     * The test runs read so far, one array per field.
+     */
+    static class RunColumns {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private long[] executionTimes = new long[INITIAL_CAPACITY];
+        private int[] titleIds = new int[INITIAL_CAPACITY];
+        private byte[] results = new byte[INITIAL_CAPACITY];
+        private long[] durations = new long[INITIAL_CAPACITY];
+        private int[][] tagIds = new int[INITIAL_CAPACITY][];
+        private int size;
+
+        private final Map<Integer, List<Integer>> runsByTitle = Maps.newHashMap();
+        private final Map<Integer, List<Integer>> runsByTag = Maps.newHashMap();
+
+        void add(long executionTime, int titleId, byte result, long duration, int[] runTagIds) {
+            ensureCapacity(size + 1);
+            executionTimes[size] = executionTime;
+            titleIds[size] = titleId;
+            results[size] = result;
+            durations[size] = duration;
+            tagIds[size] = runTagIds;
+            index(runsByTitle, titleId, size);
+            for (int tagId : runTagIds) {
+                index(runsByTag, tagId, size);
+            }
+            size++;
+        }
+
+        private void index(Map<Integer, List<Integer>> runIndex, int id, int run) {
+            List<Integer> indexedRuns = runIndex.get(id);
+            if (indexedRuns == null) {
+                indexedRuns = Lists.newArrayList();
+                runIndex.put(id, indexedRuns);
+            }
+            indexedRuns.add(run);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > executionTimes.length) {
+                int newCapacity = Math.max(capacity, executionTimes.length * 2);
+                executionTimes = Arrays.copyOf(executionTimes, newCapacity);
+                titleIds = Arrays.copyOf(titleIds, newCapacity);
+                results = Arrays.copyOf(results, newCapacity);
+                durations = Arrays.copyOf(durations, newCapacity);
+                tagIds = Arrays.copyOf(tagIds, newCapacity);
+            }
+        }
+
+        void clear() {
+            size = 0;
+            runsByTitle.clear();
+            runsByTag.clear();
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long executionTimeOf(int run) {
+            return executionTimes[run];
+        }
+
+        public int titleIdOf(int run) {
+            return titleIds[run];
+        }
+
+        public TestResult resultOf(int run) {
+            return RESULTS[results[run]];
+        }
+
+        public long durationOf(int run) {
+            return durations[run];
+        }
+
+        public int[] tagIdsOf(int run) {
+            return tagIds[run];
+        }
+
+        public List<Integer> runsWithTitle(int titleId) {
+            return runsIn(runsByTitle, titleId);
+        }
+
+        public List<Integer> runsWithTag(int tagId) {
+            return runsIn(runsByTag, tagId);
+        }
+
+        private List<Integer> runsIn(Map<Integer, List<Integer>> runIndex, int id) {
+            List<Integer> indexedRuns = runIndex.get(id);
+            return (indexedRuns == null) ? Collections.<Integer>emptyList() : Collections.unmodifiableList(indexedRuns);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.google.common.collect.ImmutableSet;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Index;
+import org.hibernate.annotations.Table;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -18,6 +20,9 @@ import java.util.Set;
 
 @Entity
 @Immutable
+@Table(appliesTo = "TestRun",
+       indexes = {@Index(name = "testrun_project_title", columnNames = {"projectKey", "title"}),
+                  @Index(name = "testrun_project_date", columnNames = {"projectKey", "executionDate"})})
 public class TestRun {
 
     @Id
@@ -76,6 +81,10 @@ public class TestRun {
         return new TestRun(result.getTitle(), null, result.getResult(), result.getDuration(), null);
     }
 
+    public static TestRun forTest(final String title, final TestResult result, final long duration) {
+        return new TestRun(title, null, result, duration, null);
+    }
+
     public TestRun inProject(final String projectKey) {
         return new TestRun(getTitle(), projectKey, getResult(), getDuration(), getExecutionDate());
     }
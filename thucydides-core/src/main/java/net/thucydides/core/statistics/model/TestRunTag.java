@@ -1,6 +1,8 @@
 package net.thucydides.core.statistics.model;
 
 import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Index;
+import org.hibernate.annotations.Table;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -12,6 +14,8 @@ import java.util.Set;
 
 @Entity
 @Immutable
+@Table(appliesTo = "TestRunTag",
+       indexes = {@Index(name = "testruntag_project_type", columnNames = {"projectKey", "type"})})
 public class TestRunTag {
 
     @Id
@@ -6,6 +6,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.inject.Injector;
 import net.thucydides.core.PendingStepException;
+import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.annotations.TestAnnotations;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.DataTable;
@@ -20,6 +21,7 @@ import net.thucydides.core.model.TestTag;
 import net.thucydides.core.pages.Pages;
 import net.thucydides.core.pages.SystemClock;
 import net.thucydides.core.screenshots.Photographer;
+import net.thucydides.core.screenshots.ScreenChangeDetector;
 import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
 import net.thucydides.core.screenshots.ScreenshotBlurCheck;
 import net.thucydides.core.screenshots.ScreenshotException;
@@ -49,7 +51,6 @@ import static net.thucydides.core.model.TestResult.SKIPPED;
 import static net.thucydides.core.model.TestResult.SUCCESS;
 import static net.thucydides.core.steps.BaseStepListener.ScreenshotType.MANDATORY_SCREENSHOT;
 import static net.thucydides.core.steps.BaseStepListener.ScreenshotType.OPTIONAL_SCREENSHOT;
-import static net.thucydides.core.util.NameConverter.underscore;
 
 /**
  * Observes the test run and stores test run details for later reporting.
@@ -102,6 +103,11 @@ public class BaseStepListener implements StepListener, StepPublisher {
 
     ScreenshotProcessor screenshotProcessor;
 
+    /**
+     * Used to avoid taking screenshots when the screen has not changed, if configured.
+     */
+    private final ScreenChangeDetector screenChangeDetector = new ScreenChangeDetector();
+
     private boolean inFluentStepSequence;
 
     private List<String> storywideIssues;
@@ -268,6 +274,7 @@ public class BaseStepListener implements StepListener, StepPublisher {
      */
     public void testStarted(final String testMethod) {
         testOutcomes.add(TestOutcome.forTestInStory(testMethod, testSuite, testedStory));
+        screenChangeDetector.reset();
         updateSessionIdIfKnown();
         setAnnotatedResult(testMethod);
     }
@@ -302,6 +309,23 @@ public class BaseStepListener implements StepListener, StepPublisher {
         getCurrentTestOutcome().addIssues(storywideIssues);
         getCurrentTestOutcome().addTags(storywideTags);
         currentStepStack.clear();
+        logScreenshotStatistics();
+    }
+
+    private void logScreenshotStatistics() {
+        if (shouldSkipUnchangedScreenshots() && !testOutcomes.isEmpty()) {
+            LOGGER.debug("Screenshots for {}: {} taken, {} skipped (screen unchanged)",
+                         new Object[] {getCurrentTestOutcome().getTitle(),
+                                       screenChangeDetector.getScreenshotsTaken(),
+                                       screenChangeDetector.getScreenshotsSkipped()});
+        }
+    }
+
+    /**
+     * Records how many screenshots were taken or skipped during the current test.
+     */
+    public ScreenChangeDetector getScreenChangeDetector() {
+        return screenChangeDetector;
     }
 
     private void recordTestDuration() {
@@ -522,9 +546,7 @@ public class BaseStepListener implements StepListener, StepPublisher {
     private void take(final ScreenshotType screenshotType) {
         if (currentStepExists() && browserIsOpen()) {
             try {
-                String stepDescription = getCurrentTestOutcome().getCurrentStep().getDescription();
-                String testName = getCurrentTestOutcome().getTitle();
-                Optional<ScreenshotAndHtmlSource> screenshotAndHtmlSource = grabScreenshotFor(testName + ":" + stepDescription);
+                Optional<ScreenshotAndHtmlSource> screenshotAndHtmlSource = grabScreenshot();
                 if (screenshotAndHtmlSource.isPresent()) {
                     takeScreenshotIfRequired(screenshotType, screenshotAndHtmlSource.get());
                 }
@@ -606,19 +628,20 @@ public class BaseStepListener implements StepListener, StepPublisher {
         }
     }
 
-    private Optional<ScreenshotAndHtmlSource> grabScreenshotFor(final String testName) {
-        String snapshotName = underscore(testName);
-
-        Optional<File> screenshot = getPhotographer().takeScreenshot(snapshotName);
-        if (screenshot.isPresent()) {
-            if (shouldStoreSourcecode()) {
-                File sourcecode = getPhotographer().getMatchingSourceCodeFor(screenshot.get());
-                return Optional.of(new ScreenshotAndHtmlSource(screenshot.get(), sourcecode));
-            } else {
-                return Optional.of(new ScreenshotAndHtmlSource(screenshot.get()));
-            }
+    private Optional<ScreenshotAndHtmlSource> grabScreenshot() {
+        Optional<ScreenshotAndHtmlSource> screenshot = getPhotographer().takeScreenshot();
+        if (screenshot.isPresent() && !shouldStoreSourcecode()) {
+            return Optional.of(new ScreenshotAndHtmlSource(screenshot.get().getScreenshotFile()));
         }
-        return Optional.absent();
+        return screenshot;
+    }
+
+    /**
+     * Reuse the previous screenshot rather than taking a new one if the screen has not changed.
+     */
+    private boolean shouldSkipUnchangedScreenshots() {
+        return configuration.getEnvironmentVariables()
+                            .getPropertyAsBoolean(ThucydidesSystemProperty.THUCYDIDES_SKIP_UNCHANGED_SCREENSHOTS, false);
     }
 
     private boolean shouldStoreSourcecode() {
@@ -626,6 +649,14 @@ public class BaseStepListener implements StepListener, StepPublisher {
     }
 
     public Photographer getPhotographer() {
+        Photographer photographer = newPhotographer();
+        if (shouldSkipUnchangedScreenshots()) {
+            photographer.setScreenChangeDetector(screenChangeDetector);
+        }
+        return photographer;
+    }
+
+    private Photographer newPhotographer() {
         ScreenshotBlurCheck blurCheck = new ScreenshotBlurCheck();
         if (blurCheck.blurLevel().isPresent()) {
             return new Photographer(driver, outputDirectory, blurCheck.blurLevel().get());
@@ -1,11 +1,7 @@
 package net.thucydides.core.steps;
 
-import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import com.google.inject.internal.util.$ImmutableList;
-import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.pages.Pages;
@@ -13,14 +9,10 @@ import net.thucydides.core.steps.di.DependencyInjectorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import static com.google.common.collect.ImmutableSet.copyOf;
-
 /**
  * Produces an instance of a set of requirement steps for use in the acceptance tests.
  * Requirement steps navigate through pages using a WebDriver driver.
@@ -52,8 +44,6 @@ public class StepFactory {
         this(null);
     }
 
-    private static final Class<?>[] CONSTRUCTOR_ARG_TYPES = {Pages.class};
-
     /**
      * Returns a new ScenarioSteps instance, of the specified type.
      * This is actually a proxy that allows reporting and screenshots to
@@ -142,35 +132,29 @@ public class StepFactory {
     @SuppressWarnings("unchecked")
     private <T> T createProxyStepLibrary(Class<T> scenarioStepsClass,
                                          MethodInterceptor interceptor) {
-        Enhancer e = new Enhancer();
-        e.setSuperclass(scenarioStepsClass);
-        e.setCallback(interceptor);
+        StepLibraryProxyClass proxyClass = StepLibraryProxyClass.forStepLibrary(scenarioStepsClass);
 
-        if (isWebdriverStepClass(scenarioStepsClass)) {
-            return webEnabledStepLibrary(scenarioStepsClass, e);
+        if (proxyClass.isWebEnabled()) {
+            return webEnabledStepLibrary(proxyClass, interceptor);
         } else {
-            return (T) e.create();
+            return (T) proxyClass.newInstance(interceptor);
         }
     }
 
-    private <T> T webEnabledStepLibrary(final Class<T> scenarioStepsClass, final Enhancer e) {
-        if (hasAPagesConstructor(scenarioStepsClass)) {
-            Object[] arguments = new Object[1];
-            arguments[0] = pages;
-            return (T) e.create(CONSTRUCTOR_ARG_TYPES, arguments);
+    @SuppressWarnings("unchecked")
+    private <T> T webEnabledStepLibrary(final StepLibraryProxyClass proxyClass, final MethodInterceptor interceptor) {
+        if (proxyClass.hasAPagesConstructor()) {
+            return (T) proxyClass.newInstance(interceptor, pages);
         } else {
-            T newStepLibrary = (T) e.create();
-            return injectPagesInto(scenarioStepsClass, newStepLibrary);
+            T newStepLibrary = (T) proxyClass.newInstance(interceptor);
+            return injectPagesInto(proxyClass, newStepLibrary);
         }
     }
 
-    private <T> T injectPagesInto(final Class<T> stepLibraryClass, T newStepLibrary) {
-        if (hasAPagesField(stepLibraryClass)) {
-            ImmutableSet<Field> fields = copyOf(stepLibraryClass.getDeclaredFields());
-            Field pagesField =  Iterables.find(fields, ofTypePages());
-            pagesField.setAccessible(true);
+    private <T> T injectPagesInto(final StepLibraryProxyClass proxyClass, T newStepLibrary) {
+        if (proxyClass.getPagesField().isPresent()) {
             try {
-                pagesField.set(newStepLibrary, pages);
+                proxyClass.getPagesField().get().set(newStepLibrary, pages);
             } catch (IllegalAccessException e) {
                 LOGGER.error("Could not instantiate pages field for step library {}", newStepLibrary);
             }
@@ -178,47 +162,6 @@ public class StepFactory {
         return newStepLibrary;
     }
 
-    private <T> boolean isWebdriverStepClass(final Class<T> stepLibraryClass) {
-
-        return (isAScenarioStepClass(stepLibraryClass)
-                || hasAPagesConstructor(stepLibraryClass)
-                || hasAPagesField(stepLibraryClass));
-    }
-
-    private <T> boolean hasAPagesConstructor(final Class<T> stepLibraryClass) {
-        ImmutableSet<Constructor<?>> constructors = copyOf(stepLibraryClass.getDeclaredConstructors());
-        return Iterables.any(constructors, withASinglePagesParameter());
-
-    }
-
-    private <T> boolean hasAPagesField(final Class<T> stepLibraryClass) {
-        ImmutableSet<Field> fields = copyOf(stepLibraryClass.getDeclaredFields());
-        return Iterables.any(fields, ofTypePages());
-
-    }
-
-    private Predicate<Constructor> withASinglePagesParameter() {
-        return new Predicate<Constructor>() {
-
-            public boolean apply(Constructor constructor) {
-                return ((constructor.getParameterTypes().length == 1)
-                        && (constructor.getParameterTypes()[0] == Pages.class));
-            }
-        };
-    }
-
-    private Predicate<Field> ofTypePages() {
-        return new Predicate<Field>() {
-            public boolean apply(Field field) {
-                return (field.getType() == Pages.class);
-            }
-        };
-    }
-
-    private <T> boolean isAScenarioStepClass(final Class<T> stepLibraryClass) {
-        return ScenarioSteps.class.isAssignableFrom(stepLibraryClass);
-    }
-
     private <T> void indexStepLibrary(Class<T> scenarioStepsClass, T steps) {
         index.put(scenarioStepsClass, steps);
     }
@@ -15,9 +15,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static net.thucydides.core.steps.ErrorConvertor.forError;
 import static org.apache.commons.lang3.StringUtils.split;
@@ -45,16 +48,61 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
                             final Object[] args, final MethodProxy proxy) throws Throwable {
 
         Object result;
-        if (baseClassMethod(method, obj.getClass())) {
+        InterceptedMethod interceptedMethod = interceptedMethodFor(method, obj.getClass());
+        if (interceptedMethod.isABaseClassMethod) {
             result = runBaseObjectMethod(obj, method, args, proxy);
         } else {
-            result = testStepResult(obj, method, args, proxy);
+            result = testStepResult(obj, method, interceptedMethod, args, proxy);
         }
         return result;
 
     }
 
-    private final List<String> OBJECT_METHODS
+    /**
+     * What the interceptor needs to know about a method, worked out the first time the method is called
+     * on the step library. Step methods are called very often, so we avoid looking up annotations and
+     * package names on every call.
+     */
+    static final class InterceptedMethod {
+        final boolean isABaseClassMethod;
+        final boolean isDeclaredInSameDomain;
+        final boolean isATestStep;
+        final boolean isPending;
+        final boolean isIgnored;
+
+        private InterceptedMethod(final Method method, final Class callingClass) {
+            this.isDeclaredInSameDomain = declaredInSameDomain(method, callingClass);
+            this.isABaseClassMethod = OBJECT_METHODS.contains(method.getName()) || !isDeclaredInSameDomain;
+            this.isATestStep = isAnnotatedWithAValidStepAnnotation(method);
+            this.isPending = (method.getAnnotation(Pending.class) != null);
+            this.isIgnored = TestAnnotations.isIgnored(method);
+        }
+    }
+
+    /**
+     * Kept per interceptor rather than in a static map, so that the proxy classes and their class loaders
+     * can be unloaded once the step libraries are no longer used.
+     */
+    private transient ConcurrentMap<Method, InterceptedMethod> interceptedMethods;
+
+    InterceptedMethod interceptedMethodFor(final Method method, final Class<?> callingClass) {
+        ConcurrentMap<Method, InterceptedMethod> methodsOfClass = getInterceptedMethods();
+        InterceptedMethod interceptedMethod = methodsOfClass.get(method);
+        if (interceptedMethod == null) {
+            methodsOfClass.putIfAbsent(method, new InterceptedMethod(method, callingClass));
+            interceptedMethod = methodsOfClass.get(method);
+        }
+        return interceptedMethod;
+    }
+
+    private synchronized ConcurrentMap<Method, InterceptedMethod> getInterceptedMethods() {
+        if (interceptedMethods == null) {
+            interceptedMethods = new ConcurrentHashMap<Method, InterceptedMethod>();
+        }
+        return interceptedMethods;
+    }
+
+    private static final List<String> OBJECT_METHODS
        = Arrays.asList("toString",
             "equals",
             "hashcode",
@@ -65,23 +113,17 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
             "finalize",
             "getMetaClass");
 
-    private boolean baseClassMethod(final Method method, final Class callingClass) {
-        boolean isACoreLanguageMethod = (OBJECT_METHODS.contains(method.getName()));
-        boolean methodDoesNotComeFromThisClassOrARelatedParentClass = !declaredInSameDomain(method, callingClass);
-        return (isACoreLanguageMethod || methodDoesNotComeFromThisClassOrARelatedParentClass);
-    }
-
-    private boolean declaredInSameDomain(Method method, final Class callingClass) {
+    private static boolean declaredInSameDomain(Method method, final Class callingClass) {
         return domainPackageOf(getRoot(method)).equals(domainPackageOf(callingClass));
     }
 
-    private String domainPackageOf(Class callingClass) {
+    private static String domainPackageOf(Class callingClass) {
         Package classPackage = callingClass.getPackage();
         String classPackageName = (classPackage != null) ? classPackage.getName() : "";
         return packageDomainName(classPackageName);
     }
 
-    private String packageDomainName(String methodPackage) {
+    private static String packageDomainName(String methodPackage) {
         String[] packages = split(methodPackage, ".");
 
         if (packages.length == 0) {
@@ -93,16 +135,17 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
         }
     }
 
-    private String domainPackageOf(Method method) {
+    private static String domainPackageOf(Method method) {
         Package methodPackage = method.getDeclaringClass().getPackage();
         String methodPackageName = (methodPackage != null) ? methodPackage.getName() : "";
         return packageDomainName(methodPackageName);
     }
 
-    private Method getRoot(Method method) {
+    private static Method getRoot(Method method) {
         try {
-            method.getClass().getDeclaredField("root").setAccessible(true);
-            return (Method) method.getClass().getDeclaredField("root").get(method);
+            Field root = method.getClass().getDeclaredField("root");
+            root.setAccessible(true);
+            return (Method) root.get(method);
         } catch (IllegalAccessException e) {
             return method;
         } catch (NoSuchFieldException e) {
@@ -110,16 +153,16 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
         }
     }
 
-    private Object testStepResult(final Object obj, final Method method,
+    private Object testStepResult(final Object obj, final Method method, final InterceptedMethod interceptedMethod,
                                   final Object[] args, final MethodProxy proxy) throws Throwable {
 
-        if (!isATestStep(method)) {
-            return runNormalMethod(obj, method, args, proxy);
+        if (!interceptedMethod.isATestStep) {
+            return runNormalMethod(obj, method, interceptedMethod, args, proxy);
         }
 
-        if (shouldSkip(method)) {
+        if (shouldSkip(interceptedMethod)) {
             notifySkippedStepStarted(method, args);
-            return skipTestStep(obj, method, args, proxy);
+            return skipTestStep(obj, method, interceptedMethod, args, proxy);
         } else {
             notifyStepStarted(method, args);
             return runTestStep(obj, method, args, proxy);
@@ -127,9 +170,10 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
 
     }
 
-    private Object skipTestStep(Object obj, Method method, Object[] args, MethodProxy proxy) throws Exception {
+    private Object skipTestStep(Object obj, Method method, InterceptedMethod interceptedMethod,
+                                Object[] args, MethodProxy proxy) throws Exception {
         Object skippedReturnObject = runSkippedMethod(obj, method, args, proxy);
-        notifyStepSkippedFor(method, args);
+        notifyStepSkippedFor(interceptedMethod);
         LOGGER.info("SKIPPED STEP: {}", method.getName());
         return appropriateReturnObject(skippedReturnObject, obj, method);
     }
@@ -163,16 +207,16 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
         }
     }
 
-    private boolean shouldNotSkipMethod(final Method methodOrStep, final Class callingClass) {
-        return !shouldSkipMethod(methodOrStep, callingClass);
+    private boolean shouldNotSkipMethod(final InterceptedMethod methodOrStep) {
+        return !shouldSkipMethod(methodOrStep);
     }
 
-    private boolean shouldSkipMethod(final Method methodOrStep, final Class callingClass) {
-        return ((aPreviousStepHasFailed() || testIsPending()) && declaredInSameDomain(methodOrStep, callingClass));
+    private boolean shouldSkipMethod(final InterceptedMethod methodOrStep) {
+        return ((aPreviousStepHasFailed() || testIsPending()) && methodOrStep.isDeclaredInSameDomain);
     }
 
-    private boolean shouldSkip(final Method methodOrStep) {
-        return aPreviousStepHasFailed() ||  testIsPending() || isPending(methodOrStep) || isIgnored(methodOrStep);
+    private boolean shouldSkip(final InterceptedMethod methodOrStep) {
+        return aPreviousStepHasFailed() ||  testIsPending() || methodOrStep.isPending || methodOrStep.isIgnored;
     }
 
     private boolean testIsPending() {
@@ -193,12 +237,12 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
         return invokeMethod(obj, method, args, proxy);
     }
 
-    private Object runNormalMethod(final Object obj, final Method method, final Object[] args, final MethodProxy proxy)
-            throws Throwable {
+    private Object runNormalMethod(final Object obj, final Method method, final InterceptedMethod interceptedMethod,
+                                   final Object[] args, final MethodProxy proxy) throws Throwable {
 
         Object result = defaultReturnValueFor(method);
 
-        if (shouldNotSkipMethod(method, obj.getClass())) {
+        if (shouldNotSkipMethod(interceptedMethod)) {
             result = invokeMethodAndNotifyFailures(obj, method, args, proxy, result);
         }
         return result;
@@ -224,7 +268,7 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
         }
     }
 
-    private boolean isAnnotatedWithAValidStepAnnotation(final Method method) {
+    private static boolean isAnnotatedWithAValidStepAnnotation(final Method method) {
         Annotation[] annotations = method.getAnnotations();
         for (Annotation annotation : annotations) {
             if (isAThucydidesStep(annotation) || (AnnotatedStepDescription.isACompatibleStep(annotation))) {
@@ -234,18 +278,10 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
         return false;
     }
 
-    private boolean isAThucydidesStep(Annotation annotation) {
+    private static boolean isAThucydidesStep(Annotation annotation) {
         return (annotation instanceof Step) || (annotation instanceof StepGroup);
     }
 
-    private boolean isATestStep(final Method method) {
-        return isAnnotatedWithAValidStepAnnotation(method);
-    }
-
-    private boolean isIgnored(final Method method) {
-        return TestAnnotations.isIgnored(method);
-    }
-
     private Object runTestStep(final Object obj, final Method method,
                                final Object[] args, final MethodProxy proxy) throws Throwable {
         LOGGER.info("STARTING STEP: {}", method.getName());
@@ -288,10 +324,6 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
         return proxy.invokeSuper(obj, args);
     }
 
-    private boolean isPending(final Method method) {
-        return (method.getAnnotation(Pending.class) != null);
-    }
-
     private void notifyStepFinishedFor(final Method method, final Object[] args) {
         StepEventBus.getEventBus().stepFinished();
     }
@@ -338,10 +370,10 @@ public class StepInterceptor implements MethodInterceptor, Serializable {
         return testName.toString();
     }
 
-    private void notifyStepSkippedFor(final Method method, final Object[] args)
+    private void notifyStepSkippedFor(final InterceptedMethod interceptedMethod)
             throws Exception {
 
-        if (isPending(method)) {
+        if (interceptedMethod.isPending) {
             StepEventBus.getEventBus().stepPending();
         } else {
             StepEventBus.getEventBus().stepIgnored();
@@ -0,0 +1,134 @@
+package net.thucydides.core.steps;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.MapMaker;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.thucydides.core.pages.Pages;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The CGLIB proxy class generated for a step library class, along with what StepFactory needs to know
+ * to instantiate it: the constructor to call, and where the Pages object goes.
+ * This is worked out once per step library class; each new step library is then created directly from
+ * the cached constructor, with its own interceptor.
+ * Entries are held weakly by step library class and softly by value, as each value refers back to its
+ * step library class, so that step libraries loaded by a discarded class loader can still be unloaded.
+ */
+final class StepLibraryProxyClass {
+
+    private static final ConcurrentMap<Class<?>, StepLibraryProxyClass> PROXY_CLASSES
+            = new MapMaker().weakKeys().softValues().makeMap();
+
+    private static final Object[] NO_ARGS = {};
+
+    private final Class<?> proxyClass;
+    private final boolean webEnabled;
+    private final boolean pagesConstructorDeclared;
+    private final Constructor<?> pagesConstructor;
+    private final Constructor<?> defaultConstructor;
+    private final Field pagesField;
+
+    private StepLibraryProxyClass(final Class<?> stepLibraryClass) {
+        Enhancer e = new Enhancer();
+        e.setSuperclass(stepLibraryClass);
+        e.setCallbackType(MethodInterceptor.class);
+        this.proxyClass = e.createClass();
+        this.pagesConstructor = constructorOf(proxyClass, Pages.class).orNull();
+        this.defaultConstructor = constructorOf(proxyClass).orNull();
+        this.pagesField = pagesFieldIn(stepLibraryClass).orNull();
+        this.pagesConstructorDeclared = declaresAPagesConstructor(stepLibraryClass);
+        this.webEnabled = ScenarioSteps.class.isAssignableFrom(stepLibraryClass)
+                          || pagesConstructorDeclared
+                          || (pagesField != null);
+    }
+
+    static StepLibraryProxyClass forStepLibrary(final Class<?> stepLibraryClass) {
+        StepLibraryProxyClass proxyClass = PROXY_CLASSES.get(stepLibraryClass);
+        if (proxyClass == null) {
+            PROXY_CLASSES.putIfAbsent(stepLibraryClass, new StepLibraryProxyClass(stepLibraryClass));
+            proxyClass = PROXY_CLASSES.get(stepLibraryClass);
+        }
+        return proxyClass;
+    }
+
+    Class<?> getProxyClass() {
+        return proxyClass;
+    }
+
+    boolean isWebEnabled() {
+        return webEnabled;
+    }
+
+    boolean hasAPagesConstructor() {
+        return pagesConstructorDeclared;
+    }
+
+    Optional<Field> getPagesField() {
+        return Optional.fromNullable(pagesField);
+    }
+
+    Object newInstance(final MethodInterceptor interceptor) {
+        if (defaultConstructor == null) {
+            throw new IllegalArgumentException("Step library " + proxyClass.getSuperclass().getName()
+                                               + " has no visible default constructor");
+        }
+        return newInstance(defaultConstructor, interceptor, NO_ARGS);
+    }
+
+    Object newInstance(final MethodInterceptor interceptor, final Pages pages) {
+        if (pagesConstructor == null) {
+            throw new IllegalArgumentException("Step library " + proxyClass.getSuperclass().getName()
+                                               + " has no visible constructor taking a Pages object");
+        }
+        return newInstance(pagesConstructor, interceptor, new Object[] {pages});
+    }
+
+    /**
+     * CGLIB hands the callbacks registered for the current thread to the proxy while it is being constructed,
+     * so step libraries created concurrently each get their own interceptor.
+     */
+    private Object newInstance(final Constructor<?> constructor,
+                               final MethodInterceptor interceptor,
+                               final Object[] args) {
+        Enhancer.registerCallbacks(proxyClass, new Callback[] {interceptor});
+        try {
+            return ReflectUtils.newInstance(constructor, args);
+        } finally {
+            Enhancer.registerCallbacks(proxyClass, null);
+        }
+    }
+
+    private static Optional<Constructor<?>> constructorOf(final Class<?> proxyClass, final Class<?>... parameterTypes) {
+        try {
+            return Optional.<Constructor<?>>of(proxyClass.getDeclaredConstructor(parameterTypes));
+        } catch (NoSuchMethodException e) {
+            return Optional.absent();
+        }
+    }
+
+    private static boolean declaresAPagesConstructor(final Class<?> stepLibraryClass) {
+        for (Constructor<?> constructor : stepLibraryClass.getDeclaredConstructors()) {
+            if ((constructor.getParameterTypes().length == 1)
+                    && (constructor.getParameterTypes()[0] == Pages.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Optional<Field> pagesFieldIn(final Class<?> stepLibraryClass) {
+        for (Field field : stepLibraryClass.getDeclaredFields()) {
+            if (field.getType() == Pages.class) {
+                field.setAccessible(true);
+                return Optional.of(field);
+            }
+        }
+        return Optional.absent();
+    }
+}
@@ -1,7 +1,5 @@
 package net.thucydides.core.webdriver;
 
-import net.thucydides.core.pages.PageObject;
-import net.thucydides.core.pages.WebElementFacadeImpl;
 import net.thucydides.core.steps.StepEventBus;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
@@ -11,25 +9,16 @@ import org.openqa.selenium.support.pagefactory.AjaxElementLocator;
 import org.openqa.selenium.support.pagefactory.Annotations;
 
 import java.lang.reflect.Field;
-import java.util.Arrays;
 import java.util.List;
 
 class DisplayedElementLocator extends AjaxElementLocator {
 
-    private static final List<String> QUICK_METHODS = Arrays.asList("isCurrentlyVisible",
-                                                                    "isCurrentlyEnabled",
-                                                                    "waitUntilVisible",
-                                                                    "waitUntilEnabled",
-                                                                    "shouldNotBeVisible");
-
-    private static final List<String> QUICK_CLASSES = Arrays.asList(WebElementFacadeImpl.class.getName(), PageObject.class.getName());
-
-    private final Field field;
+    private final By by;
     private final WebDriver driver;
 
     DisplayedElementLocator(WebDriver driver, Field field, int timeOutInSeconds) {
         super(driver, field, timeOutInSeconds);
-        this.field = field;
+        this.by = new Annotations(field).buildBy();
         this.driver = driver;
     }
 
@@ -46,25 +35,13 @@ class DisplayedElementLocator extends AjaxElementLocator {
         if (StepEventBus.getEventBus().aStepInTheCurrentTestHasFailed()) {
             return true;
         }
-        if (calledFromAQuickMethod()) {
+        if (ImmediateElementLookup.isInProgress()) {
             return true;
         }
         return false;
     }
 
-    private boolean calledFromAQuickMethod() {
-        for(StackTraceElement elt : Thread.currentThread().getStackTrace()){
-            if (QUICK_METHODS.contains(elt.getMethodName())
-                &&  QUICK_CLASSES.contains(elt.getClassName())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     public WebElement findElementImmediately() {
-        Annotations annotations = new Annotations(field);
-        By by = annotations.buildBy();
         List<WebElement> matchingElements = driver.findElements(by);
         if (matchingElements.isEmpty()) {
             throw new NoSuchElementException("No such element found for criteria " + by.toString());
@@ -32,7 +32,7 @@ public class ElementLocatorFactorySelector {
         } else if (locatorType.equals("DefaultElementLocatorFactory")) {
             return new DefaultElementLocatorFactory(driver);
         } else if (locatorType.equals("SmartElementLocatorFactory")){
-        	return new SmartElementLocatorFactory(driver, timeoutInSeconds);
+        	return new SmartElementLocatorFactory(driver, timeoutInSeconds, environmentVariables);
         
         } else {
             throw new IllegalArgumentException("Unsupported ElementLocatorFactory implementation: " + locatorType);
@@ -0,0 +1,65 @@
+package net.thucydides.core.webdriver;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsElement;
+
+/**
+ * Keeps track of when the current thread is running a method that only needs to know the current state
+ * of an element, such as WebElementFacade.isCurrentlyVisible(). While one of these methods is running,
+ * the element locators look elements up straight away rather than waiting for them to appear.
+ */
+public final class ImmediateElementLookup {
+
+    private static final ThreadLocal<int[]> NESTED_LOOKUPS = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    private ImmediateElementLookup() {
+    }
+
+    /**
+     * Called at the start of a method whose element lookups should not wait.
+     * Each call must be matched by a call to finish(), in a finally block.
+     */
+    public static void start() {
+        NESTED_LOOKUPS.get()[0]++;
+    }
+
+    public static void finish() {
+        NESTED_LOOKUPS.get()[0]--;
+    }
+
+    public static boolean isInProgress() {
+        return NESTED_LOOKUPS.get()[0] > 0;
+    }
+
+    /**
+     * Find the browser element behind a page element, a WebElementFacade or a proxy, without waiting for it
+     * to appear. This is the element to pass to scripts run in the browser.
+     *
+     * @throws NoSuchElementException if the element is not on the page.
+     */
+    public static WebElement locate(final WebElement element) {
+        start();
+        try {
+            WebElement located = element;
+            while (located instanceof WrapsElement) {
+                WebElement wrappedElement = ((WrapsElement) located).getWrappedElement();
+                if (wrappedElement == located) {
+                    break;
+                }
+                located = wrappedElement;
+            }
+            if (located == null) {
+                throw new NoSuchElementException("Element is not on the page");
+            }
+            return located;
+        } finally {
+            finish();
+        }
+    }
+}
@@ -85,11 +85,18 @@ public class ThucydidesWebdriverManager implements WebdriverManager {
 
     private void closeSafely(WebDriver driver) {
         try {
-            driver.close();
-            driver.quit();
+            WebdriverInstances.closeAndQuit(driver);
         } catch(Throwable ignored) {}
     }
 
+    /**
+     * Start launching the drivers that the tests will need, if the driver pool is configured to keep drivers ready.
+     */
+    public void prelaunchDrivers(final String driver) {
+        SupportedWebDriver supportedDriverType = getConfiguredWebDriverWithOverride(configuration, driver);
+        webDriverFactory.prelaunchInstancesOf(webDriverFactory.getClassFor(supportedDriverType));
+    }
+
     public void resetDriver() {
         inThisTestThread().resetCurrentDriver();
     }
@@ -71,7 +71,7 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot, HasInputDevi
 
     private void forcedQuit() {
         try {
-            getDriverInstance().quit();
+            quitOrReturnToPool(getDriverInstance());
             proxiedWebDriver = null;
         } catch (WebDriverException e) {
             LOGGER.warn("Closing a driver that was already closed: " + e.getMessage());
@@ -190,7 +190,7 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot, HasInputDevi
     public void quit() {
         if (proxyInstanciated()) {
             try {
-                getDriverInstance().quit();
+                quitOrReturnToPool(getDriverInstance());
             } catch (WebDriverException e) {
                 LOGGER.warn("Error while quitting the driver - is this IE? (" + e.getMessage() + ")");
             }
@@ -198,6 +198,20 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot, HasInputDevi
         }
     }
 
+    private void quitOrReturnToPool(final WebDriver driver) {
+        if (!webDriverFactory.releaseWebdriverInstance(driverClass, driver)) {
+            driver.quit();
+        }
+    }
+
+    /**
+     * Pooled drivers are returned to the pool when they are quit, so they should not be closed first:
+     * closing the last window of a browser ends the browser session.
+     */
+    public boolean usesDriverPool() {
+        return webDriverFactory.usesDriverPool();
+    }
+
     protected boolean proxyInstanciated() {
         return (getDriverInstance() != null);
     }
@@ -267,6 +281,6 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot, HasInputDevi
     }
 
     public Object executeAsyncScript(String script, Object... parameters) {
-        return ((JavascriptExecutor) getProxiedDriver()).executeScript(script, parameters);
+        return ((JavascriptExecutor) getProxiedDriver()).executeAsyncScript(script, parameters);
     }
 }
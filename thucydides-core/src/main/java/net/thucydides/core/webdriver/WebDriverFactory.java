@@ -1,6 +1,7 @@
 package net.thucydides.core.webdriver;
 
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.guice.Injectors;
@@ -44,6 +45,7 @@ import java.net.URL;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 import static net.thucydides.core.webdriver.javascript.JavascriptSupport.activateJavascriptSupportFor;
@@ -70,6 +72,24 @@ public class WebDriverFactory {
 
     private final EnvironmentVariables environmentVariables;
     private final FirefoxProfileEnhancer firefoxProfileEnhancer;
+    private WebdriverPool driverPool;
+
+    /**
+     * Pooled drivers are only reused for tests that would have created a driver with the same configuration.
+     */
+    private static final List<ThucydidesSystemProperty> DRIVER_CONFIGURATION_PROPERTIES
+            = ImmutableList.of(ThucydidesSystemProperty.DRIVER,
+                               ThucydidesSystemProperty.REMOTE_URL,
+                               ThucydidesSystemProperty.REMOTE_DRIVER,
+                               ThucydidesSystemProperty.DRIVER_CAPABILITIES,
+                               ThucydidesSystemProperty.CHROME_SWITCHES,
+                               ThucydidesSystemProperty.FIREFOX_PREFERENCES,
+                               ThucydidesSystemProperty.SNAPSHOT_WIDTH,
+                               ThucydidesSystemProperty.SNAPSHOT_HEIGHT,
+                               ThucydidesSystemProperty.TIMEOUTS_IMPLICIT_WAIT,
+                               ThucydidesSystemProperty.TIMEOUTS_SCRIPT,
+                               ThucydidesSystemProperty.PROXY_URL,
+                               ThucydidesSystemProperty.PROXY_PORT);
 
     private final Integer EXTRA_TIME_TO_TAKE_SCREENSHOTS = 180;
 
@@ -96,6 +116,67 @@ public class WebDriverFactory {
         this.firefoxProfileEnhancer = firefoxProfileEnhancer;
     }
 
+    public WebDriverFactory(WebdriverInstanceFactory webdriverInstanceFactory,
+                            EnvironmentVariables environmentVariables,
+                            WebdriverPool driverPool) {
+        this(webdriverInstanceFactory, environmentVariables);
+        this.driverPool = driverPool;
+    }
+
+    protected synchronized WebdriverPool getDriverPool() {
+        if (driverPool == null) {
+            driverPool = Injectors.getInjector().getInstance(WebdriverPool.class);
+        }
+        return driverPool;
+    }
+
+    /**
+     * Drivers are pooled if the driver pool is activated, except for Saucelabs drivers,
+     * whose sessions are named after the test that started them.
+     */
+    public boolean usesDriverPool() {
+        return environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.DRIVER_POOL, false)
+                && !saucelabsUrlIsDefined();
+    }
+
+    protected String driverPoolKeyFor(final Class<? extends WebDriver> driverClass) {
+        StringBuilder driverPoolKey = new StringBuilder(driverClass.getName());
+        for (ThucydidesSystemProperty property : DRIVER_CONFIGURATION_PROPERTIES) {
+            driverPoolKey.append('|').append(StringUtils.defaultString(property.from(environmentVariables)));
+        }
+        return driverPoolKey.toString();
+    }
+
+    /**
+     * Return a driver to the driver pool once a test has finished with it, if drivers are being pooled.
+     * @return false if drivers are not being pooled, in which case the driver should be quit.
+     */
+    public boolean releaseWebdriverInstance(final Class<? extends WebDriver> driverClass, final WebDriver driver) {
+        if (!usesDriverPool()) {
+            return false;
+        }
+        getDriverPool().checkIn(driverPoolKeyFor(driverClass), driver);
+        return true;
+    }
+
+    /**
+     * Start launching drivers of a given type in the background, if the driver pool is configured
+     * to keep drivers ready, so that they are already running when the tests need them.
+     */
+    public void prelaunchInstancesOf(final Class<? extends WebDriver> driverClass) {
+        if (usesDriverPool()) {
+            getDriverPool().keepReady(driverPoolKeyFor(driverClass), launcherFor(driverClass));
+        }
+    }
+
+    private Callable<WebDriver> launcherFor(final Class<? extends WebDriver> driverClass) {
+        return new Callable<WebDriver>() {
+            public WebDriver call() {
+                return launchWebdriverInstance(driverClass);
+            }
+        };
+    }
+
     protected ProfilesIni getAllProfiles() {
         if (allProfiles == null) {
             allProfiles = new ProfilesIni();
@@ -125,15 +206,39 @@ public class WebDriverFactory {
         return StringUtils.isNotEmpty(ThucydidesSystemProperty.SAUCELABS_URL.from(environmentVariables));
     }
 
+    /**
+     * Use a driver from the driver pool if there is one, or launch a new one.
+     */
+    protected WebDriver newWebdriverInstance(final Class<? extends WebDriver> driverClass) {
+        if (!usesDriverPool()) {
+            return newLaunchedWebdriverInstance(driverClass);
+        }
+        String driverPoolKey = driverPoolKeyFor(driverClass);
+        getDriverPool().keepReady(driverPoolKey, launcherFor(driverClass));
+        WebDriver pooledDriver = getDriverPool().checkOut(driverPoolKey);
+        if (pooledDriver != null) {
+            return pooledDriver;
+        }
+        long startTime = System.currentTimeMillis();
+        WebDriver driver = newLaunchedWebdriverInstance(driverClass);
+        getDriverPool().recordLaunchTime(System.currentTimeMillis() - startTime);
+        return driver;
+    }
+
     /**
      * This method is synchronized because multiple webdriver instances can be created in parallel.
      * However, they may use common system resources such as ports, so may potentially interfere
      * with each other.
+     * Drivers launched ahead of time by the driver pool are not synchronized, so that they start in parallel.
      *
      * @param driverClass
      * @return
      */
-    protected synchronized WebDriver newWebdriverInstance(final Class<? extends WebDriver> driverClass) {
+    private synchronized WebDriver newLaunchedWebdriverInstance(final Class<? extends WebDriver> driverClass) {
+        return launchWebdriverInstance(driverClass);
+    }
+
+    private WebDriver launchWebdriverInstance(final Class<? extends WebDriver> driverClass) {
         try {
             WebDriver driver;
             if (isARemoteDriver(driverClass) || shouldUseARemoteDriver() || saucelabsUrlIsDefined()) {
@@ -166,6 +271,12 @@ public class WebDriverFactory {
 
             driver.manage().timeouts().implicitlyWait(timeout, TimeUnit.MILLISECONDS);
         }
+        if (ThucydidesSystemProperty.TIMEOUTS_SCRIPT.isDefinedIn(environmentVariables)) {
+            int timeout = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.TIMEOUTS_SCRIPT
+                                                                                            .getPropertyName(),0);
+
+            driver.manage().timeouts().setScriptTimeout(timeout, TimeUnit.MILLISECONDS);
+        }
     }
 
     private boolean shouldUseARemoteDriver() {
@@ -47,7 +47,16 @@ public class WebdriverInstances {
     }
 
     private void closeAndQuite(WebDriver driver) {
-        driver.close();
+        closeAndQuit(driver);
+    }
+
+    /**
+     * Drivers from the driver pool are just quit, which returns them to the pool.
+     */
+    static void closeAndQuit(WebDriver driver) {
+        if (!(driver instanceof WebDriverFacade) || !((WebDriverFacade) driver).usesDriverPool()) {
+            driver.close();
+        }
         driver.quit();
     }
 
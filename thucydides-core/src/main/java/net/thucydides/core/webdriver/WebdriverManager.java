@@ -27,6 +27,8 @@ public interface WebdriverManager {
 
     void resetDriver();
 
+    void prelaunchDrivers(final String driver);
+
     int getCurrentActiveWebdriverCount();
 
     int getActiveWebdriverCount();
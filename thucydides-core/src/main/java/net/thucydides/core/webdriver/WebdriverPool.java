@@ -0,0 +1,417 @@
+package net.thucydides.core.webdriver;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.pages.SystemClock;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps browsers that are no longer being used by a test, so that later tests can reuse them
+ * rather than waiting for a new browser to start.
+ * Drivers are pooled by driver type and configuration. When a driver is returned to the pool, its cookies,
+ * local and session storage and any extra windows are cleared, and before it is reused, it is checked
+ * to make sure that it still responds. Each driver is only reused a limited number of times before it is
+ * replaced by a new one, and drivers that are not reused within the idle timeout are quit, as are any
+ * drivers over the maximum number of idle drivers of each type.
+ * The pool can also launch a number of drivers of each type in the background, before they are needed,
+ * and launches a replacement whenever one of these drivers is checked out.
+ */
+public class WebdriverPool {
+
+    private static final int DEFAULT_MAX_IDLE = 2;
+    private static final int DEFAULT_IDLE_TIMEOUT_IN_SECONDS = 300;
+    private static final int DEFAULT_MAX_USES = 50;
+    private static final int DEFAULT_PRELAUNCH_COUNT = 0;
+    private static final long MAX_WAIT_FOR_LAUNCHING_DRIVER_IN_MILLIS = 120000;
+
+    private static final String CLEAR_STORAGE
+            = "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}";
+
+    private final SystemClock clock;
+    private final int maxIdle;
+    private final long idleTimeoutInMillis;
+    private final int maxUses;
+    private final int prelaunchCount;
+
+    private final Map<String, LinkedList<IdleDriver>> idleDrivers = Maps.newHashMap();
+    private final Map<WebDriver, Integer> useCounts = new IdentityHashMap<WebDriver, Integer>();
+    private final Map<String, Callable<WebDriver>> driverLaunchers = Maps.newHashMap();
+    private final Map<String, Integer> launchingDriverCounts = Maps.newHashMap();
+    private ExecutorService launcher;
+    private boolean shutDown;
+
+    private int hitCount;
+    private int missCount;
+    private int launchCount;
+    private long totalLaunchTimeInMillis;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebdriverPool.class);
+
+    @Inject
+    public WebdriverPool(EnvironmentVariables environmentVariables, SystemClock clock) {
+        this.clock = clock;
+        this.maxIdle = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.DRIVER_POOL_MAX_IDLE,
+                                                                 DEFAULT_MAX_IDLE);
+        this.idleTimeoutInMillis = 1000L * environmentVariables.getPropertyAsInteger(
+                                            ThucydidesSystemProperty.DRIVER_POOL_IDLE_TIMEOUT,
+                                            DEFAULT_IDLE_TIMEOUT_IN_SECONDS);
+        this.maxUses = environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.DRIVER_POOL_MAX_USES,
+                                                                 DEFAULT_MAX_USES);
+        this.prelaunchCount = environmentVariables.getPropertyAsInteger(
+                                            ThucydidesSystemProperty.DRIVER_POOL_PRELAUNCH,
+                                            DEFAULT_PRELAUNCH_COUNT);
+        addShutdownHook();
+    }
+
+    private void addShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                shutdown();
+            }
+        });
+    }
+
+    private static class IdleDriver {
+        private final WebDriver driver;
+        private final long idleSince;
+
+        private IdleDriver(WebDriver driver, long idleSince) {
+            this.driver = driver;
+            this.idleSince = idleSince;
+        }
+    }
+
+    /**
+     * Keep the configured number of drivers of a given type ready to use, launching them in the background.
+     * The first time this is called for a driver type, all of the drivers are launched in parallel;
+     * after that, a new driver is launched each time one is checked out.
+     */
+    public void keepReady(final String driverKey, final Callable<WebDriver> driverLauncher) {
+        if (prelaunchCount <= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (driverLaunchers.containsKey(driverKey)) {
+                return;
+            }
+            driverLaunchers.put(driverKey, driverLauncher);
+        }
+        launchReadyDriversFor(driverKey);
+    }
+
+    /**
+     * If a driver of this type is still being launched in the background, this waits for it to be ready.
+     * @return a driver of the given type that is still responding, or null if there are none in the pool.
+     */
+    public WebDriver checkOut(final String driverKey) {
+        quitExpiredDrivers();
+        WebDriver driver;
+        try {
+            while ((driver = nextIdleDriver(driverKey)) != null) {
+                if (isResponding(driver)) {
+                    recordHit();
+                    return driver;
+                }
+                LOGGER.debug("Discarding a pooled {} driver that is no longer responding", driverKey);
+                discard(driver);
+            }
+            recordMiss();
+            return null;
+        } finally {
+            launchReadyDriversFor(driverKey);
+        }
+    }
+
+    /**
+     * Record how long it took to launch a driver that was not in the pool.
+     */
+    public synchronized void recordLaunchTime(final long launchTimeInMillis) {
+        launchCount++;
+        totalLaunchTimeInMillis += launchTimeInMillis;
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    public synchronized int getLaunchCount() {
+        return launchCount;
+    }
+
+    public synchronized long getAverageLaunchTimeInMillis() {
+        return (launchCount == 0) ? 0 : totalLaunchTimeInMillis / launchCount;
+    }
+
+    /**
+     * Return a driver to the pool once a test has finished with it.
+     * Drivers that have been used too many times, or that cannot be cleared, are quit instead.
+     */
+    public void checkIn(final String driverKey, final WebDriver driver) {
+        if (recordUseOf(driver) >= maxUses || !clear(driver)) {
+            discard(driver);
+            return;
+        }
+        List<WebDriver> surplusDrivers = Lists.newArrayList();
+        synchronized (this) {
+            LinkedList<IdleDriver> drivers = idleDriversFor(driverKey);
+            drivers.addLast(new IdleDriver(driver, now()));
+            while (drivers.size() > Math.max(maxIdle, prelaunchCount)) {
+                surplusDrivers.add(drivers.removeFirst().driver);
+            }
+        }
+        discardAll(surplusDrivers);
+        quitExpiredDrivers();
+    }
+
+    public synchronized int getIdleDriverCount() {
+        int idleDriverCount = 0;
+        for (List<IdleDriver> drivers : idleDrivers.values()) {
+            idleDriverCount += drivers.size();
+        }
+        return idleDriverCount;
+    }
+
+    public void quitAllIdleDrivers() {
+        List<WebDriver> drivers = Lists.newArrayList();
+        synchronized (this) {
+            for (List<IdleDriver> driversOfAType : idleDrivers.values()) {
+                for (IdleDriver idleDriver : driversOfAType) {
+                    drivers.add(idleDriver.driver);
+                }
+            }
+            idleDrivers.clear();
+        }
+        discardAll(drivers);
+    }
+
+    /**
+     * Stop launching drivers in the background, and quit all of the idle drivers.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            shutDown = true;
+            if (launcher != null) {
+                launcher.shutdownNow();
+            }
+        }
+        quitAllIdleDrivers();
+        LOGGER.debug("Driver pool: {} hits, {} misses, {} drivers launched in {} ms on average",
+                     new Object[] {getHitCount(), getMissCount(), getLaunchCount(), getAverageLaunchTimeInMillis()});
+    }
+
+    private synchronized WebDriver nextIdleDriver(String driverKey) {
+        LinkedList<IdleDriver> drivers = idleDriversFor(driverKey);
+        long waitUntil = System.currentTimeMillis() + MAX_WAIT_FOR_LAUNCHING_DRIVER_IN_MILLIS;
+        while (drivers.isEmpty() && launchingDriverCountFor(driverKey) > 0) {
+            long maxWait = waitUntil - System.currentTimeMillis();
+            if (maxWait <= 0) {
+                break;
+            }
+            try {
+                wait(maxWait);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return drivers.isEmpty() ? null : drivers.removeLast().driver;
+    }
+
+    private void launchReadyDriversFor(final String driverKey) {
+        synchronized (this) {
+            Callable<WebDriver> driverLauncher = driverLaunchers.get(driverKey);
+            if (driverLauncher == null || shutDown) {
+                return;
+            }
+            int readyDrivers = idleDriversFor(driverKey).size() + launchingDriverCountFor(driverKey);
+            for (int i = readyDrivers; i < prelaunchCount; i++) {
+                launchingDriverCounts.put(driverKey, launchingDriverCountFor(driverKey) + 1);
+                getLauncher().submit(launchTask(driverKey, driverLauncher));
+            }
+        }
+    }
+
+    private Runnable launchTask(final String driverKey, final Callable<WebDriver> driverLauncher) {
+        return new Runnable() {
+            public void run() {
+                WebDriver driver = null;
+                try {
+                    long startTime = System.currentTimeMillis();
+                    driver = driverLauncher.call();
+                    recordLaunchTime(System.currentTimeMillis() - startTime);
+                } catch (Exception couldNotLaunch) {
+                    LOGGER.warn("Could not launch a " + driverKey + " driver in the background", couldNotLaunch);
+                } finally {
+                    readyDriverLaunched(driverKey, driver);
+                }
+            }
+        };
+    }
+
+    private void readyDriverLaunched(final String driverKey, final WebDriver driver) {
+        boolean keepDriver;
+        synchronized (this) {
+            launchingDriverCounts.put(driverKey, launchingDriverCountFor(driverKey) - 1);
+            keepDriver = (driver != null) && !shutDown;
+            if (keepDriver) {
+                idleDriversFor(driverKey).addLast(new IdleDriver(driver, now()));
+            }
+            notifyAll();
+        }
+        if (driver != null && !keepDriver) {
+            discard(driver);
+        }
+    }
+
+    private int launchingDriverCountFor(String driverKey) {
+        Integer launchingDriverCount = launchingDriverCounts.get(driverKey);
+        return (launchingDriverCount == null) ? 0 : launchingDriverCount;
+    }
+
+    private ExecutorService getLauncher() {
+        if (launcher == null) {
+            launcher = Executors.newFixedThreadPool(prelaunchCount, new LauncherThreadFactory());
+        }
+        return launcher;
+    }
+
+    private synchronized void recordHit() {
+        hitCount++;
+    }
+
+    private synchronized void recordMiss() {
+        missCount++;
+    }
+
+    private static final class LauncherThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "thucydides-driver-launcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private LinkedList<IdleDriver> idleDriversFor(String driverKey) {
+        if (!idleDrivers.containsKey(driverKey)) {
+            idleDrivers.put(driverKey, new LinkedList<IdleDriver>());
+        }
+        return idleDrivers.get(driverKey);
+    }
+
+    private synchronized int recordUseOf(WebDriver driver) {
+        Integer previousUses = useCounts.get(driver);
+        int uses = (previousUses == null) ? 1 : previousUses + 1;
+        useCounts.put(driver, uses);
+        return uses;
+    }
+
+    private void quitExpiredDrivers() {
+        List<WebDriver> expiredDrivers = Lists.newArrayList();
+        long oldestAllowedIdleTime = now() - idleTimeoutInMillis;
+        synchronized (this) {
+            for (List<IdleDriver> drivers : idleDrivers.values()) {
+                while (!drivers.isEmpty() && drivers.get(0).idleSince < oldestAllowedIdleTime) {
+                    expiredDrivers.add(drivers.remove(0).driver);
+                }
+            }
+        }
+        discardAll(expiredDrivers);
+    }
+
+    private long now() {
+        return clock.getCurrentTime().getMillis();
+    }
+
+    private boolean isResponding(WebDriver driver) {
+        try {
+            return !driver.getWindowHandles().isEmpty();
+        } catch (RuntimeException driverNotResponding) {
+            return false;
+        }
+    }
+
+    /**
+     * Cookies and storage can only be cleared for the current site, so they are cleared before leaving it.
+     */
+    private boolean clear(WebDriver driver) {
+        try {
+            closeExtraWindowsOf(driver);
+            driver.manage().deleteAllCookies();
+            clearStorageOf(driver);
+            driver.get("about:blank");
+            return true;
+        } catch (RuntimeException couldNotClearDriver) {
+            LOGGER.debug("Could not clear a driver before returning it to the pool", couldNotClearDriver);
+            return false;
+        }
+    }
+
+    /**
+     * There is no storage to clear if no page has been loaded, and some drivers refuse to run scripts then.
+     */
+    private void clearStorageOf(WebDriver driver) {
+        if (driver instanceof JavascriptExecutor) {
+            try {
+                ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE);
+            } catch (WebDriverException noPageLoaded) {
+                LOGGER.debug("Could not clear the browser storage: {}", noPageLoaded.getMessage());
+            }
+        }
+    }
+
+    private void closeExtraWindowsOf(WebDriver driver) {
+        Set<String> windowHandles = driver.getWindowHandles();
+        if (windowHandles.size() > 1) {
+            String firstWindow = windowHandles.iterator().next();
+            for (String windowHandle : windowHandles) {
+                if (!windowHandle.equals(firstWindow)) {
+                    driver.switchTo().window(windowHandle);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(firstWindow);
+        }
+    }
+
+    private void discardAll(List<WebDriver> drivers) {
+        for (WebDriver driver : drivers) {
+            discard(driver);
+        }
+    }
+
+    private void discard(WebDriver driver) {
+        synchronized (this) {
+            useCounts.remove(driver);
+        }
+        try {
+            driver.quit();
+        } catch (RuntimeException couldNotQuit) {
+            LOGGER.debug("Could not quit a pooled driver", couldNotQuit);
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package net.thucydides.core.webdriver.smart;
 
 import java.lang.reflect.Field;
-import java.util.Arrays;
 import java.util.List;
 
-import net.thucydides.core.pages.PageObject;
-import net.thucydides.core.pages.WebElementFacadeImpl;
+import net.thucydides.core.scheduling.DomMutationWait;
+import net.thucydides.core.scheduling.PollingBackoff;
+import net.thucydides.core.scheduling.WaitTimes;
 import net.thucydides.core.steps.StepEventBus;
+import net.thucydides.core.webdriver.ImmediateElementLookup;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
@@ -20,16 +21,8 @@ import org.openqa.selenium.support.ui.SystemClock;
 public class SmartAjaxElementLocator extends SmartElementLocator {
 	protected final int timeOutInSeconds;
 	private final Clock clock;
-	private static final List<String> QUICK_METHODS = Arrays.asList("isCurrentlyVisible",
-			"isCurrentlyEnabled",
-			"waitUntilVisible",
-			"waitUntilEnabled",
-			"shouldNotBeVisible");
-
-	private static final List<String> QUICK_CLASSES = Arrays.asList(WebElementFacadeImpl.class.getName(), PageObject.class.getName());
-
-	private final Field field;
 	private final WebDriver driver;
+	private final DomMutationWait domMutationWait;
 
 	/**
 	 * Main constructor.
@@ -44,11 +37,19 @@ public class SmartAjaxElementLocator extends SmartElementLocator {
 	}
 
 	public SmartAjaxElementLocator(Clock clock, WebDriver driver, Field field, int timeOutInSeconds) {
+		this(clock, driver, field, timeOutInSeconds, new DomMutationWait());
+	}
+
+	/**
+	 * Locators created by the same factory share the DomMutationWait, so the configuration is only read once.
+	 */
+	public SmartAjaxElementLocator(Clock clock, WebDriver driver, Field field, int timeOutInSeconds,
+								   DomMutationWait domMutationWait) {
 		super(driver, field);
 		this.timeOutInSeconds = timeOutInSeconds;
 		this.clock = clock;
-		this.field = field;
 		this.driver = driver;
+		this.domMutationWait = domMutationWait;
 	}
 
 	@Override
@@ -64,25 +65,14 @@ public class SmartAjaxElementLocator extends SmartElementLocator {
 		if (StepEventBus.getEventBus().aStepInTheCurrentTestHasFailed()) {
 			return true;
 		}
-		if (calledFromAQuickMethod()) {
+		if (ImmediateElementLookup.isInProgress()) {
 			return true;
 		}
 		return false;
 	}
 
-	private boolean calledFromAQuickMethod() {
-		for(StackTraceElement elt : Thread.currentThread().getStackTrace()){
-		if (QUICK_METHODS.contains(elt.getMethodName())
-		&&  QUICK_CLASSES.contains(elt.getClassName())) {
-		return true;
-		}
-		}
-		return false;
-	}
-
 	public WebElement findElementImmediately() {
-		SmartAnnotations annotations = new SmartAnnotations(field);
-		By by = annotations.buildBy();
+		By by = getBy();
 		List<WebElement> matchingElements = driver.findElements(by);
 		if (matchingElements.isEmpty()) {
 			throw new NoSuchElementException("No such element found for criteria " + by.toString());
@@ -103,12 +93,15 @@ public class SmartAjaxElementLocator extends SmartElementLocator {
 
 	public WebElement ajaxFindElement() {
 		SlowLoadingElement loadingElement = new SlowLoadingElement(clock, timeOutInSeconds);
+		long start = clock.now();
 		try {
 			return loadingElement.get().getElement();
 		} catch (NoSuchElementError e) {
 			throw new NoSuchElementException(
 					String.format("Timed out after %d seconds. %s", timeOutInSeconds, e.getMessage()),
 					e.getCause());
+		} finally {
+			WaitTimes.getWaitTimes().recordWait(clock.now() - start);
 		}
 	}
 
@@ -120,28 +113,44 @@ public class SmartAjaxElementLocator extends SmartElementLocator {
 	@Override
 	public List<WebElement> findElements() {
 		SlowLoadingElementList list = new SlowLoadingElementList(clock, timeOutInSeconds);
+		long start = clock.now();
 		try {
 			return list.get().getElements();
 		} catch (NoSuchElementError e) {
 			throw new NoSuchElementException(
 					String.format("Timed out after %d seconds. %s", timeOutInSeconds, e.getMessage()),
 					e.getCause());
+		} finally {
+			WaitTimes.getWaitTimes().recordWait(clock.now() - start);
 		}
 	}
 
 	/**
-	 * By default, we sleep for 250ms between polls. You may override this method in order to change
-	 * how it sleeps.
+	 * By default, we sleep for at most 250ms between polls, starting with shorter pauses (see PollingBackoff).
+	 * You may override this method in order to change how long it sleeps.
 	 * 
-	 * @return Duration to sleep in milliseconds
+	 * @return Longest duration to sleep in milliseconds
 	 */
 	protected long sleepFor() {
 		return 250;
 	}
 
+	/**
+	 * SlowLoadableComponent always sleeps for the time returned by sleepFor(), so when the pause has already
+	 * been spent waiting for the page to change, there is nothing left to sleep for.
+	 */
+	private long pauseBetweenPolls(PollingBackoff backoff) {
+		long pauseInMillis = backoff.nextIntervalInMillis();
+		if (domMutationWait.waitForChangesIn(driver, pauseInMillis)) {
+			return 0;
+		}
+		return pauseInMillis;
+	}
+
 	private class SlowLoadingElement extends SlowLoadableComponent<SlowLoadingElement> {
 		private NoSuchElementException lastException;
 		private WebElement element;
+		private final PollingBackoff backoff = new PollingBackoff(SmartAjaxElementLocator.this.sleepFor());
 
 		public SlowLoadingElement(Clock clock, int timeOutInSeconds) {
 			super(clock, timeOutInSeconds);
@@ -154,7 +163,7 @@ public class SmartAjaxElementLocator extends SmartElementLocator {
 
 		@Override
 		protected long sleepFor() {
-			return SmartAjaxElementLocator.this.sleepFor();
+			return pauseBetweenPolls(backoff);
 		}
 
 		@Override
@@ -183,6 +192,7 @@ public class SmartAjaxElementLocator extends SmartElementLocator {
 	private class SlowLoadingElementList extends SlowLoadableComponent<SlowLoadingElementList> {
 		private NoSuchElementException lastException;
 		private List<WebElement> elements;
+		private final PollingBackoff backoff = new PollingBackoff(SmartAjaxElementLocator.this.sleepFor());
 
 		public SlowLoadingElementList(Clock clock, int timeOutInSeconds) {
 			super(clock, timeOutInSeconds);
@@ -195,7 +205,7 @@ public class SmartAjaxElementLocator extends SmartElementLocator {
 
 		@Override
 		protected long sleepFor() {
-			return SmartAjaxElementLocator.this.sleepFor();
+			return pauseBetweenPolls(backoff);
 		}
 
 		@Override
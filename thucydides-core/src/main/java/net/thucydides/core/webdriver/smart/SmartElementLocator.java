@@ -26,6 +26,10 @@ public class SmartElementLocator implements ElementLocator {
 	    by = annotations.buildBy();
 	}
 
+	protected By getBy() {
+		return by;
+	}
+
 	/**
 	 * Find the element.
 	 */
@@ -2,20 +2,31 @@ package net.thucydides.core.webdriver.smart;
 
 import java.lang.reflect.Field;
 
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.scheduling.DomMutationWait;
+import net.thucydides.core.util.EnvironmentVariables;
+
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.pagefactory.ElementLocator;
 import org.openqa.selenium.support.pagefactory.ElementLocatorFactory;
+import org.openqa.selenium.support.ui.SystemClock;
 
 public final class SmartElementLocatorFactory implements ElementLocatorFactory {
 	  private final WebDriver webDriver;
 	  private int timeoutInSeconds;
+	  private final DomMutationWait domMutationWait;
 
 	  public SmartElementLocatorFactory(WebDriver webDriver, int timeoutInSeconds) {
+	    this(webDriver, timeoutInSeconds, Injectors.getInjector().getInstance(EnvironmentVariables.class));
+	  }
+
+	  public SmartElementLocatorFactory(WebDriver webDriver, int timeoutInSeconds, EnvironmentVariables environmentVariables) {
 	    this.webDriver = webDriver;
 	    this.timeoutInSeconds = timeoutInSeconds;
+	    this.domMutationWait = new DomMutationWait(environmentVariables);
 	  }
 
 	  public ElementLocator createLocator(Field field) {
-	    return new SmartAjaxElementLocator(webDriver, field, timeoutInSeconds);
+	    return new SmartAjaxElementLocator(new SystemClock(), webDriver, field, timeoutInSeconds, domMutationWait);
 	  }
 }
@@ -0,0 +1,48 @@
+/*
+ * Returns the current state of each of the elements passed in, so that they can all be read in one round trip.
+ * Text is only returned for visible elements, as WebDriver does.
+ */
+var elements = arguments[0];
+
+var isDisplayed = function(element) {
+    if (element.tagName.toLowerCase() === 'input' && String(element.type).toLowerCase() === 'hidden') {
+        return false;
+    }
+    for (var node = element; node && node.nodeType === 1; node = node.parentNode) {
+        var style = window.getComputedStyle ? window.getComputedStyle(node, null) : node.currentStyle;
+        if (style && style.display === 'none') {
+            return false;
+        }
+        if (node === element && style && (style.visibility === 'hidden' || style.visibility === 'collapse')) {
+            return false;
+        }
+    }
+    return true;
+};
+
+var textOf = function(element) {
+    var text = (typeof element.innerText === 'string') ? element.innerText : element.textContent;
+    return String(text || '').replace(/[ \t\r\f\u00a0]+/g, ' ').replace(/ ?\n[\s]*/g, '\n').replace(/^\s+|\s+$/g, '');
+};
+
+var states = [];
+for (var i = 0; i < elements.length; i++) {
+    var element = elements[i];
+    var visible = isDisplayed(element);
+    var options = [];
+    if (element.options && element.tagName.toLowerCase() === 'select') {
+        for (var j = 0; j < element.options.length; j++) {
+            options.push(textOf(element.options[j]));
+        }
+    }
+    states.push({
+        visible: visible,
+        enabled: !element.disabled,
+        selected: !!(element.selected || element.checked),
+        tagName: element.tagName.toLowerCase(),
+        text: visible ? textOf(element) : '',
+        value: (element.value === undefined || element.value === null) ? null : String(element.value),
+        options: options
+    });
+}
+return states;
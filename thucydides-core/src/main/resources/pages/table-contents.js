@@ -0,0 +1,42 @@
+/*
+ * Returns the text of the headings and cells of an HTML table, so that the whole table can be read in one round trip.
+ * Each row holds the text of the row's own td cells, and rows without td cells are left out.
+ */
+var table = arguments[0];
+
+var textOf = function(element) {
+    var text = (typeof element.innerText === 'string') ? element.innerText : element.textContent;
+    return String(text || '').replace(/[ \t\r\f\u00a0]+/g, ' ').replace(/ ?\n[\s]*/g, '\n').replace(/^\s+|\s+$/g, '');
+};
+
+var textsOf = function(cells) {
+    var texts = [];
+    for (var i = 0; i < cells.length; i++) {
+        texts.push(textOf(cells[i]));
+    }
+    return texts;
+};
+
+var cellsIn = function(row) {
+    var cells = [];
+    for (var node = row.firstChild; node; node = node.nextSibling) {
+        if (node.nodeType === 1 && node.tagName.toLowerCase() === 'td') {
+            cells.push(node);
+        }
+    }
+    return cells;
+};
+
+var rowElements = table.getElementsByTagName('tr');
+var rows = [];
+for (var i = 0; i < rowElements.length; i++) {
+    var cells = cellsIn(rowElements[i]);
+    if (cells.length > 0) {
+        rows.push(textsOf(cells));
+    }
+}
+return {
+    headings: textsOf(table.getElementsByTagName('th')),
+    firstRow: (rowElements.length > 0) ? textsOf(rowElements[0].getElementsByTagName('td')) : [],
+    rows: rows
+};
@@ -0,0 +1,27 @@
+/*
+ * Returns a token describing the current state of the page, or null if changes cannot be tracked.
+ * The token changes whenever the DOM is modified, the user types, scrolls or resizes the window,
+ * or a new page is loaded, so two identical tokens mean the screen has not visibly changed.
+ */
+var screenState = window.__thucydidesScreenState;
+if (!screenState) {
+    screenState = window.__thucydidesScreenState = {
+        id: new Date().getTime().toString(36) + Math.random().toString(36).substring(2),
+        changes: 0,
+        tracked: (typeof window.MutationObserver === 'function')
+    };
+    var recordChange = function() { screenState.changes++; };
+    if (screenState.tracked) {
+        new window.MutationObserver(recordChange).observe(document, {
+            attributes: true, childList: true, characterData: true, subtree: true
+        });
+        var events = ['input', 'change', 'scroll', 'resize', 'focus', 'blur', 'mouseover', 'mouseout'];
+        for (var i = 0; i < events.length; i++) {
+            window.addEventListener(events[i], recordChange, true);
+        }
+    }
+}
+if (!screenState.tracked) {
+    return null;
+}
+return screenState.id + ':' + screenState.changes + ':' + window.location.href;
@@ -9,6 +9,7 @@ import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.withResul
 import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.havingTagName
 import static net.thucydides.core.reports.matchers.TestOutcomeMatchers.havingTagType
 import net.thucydides.core.statistics.model.TestStatistics
+import net.thucydides.core.util.MockEnvironmentVariables
 
 class WhenProcessingTestOutcomes extends Specification {
 
@@ -28,6 +29,29 @@ class WhenProcessingTestOutcomes extends Specification {
             thrown IOException
     }
 
+    def "should load the same test outcomes whatever the number of loader threads"() {
+        given:
+            def environmentVariables = new MockEnvironmentVariables()
+            environmentVariables.setProperty("thucydides.report.loader.threads", "$threads")
+            def parallelLoader = new TestOutcomeLoader(environmentVariables)
+        when:
+            List<TestOutcome> testOutcomes = parallelLoader.loadFrom(directoryInClasspathCalled("/tagged-test-outcomes"));
+        then:
+            testOutcomes.collect { it.title } == loader.loadFrom(directoryInClasspathCalled("/tagged-test-outcomes")).collect { it.title }
+        where:
+            threads << [1, 2, 8]
+    }
+
+    def "should be able to iterate over the test outcomes in a directory one at a time"() {
+        when:
+            def testOutcomes = loader.outcomesIn(directoryInClasspathCalled("/tagged-test-outcomes")).iterator()
+        then:
+            testOutcomes.next() != null
+            testOutcomes.next() != null
+            testOutcomes.next() != null
+            !testOutcomes.hasNext()
+    }
+
     def "should list all the tag types for the test outcomes"() {
         given:
             TestOutcomes testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/tagged-test-outcomes"));
@@ -204,4 +228,37 @@ class WhenProcessingTestOutcomes extends Specification {
             statistics != null;
     }
 
+
+    def "should reuse the test outcome sets for a given tag, tag type or result"() {
+        given:
+            TestOutcomes testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/tagged-test-outcomes"));
+        expect:
+            testOutcomes.withTag("a story").is(testOutcomes.withTag("a story"))
+            testOutcomes.withTagType("feature").is(testOutcomes.withTagType("feature"))
+            testOutcomes.passingTests.is(testOutcomes.passingTests)
+    }
+
+    def "should find the same tests using the tag indexes as by checking each test"() {
+        given:
+            TestOutcomes testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/tagged-test-outcomes"));
+        when:
+            def testsWithTag = testOutcomes.withTag("A Story").getTests()
+        then:
+            testsWithTag == testOutcomes.tests.findAll { test -> test.tags.any { it.name.equalsIgnoreCase("a story") } }
+    }
+
+    def "derived test outcome sets should keep a reference to the complete set of test outcomes"() {
+        given:
+            TestOutcomes testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/tagged-test-outcomes"));
+        expect:
+            testOutcomes.withTagType("feature").withTag("a feature").rootOutcomes.is(testOutcomes)
+    }
+
+    def "should count the results of each row in data-driven tests"() {
+        when:
+            def testOutcomes = TestOutcomeLoader.testOutcomesIn(directoryInClasspathCalled("/test-outcomes/datadriven"));
+        then:
+            testOutcomes.successCount + testOutcomes.failureCount + testOutcomes.errorCount + testOutcomes.pendingCount + testOutcomes.skipCount == testOutcomes.total
+    }
+
 }
@@ -0,0 +1,106 @@
+package net.thucydides.core.reports.integration
+
+import com.github.goldin.spock.extensions.tempdir.TempDir
+import net.thucydides.core.issues.IssueTracking
+import net.thucydides.core.reports.history.ProgressSnapshot
+import net.thucydides.core.reports.history.TestHistory
+import net.thucydides.core.reports.TestOutcomes
+import net.thucydides.core.reports.history.TestResultSnapshot
+import net.thucydides.core.reports.html.HtmlAggregateStoryReporter
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter
+import net.thucydides.core.util.MockEnvironmentVariables
+import spock.lang.Specification
+
+import static net.thucydides.core.util.TestResources.directoryInClasspathCalled
+
+class WhenGeneratingIncrementalAggregateReports extends Specification {
+
+    static final long PREVIOUS_RUN = 1000000000000L
+
+    @TempDir File temporaryDirectory
+
+    def mockTestHistory = Mock(TestHistory)
+    def environmentVariables = new MockEnvironmentVariables()
+
+    File sourceDirectory
+    File outputDirectory
+
+    def setup() {
+        sourceDirectory = new File(temporaryDirectory, "outcomes")
+        sourceDirectory.mkdirs()
+        def xmlReporter = new XMLTestOutcomeReporter()
+        xmlReporter.outputDirectory = sourceDirectory
+        def sampleOutcomes = xmlReporter.loadReportsFrom(directoryInClasspathCalled("/test-outcomes/containing-features-and-stories"))
+        sampleOutcomes.each { xmlReporter.generateReportFor(it, TestOutcomes.of(sampleOutcomes)) }
+        outputDirectory = new File(temporaryDirectory, "target/site/thucydides")
+        outputDirectory.mkdirs()
+
+        mockTestHistory.progress >> new ArrayList<ProgressSnapshot>()
+        mockTestHistory.history >> new ArrayList<TestResultSnapshot>()
+    }
+
+    def "should not regenerate pages when the test outcomes have not changed"() {
+        given:
+            environmentVariables.setProperty("thucydides.incremental.reports", "true")
+            generateReports()
+            markReportsAsGeneratedInAPreviousRun()
+        when:
+            generateReports()
+        then:
+            reportFile("index.html").lastModified() == PREVIOUS_RUN
+            reportFile("capabilities.html").lastModified() == PREVIOUS_RUN
+        and: "the history pages are always regenerated"
+            reportFile("history.html").lastModified() != PREVIOUS_RUN
+    }
+
+    def "should regenerate pages when a test outcome has changed"() {
+        given:
+            environmentVariables.setProperty("thucydides.incremental.reports", "true")
+            generateReports()
+            markReportsAsGeneratedInAPreviousRun()
+        when:
+            def outcomeFile = sourceDirectory.listFiles().find { it.text.contains('result="SUCCESS"') }
+            outcomeFile.text = outcomeFile.text.replace('result="SUCCESS"', 'result="FAILURE"')
+            generateReports()
+        then:
+            reportFile("index.html").lastModified() != PREVIOUS_RUN
+    }
+
+    def "should regenerate every page when the report settings have changed"() {
+        given:
+            environmentVariables.setProperty("thucydides.incremental.reports", "true")
+            generateReports()
+            markReportsAsGeneratedInAPreviousRun()
+        when:
+            environmentVariables.setProperty("thucydides.reports.show.step.details", "true")
+            generateReports()
+        then:
+            reportFile("index.html").lastModified() != PREVIOUS_RUN
+            reportFile("capabilities.html").lastModified() != PREVIOUS_RUN
+    }
+
+    def "should regenerate every page when incremental reports are not enabled"() {
+        given:
+            generateReports()
+            markReportsAsGeneratedInAPreviousRun()
+        when:
+            generateReports()
+        then:
+            reportFile("index.html").lastModified() != PREVIOUS_RUN
+            !reportFile("aggregate-report.manifest").exists()
+    }
+
+    def generateReports() {
+        def reporter = new HtmlAggregateStoryReporter("project", Mock(IssueTracking), mockTestHistory, environmentVariables)
+        reporter.outputDirectory = outputDirectory
+        reporter.generateReportsForTestResultsFrom sourceDirectory
+    }
+
+    def markReportsAsGeneratedInAPreviousRun() {
+        outputDirectory.listFiles().findAll { it.name.endsWith(".html") }.each { it.setLastModified(PREVIOUS_RUN) }
+    }
+
+    def reportFile(String name) {
+        new File(outputDirectory, name)
+    }
+}
@@ -0,0 +1,170 @@
+package net.thucydides.core.batches.integration;
+
+import net.thucydides.core.batches.BatchStrategy;
+import net.thucydides.core.batches.SharedQueueBatchManager;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class WhenSharingTestsBetweenBatchesAsTheyRun {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final int TEST_CASE_COUNT = 12;
+
+    private MockEnvironmentVariables batchVariables(int batchNumber) {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        environmentVariables.setProperty("thucydides.batch.count", "3");
+        environmentVariables.setProperty("thucydides.batch.number", Integer.toString(batchNumber));
+        environmentVariables.setProperty("thucydides.batch.run.id", "build-42");
+        environmentVariables.setProperty("thucydides.batch.queue.directory", temporaryFolder.getRoot().getPath());
+        return environmentVariables;
+    }
+
+    class BatchThread extends Thread {
+        private final SharedQueueBatchManager batchManager;
+        private final long testDuration;
+        private final List<Integer> executedTests = Collections.synchronizedList(new ArrayList<Integer>());
+
+        BatchThread(SharedQueueBatchManager batchManager, long testDuration) {
+            this.batchManager = batchManager;
+            this.testDuration = testDuration;
+        }
+
+        public void run() {
+            for (int testNumber = 1; testNumber <= TEST_CASE_COUNT; testNumber++) {
+                batchManager.registerTestCase("Test Case " + testNumber);
+                if (batchManager.shouldExecuteThisTest(1)) {
+                    executedTests.add(testNumber);
+                    pause();
+                }
+            }
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(testDuration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<Integer> getExecutedTests() {
+            return executedTests;
+        }
+    }
+
+    private List<BatchThread> runBatchesWithTestDurations(long... testDurations) throws InterruptedException {
+        List<BatchThread> batches = new ArrayList<BatchThread>();
+        for (int i = 0; i < testDurations.length; i++) {
+            batches.add(new BatchThread(new SharedQueueBatchManager(batchVariables(i + 1)), testDurations[i]));
+        }
+        for (BatchThread batch : batches) {
+            batch.start();
+        }
+        for (BatchThread batch : batches) {
+            batch.join();
+        }
+        return batches;
+    }
+
+    @Test
+    public void each_test_case_should_be_run_by_exactly_one_batch() throws InterruptedException {
+        List<BatchThread> batches = runBatchesWithTestDurations(5, 5, 5);
+
+        List<Integer> executedTests = new ArrayList<Integer>();
+        for (BatchThread batch : batches) {
+            executedTests.addAll(batch.getExecutedTests());
+        }
+        Collections.sort(executedTests);
+
+        assertThat(executedTests.size(), is(TEST_CASE_COUNT));
+        for (int testNumber = 1; testNumber <= TEST_CASE_COUNT; testNumber++) {
+            assertThat(executedTests.get(testNumber - 1), is(testNumber));
+        }
+    }
+
+    @Test
+    public void a_batch_with_slow_tests_should_run_fewer_of_them() throws InterruptedException {
+        List<BatchThread> batches = runBatchesWithTestDurations(300, 1, 1);
+
+        assertThat(batches.get(0).getExecutedTests().size(), lessThan(TEST_CASE_COUNT / 3));
+    }
+
+    @Test
+    public void a_batch_should_keep_running_a_test_case_it_has_already_claimed() {
+        SharedQueueBatchManager batchManager = new SharedQueueBatchManager(batchVariables(1));
+        SharedQueueBatchManager otherBatchManager = new SharedQueueBatchManager(batchVariables(2));
+
+        batchManager.registerTestCase("Test Case 1");
+        otherBatchManager.registerTestCase("Test Case 1");
+
+        assertThat(batchManager.shouldExecuteThisTest(1), is(true));
+        assertThat(otherBatchManager.shouldExecuteThisTest(1), is(false));
+        assertThat(batchManager.shouldExecuteThisTest(1), is(true));
+    }
+
+    @Test
+    public void batches_from_different_test_runs_should_not_share_a_queue() {
+        MockEnvironmentVariables nextRunVariables = batchVariables(2);
+        nextRunVariables.setProperty("thucydides.batch.run.id", "build-43");
+        SharedQueueBatchManager batchManager = new SharedQueueBatchManager(batchVariables(1));
+        SharedQueueBatchManager nextRunBatchManager = new SharedQueueBatchManager(nextRunVariables);
+
+        batchManager.registerTestCase("Test Case 1");
+        nextRunBatchManager.registerTestCase("Test Case 1");
+
+        assertThat(batchManager.shouldExecuteThisTest(1), is(true));
+        assertThat(nextRunBatchManager.shouldExecuteThisTest(1), is(true));
+    }
+
+    @Test
+    public void tests_should_be_divided_equally_if_no_run_id_is_defined() {
+        MockEnvironmentVariables environmentVariables = batchVariables(1);
+        environmentVariables.clearProperty("thucydides.batch.run.id");
+        SharedQueueBatchManager batchManager = new SharedQueueBatchManager(environmentVariables);
+
+        List<Integer> executedTests = new ArrayList<Integer>();
+        for (int testNumber = 1; testNumber <= TEST_CASE_COUNT; testNumber++) {
+            batchManager.registerTestCase("Test Case " + testNumber);
+            if (batchManager.shouldExecuteThisTest(1)) {
+                executedTests.add(testNumber);
+            }
+        }
+
+        assertThat(executedTests.toString(), is("[1, 4, 7, 10]"));
+    }
+
+    @Test
+    public void by_default_all_tests_should_run() {
+        SharedQueueBatchManager batchManager = new SharedQueueBatchManager(new MockEnvironmentVariables());
+
+        int executedTests = 0;
+        for (int testNumber = 1; testNumber <= TEST_CASE_COUNT; testNumber++) {
+            batchManager.registerTestCase("Test Case " + testNumber);
+            if (batchManager.shouldExecuteThisTest(1)) {
+                executedTests++;
+            }
+        }
+
+        assertThat(executedTests, is(TEST_CASE_COUNT));
+    }
+
+    @Test
+    public void the_dynamic_batch_strategy_should_use_a_shared_queue() throws Exception {
+        assertThat(BatchStrategy.DIVIDE_DYNAMICALLY.instance(batchVariables(1)),
+                   instanceOf(SharedQueueBatchManager.class));
+    }
+}
@@ -1,10 +1,13 @@
 package net.thucydides.core.pages;
 
+import net.thucydides.core.webdriver.ImmediateElementLookup;
 import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.openqa.selenium.By;
 import org.openqa.selenium.ElementNotVisibleException;
 import org.openqa.selenium.NoSuchElementException;
@@ -12,11 +15,13 @@ import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.verify;
@@ -114,6 +119,23 @@ public class WhenManinpulatingWebElements {
 
     }
 
+    @Test
+    public void elements_should_be_looked_up_immediately_when_checking_if_they_are_currently_visible() {
+        final List<Boolean> lookedUpImmediately = new ArrayList<Boolean>();
+        when(webElement.isDisplayed()).thenAnswer(new Answer<Boolean>() {
+            public Boolean answer(InvocationOnMock invocation) {
+                lookedUpImmediately.add(ImmediateElementLookup.isInProgress());
+                return true;
+            }
+        });
+        WebElementFacade elementFacade = new WebElementFacadeImpl(driver, webElement, 100);
+
+        elementFacade.isCurrentlyVisible();
+
+        assertThat(lookedUpImmediately, contains(true));
+        assertThat(ImmediateElementLookup.isInProgress(), is(false));
+    }
+
     @Mock
     JavascriptExecutorFacade mockJavascriptExecutorFacade;
 
@@ -252,4 +274,39 @@ public class WhenManinpulatingWebElements {
         WebElementFacade webElementFacade = new WebElementFacadeImpl(driver, (WebElement)null, 100);
         webElementFacade.getText();
     }
+
+    @Test
+    public void element_state_should_be_read_from_the_element_if_javascript_is_not_available() {
+        when(webElement.isDisplayed()).thenReturn(true);
+        when(webElement.isEnabled()).thenReturn(true);
+        when(webElement.getTagName()).thenReturn("input");
+        when(webElement.getText()).thenReturn("some text");
+        when(webElement.getAttribute("value")).thenReturn("some value");
+
+        ElementState state = new WebElementFacadeImpl(driver, webElement, 100).getState();
+
+        assertThat(state.isPresent(), is(true));
+        assertThat(state.isVisible(), is(true));
+        assertThat(state.isEnabled(), is(true));
+        assertThat(state.isSelected(), is(false));
+        assertThat(state.getText(), is("some text"));
+        assertThat(state.getValue(), is("some value"));
+    }
+
+    @Test
+    public void missing_elements_should_be_reported_as_not_present() {
+        ElementState state = new WebElementFacadeImpl(driver, (WebElement) null, 100).getState();
+
+        assertThat(state.isPresent(), is(false));
+        assertThat(state.isVisible(), is(false));
+    }
+
+    @Test
+    public void stale_elements_should_be_reported_as_not_present() {
+        when(webElement.isDisplayed()).thenThrow(new StaleElementReferenceException("Stale element"));
+
+        ElementState state = new WebElementFacadeImpl(driver, webElement, 100).getState();
+
+        assertThat(state.isPresent(), is(false));
+    }
 }
@@ -0,0 +1,50 @@
+package net.thucydides.core.pages;
+
+import net.thucydides.core.scheduling.AdaptiveFluentWait;
+import net.thucydides.core.scheduling.NormalFluentWait;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Clock;
+import org.openqa.selenium.support.ui.Sleeper;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class WhenWaitingForConditions {
+
+    @Mock
+    WebDriver driver;
+
+    @Mock
+    Clock clock;
+
+    @Mock
+    Sleeper sleeper;
+
+    MockEnvironmentVariables environmentVariables;
+
+    @Before
+    public void initMocks() {
+        MockitoAnnotations.initMocks(this);
+        environmentVariables = new MockEnvironmentVariables();
+    }
+
+    @Test
+    public void condition_waits_should_poll_at_a_fixed_interval_by_default() {
+        ConditionWaits conditionWaits = new ConditionWaits(environmentVariables);
+
+        assertThat(conditionWaits.newWaitOn(driver, clock, sleeper), instanceOf(NormalFluentWait.class));
+    }
+
+    @Test
+    public void condition_waits_should_back_off_if_adaptive_waits_are_enabled() {
+        environmentVariables.setProperty("thucydides.adaptive.waits", "true");
+        ConditionWaits conditionWaits = new ConditionWaits(environmentVariables);
+
+        assertThat(conditionWaits.newWaitOn(driver, clock, sleeper), instanceOf(AdaptiveFluentWait.class));
+    }
+}
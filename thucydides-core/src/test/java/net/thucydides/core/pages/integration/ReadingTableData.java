@@ -2,6 +2,7 @@ package net.thucydides.core.pages.integration;
 
 
 import net.thucydides.core.pages.components.HtmlTable;
+import net.thucydides.core.pages.components.TableContents;
 import net.thucydides.core.webdriver.WebDriverFacade;
 import net.thucydides.core.webdriver.WebDriverFactory;
 import org.apache.commons.lang3.StringUtils;
@@ -13,6 +14,7 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -59,6 +61,34 @@ public class ReadingTableData extends FluentElementAPITestsBaseClass {
     }
 
 
+    @Test
+    public void should_read_the_whole_table_in_one_go() {
+        HtmlTable table = new HtmlTable(page.clients);
+
+        TableContents contents = table.readContents();
+
+        assertThat(contents.getHeadings().toString(), is("[First Name, Last Name, Favorite Colour]"));
+        assertThat(contents.getRows(), is(table.getRows()));
+    }
+
+    @Test
+    public void should_read_the_same_rows_in_one_go_as_cell_by_cell() {
+        for (WebElement tableElement : Arrays.asList(page.clients_with_no_headings, page.clients_with_nested_cells,
+                                                     page.clients_with_extra_cells, page.clients_with_missing_cells)) {
+            assertThat(new HtmlTable(tableElement).readContents().getRows(), is(new HtmlTable(tableElement).getRows()));
+        }
+    }
+
+    @Test
+    public void should_filter_the_rows_read_in_one_go() {
+        TableContents contents = new HtmlTable(page.clients).readContents();
+
+        List<Map<Object, String>> matchingRows = contents.getRowsWhere(the("First Name", is("Graeme")));
+
+        assertThat(matchingRows.size(), is(1));
+        assertThat(matchingRows.get(0), hasEntry("Last Name", "Garden"));
+    }
+
     @Test
     public void should_read_table_data_as_a_list_of_web_elements() {
         HtmlTable table = new HtmlTable(page.clients);
@@ -1,6 +1,7 @@
 package net.thucydides.core.pages.integration;
 
 
+import net.thucydides.core.pages.ElementState;
 import net.thucydides.core.webdriver.WebDriverFacade;
 import net.thucydides.core.webdriver.WebDriverFactory;
 import org.junit.BeforeClass;
@@ -10,6 +11,8 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 
+import java.util.List;
+
 import static org.fest.assertions.Assertions.assertThat;
 
 
@@ -124,6 +127,28 @@ public class UsingTheWebElementFacade extends FluentElementAPITestsBaseClass {
         page.fieldDoesNotExist.shouldBePresent();
     }
 
+    @Test
+    public void should_read_the_current_state_of_an_element_in_one_go() {
+        ElementState state = page.colors.getState();
+
+        assertThat(state.isPresent()).isTrue();
+        assertThat(state.isVisible()).isTrue();
+        assertThat(state.getTagName()).isEqualTo("select");
+        assertThat(state.getSelectOptions()).containsExactly("Red", "Blue", "Green");
+        assertThat(state.getValue()).isEqualTo("red");
+    }
+
+    @Test
+    public void should_read_the_current_state_of_several_elements_in_one_go() {
+        List<ElementState> states = page.getElementStates(page.firstName, page.hiddenField, page.fieldDoesNotExist);
+
+        assertThat(states.get(0).isVisible()).isTrue();
+        assertThat(states.get(0).getValue()).isEqualTo("<enter first name>");
+        assertThat(states.get(1).isPresent()).isTrue();
+        assertThat(states.get(1).isVisible()).isFalse();
+        assertThat(states.get(2).isPresent()).isFalse();
+    }
+
     @Test
     public void should_pass_if_unexpected_element_is_not_present() {
         page.fieldDoesNotExist.shouldNotBePresent();
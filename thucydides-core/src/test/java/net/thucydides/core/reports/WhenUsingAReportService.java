@@ -2,6 +2,7 @@ package net.thucydides.core.reports;
 
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.util.MockEnvironmentVariables;
 import org.hamcrest.Matcher;
 import org.junit.Before;
 import org.junit.Test;
@@ -88,7 +89,7 @@ public class WhenUsingAReportService {
 
     @Test
     public void default_reporters_should_include_xml_and_html() {
-        List reporters = ReportService.getDefaultReporters();
+        List reporters = ReportService.getDefaultReporters(new MockEnvironmentVariables());
         assertThat(reporters.size(), is(2));
 
         Matcher calledXml = hasProperty("name", is("xml"));
@@ -96,6 +97,18 @@ public class WhenUsingAReportService {
         assertThat(reporters, allOf(hasItem(calledXml), hasItem(calledHtml)));
     }
 
+    @Test
+    public void default_reporters_should_include_binary_reports_if_enabled() {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        environmentVariables.setProperty("thucydides.binary.reports", "true");
+
+        List reporters = ReportService.getDefaultReporters(environmentVariables);
+        assertThat(reporters.size(), is(3));
+
+        Matcher calledBinary = hasProperty("name", is("binary"));
+        assertThat(reporters, hasItem(calledBinary));
+    }
+
     @Test
     public void new_reporters_should_be_instantiated_at_each_request() {
         List reporters = ReportService.getDefaultReporters();
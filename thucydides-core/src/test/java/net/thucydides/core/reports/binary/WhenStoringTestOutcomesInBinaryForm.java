@@ -0,0 +1,214 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import net.thucydides.core.annotations.Feature;
+import net.thucydides.core.annotations.Issue;
+import net.thucydides.core.annotations.Story;
+import net.thucydides.core.model.DataTable;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.model.TestTag;
+import net.thucydides.core.reports.TestOutcomeLoader;
+import net.thucydides.core.reports.TestOutcomes;
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
+import net.thucydides.core.util.ExtendedTemporaryFolder;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static net.thucydides.core.model.TestStepFactory.createNewTestStep;
+import static net.thucydides.core.model.TestStepFactory.forASuccessfulTestStepCalled;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+
+public class WhenStoringTestOutcomesInBinaryForm {
+
+    @Rule
+    public ExtendedTemporaryFolder temporaryDirectory = new ExtendedTemporaryFolder();
+
+    @Mock
+    TestOutcomes allTestOutcomes;
+
+    private BinaryTestOutcomeReporter reporter;
+
+    private File outputDirectory;
+
+    @Before
+    public void setupTestReporter() throws IOException {
+        MockitoAnnotations.initMocks(this);
+
+        reporter = new BinaryTestOutcomeReporter();
+        outputDirectory = temporaryDirectory.newFolder("binary");
+        reporter.setOutputDirectory(outputDirectory);
+    }
+
+    @Feature
+    class AFeature {
+        class AUserStoryInAFeature {
+        }
+    }
+
+    @Story(AFeature.AUserStoryInAFeature.class)
+    class SomeTestScenario {
+        @Issue("#123")
+        public void should_do_this() {
+        }
+    }
+
+    @Test
+    public void binary_reports_should_use_the_outcome_suffix() throws IOException {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+
+        File report = reporter.generateReportFor(testOutcome, allTestOutcomes);
+
+        assertThat(report.getName(), endsWith(".outcome"));
+    }
+
+    @Test
+    public void should_restore_the_test_outcome_details() throws IOException {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+        testOutcome.recordStep(forASuccessfulTestStepCalled("step 1"));
+        testOutcome.setDuration(1234);
+        testOutcome.setSessionId("some-session");
+
+        TestOutcome loadedOutcome = storedAndReloaded(testOutcome);
+
+        assertThat(loadedOutcome.getMethodName(), is("should_do_this"));
+        assertThat(loadedOutcome.getTitle(), is(testOutcome.getTitle()));
+        assertThat(loadedOutcome.getDuration(), is(1234L));
+        assertThat(loadedOutcome.getSessionId(), is("some-session"));
+        assertThat(loadedOutcome.getResult(), is(TestResult.SUCCESS));
+        assertThat(loadedOutcome.getIssues(), hasItem("#123"));
+    }
+
+    @Test
+    public void should_restore_the_user_story_and_feature() throws IOException {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+
+        TestOutcome loadedOutcome = storedAndReloaded(testOutcome);
+
+        assertThat(loadedOutcome.getUserStory().getName(), is("A user story in a feature"));
+        assertThat(loadedOutcome.getUserStory().getFeature().getName(), is("A feature"));
+    }
+
+    @Test
+    public void should_restore_the_tags() throws IOException {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+
+        TestOutcome loadedOutcome = storedAndReloaded(testOutcome);
+
+        assertThat(loadedOutcome.getTags(), hasItems(TestTag.withName("A feature").andType("feature"),
+                                                     TestTag.withName("A user story in a feature").andType("story")));
+    }
+
+    @Test
+    public void should_restore_the_qualifier() throws IOException {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+        reporter.setQualifier("a qualifier");
+
+        TestOutcome loadedOutcome = storedAndReloaded(testOutcome);
+
+        assertThat(loadedOutcome.getQualifier().get(), is("a qualifier"));
+    }
+
+    @Test
+    public void should_restore_nested_steps_and_their_screenshots() throws IOException {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+        testOutcome.startGroup("Group 1");
+        TestStep step1 = TestStep.forStepCalled("step 1").withResult(TestResult.SUCCESS);
+        step1.addScreenshot(new ScreenshotAndHtmlSource(new File("step_1.png"), new File("step_1.html")));
+        testOutcome.recordStep(step1);
+        testOutcome.recordStep(createNewTestStep("step 2", TestResult.FAILURE));
+        testOutcome.endGroup();
+
+        TestOutcome loadedOutcome = storedAndReloaded(testOutcome);
+
+        TestStep group = loadedOutcome.getTestSteps().get(0);
+        assertThat(group.getDescription(), is("Group 1"));
+        assertThat(group.getChildren().size(), is(2));
+        ScreenshotAndHtmlSource screenshot = group.getChildren().get(0).getScreenshots().get(0);
+        assertThat(screenshot.getScreenshotFile().getName(), is("step_1.png"));
+        assertThat(screenshot.getSourcecode().get().getName(), is("step_1.html"));
+        assertThat(group.getChildren().get(1).getResult(), is(TestResult.FAILURE));
+        assertThat(loadedOutcome.getResult(), is(TestResult.FAILURE));
+    }
+
+    @Test
+    public void should_restore_example_tables() throws IOException {
+        List<Object> row1 = Lists.<Object>newArrayList("Joe", "Smith", "20");
+        List<Object> row2 = Lists.<Object>newArrayList("Jack", "Jones", "21");
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+        DataTable table = DataTable.withHeaders(ImmutableList.of("firstName","lastName","age")).
+                                    andRows(ImmutableList.of(row1, row2)).build();
+        testOutcome.useExamplesFrom(table);
+        table.row(0).hasResult(TestResult.FAILURE);
+
+        TestOutcome loadedOutcome = storedAndReloaded(testOutcome);
+
+        DataTable loadedTable = loadedOutcome.getDataTable();
+        assertThat(loadedTable.getHeaders(), is((List<String>) ImmutableList.of("firstName", "lastName", "age")));
+        assertThat(loadedTable.getRows().get(0).getStringValues(), is((List<String>) ImmutableList.of("Joe", "Smith", "20")));
+        assertThat(loadedTable.getRows().get(0).getResult(), is(TestResult.FAILURE));
+        assertThat(loadedTable.getRows().get(1).getResult(), is(TestResult.SUCCESS));
+    }
+
+    @Test
+    public void should_ignore_files_that_are_not_binary_reports() throws IOException {
+        File report = new File(outputDirectory, "not-a-report.outcome");
+        FileUtils.writeStringToFile(report, "<acceptance-test-run/>");
+
+        assertThat(reporter.loadReportFrom(report).isPresent(), is(false));
+    }
+
+    @Test
+    public void the_loader_should_prefer_binary_reports_to_xml_reports_for_the_same_outcome() throws IOException {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+        XMLTestOutcomeReporter xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        xmlReporter.generateReportFor(testOutcome, allTestOutcomes);
+        reporter.generateReportFor(testOutcome, allTestOutcomes);
+
+        List<TestOutcome> loadedOutcomes = new TestOutcomeLoader(new MockEnvironmentVariables()).loadFrom(outputDirectory);
+
+        assertThat(loadedOutcomes.size(), is(1));
+    }
+
+    @Test
+    public void the_loader_should_prefer_xml_reports_that_are_more_recent_than_binary_reports() throws IOException {
+        TestOutcome staleOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+        File staleReport = reporter.generateReportFor(staleOutcome, allTestOutcomes);
+        staleReport.setLastModified(staleReport.lastModified() - 60000);
+
+        TestOutcome freshOutcome = TestOutcome.forTest("should_do_this", SomeTestScenario.class);
+        freshOutcome.recordStep(forASuccessfulTestStepCalled("A fresh step"));
+        XMLTestOutcomeReporter xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        xmlReporter.generateReportFor(freshOutcome, allTestOutcomes);
+
+        List<TestOutcome> loadedOutcomes = new TestOutcomeLoader(new MockEnvironmentVariables()).loadFrom(outputDirectory);
+
+        assertThat(loadedOutcomes.size(), is(1));
+        assertThat(loadedOutcomes.get(0).getStepCount(), is(1));
+    }
+
+    private TestOutcome storedAndReloaded(TestOutcome testOutcome) throws IOException {
+        File report = reporter.generateReportFor(testOutcome, allTestOutcomes);
+        Optional<TestOutcome> loadedOutcome = reporter.loadReportFrom(report);
+        return loadedOutcome.get();
+    }
+}
@@ -0,0 +1,194 @@
+package net.thucydides.core.reports.history;
+
+import com.thoughtworks.xstream.XStream;
+import net.thucydides.core.util.ExtendedTemporaryFolder;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.apache.commons.io.FileUtils;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class WhenStoringTestHistory {
+
+    private static final DateTime NOW = new DateTime(2013, 6, 30, 12, 0, 0);
+
+    @Rule
+    public ExtendedTemporaryFolder temporaryFolder = new ExtendedTemporaryFolder();
+
+    private File historyDirectory;
+
+    @Before
+    public void setupHistoryDirectory() throws IOException {
+        historyDirectory = temporaryFolder.newFolder("history");
+    }
+
+    private HistoryFile<TestResultSnapshot> historyFileKeeping(int retentionDays, int detailedDays) {
+        return HistoryFile.forTestResults(new File(historyDirectory, "results.history"),
+                                          new HistoryFile.HistoryRetention(retentionDays, detailedDays));
+    }
+
+    private TestResultSnapshot snapshotAt(DateTime time, int passingSteps) {
+        return new TestResultSnapshot(time, 10, passingSteps, 10 - passingSteps, 0, "build-" + passingSteps);
+    }
+
+    @Test
+    public void snapshots_should_be_read_back_in_chronological_order() throws IOException {
+        HistoryFile<TestResultSnapshot> history = historyFileKeeping(0, 30);
+
+        history.append(Arrays.asList(snapshotAt(NOW.minusHours(2), 1)));
+        history.append(Arrays.asList(snapshotAt(NOW.minusHours(1), 2)));
+        history.append(Arrays.asList(snapshotAt(NOW.minusHours(3), 3)));
+
+        List<TestResultSnapshot> snapshots = history.readAll();
+        assertThat(snapshots.size(), is(3));
+        assertThat(snapshots.get(0).getPassingSteps(), is(3));
+        assertThat(snapshots.get(1).getPassingSteps(), is(1));
+        assertThat(snapshots.get(2).getPassingSteps(), is(2));
+        assertThat(snapshots.get(2).getBuildId(), is("build-2"));
+    }
+
+    @Test
+    public void should_read_only_the_most_recent_snapshots_if_requested() throws IOException {
+        HistoryFile<TestResultSnapshot> history = historyFileKeeping(0, 30);
+        for (int i = 0; i < 500; i++) {
+            history.append(Arrays.asList(snapshotAt(NOW.minusMinutes(500 - i), i % 10)));
+        }
+
+        List<TestResultSnapshot> latestSnapshots = history.readLatest(3);
+
+        assertThat(latestSnapshots.size(), is(3));
+        assertThat(latestSnapshots.get(2).getTime(), is(NOW.minusMinutes(1)));
+        assertThat(latestSnapshots.get(0).getTime(), is(NOW.minusMinutes(3)));
+    }
+
+    @Test
+    public void older_snapshots_should_be_reduced_to_the_last_snapshot_of_each_day() throws IOException {
+        HistoryFile<TestResultSnapshot> history = historyFileKeeping(0, 30);
+        DateTime twoMonthsAgo = NOW.minusMonths(2).withTime(8, 0, 0, 0);
+        history.append(Arrays.asList(snapshotAt(twoMonthsAgo, 1),
+                                     snapshotAt(twoMonthsAgo.plusHours(1), 2),
+                                     snapshotAt(twoMonthsAgo.plusHours(2), 3),
+                                     snapshotAt(NOW.minusHours(2), 4),
+                                     snapshotAt(NOW.minusHours(1), 5)));
+
+        List<TestResultSnapshot> snapshots = history.readAll();
+
+        assertThat(snapshots.size(), is(3));
+        assertThat(snapshots.get(0).getPassingSteps(), is(3));
+    }
+
+    @Test
+    public void snapshots_older_than_the_retention_period_should_be_discarded() throws IOException {
+        HistoryFile<TestResultSnapshot> history = historyFileKeeping(365, 30);
+        history.append(Arrays.asList(snapshotAt(NOW.minusYears(2), 1)));
+        history.append(Arrays.asList(snapshotAt(NOW.minusDays(1), 2)));
+        history.append(Arrays.asList(snapshotAt(NOW, 3)));
+
+        List<TestResultSnapshot> snapshots = history.readAll();
+
+        assertThat(snapshots.size(), is(2));
+        assertThat(snapshots.get(0).getPassingSteps(), is(2));
+    }
+
+    @Test
+    public void an_incomplete_entry_should_not_prevent_the_history_from_being_read() throws IOException {
+        HistoryFile<TestResultSnapshot> history = historyFileKeeping(0, 30);
+        history.append(Arrays.asList(snapshotAt(NOW.minusHours(1), 1)));
+        FileUtils.writeStringToFile(new File(historyDirectory, "results.history"), "1372590000000\t10\t5", true);
+
+        history.append(Arrays.asList(snapshotAt(NOW, 2)));
+
+        assertThat(history.readAll().size(), is(2));
+        assertThat(history.readLatest(1).get(0).getPassingSteps(), is(2));
+    }
+
+    @Test
+    public void new_snapshots_should_be_appended_without_rewriting_the_existing_history() throws IOException {
+        HistoryFile<TestResultSnapshot> history = historyFileKeeping(365, 30);
+        File historyFile = new File(historyDirectory, "results.history");
+        history.append(Arrays.asList(snapshotAt(NOW.minusHours(2), 1)));
+        FileUtils.writeStringToFile(historyFile, "not a snapshot\n", true);
+        String existingHistory = FileUtils.readFileToString(historyFile);
+
+        history.append(Arrays.asList(snapshotAt(NOW.minusHours(1), 2)));
+
+        assertThat(FileUtils.readFileToString(historyFile).startsWith(existingHistory), is(true));
+        assertThat(history.readAll().size(), is(2));
+    }
+
+    @Test
+    public void progress_snapshots_should_be_stored_with_their_requirement_type() throws IOException {
+        HistoryFile<ProgressSnapshot> history = HistoryFile.forProgress(new File(historyDirectory, "progress.history"),
+                                                                        new HistoryFile.HistoryRetention(0, 30));
+        ProgressSnapshot snapshot = ProgressSnapshot.forRequirementType("capability\twith a tab")
+                                                    .atTime(NOW)
+                                                    .with(5).completed()
+                                                    .and(6).estimated()
+                                                    .and(2).failed()
+                                                    .outOf(10)
+                                                    .forBuild("123");
+
+        history.append(Arrays.asList(snapshot));
+
+        ProgressSnapshot loadedSnapshot = history.readAll().get(0);
+        assertThat(loadedSnapshot.getRequirementType(), is("capability\twith a tab"));
+        assertThat(loadedSnapshot.getCompleted(), is(5));
+        assertThat(loadedSnapshot.getEstimated(), is(6));
+        assertThat(loadedSnapshot.getFailed(), is(2));
+        assertThat(loadedSnapshot.getTotal(), is(10));
+        assertThat(loadedSnapshot.getBuildId(), is("123"));
+        assertThat(loadedSnapshot.getTime(), is(NOW));
+    }
+
+    @Test
+    public void snapshots_stored_one_per_file_should_be_moved_into_the_history_file() throws IOException {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        TestHistory testHistory = new TestHistory("project", environmentVariables, historyDirectory);
+        File legacySnapshot = new File(testHistory.getDirectory(), "thucydides-outcome-" + NOW.getMillis());
+        FileUtils.writeStringToFile(legacySnapshot, new XStream().toXML(snapshotAt(NOW, 7)));
+
+        List<TestResultSnapshot> snapshots = testHistory.getHistory();
+
+        assertThat(snapshots.size(), is(1));
+        assertThat(snapshots.get(0).getPassingSteps(), is(7));
+        assertThat(legacySnapshot.exists(), is(false));
+    }
+
+    @Test
+    public void snapshot_files_that_cannot_be_read_should_only_be_tried_once() throws IOException {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        TestHistory testHistory = new TestHistory("project", environmentVariables, historyDirectory);
+        File unreadableSnapshot = new File(testHistory.getDirectory(), "thucydides-outcome-" + NOW.getMillis());
+        FileUtils.writeStringToFile(unreadableSnapshot, "<not-a-snapshot/>");
+
+        testHistory.getHistory();
+
+        assertThat(unreadableSnapshot.exists(), is(false));
+        assertThat(new File(testHistory.getDirectory(), unreadableSnapshot.getName() + ".unreadable").exists(), is(true));
+        assertThat(new TestHistory("project", environmentVariables, historyDirectory).getHistory().size(), is(0));
+    }
+
+    @Test
+    public void the_test_history_should_provide_the_most_recent_snapshots_if_requested() throws IOException {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        TestHistory testHistory = new TestHistory("project", environmentVariables, historyDirectory);
+        FileUtils.writeStringToFile(new File(testHistory.getDirectory(), "thucydides-outcome-1"),
+                                    new XStream().toXML(snapshotAt(NOW.minusHours(1), 7)));
+        FileUtils.writeStringToFile(new File(testHistory.getDirectory(), "thucydides-outcome-2"),
+                                    new XStream().toXML(snapshotAt(NOW, 8)));
+
+        List<TestResultSnapshot> snapshots = testHistory.getHistory(1);
+
+        assertThat(snapshots.size(), is(1));
+        assertThat(snapshots.get(0).getPassingSteps(), is(8));
+    }
+}
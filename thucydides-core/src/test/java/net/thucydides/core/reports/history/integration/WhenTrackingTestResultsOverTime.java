@@ -68,7 +68,8 @@ public class WhenTrackingTestResultsOverTime {
         testHistory.updateData(results);
         String[] historyFiles = new File(customHistoryDir,"project").list();
 
-        assertThat(historyFiles.length, is(2));
+        assertThat(historyFiles.length, is(1));
+        assertThat(testHistory.getHistory().size(), is(2));
 
     }
 
@@ -0,0 +1,124 @@
+package net.thucydides.core.reports.html;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class WhenGeneratingReportPagesInParallel {
+
+    @Test
+    public void all_the_pages_should_be_generated_before_the_report_is_complete() throws IOException {
+        ParallelReportPageGenerator generator = new ParallelReportPageGenerator(4);
+        final AtomicInteger pagesGenerated = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            generator.generate(new ParallelReportPageGenerator.ReportPage() {
+                public void generate() {
+                    pagesGenerated.incrementAndGet();
+                }
+            });
+        }
+        generator.waitForAllPages();
+
+        assertThat(pagesGenerated.get(), is(100));
+    }
+
+    @Test
+    public void pages_should_be_generated_on_several_threads() throws IOException {
+        ParallelReportPageGenerator generator = new ParallelReportPageGenerator(2);
+        final Set<String> threadNames = Collections.synchronizedSet(new HashSet<String>());
+        final CountDownLatch bothPagesStarted = new CountDownLatch(2);
+
+        for (int i = 0; i < 2; i++) {
+            generator.generate(new ParallelReportPageGenerator.ReportPage() {
+                public void generate() {
+                    threadNames.add(Thread.currentThread().getName());
+                    bothPagesStarted.countDown();
+                    awaitQuietly(bothPagesStarted);
+                }
+            });
+        }
+        generator.waitForAllPages();
+
+        assertThat(threadNames.size(), is(2));
+    }
+
+    @Test
+    public void the_calling_thread_should_help_out_when_the_workers_are_busy() throws IOException {
+        ParallelReportPageGenerator generator = new ParallelReportPageGenerator(1);
+        final String callingThread = Thread.currentThread().getName();
+        final AtomicInteger pagesGeneratedByCaller = new AtomicInteger();
+        final CountDownLatch workerReleased = new CountDownLatch(1);
+
+        generator.generate(new ParallelReportPageGenerator.ReportPage() {
+            public void generate() {
+                awaitQuietly(workerReleased);
+            }
+        });
+        for (int i = 0; i < 10; i++) {
+            generator.generate(new ParallelReportPageGenerator.ReportPage() {
+                public void generate() {
+                    if (Thread.currentThread().getName().equals(callingThread)) {
+                        pagesGeneratedByCaller.incrementAndGet();
+                    }
+                }
+            });
+        }
+        workerReleased.countDown();
+        generator.waitForAllPages();
+
+        assertThat(pagesGeneratedByCaller.get(), is(greaterThan(0)));
+    }
+
+    @Test(expected = IOException.class)
+    public void a_page_that_cannot_be_written_should_fail_the_report() throws IOException {
+        ParallelReportPageGenerator generator = new ParallelReportPageGenerator(2);
+
+        generator.generate(new ParallelReportPageGenerator.ReportPage() {
+            public void generate() throws IOException {
+                throw new IOException("Disk full");
+            }
+        });
+        generator.waitForAllPages();
+    }
+
+    @Test
+    public void shutting_down_should_release_the_worker_threads_if_the_report_fails() throws Exception {
+        ParallelReportPageGenerator generator = new ParallelReportPageGenerator(1);
+        final CountDownLatch pageStarted = new CountDownLatch(1);
+        final CountDownLatch workerInterrupted = new CountDownLatch(1);
+
+        generator.generate(new ParallelReportPageGenerator.ReportPage() {
+            public void generate() {
+                pageStarted.countDown();
+                try {
+                    new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    workerInterrupted.countDown();
+                }
+            }
+        });
+        pageStarted.await(10, TimeUnit.SECONDS);
+        generator.shutdown();
+
+        assertThat(workerInterrupted.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
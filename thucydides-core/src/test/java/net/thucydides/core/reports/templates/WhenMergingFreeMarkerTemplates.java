@@ -10,6 +10,7 @@ import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class WhenMergingFreeMarkerTemplates {
 
@@ -28,6 +29,15 @@ public class WhenMergingFreeMarkerTemplates {
 
     }
 
+    @Test
+    public void should_only_load_each_template_once() throws Exception {
+        FreeMarkerTemplateManager templateManager = new FreeMarkerTemplateManager();
+
+        ReportTemplate template = templateManager.getTemplateFrom("templates/test.ftl");
+
+        assertThat(templateManager.getTemplateFrom("templates/test.ftl"), is(sameInstance(template)));
+    }
+
     @Test(expected = TemplateMergeException.class)
     public void should_handle_data_errors_in_template() throws Exception {
         FreeMarkerTemplateManager templateManager = new FreeMarkerTemplateManager();
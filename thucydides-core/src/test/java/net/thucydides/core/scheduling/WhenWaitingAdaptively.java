@@ -0,0 +1,179 @@
+package net.thucydides.core.scheduling;
+
+import net.thucydides.core.steps.StepEventBus;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.Duration;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.SystemClock;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class WhenWaitingAdaptively {
+
+    @Mock
+    Sleeper sleeper;
+
+    WebDriver driver;
+
+    MockEnvironmentVariables environmentVariables;
+
+    class ATestClass {
+        public void someTest() {}
+    }
+
+    @Before
+    public void initMocks() {
+        MockitoAnnotations.initMocks(this);
+        driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        environmentVariables = new MockEnvironmentVariables();
+
+        StepEventBus.getEventBus().clear();
+        StepEventBus.getEventBus().testSuiteStarted(ATestClass.class);
+        StepEventBus.getEventBus().testStarted("someTest");
+    }
+
+    private ExpectedCondition<Boolean> aConditionMetAfter(final int polls) {
+        return new ExpectedCondition<Boolean>() {
+            int counter = 0;
+
+            public Boolean apply(WebDriver driver) {
+                return (++counter > polls);
+            }
+        };
+    }
+
+    private AdaptiveFluentWait<WebDriver> waitOn(WebDriver driver) {
+        AdaptiveFluentWait<WebDriver> waitFor = new AdaptiveFluentWait<WebDriver>(driver, new SystemClock(), sleeper,
+                                                                                  new DomMutationWait(environmentVariables));
+        waitFor.withTimeout(1000, TimeUnit.MILLISECONDS).pollingEvery(200, TimeUnit.MILLISECONDS);
+        return waitFor;
+    }
+
+    private Duration millis(long duration) {
+        return new Duration(duration, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void polling_intervals_should_double_until_they_reach_the_maximum_interval() {
+        PollingBackoff backoff = new PollingBackoff(300);
+
+        assertThat(backoff.nextIntervalInMillis()).isEqualTo(50);
+        assertThat(backoff.nextIntervalInMillis()).isEqualTo(100);
+        assertThat(backoff.nextIntervalInMillis()).isEqualTo(200);
+        assertThat(backoff.nextIntervalInMillis()).isEqualTo(300);
+        assertThat(backoff.nextIntervalInMillis()).isEqualTo(300);
+    }
+
+    @Test
+    public void polling_intervals_should_never_be_longer_than_the_maximum_interval() {
+        PollingBackoff backoff = new PollingBackoff(20);
+
+        assertThat(backoff.nextIntervalInMillis()).isEqualTo(20);
+        assertThat(backoff.nextIntervalInMillis()).isEqualTo(20);
+    }
+
+    @Test
+    public void wait_should_pause_briefly_at_first_and_then_back_off() throws InterruptedException {
+        waitOn(driver).until(aConditionMetAfter(4));
+
+        InOrder inOrder = inOrder(sleeper);
+        inOrder.verify(sleeper).sleep(millis(50));
+        inOrder.verify(sleeper).sleep(millis(100));
+        inOrder.verify(sleeper, times(2)).sleep(millis(200));
+    }
+
+    @Test
+    public void each_wait_should_start_with_a_brief_pause() throws InterruptedException {
+        AdaptiveFluentWait<WebDriver> waitFor = waitOn(driver);
+
+        waitFor.until(aConditionMetAfter(1));
+        waitFor.until(aConditionMetAfter(1));
+
+        verify(sleeper, times(2)).sleep(millis(50));
+    }
+
+    @Test
+    public void wait_should_not_wait_for_changes_to_the_page_by_default() throws InterruptedException {
+        waitOn(driver).until(aConditionMetAfter(2));
+
+        verify((JavascriptExecutor) driver, never()).executeAsyncScript(anyString(), anyVararg());
+        verify(sleeper, times(2)).sleep(any(Duration.class));
+    }
+
+    @Test
+    public void wait_should_pause_until_the_page_changes_if_requested() throws InterruptedException {
+        environmentVariables.setProperty("thucydides.wait.for.dom.changes", "true");
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg())).thenReturn(true);
+
+        waitOn(driver).until(aConditionMetAfter(2));
+
+        verify((JavascriptExecutor) driver, times(2)).executeAsyncScript(anyString(), anyVararg());
+        verify(sleeper, never()).sleep(any(Duration.class));
+    }
+
+    @Test
+    public void wait_should_sleep_instead_if_the_browser_cannot_report_changes_to_the_page() throws InterruptedException {
+        environmentVariables.setProperty("thucydides.wait.for.dom.changes", "true");
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg()))
+                .thenThrow(new WebDriverException("Timed out waiting for async script result"));
+
+        waitOn(driver).until(aConditionMetAfter(3));
+
+        verify((JavascriptExecutor) driver, times(1)).executeAsyncScript(anyString(), anyVararg());
+        verify(sleeper, times(3)).sleep(any(Duration.class));
+    }
+
+    @Test
+    public void wait_should_sleep_when_not_waiting_on_a_web_page() throws InterruptedException {
+        environmentVariables.setProperty("thucydides.wait.for.dom.changes", "true");
+
+        assertThat(new DomMutationWait(environmentVariables).waitForChangesIn("a backend", 100)).isFalse();
+    }
+
+    @Test
+    public void should_record_how_long_each_wait_took() {
+        long previousWaitCount = WaitTimes.getWaitTimes().getWaitCount();
+
+        waitOn(driver).until(aConditionMetAfter(1));
+
+        assertThat(WaitTimes.getWaitTimes().getWaitCount()).isGreaterThan(previousWaitCount);
+    }
+
+    @Test
+    public void wait_times_should_be_counted_in_the_smallest_bucket_that_can_hold_them() {
+        WaitTimes waitTimes = new WaitTimes();
+
+        waitTimes.recordWait(10);
+        waitTimes.recordWait(50);
+        waitTimes.recordWait(300);
+        waitTimes.recordWait(60000);
+
+        assertThat(waitTimes.getWaitCount()).isEqualTo(4);
+        assertThat(waitTimes.getTotalWaitTimeInMillis()).isEqualTo(60360);
+        assertThat(waitTimes.getWaitCountsByDuration().get(50L)).isEqualTo(2);
+        assertThat(waitTimes.getWaitCountsByDuration().get(100L)).isEqualTo(0);
+        assertThat(waitTimes.getWaitCountsByDuration().get(500L)).isEqualTo(1);
+        assertThat(waitTimes.getWaitCountsByDuration().get(Long.MAX_VALUE)).isEqualTo(1);
+    }
+}
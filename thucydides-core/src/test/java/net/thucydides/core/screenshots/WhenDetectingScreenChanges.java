@@ -0,0 +1,129 @@
+package net.thucydides.core.screenshots;
+
+import com.google.common.base.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class WhenDetectingScreenChanges {
+
+    static class ScriptedDriver implements WebDriver, JavascriptExecutor {
+
+        String screenState;
+        int scriptsExecuted = 0;
+
+        public Object executeScript(String script, Object... args) {
+            scriptsExecuted++;
+            return screenState;
+        }
+
+        public Object executeAsyncScript(String script, Object... args) {
+            return null;
+        }
+
+        public void get(String url) {}
+
+        public String getCurrentUrl() { return "http://www.google.com"; }
+
+        public String getTitle() { return ""; }
+
+        public List<WebElement> findElements(By by) { return null; }
+
+        public WebElement findElement(By by) { return null; }
+
+        public String getPageSource() { return ""; }
+
+        public void close() {}
+
+        public void quit() {}
+
+        public Set<String> getWindowHandles() { return null; }
+
+        public String getWindowHandle() { return null; }
+
+        public TargetLocator switchTo() { return null; }
+
+        public Navigation navigate() { return null; }
+
+        public Options manage() { return null; }
+    }
+
+    ScriptedDriver driver;
+    ScreenChangeDetector screenChangeDetector;
+
+    File screenshot = new File("screenshot.png");
+
+    @Before
+    public void setupDetector() {
+        driver = new ScriptedDriver();
+        screenChangeDetector = new ScreenChangeDetector();
+    }
+
+    @Test
+    public void should_reuse_the_previous_screenshot_if_the_screen_has_not_changed() {
+        driver.screenState = "page1:0:http://www.google.com";
+        screenChangeDetector.previousScreenshotIfUnchanged(driver);
+        screenChangeDetector.recordScreenshot(screenshot);
+
+        Optional<File> previousScreenshot = screenChangeDetector.previousScreenshotIfUnchanged(driver);
+
+        assertThat(previousScreenshot.get(), is(screenshot));
+    }
+
+    @Test
+    public void should_take_a_new_screenshot_if_the_screen_has_changed() {
+        driver.screenState = "page1:0:http://www.google.com";
+        screenChangeDetector.previousScreenshotIfUnchanged(driver);
+        screenChangeDetector.recordScreenshot(screenshot);
+
+        driver.screenState = "page1:3:http://www.google.com";
+        Optional<File> previousScreenshot = screenChangeDetector.previousScreenshotIfUnchanged(driver);
+
+        assertThat(previousScreenshot.isPresent(), is(false));
+    }
+
+    @Test
+    public void should_always_take_a_new_screenshot_if_changes_cannot_be_tracked() {
+        driver.screenState = null;
+        screenChangeDetector.previousScreenshotIfUnchanged(driver);
+        screenChangeDetector.recordScreenshot(screenshot);
+
+        Optional<File> previousScreenshot = screenChangeDetector.previousScreenshotIfUnchanged(driver);
+
+        assertThat(previousScreenshot.isPresent(), is(false));
+    }
+
+    @Test
+    public void should_keep_track_of_taken_and_skipped_screenshots() {
+        driver.screenState = "page1:0:http://www.google.com";
+        screenChangeDetector.previousScreenshotIfUnchanged(driver);
+        screenChangeDetector.recordScreenshot(screenshot);
+        screenChangeDetector.previousScreenshotIfUnchanged(driver);
+        screenChangeDetector.previousScreenshotIfUnchanged(driver);
+
+        assertThat(screenChangeDetector.getScreenshotsTaken(), is(1));
+        assertThat(screenChangeDetector.getScreenshotsSkipped(), is(2));
+    }
+
+    @Test
+    public void should_forget_the_previous_screenshot_when_reset() {
+        driver.screenState = "page1:0:http://www.google.com";
+        screenChangeDetector.previousScreenshotIfUnchanged(driver);
+        screenChangeDetector.recordScreenshot(screenshot);
+
+        screenChangeDetector.reset();
+
+        assertThat(screenChangeDetector.previousScreenshotIfUnchanged(driver).isPresent(), is(false));
+        assertThat(screenChangeDetector.getScreenshotsTaken(), is(0));
+    }
+}
@@ -0,0 +1,156 @@
+package net.thucydides.core.screenshots;
+
+import net.thucydides.core.images.ResizableImage;
+import net.thucydides.core.util.EnvironmentVariables;
+import net.thucydides.core.util.ExtendedTemporaryFolder;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class WhenProcessingScreenshotsInParallel {
+
+    @Rule
+    public ExtendedTemporaryFolder temporaryDirectory = new ExtendedTemporaryFolder();
+
+    private File screenshotDirectory;
+    private File originalScreenshot;
+
+    EnvironmentVariables environmentVariables;
+
+    private List<MultithreadScreenshotProcessor> screenshotProcessors = new ArrayList<MultithreadScreenshotProcessor>();
+
+    @After
+    public void shutdownScreenshotProcessors() {
+        for(MultithreadScreenshotProcessor screenshotProcessor : screenshotProcessors) {
+            screenshotProcessor.shutdown();
+        }
+    }
+
+    @Before
+    public void prepareTemporaryFilesAndDirectories() throws IOException {
+        environmentVariables = new MockEnvironmentVariables();
+        screenshotDirectory = temporaryDirectory.newFolder("screenshots");
+        originalScreenshot = new File(Thread.currentThread().getContextClassLoader().getResource("screenshots/google_page_1.png").getFile());
+    }
+
+    @Test
+    public void should_move_all_queued_screenshots_to_the_destination_directory() throws IOException {
+        environmentVariables.setProperty("thucydides.screenshot.processor.threads", "4");
+        MultithreadScreenshotProcessor screenshotProcessor = newScreenshotProcessor();
+
+        List<File> destinationFiles = queueScreenshots(screenshotProcessor, 20);
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshotProcessor.isEmpty(), is(true));
+        for(File destinationFile : destinationFiles) {
+            assertThat(destinationFile.isFile(), is(true));
+        }
+    }
+
+    @Test
+    public void should_process_screenshots_in_the_calling_thread_when_the_queue_is_full() throws IOException {
+        environmentVariables.setProperty("thucydides.screenshot.processor.threads", "1");
+        environmentVariables.setProperty("thucydides.screenshot.processor.queue.size", "1");
+        MultithreadScreenshotProcessor screenshotProcessor = newScreenshotProcessor();
+
+        List<File> destinationFiles = queueScreenshots(screenshotProcessor, 10);
+        screenshotProcessor.waitUntilDone();
+
+        for(File destinationFile : destinationFiles) {
+            assertThat(destinationFile.isFile(), is(true));
+        }
+    }
+
+    @Test
+    public void should_resize_screenshots_if_requested() throws IOException {
+        environmentVariables.setProperty("thucydides.resized.image.width", "400");
+        MultithreadScreenshotProcessor screenshotProcessor = newScreenshotProcessor();
+
+        List<File> destinationFiles = queueScreenshots(screenshotProcessor, 4);
+        screenshotProcessor.waitUntilDone();
+
+        for(File destinationFile : destinationFiles) {
+            assertThat(ResizableImage.loadFrom(destinationFile).getWitdh(), is(400));
+        }
+    }
+
+    @Test
+    public void should_resize_in_memory_screenshots_without_a_temporary_file() throws IOException {
+        environmentVariables.setProperty("thucydides.resized.image.width", "400");
+        MultithreadScreenshotProcessor screenshotProcessor = newScreenshotProcessor();
+
+        File destinationFile = new File(screenshotDirectory, "screenshot.png");
+        byte[] screenshotData = FileUtils.readFileToByteArray(originalScreenshot);
+        screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotData, destinationFile));
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(ResizableImage.loadFrom(destinationFile).getWitdh(), is(400));
+    }
+
+    @Test
+    public void should_save_in_memory_screenshots_unchanged_if_no_resizing_is_needed() throws IOException {
+        MultithreadScreenshotProcessor screenshotProcessor = newScreenshotProcessor();
+
+        File destinationFile = new File(screenshotDirectory, "screenshot.png");
+        byte[] screenshotData = FileUtils.readFileToByteArray(originalScreenshot);
+        screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotData, destinationFile));
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(FileUtils.contentEquals(destinationFile, originalScreenshot), is(true));
+    }
+
+    @Test
+    public void should_only_leave_complete_screenshots_in_the_destination_directory() throws IOException {
+        MultithreadScreenshotProcessor screenshotProcessor = newScreenshotProcessor();
+
+        List<File> destinationFiles = queueScreenshots(screenshotProcessor, 5);
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshotDirectory.list().length, is(destinationFiles.size()));
+        for(File destinationFile : destinationFiles) {
+            assertThat(FileUtils.contentEquals(destinationFile, originalScreenshot), is(true));
+        }
+    }
+
+    @Test
+    public void should_still_save_screenshots_queued_after_shutdown() throws IOException {
+        MultithreadScreenshotProcessor screenshotProcessor = newScreenshotProcessor();
+        screenshotProcessor.shutdown();
+
+        List<File> destinationFiles = queueScreenshots(screenshotProcessor, 2);
+        screenshotProcessor.waitUntilDone();
+
+        for(File destinationFile : destinationFiles) {
+            assertThat(destinationFile.isFile(), is(true));
+        }
+    }
+
+    private MultithreadScreenshotProcessor newScreenshotProcessor() {
+        MultithreadScreenshotProcessor screenshotProcessor = new MultithreadScreenshotProcessor(environmentVariables);
+        screenshotProcessors.add(screenshotProcessor);
+        return screenshotProcessor;
+    }
+
+    private List<File> queueScreenshots(ScreenshotProcessor screenshotProcessor, int count) throws IOException {
+        List<File> destinationFiles = new ArrayList<File>();
+        for(int i = 0; i < count; i++) {
+            File sourceFile = temporaryDirectory.newFile("screenshot_" + i + ".png");
+            FileUtils.copyFile(originalScreenshot, sourceFile);
+            File destinationFile = new File(screenshotDirectory, "screenshot-" + i + ".png");
+            destinationFiles.add(destinationFile);
+            screenshotProcessor.queueScreenshot(new QueuedScreenshot(sourceFile, destinationFile));
+        }
+        return destinationFiles;
+    }
+}
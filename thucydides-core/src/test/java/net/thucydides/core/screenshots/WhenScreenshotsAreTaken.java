@@ -1,6 +1,7 @@
 package net.thucydides.core.screenshots;
 
 import com.google.common.base.Optional;
+import net.thucydides.core.digest.Digest;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.resources.FileResources;
 import net.thucydides.core.util.EnvironmentVariables;
@@ -14,9 +15,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 
@@ -40,6 +43,7 @@ public class WhenScreenshotsAreTaken {
 
     private File screenshotDirectory;
     private File screenshotTaken;
+    private byte[] screenshotData;
     private File originalScreenshot;
     private File expectedResizedScreenshot;
 
@@ -68,8 +72,8 @@ public class WhenScreenshotsAreTaken {
         }
 
         @Override
-        protected File blur(File srcFile) throws IOException {
-            return srcFile;
+        protected BufferedImage blur(BufferedImage srcImage) {
+            return srcImage;
         }
     }
 
@@ -89,14 +93,15 @@ public class WhenScreenshotsAreTaken {
         expectedResizedScreenshot = new File(Thread.currentThread().getContextClassLoader().getResource("screenshots/resized_google_page_1.png").getFile());
         screenshotTaken = temporaryDirectory.newFile("google_page_1.png");
         FileUtils.copyFile(originalScreenshot, screenshotTaken);
+        screenshotData = FileUtils.readFileToByteArray(screenshotTaken);
     }
 
     @Test
     public void the_driver_should_not_take_screenshots_if_the_driver_is_not_available() throws Exception {
 
         Photographer photographer = new MockPhotographer(null, screenshotDirectory);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
-        photographer.takeScreenshot("screenshot");
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        photographer.takeScreenshot();
         waitUntilScreenshotsProcessed();
 
         verify(driver,times(0)).getScreenshotAs((OutputType<?>) anyObject());
@@ -105,8 +110,8 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void the_driver_should_capture_the_image() throws Exception {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
-        photographer.takeScreenshot("screenshot");
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        photographer.takeScreenshot();
         waitUntilScreenshotsProcessed();
 
         verify(driver,times(1)).getScreenshotAs((OutputType<?>) anyObject());
@@ -116,30 +121,30 @@ public class WhenScreenshotsAreTaken {
     public void should_blur_screenshot_if_requested() throws Exception {
 
         Photographer outOfFocusPhotographer = new Photographer(driver, screenshotDirectory, BlurLevel.HEAVY);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
-        Optional<File> blurredScreenshot = outOfFocusPhotographer.takeScreenshot("screenshot");
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        File blurredScreenshot = outOfFocusPhotographer.takeScreenshot().get().getScreenshotFile();
         waitUntilScreenshotsProcessed();
 
-        assertThat(FileUtils.contentEquals(blurredScreenshot.get(), expectedResizedScreenshot), is(false));
+        assertThat(FileUtils.contentEquals(blurredScreenshot, expectedResizedScreenshot), is(false));
     }
 
     @Test
     public void should_not_blur_screenshot_by_default() throws Exception {
 
         Photographer outOfFocusPhotographer = new Photographer(driver, screenshotDirectory);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
-        Optional<File> blurredScreenshot = outOfFocusPhotographer.takeScreenshot("screenshot");
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        File blurredScreenshot = outOfFocusPhotographer.takeScreenshot().get().getScreenshotFile();
         waitUntilScreenshotsProcessed();
 
-        assertThat(FileUtils.contentEquals(blurredScreenshot.get(), expectedResizedScreenshot), is(true));
+        assertThat(FileUtils.contentEquals(blurredScreenshot, expectedResizedScreenshot), is(true));
     }
 
     @Test
     public void should_not_take_a_snapshot_if_unsupported_by_the_driver() throws Exception {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         Photographer photographer = new Photographer(htmlDriver, screenshotDirectory);
-        photographer.takeScreenshot("screenshot");
+        photographer.takeScreenshot();
         waitUntilScreenshotsProcessed();
 
         verify(driver,never()).getScreenshotAs((OutputType<?>) anyObject());
@@ -148,9 +153,9 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void the_screenshot_should_be_stored_in_the_target_directory() throws IOException, InterruptedException{
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
 
-        String screenshotFile = photographer.takeScreenshot("screenshot").get().getName();
+        String screenshotFile = photographer.takeScreenshot().get().getScreenshotFile().getName();
         waitUntilScreenshotsProcessed();
         File savedScreenshot = new File(screenshotDirectory, screenshotFile);
         savedScreenshot.setReadable(true);
@@ -158,6 +163,17 @@ public class WhenScreenshotsAreTaken {
         assertThat(savedScreenshot.isFile(), is(true));
     }
 
+    @Test
+    public void should_save_screenshots_returned_by_the_driver_as_files() throws IOException, InterruptedException{
+
+        when(driver.getScreenshotAs(any(OutputType.class))).thenReturn(screenshotTaken);
+
+        File savedScreenshot = photographer.takeScreenshot().get().getScreenshotFile();
+        waitUntilScreenshotsProcessed();
+
+        assertThat(FileUtils.contentEquals(savedScreenshot, originalScreenshot), is(true));
+    }
+
     private void waitUntilScreenshotsProcessed() throws InterruptedException {
         photographer.getScreenshotProcessor().waitUntilDone();
         Thread.sleep(50);
@@ -166,9 +182,9 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void the_photographer_should_return_the_stored_screenshot_filename() throws IOException, InterruptedException {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         
-        String savedFileName = photographer.takeScreenshot("screenshot").get().getName();
+        String savedFileName = photographer.takeScreenshot().get().getScreenshotFile().getName();
         waitUntilScreenshotsProcessed();
         File savedScreenshot = new File(screenshotDirectory, savedFileName);
         
@@ -185,15 +201,13 @@ public class WhenScreenshotsAreTaken {
                                                      null,
                                                      environmentVariables);
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         when(driver.getPageSource()).thenReturn("<html/>");
 
-        File screenshotFile = photographer.takeScreenshot("screenshot").get();
+        ScreenshotAndHtmlSource screenshot = photographer.takeScreenshot().get();
         waitUntilScreenshotsProcessed();
 
-        File htmlSource = photographer.getMatchingSourceCodeFor(screenshotFile);
-
-        assertThat(htmlSource.isFile(), is(true));
+        assertThat(screenshot.getSourcecode().get().isFile(), is(true));
     }
 
     @Test
@@ -204,15 +218,53 @@ public class WhenScreenshotsAreTaken {
                 null,
                 environmentVariables);
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         when(driver.getPageSource()).thenReturn("<html/>");
 
-        File screenshotFile = photographer.takeScreenshot("screenshot").get();
+        ScreenshotAndHtmlSource screenshot = photographer.takeScreenshot().get();
         waitUntilScreenshotsProcessed();
 
-        File htmlSource = photographer.getMatchingSourceCodeFor(screenshotFile);
+        assertThat(screenshot.getSourcecode().isPresent(), is(false));
+    }
+
+    @Test
+    public void identical_screenshots_of_different_pages_should_keep_their_own_HTML_source_code() throws Exception {
+
+        environmentVariables.setProperty("thucydides.store.html.source","true");
+        Photographer photographer = new Photographer(driver, screenshotDirectory,
+                                                     Injectors.getInjector().getInstance(ScreenshotProcessor.class),
+                                                     null,
+                                                     environmentVariables);
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        when(driver.getPageSource()).thenReturn("<html>page 1</html>", "<html>page 2</html>");
+
+        ScreenshotAndHtmlSource screenshot1 = photographer.takeScreenshot().get();
+        ScreenshotAndHtmlSource screenshot2 = photographer.takeScreenshot().get();
+        waitUntilScreenshotsProcessed();
+
+        assertThat(screenshot1.getScreenshotFile(), is(screenshot2.getScreenshotFile()));
+        assertThat(FileUtils.readFileToString(screenshot1.getSourcecode().get()), is("<html>page 1</html>"));
+        assertThat(FileUtils.readFileToString(screenshot2.getSourcecode().get()), is("<html>page 2</html>"));
+    }
+
+    @Test
+    public void an_identical_screenshot_should_not_be_given_the_HTML_source_code_of_a_previous_page() throws Exception {
+
+        environmentVariables.setProperty("thucydides.store.html.source","true");
+        Photographer photographer = new Photographer(driver, screenshotDirectory,
+                                                     Injectors.getInjector().getInstance(ScreenshotProcessor.class),
+                                                     null,
+                                                     environmentVariables);
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        when(driver.getPageSource()).thenReturn("<html>page 1</html>").thenThrow(new WebDriverException("page gone"));
 
-        assertThat(htmlSource.isFile(), is(false));
+        photographer.takeScreenshot();
+        ScreenshotAndHtmlSource screenshot = photographer.takeScreenshot().get();
+        waitUntilScreenshotsProcessed();
+
+        assertThat(screenshot.getSourcecode().isPresent(), is(false));
     }
 
     @Test
@@ -221,32 +273,47 @@ public class WhenScreenshotsAreTaken {
     }
 
     @Test
-    public void successive_screenshots_should_have_different_names() throws Exception {
+    public void successive_different_screenshots_should_have_different_names() throws Exception {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
-        
-        String screenshotName1 = photographer.takeScreenshot("screenshot").get().getName();
-        String screenshotName2 = photographer.takeScreenshot("screenshot").get().getName();
+        byte[] anotherScreenshotData = FileUtils.readFileToByteArray(
+                new File(Thread.currentThread().getContextClassLoader().getResource("screenshots/google_page_2.png").getFile()));
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData).thenReturn(anotherScreenshotData);
+
+        String screenshotName1 = photographer.takeScreenshot().get().getScreenshotFile().getName();
+        String screenshotName2 = photographer.takeScreenshot().get().getScreenshotFile().getName();
         waitUntilScreenshotsProcessed();
 
         assertThat(screenshotName1, is(not((screenshotName2))));
     }
 
+    @Test
+    public void identical_screenshots_should_be_stored_only_once() throws Exception {
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+
+        File screenshot1 = photographer.takeScreenshot().get().getScreenshotFile();
+        File screenshot2 = photographer.takeScreenshot().get().getScreenshotFile();
+        waitUntilScreenshotsProcessed();
+
+        assertThat(screenshot1, is(screenshot2));
+        assertThat(screenshotDirectory.list().length, is(1));
+    }
+
     @Test
     public void calling_api_generates_a_filename_safe_hashed_name_for_the_screenshot() throws Exception {
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
 
-        String screenshotFile = photographer.takeScreenshot("test1_finished").get().getName();
+        String screenshotFile = photographer.takeScreenshot().get().getScreenshotFile().getName();
         waitUntilScreenshotsProcessed();
 
-        assertThat(screenshotFile, startsWith("screenshot-ede8d449a"));
+        assertThat(screenshotFile, is("screenshot-" + Digest.ofBytes(screenshotData) + ".png"));
     }
     
     @Test
     public void by_default_screenshot_files_start_with_Screenshot() throws Exception {
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
 
-        String screenshotFile = photographer.takeScreenshot("screenshot").get().getName();
+        String screenshotFile = photographer.takeScreenshot().get().getScreenshotFile().getName();
         waitUntilScreenshotsProcessed();
 
         assertThat(screenshotFile, startsWith("screenshot"));
@@ -258,23 +325,49 @@ public class WhenScreenshotsAreTaken {
     @Test
     public void should_send_screenshots_to_screenshot_processor() {
 
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
         photographer.setScreenshotProcessor(screenshotProcessor);
 
-        photographer.takeScreenshot("screenshot");
+        photographer.takeScreenshot();
 
         verify(screenshotProcessor).queueScreenshot((QueuedScreenshot) anyObject());
     }
 
+    @Mock
+    ScreenChangeDetector screenChangeDetector;
+
+    @Test
+    public void should_reuse_the_previous_screenshot_if_the_screen_has_not_changed() {
+        File previousScreenshot = new File(screenshotDirectory, "previous_screenshot.png");
+        when(screenChangeDetector.previousScreenshotIfUnchanged(driver)).thenReturn(Optional.of(previousScreenshot));
+        photographer.setScreenChangeDetector(screenChangeDetector);
+
+        File screenshot = photographer.takeScreenshot().get().getScreenshotFile();
+
+        verify(driver, never()).getScreenshotAs((OutputType<?>) anyObject());
+        assertThat(screenshot, is(previousScreenshot));
+    }
+
+    @Test
+    public void should_record_new_screenshots_with_the_screen_change_detector() {
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        when(screenChangeDetector.previousScreenshotIfUnchanged(driver)).thenReturn(Optional.<File>absent());
+        photographer.setScreenChangeDetector(screenChangeDetector);
+
+        File screenshot = photographer.takeScreenshot().get().getScreenshotFile();
+
+        verify(screenChangeDetector).recordScreenshot(screenshot);
+    }
+
     @Test
     public void should_blur_screenshots_if_blurScreenshots_option_is_present() throws Exception {
         Photographer photographer = new MockPhotographer(driver, screenshotDirectory, BlurLevel.HEAVY);
         photographer = spy(photographer);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
-        photographer.takeScreenshot("screenshot");
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        photographer.takeScreenshot();
         waitUntilScreenshotsProcessed();
 
-        verify(photographer, times(1)).blur(any(File.class));
+        verify(photographer, times(1)).blur(any(BufferedImage.class));
         verify(driver,times(1)).getScreenshotAs((OutputType<?>) anyObject());
     }
 
@@ -282,11 +375,11 @@ public class WhenScreenshotsAreTaken {
     public void should_not_blur_screenshots_if_blurScreenshots_option_is_absent() throws Exception {
         Photographer photographer = new MockPhotographer(driver, screenshotDirectory, null);
         photographer = spy(photographer);
-        when(driver.getScreenshotAs(OutputType.FILE)).thenReturn(screenshotTaken);
-        photographer.takeScreenshot("screenshot");
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+        photographer.takeScreenshot();
         waitUntilScreenshotsProcessed();
 
-        verify(photographer, times(0)).blur(any(File.class));
+        verify(photographer, times(0)).blur(any(BufferedImage.class));
         verify(driver,times(1)).getScreenshotAs((OutputType<?>) anyObject());
     }
 }
@@ -1,5 +1,6 @@
 package net.thucydides.core.screenshots;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
 import java.io.File;
@@ -62,6 +63,33 @@ public class WhenUsingRecordedScreenshots {
         assertThat(nullScreenshotAndHtmlSource, is(not(screenshotAndHtmlSource)));
     }
 
+    @Test
+    public void content_addressed_screenshots_with_the_same_name_are_identical_without_reading_the_files() {
+        String screenshotName = "screenshot-" + StringUtils.repeat("a", 64) + ".png";
+        ScreenshotAndHtmlSource screenshot = new ScreenshotAndHtmlSource(new File("/no/such/directory", screenshotName));
+        ScreenshotAndHtmlSource sameScreenshot = new ScreenshotAndHtmlSource(new File("/no/such/directory", screenshotName));
+
+        assertThat(screenshot.hasIdenticalScreenshotsAs(sameScreenshot), is(true));
+    }
+
+    @Test
+    public void content_addressed_screenshots_with_different_names_are_different() {
+        ScreenshotAndHtmlSource screenshot
+                = new ScreenshotAndHtmlSource(new File("screenshot-" + StringUtils.repeat("a", 64) + ".png"));
+        ScreenshotAndHtmlSource differentScreenshot
+                = new ScreenshotAndHtmlSource(new File("screenshot-" + StringUtils.repeat("b", 64) + ".png"));
+
+        assertThat(screenshot.hasIdenticalScreenshotsAs(differentScreenshot), is(false));
+    }
+
+    @Test
+    public void screenshots_with_legacy_names_are_compared_by_content() {
+        ScreenshotAndHtmlSource screenshot = new ScreenshotAndHtmlSource(screenshotFileFrom("/screenshots/google_page_1.png"));
+        ScreenshotAndHtmlSource sameScreenshot = new ScreenshotAndHtmlSource(screenshotFileFrom("/screenshots/resized_google_page_1.png"));
+
+        assertThat(screenshot.hasIdenticalScreenshotsAs(sameScreenshot), is(true));
+    }
+
     private File screenshotFileFrom(final String screenshot) {
         URL sourcePath = getClass().getResource(screenshot);
         return new File(sourcePath.getPath());
@@ -0,0 +1,112 @@
+package net.thucydides.core.statistics;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.statistics.dao.TestOutcomeHistoryDAO;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhenOrderingTestsByTheirHistory {
+
+    @Mock
+    TestOutcomeHistoryDAO testOutcomeHistoryDAO;
+
+    HistoricalTestOrder historicalTestOrder;
+
+    ListMultimap<String, TestResult> results;
+
+    Function<String, String> byTitle = Functions.identity();
+
+    @Before
+    public void setupHistory() {
+        MockitoAnnotations.initMocks(this);
+        results = ArrayListMultimap.create();
+        when(testOutcomeHistoryDAO.getResultsForTestsWithTitles(anyCollectionOf(String.class))).thenReturn(results);
+        when(testOutcomeHistoryDAO.getAverageDurationsForTestsWithTitles(anyCollectionOf(String.class)))
+                .thenReturn(Collections.<String, Long>emptyMap());
+        historicalTestOrder = new HistoricalTestOrder(testOutcomeHistoryDAO);
+    }
+
+    private void recordResultsMostRecentFirst(String title, TestResult... testResults) {
+        results.putAll(title, ImmutableList.copyOf(testResults));
+    }
+
+    @Test
+    public void should_run_recently_failing_tests_first_then_flaky_tests_then_new_tests_then_passing_tests() {
+        recordResultsMostRecentFirst("passing", TestResult.SUCCESS, TestResult.SUCCESS);
+        recordResultsMostRecentFirst("flaky", TestResult.SUCCESS, TestResult.FAILURE);
+        recordResultsMostRecentFirst("failing", TestResult.ERROR, TestResult.SUCCESS);
+
+        List<String> orderedTests = historicalTestOrder.inPriorityOrder(ImmutableList.of("passing", "new", "flaky", "failing"),
+                                                                        byTitle);
+
+        assertThat(orderedTests, contains("failing", "flaky", "new", "passing"));
+    }
+
+    @Test
+    public void should_treat_tests_that_only_failed_a_long_time_ago_as_passing() {
+        recordResultsMostRecentFirst("old failure", TestResult.SUCCESS, TestResult.SUCCESS, TestResult.SUCCESS,
+                                     TestResult.SUCCESS, TestResult.SUCCESS, TestResult.SUCCESS, TestResult.SUCCESS,
+                                     TestResult.SUCCESS, TestResult.SUCCESS, TestResult.SUCCESS, TestResult.FAILURE);
+
+        List<String> orderedTests = historicalTestOrder.inPriorityOrder(ImmutableList.of("old failure", "new"), byTitle);
+
+        assertThat(orderedTests, contains("new", "old failure"));
+    }
+
+    @Test
+    public void should_run_longer_tests_first_when_their_history_is_similar() {
+        recordResultsMostRecentFirst("short", TestResult.SUCCESS);
+        recordResultsMostRecentFirst("long", TestResult.SUCCESS);
+        recordResultsMostRecentFirst("medium", TestResult.SUCCESS);
+        when(testOutcomeHistoryDAO.getAverageDurationsForTestsWithTitles(anyCollectionOf(String.class)))
+                .thenReturn(ImmutableMap.of("short", 10L, "long", 5000L, "medium", 200L));
+
+        List<String> orderedTests = historicalTestOrder.inPriorityOrder(ImmutableList.of("short", "long", "medium"), byTitle);
+
+        assertThat(orderedTests, contains("long", "medium", "short"));
+    }
+
+    @Test
+    public void should_keep_the_original_order_of_tests_with_the_same_history() {
+        List<String> orderedTests = historicalTestOrder.inPriorityOrder(ImmutableList.of("b", "c", "a"), byTitle);
+
+        assertThat(orderedTests, contains("b", "c", "a"));
+    }
+
+    @Test
+    public void should_read_the_history_of_each_test_only_once() {
+        historicalTestOrder.inPriorityOrder(ImmutableList.of("a", "b"), byTitle);
+        historicalTestOrder.inPriorityOrder(ImmutableList.of("a", "b"), byTitle);
+
+        verify(testOutcomeHistoryDAO, times(1)).getResultsForTestsWithTitles(anyCollectionOf(String.class));
+        verify(testOutcomeHistoryDAO, times(1)).getAverageDurationsForTestsWithTitles(anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void should_keep_the_original_order_if_the_history_cannot_be_read() {
+        when(testOutcomeHistoryDAO.getResultsForTestsWithTitles(anyCollectionOf(String.class)))
+                .thenThrow(new IllegalStateException("Database unavailable"));
+
+        List<String> orderedTests = historicalTestOrder.inPriorityOrder(ImmutableList.of("b", "c", "a"), byTitle);
+
+        assertThat(orderedTests, contains("b", "c", "a"));
+    }
+}
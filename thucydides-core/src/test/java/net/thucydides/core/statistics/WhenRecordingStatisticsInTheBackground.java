@@ -0,0 +1,127 @@
+package net.thucydides.core.statistics;
+
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.statistics.dao.TestOutcomeHistoryDAO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+public class WhenRecordingStatisticsInTheBackground {
+
+    @Mock
+    TestOutcomeHistoryDAO testOutcomeHistoryDAO;
+
+    private final List<List<TestOutcome>> storedBatches = Collections.synchronizedList(new ArrayList<List<TestOutcome>>());
+    private final List<String> storingThreads = Collections.synchronizedList(new ArrayList<String>());
+    private final CountDownLatch writerStarted = new CountDownLatch(1);
+    private final CountDownLatch databaseAvailable = new CountDownLatch(1);
+
+    class SomeTestScenario {
+        public void some_test() {}
+    }
+
+    @Before
+    public void setupDatabase() {
+        MockitoAnnotations.initMocks(this);
+        doAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                writerStarted.countDown();
+                databaseAvailable.await(10, TimeUnit.SECONDS);
+                storedBatches.add(new ArrayList<TestOutcome>((List<TestOutcome>) invocation.getArguments()[0]));
+                storingThreads.add(Thread.currentThread().getName());
+                return null;
+            }
+        }).when(testOutcomeHistoryDAO).storeTestOutcomes(anyList());
+    }
+
+    @After
+    public void releaseDatabase() {
+        databaseAvailable.countDown();
+    }
+
+    private List<TestOutcome> testOutcomes(int count) {
+        List<TestOutcome> testOutcomes = new ArrayList<TestOutcome>();
+        for (int i = 0; i < count; i++) {
+            testOutcomes.add(TestOutcome.forTest("some_test", SomeTestScenario.class));
+        }
+        return testOutcomes;
+    }
+
+    @Test
+    public void test_outcomes_should_be_stored_on_a_separate_thread() {
+        AsynchronousStatisticsRecorder recorder = new AsynchronousStatisticsRecorder(testOutcomeHistoryDAO, 100);
+        databaseAvailable.countDown();
+
+        recorder.record(testOutcomes(3));
+
+        assertThat(recorder.waitUntilStored(10, TimeUnit.SECONDS), is(true));
+        assertThat(recorder.getStoredOutcomeCount(), is(3L));
+        assertThat(storingThreads.get(0), is(not(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void test_outcomes_queued_while_the_database_is_busy_should_be_stored_together() throws InterruptedException {
+        AsynchronousStatisticsRecorder recorder = new AsynchronousStatisticsRecorder(testOutcomeHistoryDAO, 100);
+
+        recorder.record(testOutcomes(1));
+        writerStarted.await(10, TimeUnit.SECONDS);
+        recorder.record(testOutcomes(2));
+        recorder.record(testOutcomes(3));
+        databaseAvailable.countDown();
+
+        assertThat(recorder.waitUntilStored(10, TimeUnit.SECONDS), is(true));
+        assertThat(storedBatches.size(), is(2));
+        assertThat(storedBatches.get(1).size(), is(5));
+    }
+
+    @Test
+    public void recording_should_wait_for_room_in_the_queue_rather_than_drop_test_outcomes() throws InterruptedException {
+        final AsynchronousStatisticsRecorder recorder = new AsynchronousStatisticsRecorder(testOutcomeHistoryDAO, 2);
+
+        recorder.record(testOutcomes(1));
+        writerStarted.await(10, TimeUnit.SECONDS);
+        Thread testSuite = new Thread() {
+            @Override
+            public void run() {
+                recorder.record(testOutcomes(3));
+            }
+        };
+        testSuite.start();
+        testSuite.join(200);
+
+        assertThat(testSuite.isAlive(), is(true));
+        assertThat(recorder.getQueueDepth(), is(2));
+
+        databaseAvailable.countDown();
+        testSuite.join(10000);
+        assertThat(recorder.waitUntilStored(10, TimeUnit.SECONDS), is(true));
+        assertThat(recorder.getStoredOutcomeCount(), is(4L));
+    }
+
+    @Test
+    public void should_report_when_test_outcomes_could_not_be_stored_in_time() throws InterruptedException {
+        AsynchronousStatisticsRecorder recorder = new AsynchronousStatisticsRecorder(testOutcomeHistoryDAO, 100);
+
+        recorder.record(testOutcomes(1));
+        writerStarted.await(10, TimeUnit.SECONDS);
+
+        assertThat(recorder.waitUntilStored(50, TimeUnit.MILLISECONDS), is(false));
+    }
+}
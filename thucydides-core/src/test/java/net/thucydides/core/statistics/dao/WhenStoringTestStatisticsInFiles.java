@@ -0,0 +1,334 @@
+package net.thucydides.core.statistics.dao;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Table;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import net.thucydides.core.annotations.WithTag;
+import net.thucydides.core.guice.DatabaseConfig;
+import net.thucydides.core.guice.EnvironmentVariablesDatabaseConfig;
+import net.thucydides.core.guice.ThucydidesModule;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.pages.InternalSystemClock;
+import net.thucydides.core.pages.SystemClock;
+import net.thucydides.core.statistics.model.TestRun;
+import net.thucydides.core.statistics.model.TestRunTag;
+import net.thucydides.core.statistics.service.ClasspathTagProviderService;
+import net.thucydides.core.statistics.service.TagProviderService;
+import net.thucydides.core.util.EnvironmentVariables;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import net.thucydides.core.webdriver.Configuration;
+import net.thucydides.core.webdriver.SystemPropertiesConfiguration;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static ch.lambdaj.Lambda.extract;
+import static ch.lambdaj.Lambda.on;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+public class WhenStoringTestStatisticsInFiles {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    SystemClock clock;
+
+    MockEnvironmentVariables environmentVariables;
+    TagProviderService tagProviderService;
+    FileTestOutcomeHistoryDAO dao;
+
+    static final DateTime JANUARY_1ST_2012 = new DateTime(2012, 1, 1, 10, 0);
+    static final DateTime JANUARY_2ND_2012 = new DateTime(2012, 1, 2, 10, 0);
+    static final DateTime FEBRUARY_1ST_2012 = new DateTime(2012, 2, 1, 10, 0);
+
+    @WithTag(name = "Online sales", type = "feature")
+    class OnlineSalesTestCaseSample {
+        @WithTag(name = "Boat sales", type = "story")
+        public void boat_sales_test() {
+        }
+
+        @WithTag(name = "boat sales", type = "story")
+        public void more_boat_sales_test() {
+        }
+
+        @WithTag(name = "Car sales", type = "story")
+        public void car_sales_test() {
+        }
+    }
+
+    @Before
+    public void setupDao() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        environmentVariables = new MockEnvironmentVariables();
+        environmentVariables.setProperty("thucydides.home", temporaryFolder.newFolder("thucydides").getAbsolutePath());
+        environmentVariables.setProperty("thucydides.project.key", "sales");
+        tagProviderService = new ClasspathTagProviderService();
+        dao = new FileTestOutcomeHistoryDAO(environmentVariables, tagProviderService, clock);
+    }
+
+    private void recordTestsAt(DateTime time, TestOutcome... testOutcomes) {
+        when(clock.getCurrentTime()).thenReturn(time);
+        dao.storeTestOutcomes(ImmutableList.copyOf(testOutcomes));
+    }
+
+    private TestOutcome passingTestFor(String methodName) {
+        TestOutcome testOutcome = TestOutcome.forTest(methodName, OnlineSalesTestCaseSample.class);
+        testOutcome.setAnnotatedResult(TestResult.SUCCESS);
+        testOutcome.setDuration(100);
+        return testOutcome;
+    }
+
+    private TestOutcome failingTestFor(String methodName) {
+        TestOutcome testOutcome = TestOutcome.forTest(methodName, OnlineSalesTestCaseSample.class);
+        testOutcome.setTestFailureCause(new AssertionError("A nasty bug"));
+        return testOutcome;
+    }
+
+    @Test
+    public void should_store_test_runs_with_their_execution_date_duration_and_tags() {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+
+        List<TestRun> testRuns = dao.findTestRunsByTitle("Boat sales test");
+
+        assertThat(testRuns.size(), is(1));
+        TestRun testRun = testRuns.get(0);
+        assertThat(testRun.getResult(), is(TestResult.SUCCESS));
+        assertThat(testRun.getDuration(), is(100L));
+        assertThat(testRun.getExecutionDate(), is(JANUARY_1ST_2012.toDate()));
+        assertThat(testRun.getProjectKey(), is("sales"));
+        List<String> tagNames = extract(testRun.getTags(), on(TestRunTag.class).getName());
+        assertThat(tagNames, containsInAnyOrder("Online sales", "Boat sales", "Online sales test case sample"));
+    }
+
+    @Test
+    public void should_list_all_the_test_runs_oldest_first() {
+        recordTestsAt(FEBRUARY_1ST_2012, passingTestFor("car_sales_test"));
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+
+        List<String> titles = extract(dao.findAll(), on(TestRun.class).getTitle());
+
+        assertThat(titles, contains("Boat sales test", "Car sales test"));
+    }
+
+    @Test
+    public void should_count_test_runs_by_title_tag_and_result() {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"), failingTestFor("car_sales_test"));
+        recordTestsAt(JANUARY_2ND_2012, failingTestFor("boat_sales_test"), passingTestFor("more_boat_sales_test"));
+
+        assertThat(dao.countTestRunsByTitle("Boat sales test"), is(2L));
+        assertThat(dao.countTestRunsByTitleAndResult("Boat sales test", TestResult.FAILURE), is(1L));
+        assertThat(dao.countTestRunsByTitle("Unknown test"), is(0L));
+        assertThat(dao.countTestRunsByTag("BOAT SALES"), is(3L));
+        assertThat(dao.countTestRunsByTagAndResult("Boat sales", TestResult.SUCCESS), is(2L));
+        assertThat(dao.countTestRunsByTagType("feature"), is(4L));
+        assertThat(dao.countTestRunsByTagTypeAndResult("feature", TestResult.FAILURE), is(2L));
+    }
+
+    @Test
+    public void should_only_store_each_tag_once_regardless_of_case() {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"), passingTestFor("more_boat_sales_test"));
+        recordTestsAt(JANUARY_2ND_2012, passingTestFor("car_sales_test"));
+
+        List<String> tagNames = extract(dao.findAllTags(), on(TestRunTag.class).getName());
+
+        assertThat(tagNames, contains("Boat sales", "Car sales", "Online sales", "Online sales test case sample"));
+        assertThat(dao.findAllTagTypes(), contains("feature", "story"));
+        assertThat(dao.findTagsMatching(new TestRunTag("sales", "story", "BOAT SALES")).size(), is(1));
+    }
+
+    @Test
+    public void should_find_the_results_of_a_test_most_recent_first() {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+        recordTestsAt(FEBRUARY_1ST_2012, failingTestFor("boat_sales_test"));
+        recordTestsAt(JANUARY_2ND_2012, passingTestFor("boat_sales_test"));
+
+        List<TestResult> results = dao.getResultsTestWithTitle("Boat sales test");
+
+        assertThat(results, contains(TestResult.FAILURE, TestResult.SUCCESS, TestResult.SUCCESS));
+        assertThat(dao.getResultsForTestsWithTitles(ImmutableList.of("Boat sales test")).get("Boat sales test"),
+                   contains(TestResult.FAILURE, TestResult.SUCCESS, TestResult.SUCCESS));
+    }
+
+    @Test
+    public void should_find_the_tags_of_the_most_recent_run_of_a_test() {
+        recordTestsAt(JANUARY_2ND_2012, passingTestFor("car_sales_test"));
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+
+        List<String> tagNames = extract(dao.getLatestTagsForTestsWithTagType("story"), on(TestRunTag.class).getName());
+
+        assertThat(tagNames, containsInAnyOrder("Online sales", "Car sales", "Online sales test case sample"));
+    }
+
+    @Test
+    public void should_count_test_runs_for_several_tests_at_once() {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"), failingTestFor("car_sales_test"));
+        recordTestsAt(JANUARY_2ND_2012, passingTestFor("boat_sales_test"));
+
+        Table<String, TestResult, Long> resultCounts
+                = dao.countTestRunsByTitleAndResult(ImmutableList.of("Boat sales test", "Car sales test", "Unknown test"));
+
+        assertThat(resultCounts.get("Boat sales test", TestResult.SUCCESS), is(2L));
+        assertThat(resultCounts.get("Car sales test", TestResult.FAILURE), is(1L));
+        assertThat(resultCounts.row("Unknown test").isEmpty(), is(true));
+    }
+
+    @Test
+    public void should_find_the_average_duration_of_several_tests_at_once() {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"), passingTestFor("car_sales_test"));
+        recordTestsAt(JANUARY_2ND_2012, failingTestFor("boat_sales_test"));
+
+        Map<String, Long> averageDurations
+                = dao.getAverageDurationsForTestsWithTitles(ImmutableList.of("Boat sales test", "Car sales test", "Unknown test"));
+
+        assertThat(averageDurations.get("Boat sales test"), is(50L));
+        assertThat(averageDurations.get("Car sales test"), is(100L));
+        assertThat(averageDurations.containsKey("Unknown test"), is(false));
+    }
+
+    @Test
+    public void should_count_the_runs_of_a_test_on_each_day() {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+        recordTestsAt(JANUARY_1ST_2012, failingTestFor("boat_sales_test"));
+        recordTestsAt(JANUARY_2ND_2012, passingTestFor("boat_sales_test"));
+
+        Table<LocalDate, TestResult, Long> dailyResultCounts = dao.countTestRunsByDayAndResult("Boat sales test");
+
+        assertThat(dailyResultCounts.rowKeySet(), contains(new LocalDate(2012, 1, 1), new LocalDate(2012, 1, 2)));
+        assertThat(dailyResultCounts.get(new LocalDate(2012, 1, 1), TestResult.SUCCESS), is(1L));
+        assertThat(dailyResultCounts.get(new LocalDate(2012, 1, 1), TestResult.FAILURE), is(1L));
+        assertThat(dailyResultCounts.get(new LocalDate(2012, 1, 2), TestResult.SUCCESS), is(1L));
+    }
+
+    @Test
+    public void should_partition_test_runs_by_month() {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+        recordTestsAt(FEBRUARY_1ST_2012, passingTestFor("boat_sales_test"));
+
+        assertThat(filesStartingWith("runs-"), containsInAnyOrder("runs-2012-01.dat", "runs-2012-02.dat"));
+    }
+
+    @Test
+    public void should_combine_the_rollups_of_repeated_runs_on_the_same_day() {
+        for (int i = 0; i < 5; i++) {
+            recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+        }
+
+        File rollupFile = new File(dao.getStatisticsDirectory(), filesStartingWith("rollups-").get(0));
+
+        assertThat(filesStartingWith("rollups-").size(), is(1));
+        assertThat(rollupFile.length() < 5 * 3 * 14, is(true));
+        assertThat(dao.countTestRunsByTitle("Boat sales test"), is(5L));
+        assertThat(dao.countTestRunsByTag("Online sales"), is(5L));
+    }
+
+    @Test
+    public void should_ignore_compacted_rollups_left_unfinished_by_an_interrupted_build() throws IOException {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+        appendBytesTo(new File(dao.getStatisticsDirectory(), "rollups-compacting.tmp"), 7);
+
+        for (int i = 0; i < 4; i++) {
+            recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+        }
+
+        assertThat(filesStartingWith("rollups-").size(), is(1));
+        assertThat(dao.countTestRunsByTitle("Boat sales test"), is(5L));
+    }
+
+    @Test
+    public void should_see_test_runs_stored_by_other_builds() {
+        FileTestOutcomeHistoryDAO anotherBuild = new FileTestOutcomeHistoryDAO(environmentVariables, tagProviderService, clock);
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+        assertThat(anotherBuild.findTestRunsByTitle("Boat sales test").size(), is(1));
+
+        recordTestsAt(JANUARY_2ND_2012, passingTestFor("boat_sales_test"), passingTestFor("car_sales_test"));
+
+        assertThat(anotherBuild.findTestRunsByTitle("Boat sales test").size(), is(2));
+        assertThat(anotherBuild.countTestRunsByTitle("Car sales test"), is(1L));
+    }
+
+    @Test
+    public void should_ignore_an_incomplete_test_run_left_by_an_interrupted_build() throws IOException {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+        appendBytesTo(new File(dao.getStatisticsDirectory(), "runs-2012-01.dat"), 3);
+
+        FileTestOutcomeHistoryDAO anotherBuild = new FileTestOutcomeHistoryDAO(environmentVariables, tagProviderService, clock);
+        assertThat(anotherBuild.findTestRunsByTitle("Boat sales test").size(), is(1));
+
+        recordTestsAt(JANUARY_2ND_2012, passingTestFor("boat_sales_test"));
+        assertThat(anotherBuild.findTestRunsByTitle("Boat sales test").size(), is(2));
+    }
+
+    @Test
+    public void should_delete_all_the_stored_test_runs() {
+        recordTestsAt(JANUARY_1ST_2012, passingTestFor("boat_sales_test"));
+
+        dao.deleteAll();
+
+        assertThat(dao.findAll().size(), is(0));
+        assertThat(dao.countTestRunsByTitle("Boat sales test"), is(0L));
+        assertThat(dao.findAllTags().size(), is(0));
+    }
+
+    @Test
+    public void should_use_the_file_store_when_configured() {
+        ThucydidesModule module = new ThucydidesModule() {
+            @Override
+            protected void configure() {
+                bind(TestOutcomeHistoryDAO.class).toProvider(TestOutcomeHistoryDAOProvider.class).in(Singleton.class);
+                bind(SystemClock.class).to(InternalSystemClock.class).in(Singleton.class);
+                bind(DatabaseConfig.class).to(EnvironmentVariablesDatabaseConfig.class).in(Singleton.class);
+                bind(TagProviderService.class).to(ClasspathTagProviderService.class).in(Singleton.class);
+                bind(Configuration.class).to(SystemPropertiesConfiguration.class).in(Singleton.class);
+            }
+
+            @Override
+            protected EnvironmentVariables createEnvironmentVariables() {
+                return environmentVariables;
+            }
+        };
+        environmentVariables.setProperty("thucydides.statistics.store", "files");
+
+        Injector injector = Guice.createInjector(module);
+
+        assertThat(injector.getInstance(TestOutcomeHistoryDAO.class), instanceOf(FileTestOutcomeHistoryDAO.class));
+    }
+
+    private List<String> filesStartingWith(final String prefix) {
+        String[] files = dao.getStatisticsDirectory().list(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix);
+            }
+        });
+        return ImmutableList.copyOf(files);
+    }
+
+    private void appendBytesTo(File file, int byteCount) throws IOException {
+        FileOutputStream output = new FileOutputStream(file, true);
+        try {
+            output.write(new byte[byteCount]);
+        } finally {
+            output.close();
+        }
+    }
+}
@@ -25,9 +25,17 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 
@@ -88,6 +96,30 @@ public class WhenUsingTheTestStatisticsDatabase {
         assertThat(((HibernateTestOutcomeHistoryDAO)dao).entityManagerFactory, is(notNullValue()));
     }
 
+    @Test
+    public void should_index_the_test_runs_by_project_title_and_execution_date() throws SQLException {
+        environmentVariables.setProperty("thucydides.statistics.url", "jdbc:hsqldb:mem:indexedDatabase");
+        HibernateTestOutcomeHistoryDAO dao = injector.getInstance(HibernateTestOutcomeHistoryDAO.class);
+        dao.findAll();
+
+        Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:indexedDatabase", "sa", "");
+        try {
+            assertThat(indexesOn("TESTRUN", connection), hasItems("TESTRUN_PROJECT_TITLE", "TESTRUN_PROJECT_DATE"));
+            assertThat(indexesOn("TESTRUNTAG", connection), hasItem("TESTRUNTAG_PROJECT_TYPE"));
+        } finally {
+            connection.close();
+        }
+    }
+
+    private List<String> indexesOn(String table, Connection connection) throws SQLException {
+        List<String> indexNames = new ArrayList<String>();
+        ResultSet indexes = connection.getMetaData().getIndexInfo(null, null, table, false, false);
+        while (indexes.next()) {
+            indexNames.add(indexes.getString("INDEX_NAME"));
+        }
+        return indexNames;
+    }
+
     @Test
     public void the_current_working_directory_is_used_as_the_default_project_key() {
         String workingDirPath = System.getProperty("user.dir");
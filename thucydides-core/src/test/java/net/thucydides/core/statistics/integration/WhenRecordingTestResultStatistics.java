@@ -37,8 +37,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import static ch.lambdaj.Lambda.extract;
+import static ch.lambdaj.Lambda.on;
 import static net.thucydides.core.matchers.dates.DateMatchers.isSameAs;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -109,6 +113,7 @@ public class WhenRecordingTestResultStatistics {
         environmentVariables = injector.getInstance(EnvironmentVariables.class);
         environmentVariables.setProperty("thucydides.statistics.url", "jdbc:hsqldb:mem:testDatabase");
         environmentVariables.setProperty("thucydides.record.statistics", "true");
+        environmentVariables.setProperty("thucydides.statistics.record.in.background", "false");
 
         testOutcomeHistoryDAO = injector.getInstance(HibernateTestOutcomeHistoryDAO.class);
         statisticsListener = new StatisticsListener(testOutcomeHistoryDAO, environmentVariables, databaseConfig);
@@ -167,6 +172,32 @@ public class WhenRecordingTestResultStatistics {
         assertThat(storedTestRuns.size(), is(1));
     }
 
+    @Test
+    public void statistics_recorded_in_the_background_are_stored_by_the_end_of_the_test_suite() {
+
+        ThucydidesModuleWithMockEnvironmentVariables guiceModule = new ThucydidesModuleWithMockEnvironmentVariables();
+        Injector injector = Guice.createInjector(guiceModule);
+        EnvironmentVariables environmentVariables = injector.getInstance(EnvironmentVariables.class);
+        environmentVariables.setProperty("thucydides.statistics.url", "jdbc:hsqldb:mem:backgroundTestDatabase");
+        environmentVariables.setProperty("thucydides.statistics.record.in.background", "true");
+
+        TestOutcomeHistoryDAO testOutcomeHistoryDAO = injector.getInstance(HibernateTestOutcomeHistoryDAO.class);
+        StatisticsListener statisticsListener = new StatisticsListener(testOutcomeHistoryDAO, environmentVariables, databaseConfig);
+        HibernateTestStatisticsProvider testStatisticsProvider = new HibernateTestStatisticsProvider(testOutcomeHistoryDAO);
+
+        prepareTestData(statisticsListener);
+
+        prepareDAOWithFixedClock();
+
+        when(testOutcome.getResult()).thenReturn(TestResult.SUCCESS);
+
+        statisticsListener.testFinished(testOutcome);
+        statisticsListener.testSuiteFinished();
+
+        List<TestRun> storedTestRuns = testStatisticsProvider.testRunsForTest(With.title(testOutcome.getTitle()));
+        assertThat(storedTestRuns.size(), is(1));
+    }
+
     @Test
     public void statistics_can_be_deactivated_via_a_system_property() {
 
@@ -249,6 +280,38 @@ public class WhenRecordingTestResultStatistics {
         assertThat(testStatistics.getPassRate().overTheLast(4).testRuns(), is(1.0));
     }
 
+    @Test
+    public void should_be_able_to_find_the_statistics_for_several_tests_at_once() {
+
+        Map<String, TestStatistics> statistics
+                = testStatisticsProvider.statisticsForTestsWithTitles(Arrays.asList("Boat sales test",
+                                                                                    "Car sales test",
+                                                                                    "Does not exist"));
+
+        for (String title : Arrays.asList("Boat sales test", "Car sales test")) {
+            TestStatistics expectedStatistics = testStatisticsProvider.statisticsForTests(With.title(title));
+            assertThat(statistics.get(title).getTotalTestRuns(), is(expectedStatistics.getTotalTestRuns()));
+            assertThat(statistics.get(title).getPassingTestRuns(), is(expectedStatistics.getPassingTestRuns()));
+            assertThat(statistics.get(title).getFailingTestRuns(), is(expectedStatistics.getFailingTestRuns()));
+            assertThat(statistics.get(title).getPassRate().overTheLast(4).testRuns(),
+                       is(expectedStatistics.getPassRate().overTheLast(4).testRuns()));
+            assertThat(statistics.get(title).getTags().size(), is(expectedStatistics.getTags().size()));
+        }
+        assertThat(statistics.get("Does not exist").getTotalTestRuns(), is(0L));
+        assertThat(statistics.get("Does not exist").getTags().isEmpty(), is(true));
+    }
+
+    @Test
+    public void should_be_able_to_find_the_average_durations_of_several_tests_at_once() {
+
+        Map<String, Long> averageDurations
+                = testOutcomeHistoryDAO.getAverageDurationsForTestsWithTitles(Arrays.asList("Boat sales test",
+                                                                                            "Does not exist"));
+
+        assertThat(averageDurations.get("Boat sales test"), is(0L));
+        assertThat(averageDurations.containsKey("Does not exist"), is(false));
+    }
+
     @Test
     public void should_not_fail_if_no_matching_test_runs_exist() {
 
@@ -375,6 +438,83 @@ public class WhenRecordingTestResultStatistics {
     }
 
 
+    @WithTag(name = "Bulk sales", type = "feature")
+    class BulkSalesTestCaseSample {
+        @WithTag(name = "Truck sales", type = "story")
+        public void truck_sales_test() {
+        }
+
+        @WithTag(name = "truck sales", type = "story")
+        public void more_truck_sales_test() {
+        }
+    }
+
+    @Test
+    public void should_store_test_outcomes_in_batches_without_duplicating_tags() {
+
+        ThucydidesModuleWithMockEnvironmentVariables guiceModule = new ThucydidesModuleWithMockEnvironmentVariables();
+        Injector injector = Guice.createInjector(guiceModule);
+        EnvironmentVariables environmentVariables = injector.getInstance(EnvironmentVariables.class);
+        environmentVariables.setProperty("thucydides.statistics.url", "jdbc:hsqldb:mem:batchTestDatabase");
+        environmentVariables.setProperty("thucydides.statistics.batch.size", "2");
+        when(clock.getCurrentTime()).thenReturn(JANUARY_1ST_2012);
+
+        HibernateTestOutcomeHistoryDAO testOutcomeHistoryDAO
+                = new HibernateTestOutcomeHistoryDAO(injector.getInstance(EntityManagerFactory.class),
+                                                     environmentVariables,
+                                                     tagProviderService,
+                                                     clock);
+        StatisticsListener statisticsListener = new StatisticsListener(testOutcomeHistoryDAO, environmentVariables, databaseConfig);
+        HibernateTestStatisticsProvider testStatisticsProvider = new HibernateTestStatisticsProvider(testOutcomeHistoryDAO);
+
+        for (int i = 0; i < 5; i++) {
+            statisticsListener.testFinished(TestOutcome.forTest("truck_sales_test", BulkSalesTestCaseSample.class));
+            statisticsListener.testFinished(TestOutcome.forTest("more_truck_sales_test", BulkSalesTestCaseSample.class));
+        }
+        statisticsListener.testSuiteFinished();
+
+        assertThat(testStatisticsProvider.testRunsForTest(With.title("Truck sales test")).size(), is(5));
+        assertThat(testStatisticsProvider.testRunsForTest(With.title("More truck sales test")).size(), is(5));
+        assertThat(testStatisticsProvider.statisticsForTests(With.tag("Truck sales")).getTotalTestRuns(), is(10L));
+        assertThat(testStatisticsProvider.findAllTags().size(), is(3));
+        assertThat(testOutcomeHistoryDAO.getStoredTestOutcomeCount(), is(10L));
+    }
+
+    @WithTag(name = "Fleet sales", type = "feature")
+    class FleetSalesTestCaseSample {
+        @WithTag(name = "Van sales", type = "story")
+        public void truck_sales_test() {
+        }
+    }
+
+    @Test
+    public void should_retrieve_the_tags_of_the_most_recent_run_of_a_test() {
+
+        ThucydidesModuleWithMockEnvironmentVariables guiceModule = new ThucydidesModuleWithMockEnvironmentVariables();
+        Injector injector = Guice.createInjector(guiceModule);
+        EnvironmentVariables environmentVariables = injector.getInstance(EnvironmentVariables.class);
+        environmentVariables.setProperty("thucydides.statistics.url", "jdbc:hsqldb:mem:latestRunTestDatabase");
+        environmentVariables.setProperty("thucydides.statistics.record.in.background", "false");
+
+        HibernateTestOutcomeHistoryDAO testOutcomeHistoryDAO
+                = new HibernateTestOutcomeHistoryDAO(injector.getInstance(EntityManagerFactory.class),
+                                                     environmentVariables,
+                                                     tagProviderService,
+                                                     clock);
+        HibernateTestStatisticsProvider testStatisticsProvider = new HibernateTestStatisticsProvider(testOutcomeHistoryDAO);
+
+        when(clock.getCurrentTime()).thenReturn(JANUARY_1ST_2012);
+        testOutcomeHistoryDAO.storeTestOutcome(TestOutcome.forTest("truck_sales_test", BulkSalesTestCaseSample.class));
+        when(clock.getCurrentTime()).thenReturn(JANUARY_2ND_2012);
+        testOutcomeHistoryDAO.storeTestOutcome(TestOutcome.forTest("truck_sales_test", FleetSalesTestCaseSample.class));
+
+        TestStatistics testStatistics = testStatisticsProvider.statisticsForTests(With.title("Truck sales test"));
+
+        assertThat(testStatistics.getTotalTestRuns(), is(2L));
+        assertThat(extract(testStatistics.getTags(), on(TestRunTag.class).getName()), hasItem("Van sales"));
+        assertThat(extract(testStatistics.getTags(), on(TestRunTag.class).getName()), not(hasItem("Truck sales")));
+    }
+
     /*
         - should retrieve test statistics for a given tag
         - should find aggregate data for tests for a given tag
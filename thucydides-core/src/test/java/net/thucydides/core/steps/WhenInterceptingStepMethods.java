@@ -0,0 +1,73 @@
+package net.thucydides.core.steps;
+
+import net.thucydides.core.steps.StepInterceptor.InterceptedMethod;
+import net.thucydides.core.steps.samples.SimpleScenarioSteps;
+import net.thucydides.core.steps.samples.StepsDerivedFromADifferentDomain;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class WhenInterceptingStepMethods {
+
+    private InterceptedMethod interceptedMethodFor(Class<?> stepClass, String methodName) throws NoSuchMethodException {
+        return interceptedMethodFor(new StepInterceptor(stepClass), stepClass, methodName);
+    }
+
+    private InterceptedMethod interceptedMethodFor(StepInterceptor interceptor,
+                                                   Class<?> stepClass,
+                                                   String methodName) throws NoSuchMethodException {
+        Method method = stepClass.getMethod(methodName);
+        return interceptor.interceptedMethodFor(method, stepClass);
+    }
+
+    @Test
+    public void should_recognize_step_methods() throws Exception {
+        InterceptedMethod step = interceptedMethodFor(SimpleScenarioSteps.class, "clickOnProjects");
+
+        assertThat(step.isATestStep, is(true));
+        assertThat(step.isPending, is(false));
+        assertThat(step.isIgnored, is(false));
+        assertThat(step.isABaseClassMethod, is(false));
+    }
+
+    @Test
+    public void should_recognize_pending_step_methods() throws Exception {
+        InterceptedMethod step = interceptedMethodFor(SimpleScenarioSteps.class, "notImplementedYet");
+
+        assertThat(step.isATestStep, is(true));
+        assertThat(step.isPending, is(true));
+    }
+
+    @Test
+    public void should_run_core_language_methods_as_base_class_methods() throws Exception {
+        InterceptedMethod toString = interceptedMethodFor(SimpleScenarioSteps.class, "toString");
+
+        assertThat(toString.isABaseClassMethod, is(true));
+        assertThat(toString.isATestStep, is(false));
+    }
+
+    @Test
+    public void should_run_methods_from_a_different_domain_as_base_class_methods() throws Exception {
+        InterceptedMethod methodFromAnotherDomain = interceptedMethodFor(StepsDerivedFromADifferentDomain.class, "returnFoo");
+        InterceptedMethod methodFromThisDomain = interceptedMethodFor(StepsDerivedFromADifferentDomain.class, "step_one");
+
+        assertThat(methodFromAnotherDomain.isDeclaredInSameDomain, is(false));
+        assertThat(methodFromAnotherDomain.isABaseClassMethod, is(true));
+        assertThat(methodFromThisDomain.isDeclaredInSameDomain, is(true));
+    }
+
+    @Test
+    public void should_only_inspect_each_method_once_for_a_given_step_library() throws Exception {
+        StepInterceptor interceptor = new StepInterceptor(SimpleScenarioSteps.class);
+        InterceptedMethod step = interceptedMethodFor(interceptor, SimpleScenarioSteps.class, "clickOnCategories");
+
+        assertThat(interceptedMethodFor(interceptor, SimpleScenarioSteps.class, "clickOnCategories"), is(sameInstance(step)));
+        assertThat(interceptedMethodFor(StepsDerivedFromADifferentDomain.class, "toString"),
+                   is(not(sameInstance(interceptedMethodFor(SimpleScenarioSteps.class, "toString")))));
+    }
+}
@@ -1,5 +1,7 @@
 package net.thucydides.core.steps;
 
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
 import net.thucydides.core.annotations.Step;
 import net.thucydides.core.annotations.Steps;
 import net.thucydides.core.annotations.Story;
@@ -11,11 +13,18 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -250,4 +259,65 @@ public class WhenRunningNonWebStepsThroughAScenarioProxy {
 
     }
 
+    @Test
+    public void each_step_library_should_use_its_own_interceptor() throws Throwable {
+        MethodInterceptor interceptor = mock(MethodInterceptor.class);
+        MethodInterceptor otherInterceptor = mock(MethodInterceptor.class);
+        SimpleSteps steps = new StepFactory().instantiateNewStepLibraryFor(SimpleSteps.class, interceptor);
+        SimpleSteps otherSteps = new StepFactory().instantiateNewStepLibraryFor(SimpleSteps.class, otherInterceptor);
+
+        steps.step1();
+        otherSteps.step2();
+        otherSteps.step3();
+
+        verify(interceptor, times(1)).intercept(any(), any(Method.class), any(Object[].class), any(MethodProxy.class));
+        verify(otherInterceptor, times(2)).intercept(any(), any(Method.class), any(Object[].class), any(MethodProxy.class));
+    }
+
+    @Test
+    public void step_libraries_should_be_instantiated_from_a_proxy_class_generated_once_per_step_library_class() {
+        SimpleSteps steps = factory.getUniqueStepLibraryFor(SimpleSteps.class);
+        SimpleSteps otherSteps = new StepFactory().getUniqueStepLibraryFor(SimpleSteps.class);
+
+        StepLibraryProxyClass proxyClass = StepLibraryProxyClass.forStepLibrary(SimpleSteps.class);
+        assertThat(StepLibraryProxyClass.forStepLibrary(SimpleSteps.class), is(sameInstance(proxyClass)));
+        assertThat(steps.getClass() == proxyClass.getProxyClass(), is(true));
+        assertThat(otherSteps.getClass() == proxyClass.getProxyClass(), is(true));
+    }
+
+    @Test
+    public void step_libraries_instantiated_concurrently_should_each_use_their_own_interceptor() throws Throwable {
+        final int stepLibraryCount = 20;
+        final MethodInterceptor[] interceptors = new MethodInterceptor[stepLibraryCount];
+        final SimpleSteps[] stepLibraries = new SimpleSteps[stepLibraryCount];
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < stepLibraryCount; i++) {
+            final int stepLibrary = i;
+            interceptors[stepLibrary] = mock(MethodInterceptor.class);
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        startSignal.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    stepLibraries[stepLibrary] = new StepFactory().instantiateNewStepLibraryFor(SimpleSteps.class,
+                                                                                                 interceptors[stepLibrary]);
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+
+        for (int i = 0; i < stepLibraryCount; i++) {
+            stepLibraries[i].step1();
+            verify(interceptors[i], times(1)).intercept(any(), any(Method.class), any(Object[].class), any(MethodProxy.class));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package net.thucydides.core.webdriver;
 import com.google.common.collect.ImmutableList;
 import net.thucydides.core.steps.StepEventBus;
 import net.thucydides.core.steps.StepFailure;
+import net.thucydides.core.webdriver.smart.SmartAjaxElementLocator;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -75,4 +76,39 @@ public class WhenLocatingWebElements {
         locator.findElement();
     }
 
+    @Test(timeout = 500)
+    public void should_find_element_immediately_when_only_the_current_state_of_the_element_is_needed() {
+
+        DisplayedElementLocator locator = new DisplayedElementLocator(driver, field, 5);
+        ImmediateElementLookup.start();
+        try {
+            locator.findElement();
+        } finally {
+            ImmediateElementLookup.finish();
+        }
+    }
+
+    @Test(timeout = 500)
+    public void smart_locators_should_find_element_immediately_when_only_the_current_state_of_the_element_is_needed() {
+
+        SmartAjaxElementLocator locator = new SmartAjaxElementLocator(driver, field, 5);
+        ImmediateElementLookup.start();
+        try {
+            locator.findElement();
+        } finally {
+            ImmediateElementLookup.finish();
+        }
+    }
+
+    @Test
+    public void should_wait_for_elements_again_once_the_immediate_lookup_is_finished() {
+
+        expectedException.expect(NoSuchElementException.class);
+        expectedException.expectMessage(containsString("Timed out after 1 second"));
+
+        SmartAjaxElementLocator locator = new SmartAjaxElementLocator(driver, field, 1);
+        ImmediateElementLookup.start();
+        ImmediateElementLookup.finish();
+        locator.findElement();
+    }
 }
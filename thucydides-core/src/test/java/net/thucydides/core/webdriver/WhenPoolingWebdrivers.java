@@ -0,0 +1,290 @@
+package net.thucydides.core.webdriver;
+
+import com.google.common.collect.ImmutableSet;
+import net.thucydides.core.pages.SystemClock;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class WhenPoolingWebdrivers {
+
+    static final DateTime NOW = new DateTime(2012, 1, 1, 10, 0);
+
+    @Mock
+    SystemClock clock;
+
+    MockEnvironmentVariables environmentVariables;
+
+    WebdriverPool pool;
+
+    @Before
+    public void setupPool() {
+        MockitoAnnotations.initMocks(this);
+        when(clock.getCurrentTime()).thenReturn(NOW);
+        environmentVariables = new MockEnvironmentVariables();
+        pool = new WebdriverPool(environmentVariables, clock);
+    }
+
+    @After
+    public void closeDrivers() {
+        pool.shutdown();
+    }
+
+    private WebDriver aDriver() {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class)
+                                                               .defaultAnswer(RETURNS_DEEP_STUBS));
+        when(driver.getWindowHandles()).thenReturn(ImmutableSet.of("main"));
+        return driver;
+    }
+
+    @Test
+    public void should_reuse_a_driver_of_the_same_type() {
+        WebDriver driver = aDriver();
+
+        pool.checkIn("firefox", driver);
+
+        assertThat(pool.checkOut("firefox"), is(sameInstance(driver)));
+        assertThat(pool.checkOut("firefox"), is(nullValue()));
+    }
+
+    @Test
+    public void should_not_reuse_a_driver_of_a_different_type() {
+        pool.checkIn("firefox", aDriver());
+
+        assertThat(pool.checkOut("chrome"), is(nullValue()));
+    }
+
+    @Test
+    public void should_clear_cookies_storage_and_extra_windows_before_a_driver_is_reused() {
+        WebDriver driver = aDriver();
+        when(driver.getWindowHandles()).thenReturn(ImmutableSet.of("main", "popup"));
+
+        pool.checkIn("firefox", driver);
+
+        verify(driver.switchTo()).window("popup");
+        verify(driver).close();
+        verify(driver.manage()).deleteAllCookies();
+        verify((JavascriptExecutor) driver).executeScript(anyString());
+        verify(driver).get("about:blank");
+    }
+
+    @Test
+    public void should_not_reuse_a_driver_that_no_longer_responds() {
+        WebDriver driver = aDriver();
+        pool.checkIn("firefox", driver);
+        when(driver.getWindowHandles()).thenThrow(new WebDriverException("Browser has gone away"));
+
+        assertThat(pool.checkOut("firefox"), is(nullValue()));
+        verify(driver).quit();
+    }
+
+    @Test
+    public void should_quit_a_driver_that_cannot_be_cleared() {
+        WebDriver driver = aDriver();
+        when(driver.getWindowHandles()).thenThrow(new WebDriverException("Browser has gone away"));
+
+        pool.checkIn("firefox", driver);
+
+        verify(driver).quit();
+        assertThat(pool.getIdleDriverCount(), is(0));
+    }
+
+    @Test
+    public void should_replace_a_driver_once_it_has_been_used_the_maximum_number_of_times() {
+        environmentVariables.setProperty("thucydides.driver.pool.max.uses", "2");
+        pool = new WebdriverPool(environmentVariables, clock);
+        WebDriver driver = aDriver();
+
+        pool.checkIn("firefox", driver);
+        pool.checkIn("firefox", pool.checkOut("firefox"));
+
+        verify(driver).quit();
+        assertThat(pool.checkOut("firefox"), is(nullValue()));
+    }
+
+    @Test
+    public void should_only_keep_the_maximum_number_of_idle_drivers_of_each_type() {
+        environmentVariables.setProperty("thucydides.driver.pool.max.idle", "1");
+        pool = new WebdriverPool(environmentVariables, clock);
+        WebDriver firstDriver = aDriver();
+        WebDriver secondDriver = aDriver();
+
+        pool.checkIn("firefox", firstDriver);
+        pool.checkIn("firefox", secondDriver);
+
+        verify(firstDriver).quit();
+        verify(secondDriver, never()).quit();
+        assertThat(pool.checkOut("firefox"), is(sameInstance(secondDriver)));
+    }
+
+    @Test
+    public void should_quit_drivers_that_have_been_idle_for_too_long() {
+        environmentVariables.setProperty("thucydides.driver.pool.idle.timeout", "60");
+        pool = new WebdriverPool(environmentVariables, clock);
+        WebDriver driver = aDriver();
+        pool.checkIn("firefox", driver);
+
+        when(clock.getCurrentTime()).thenReturn(NOW.plusMinutes(2));
+
+        assertThat(pool.checkOut("firefox"), is(nullValue()));
+        verify(driver).quit();
+    }
+
+    class CountingLauncher implements Callable<WebDriver> {
+        final AtomicInteger launchCount = new AtomicInteger();
+
+        public WebDriver call() {
+            launchCount.incrementAndGet();
+            return aDriver();
+        }
+    }
+
+    private void waitForIdleDrivers(int expectedIdleDrivers) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && pool.getIdleDriverCount() < expectedIdleDrivers; attempt++) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    public void should_launch_the_configured_number_of_drivers_ahead_of_time() throws InterruptedException {
+        environmentVariables.setProperty("thucydides.driver.pool.prelaunch", "3");
+        pool = new WebdriverPool(environmentVariables, clock);
+        CountingLauncher launcher = new CountingLauncher();
+
+        pool.keepReady("firefox", launcher);
+        waitForIdleDrivers(3);
+
+        assertThat(pool.getIdleDriverCount(), is(3));
+        assertThat(launcher.launchCount.get(), is(3));
+    }
+
+    @Test
+    public void should_launch_a_new_driver_whenever_a_ready_driver_is_checked_out() throws InterruptedException {
+        environmentVariables.setProperty("thucydides.driver.pool.prelaunch", "2");
+        pool = new WebdriverPool(environmentVariables, clock);
+        CountingLauncher launcher = new CountingLauncher();
+        pool.keepReady("firefox", launcher);
+
+        assertThat(pool.checkOut("firefox"), is(not(nullValue())));
+        waitForIdleDrivers(2);
+
+        assertThat(pool.getIdleDriverCount(), is(2));
+        assertThat(launcher.launchCount.get(), is(3));
+        assertThat(pool.getHitCount(), is(1));
+    }
+
+    @Test
+    public void should_not_launch_drivers_ahead_of_time_by_default() {
+        CountingLauncher launcher = new CountingLauncher();
+
+        pool.keepReady("firefox", launcher);
+
+        assertThat(pool.checkOut("firefox"), is(nullValue()));
+        assertThat(launcher.launchCount.get(), is(0));
+    }
+
+    @Test
+    public void should_not_wait_for_a_driver_that_could_not_be_launched() {
+        environmentVariables.setProperty("thucydides.driver.pool.prelaunch", "1");
+        pool = new WebdriverPool(environmentVariables, clock);
+
+        pool.keepReady("firefox", new Callable<WebDriver>() {
+            public WebDriver call() {
+                throw new WebDriverException("Could not start browser");
+            }
+        });
+
+        assertThat(pool.checkOut("firefox"), is(nullValue()));
+    }
+
+    @Test
+    public void should_count_pool_hits_and_misses() {
+        pool.checkIn("firefox", aDriver());
+
+        pool.checkOut("firefox");
+        pool.checkOut("firefox");
+        pool.checkOut("chrome");
+
+        assertThat(pool.getHitCount(), is(1));
+        assertThat(pool.getMissCount(), is(2));
+    }
+
+    @Test
+    public void should_record_the_average_driver_launch_time() {
+        pool.recordLaunchTime(1000);
+        pool.recordLaunchTime(3000);
+
+        assertThat(pool.getLaunchCount(), is(2));
+        assertThat(pool.getAverageLaunchTimeInMillis(), is(2000L));
+    }
+
+    @Test
+    public void should_reuse_pooled_browsers_when_a_driver_is_quit_and_a_new_one_requested() {
+        environmentVariables.setProperty("thucydides.driver.pool", "true");
+        WebDriverFactory factory = new WebDriverFactory(new WebdriverInstanceFactory(), environmentVariables, pool);
+
+        WebDriverFacade firstFacade = new WebDriverFacade(HtmlUnitDriver.class, factory);
+        WebDriver firstBrowser = firstFacade.getProxiedDriver();
+        WebdriverInstances.closeAndQuit(firstFacade);
+
+        WebDriverFacade secondFacade = new WebDriverFacade(HtmlUnitDriver.class, factory);
+
+        assertThat(secondFacade.getProxiedDriver(), is(sameInstance(firstBrowser)));
+        secondFacade.quit();
+    }
+
+    @Test
+    public void should_use_browsers_launched_ahead_of_time() {
+        environmentVariables.setProperty("thucydides.driver.pool", "true");
+        environmentVariables.setProperty("thucydides.driver.pool.prelaunch", "1");
+        pool = new WebdriverPool(environmentVariables, clock);
+        WebDriverFactory factory = new WebDriverFactory(new WebdriverInstanceFactory(), environmentVariables, pool);
+
+        factory.prelaunchInstancesOf(HtmlUnitDriver.class);
+        WebDriverFacade facade = new WebDriverFacade(HtmlUnitDriver.class, factory);
+        facade.getProxiedDriver();
+
+        assertThat(pool.getHitCount(), is(1));
+        assertThat(pool.getMissCount(), is(0));
+        facade.quit();
+    }
+
+    @Test
+    public void should_not_pool_browsers_by_default() {
+        WebDriverFactory factory = new WebDriverFactory(new WebdriverInstanceFactory(), environmentVariables, pool);
+
+        WebDriverFacade firstFacade = new WebDriverFacade(HtmlUnitDriver.class, factory);
+        WebDriver firstBrowser = firstFacade.getProxiedDriver();
+        firstFacade.quit();
+
+        WebDriverFacade secondFacade = new WebDriverFacade(HtmlUnitDriver.class, factory);
+
+        assertThat(secondFacade.getProxiedDriver(), is(not(sameInstance(firstBrowser))));
+        assertThat(pool.getIdleDriverCount(), is(0));
+        secondFacade.quit();
+    }
+}
@@ -72,7 +72,7 @@ public class WhenTakingLargeScreenshots {
 
         ScreenshotProcessor screenshotProcessor = new SingleThreadScreenshotProcessor(environmentVariables);
         Photographer photographer = new Photographer(driver, screenshotDirectory,screenshotProcessor);
-        File screenshotFile = photographer.takeScreenshot("screenshot").get();
+        File screenshotFile = photographer.takeScreenshot().get().getScreenshotFile();
 
 		waitUntilFileIsWritten(screenshotFile);
 
@@ -94,7 +94,7 @@ public class WhenTakingLargeScreenshots {
 
         ScreenshotProcessor screenshotProcessor = new SingleThreadScreenshotProcessor(environmentVariables);
         Photographer photographer = new Photographer(driver, screenshotDirectory, screenshotProcessor);
-        File screenshotFile = photographer.takeScreenshot("screenshot").get();
+        File screenshotFile = photographer.takeScreenshot().get().getScreenshotFile();
 
         waitUntilFileIsWritten(screenshotFile);
 
@@ -109,7 +109,7 @@ public class WhenTakingLargeScreenshots {
         driver = testSite.open("http:www.google.com", "screenshots/google.html");
 
         Photographer photographer = new Photographer(driver, screenshotDirectory);
-        File screenshotFile = photographer.takeScreenshot("screenshot").get();
+        File screenshotFile = photographer.takeScreenshot().get().getScreenshotFile();
 
 		waitUntilFileIsWritten(screenshotFile);
 
@@ -122,7 +122,7 @@ public class WhenTakingLargeScreenshots {
         driver = testSite.open("http://www.google.com", "screenshots/google.html", "chrome");
 
         Photographer photographer = new Photographer(driver, screenshotDirectory);
-        File screenshotFile = photographer.takeScreenshot("screenshot").get();
+        File screenshotFile = photographer.takeScreenshot().get().getScreenshotFile();
 
 		waitUntilFileIsWritten(screenshotFile);
 
@@ -158,6 +158,6 @@ public class WhenTakingLargeScreenshots {
                 return logger;
             }
         };
-        photographer.takeScreenshot("screenshot");
+        photographer.takeScreenshot();
     }
 }
@@ -0,0 +1,88 @@
+package net.thucydides.junit.runners;
+
+import com.google.common.collect.Lists;
+import org.junit.runners.model.RunnerScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * JUnit scheduler that runs the test methods of a test class in parallel.
+ * Each worker thread takes the next test from a shared queue until there are none left, so that
+ * a worker can keep its own driver and step event bus for all of the tests it runs. Once a worker
+ * has run out of tests, it runs the finishing task in its own thread, so that these can be released.
+ */
+class ConcurrentTestMethodScheduler implements RunnerScheduler {
+
+    private final Queue<Runnable> tests = new ConcurrentLinkedQueue<Runnable>();
+    private final Class<?> klass;
+    private final int threadCount;
+    private final Runnable finishWorker;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentTestMethodScheduler.class);
+
+    public ConcurrentTestMethodScheduler(final Class<?> klass, final int threadCount, final Runnable finishWorker) {
+        this.klass = klass;
+        this.threadCount = threadCount;
+        this.finishWorker = finishWorker;
+    }
+
+    protected int getQueuedTestCount() {
+        return tests.size();
+    }
+
+    public void schedule(final Runnable childStatement) {
+        tests.offer(childStatement);
+    }
+
+    public void finished() {
+        int workerCount = Math.min(threadCount, tests.size());
+        if (workerCount == 0) {
+            return;
+        }
+        ExecutorService executorService
+                = Executors.newFixedThreadPool(workerCount,
+                                               new ParameterizedRunnerScheduler.NamedThreadFactory(klass.getSimpleName()));
+        List<Future<?>> workers = Lists.newArrayList();
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(executorService.submit(new Worker()));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                waitFor(worker);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void waitFor(Future<?> worker) throws InterruptedException {
+        try {
+            worker.get();
+        } catch (ExecutionException workerFailed) {
+            LOGGER.error("Test worker thread failed", workerFailed.getCause());
+        }
+    }
+
+    private class Worker implements Runnable {
+        public void run() {
+            try {
+                Runnable test;
+                while ((test = tests.poll()) != null) {
+                    test.run();
+                }
+            } finally {
+                finishWorker.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package net.thucydides.junit.runners;
+
+import net.thucydides.junit.annotations.Concurrent;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Works out how many threads to use for a test class annotated with @Concurrent.
+ * The thread count is either a number, or a multiple of the number of processors (e.g. "4x").
+ * By default, two threads per processor are used.
+ */
+final class ConcurrentThreads {
+
+    private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    private ConcurrentThreads() {}
+
+    static boolean requestedFor(final Class<?> klass) {
+        return (klass.getAnnotation(Concurrent.class) != null);
+    }
+
+    static int countFor(final Class<?> klass) {
+        Concurrent concurrent = klass.getAnnotation(Concurrent.class);
+        String threadValue = concurrent.threads();
+        int threads = (AVAILABLE_PROCESSORS * 2);
+        if (StringUtils.isNotEmpty(threadValue)) {
+            if (StringUtils.isNumeric(threadValue)) {
+                threads = Integer.valueOf(threadValue);
+            } else if (threadValue.endsWith("x")) {
+                threads = getRelativeThreadCount(threadValue);
+            }
+
+        }
+        return threads;
+    }
+
+    private static int getRelativeThreadCount(final String threadValue) {
+        try {
+            String threadCount = threadValue.substring(0, threadValue.length() - 1);
+            return Integer.valueOf(threadCount) * AVAILABLE_PROCESSORS;
+        } catch (NumberFormatException cause) {
+            throw new IllegalArgumentException("Illegal thread value: " + threadValue, cause);
+        }
+    }
+}
@@ -53,6 +53,14 @@ class TestClassRunnerForInstanciatedTestCase extends ThucydidesRunner {
         return String.format("%s[%s]", method.getName(), parameterSetNumber);
     }
 
+    /**
+     * The @Concurrent annotation runs the data sets in parallel, rather than the tests of each data set.
+     */
+    @Override
+    protected boolean runTestMethodsInParallelFor(final Class<?> klass) {
+        return false;
+    }
+
     @Override
     protected Statement classBlock(final RunNotifier notifier) {
         return childrenInvoker(notifier);
@@ -82,6 +82,14 @@ class TestClassRunnerForParameters extends ThucydidesRunner {
         validateOnlyOneConstructor(errors);
     }
 
+    /**
+     * The @Concurrent annotation runs the data sets in parallel, rather than the tests of each data set.
+     */
+    @Override
+    protected boolean runTestMethodsInParallelFor(final Class<?> klass) {
+        return false;
+    }
+
     @Override
     protected Statement classBlock(final RunNotifier notifier) {
         return childrenInvoker(notifier);
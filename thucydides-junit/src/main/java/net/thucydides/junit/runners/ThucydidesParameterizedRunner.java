@@ -7,8 +7,6 @@ import net.thucydides.core.reports.AcceptanceTestReporter;
 import net.thucydides.core.reports.ReportService;
 import net.thucydides.core.webdriver.Configuration;
 import net.thucydides.core.webdriver.WebDriverFactory;
-import net.thucydides.junit.annotations.Concurrent;
-import org.apache.commons.lang3.StringUtils;
 import org.junit.runner.Runner;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.Suite;
@@ -26,8 +24,6 @@ import java.util.List;
  */
 public class ThucydidesParameterizedRunner extends Suite {
 
-    private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
-
     private final List<Runner> runners = new ArrayList<Runner>();
 
     private final Configuration configuration;
@@ -60,31 +56,11 @@ public class ThucydidesParameterizedRunner extends Suite {
     }
 
     protected boolean runTestsInParallelFor(final Class<?> klass) {
-        return (klass.getAnnotation(Concurrent.class) != null);
+        return ConcurrentThreads.requestedFor(klass);
     }
 
     protected int getThreadCountFor(final Class<?> klass) {
-        Concurrent concurrent = klass.getAnnotation(Concurrent.class);
-        String threadValue = concurrent.threads();
-        int threads = (AVAILABLE_PROCESSORS * 2);
-        if (StringUtils.isNotEmpty(threadValue)) {
-            if (StringUtils.isNumeric(threadValue)) {
-                threads = Integer.valueOf(threadValue);
-            } else if (threadValue.endsWith("x")) {
-                threads = getRelativeThreadCount(threadValue);
-            }
-
-        }
-        return threads;
-    }
-
-    private int getRelativeThreadCount(final String threadValue) {
-        try {
-            String threadCount = threadValue.substring(0, threadValue.length() - 1);
-            return Integer.valueOf(threadCount) * AVAILABLE_PROCESSORS;
-        } catch (NumberFormatException cause) {
-            throw new IllegalArgumentException("Illegal thread value: " + threadValue, cause);
-        }
+        return ConcurrentThreads.countFor(klass);
     }
 
     private void buildTestRunnersForEachDataSetUsing(final WebDriverFactory webDriverFactory) throws Throwable {
@@ -1,5 +1,7 @@
 package net.thucydides.junit.runners;
 
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Module;
@@ -17,6 +19,7 @@ import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.pages.Pages;
 import net.thucydides.core.reports.AcceptanceTestReporter;
 import net.thucydides.core.reports.ReportService;
+import net.thucydides.core.statistics.HistoricalTestOrder;
 import net.thucydides.core.steps.StepAnnotations;
 import net.thucydides.core.steps.StepData;
 import net.thucydides.core.steps.StepEventBus;
@@ -32,6 +35,8 @@ import net.thucydides.junit.listeners.JUnitStepListener;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Ignore;
 import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.model.FrameworkMethod;
@@ -43,7 +48,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static net.thucydides.core.Thucydides.initializeTestSession;
 
@@ -54,6 +62,10 @@ import static net.thucydides.core.Thucydides.initializeTestSession;
  * <p/>
  * The test runner will by default produce output in XML and HTML. This
  * can extended by subscribing more reporter implementations to the test runner.
+ * <p/>
+ * If the test class is annotated with @Concurrent, the test methods are run in parallel instead.
+ * Each thread has its own WebDriver instance, Pages object and step event bus, and the test outcomes
+ * recorded by each thread are merged when the tests are finished.
  *
  * @author johnsmart
  */
@@ -72,6 +84,12 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
      * Special listener that keeps track of test step execution and results.
      */
     private JUnitStepListener stepListener;
+    /**
+     * When the test methods are run in parallel, each thread has its own step listener.
+     */
+    private final ThreadLocal<JUnitStepListener> workerStepListener = new ThreadLocal<JUnitStepListener>();
+    private final List<JUnitStepListener> workerStepListeners = new CopyOnWriteArrayList<JUnitStepListener>();
+    private final boolean runTestMethodsInParallel;
     /**
      * Retrieve the runner getConfiguration().from an external source.
      */
@@ -137,9 +155,15 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
         this.webdriverManager = webDriverManager;
         this.configuration = configuration;
         this.requestedDriver = getSpecifiedDriver(klass);
+        this.runTestMethodsInParallel = runTestMethodsInParallelFor(klass);
+
+        if (runTestMethodsInParallel) {
+            scheduleParallelTestMethodsFor(klass);
+        }
 
         if (TestCaseAnnotations.supportsWebTests(klass)) {
             checkRequestedDriverType();
+            webdriverManager.prelaunchDrivers(requestedDriver);
         }
 
         this.batchManager = batchManager;
@@ -158,6 +182,32 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
         }
     }
 
+    protected boolean runTestMethodsInParallelFor(final Class<?> klass) {
+        return ConcurrentThreads.requestedFor(klass);
+    }
+
+    private void scheduleParallelTestMethodsFor(final Class<?> klass) {
+        setScheduler(new ConcurrentTestMethodScheduler(klass, ConcurrentThreads.countFor(klass), new Runnable() {
+            public void run() {
+                finishTestsInThisThread();
+            }
+        }));
+    }
+
+    /**
+     * Once a thread has run all the test methods it will run, it finishes the test suite on its own
+     * step event bus and closes its own drivers.
+     */
+    private void finishTestsInThisThread() {
+        notifyTestSuiteFinished();
+        JUnitStepListener listener = workerStepListener.get();
+        if (listener != null) {
+            listener.dropListeners();
+            workerStepListener.remove();
+        }
+        closeDrivers();
+    }
+
     private static BatchManager getBatchManager(Configuration configuration) {
         EnvironmentVariables environmentVariables = configuration.getEnvironmentVariables();
         String batchManagerProperty = ThucydidesSystemProperty.BATCH_STRATEGY.from(environmentVariables,
@@ -184,6 +234,33 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
         return batchManager;
     }
 
+    /**
+     * When the 'thucydides.test.order' property is set to 'history', tests that failed recently
+     * and long tests are run first.
+     */
+    @Override
+    protected List<FrameworkMethod> computeTestMethods() {
+        List<FrameworkMethod> testMethods = super.computeTestMethods();
+        if ((getConfiguration() == null) || !orderTestsByHistory()) {
+            return testMethods;
+        }
+        final Class<?> testCase = getTestClass().getJavaClass();
+        return getHistoricalTestOrder().inPriorityOrder(testMethods, new Function<FrameworkMethod, String>() {
+            public String apply(FrameworkMethod method) {
+                return TestOutcome.forTest(method.getName(), testCase).getTitle();
+            }
+        });
+    }
+
+    private boolean orderTestsByHistory() {
+        String testOrder = ThucydidesSystemProperty.TEST_ORDER.from(getConfiguration().getEnvironmentVariables(), "");
+        return testOrder.equalsIgnoreCase("history");
+    }
+
+    protected HistoricalTestOrder getHistoricalTestOrder() {
+        return Injectors.getInjector().getInstance(HistoricalTestOrder.class);
+    }
+
     /**
      * Ensure that the requested driver type is valid before we start the tests.
      * Otherwise, throw an InitializationError.
@@ -246,6 +323,10 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
     }
 
     private void dropListeners(final RunNotifier notifier) {
+        if (runTestMethodsInParallel) {
+            notifier.removeListener(workerStepListenerDispatcher);
+            return;
+        }
         JUnitStepListener listener = getStepListener();
         notifier.removeListener(listener);
         getStepListener().dropListeners();
@@ -265,14 +346,23 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
      * form of an TestOutcome object.
      */
     protected JUnitStepListener getStepListener() {
-        if (stepListener == null) {
+        if (currentStepListener() == null) {
             buildAndConfigureListeners();
         }
-        return stepListener;
+        return currentStepListener();
     }
 
     protected void setStepListener(JUnitStepListener stepListener) {
-        this.stepListener = stepListener;
+        if (runTestMethodsInParallel) {
+            workerStepListener.set(stepListener);
+            workerStepListeners.add(stepListener);
+        } else {
+            this.stepListener = stepListener;
+        }
+    }
+
+    private JUnitStepListener currentStepListener() {
+        return (runTestMethodsInParallel) ? workerStepListener.get() : stepListener;
     }
 
     private void buildAndConfigureListeners() {
@@ -289,10 +379,40 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
     }
 
     private void initializeDriversAndListeners(RunNotifier notifier) {
-        JUnitStepListener listener = getStepListener();
-        notifier.addListener(listener);
+        if (runTestMethodsInParallel) {
+            notifier.addListener(workerStepListenerDispatcher);
+        } else {
+            JUnitStepListener listener = getStepListener();
+            notifier.addListener(listener);
+        }
     }
 
+    /**
+     * JUnit notifies its listeners in the thread running the test, so when the test methods run in parallel,
+     * each event is passed on to the step listener of that thread.
+     */
+    private final RunListener workerStepListenerDispatcher = new RunListener() {
+        @Override
+        public void testStarted(Description description) throws Exception {
+            getStepListener().testStarted(description);
+        }
+
+        @Override
+        public void testFinished(Description description) throws Exception {
+            getStepListener().testFinished(description);
+        }
+
+        @Override
+        public void testFailure(Failure failure) throws Exception {
+            getStepListener().testFailure(failure);
+        }
+
+        @Override
+        public void testIgnored(Description description) throws Exception {
+            getStepListener().testIgnored(description);
+        }
+    };
+
     protected void initStepEventBus() {
         StepEventBus.getEventBus().clear();
     }
@@ -370,7 +490,7 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
     }
 
     private void markAsPending(FrameworkMethod method) {
-        stepListener.testStarted(Description.createTestDescription(method.getMethod().getDeclaringClass(), testName(method)));
+        getStepListener().testStarted(Description.createTestDescription(method.getMethod().getDeclaringClass(), testName(method)));
         StepEventBus.getEventBus().testPending();
         StepEventBus.getEventBus().testFinished();
     }
@@ -383,7 +503,7 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
      */
     private void processTestMethodAnnotationsFor(FrameworkMethod method) {
         if (isIgnored(method)) {
-            stepListener.testStarted(Description.createTestDescription(method.getMethod().getDeclaringClass(), testName(method)));
+            getStepListener().testStarted(Description.createTestDescription(method.getMethod().getDeclaringClass(), testName(method)));
             StepEventBus.getEventBus().testIgnored();
         }
     }
@@ -413,9 +533,11 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
 
     /**
      * Running a unit test, which represents a test scenario.
+     * The Pages object and step factory are prepared and injected one test at a time, even when
+     * the test methods are run in parallel.
      */
     @Override
-    protected Statement methodInvoker(final FrameworkMethod method, final Object test) {
+    protected synchronized Statement methodInvoker(final FrameworkMethod method, final Object test) {
 
         if (webtestsAreSupported()) {
             injectDriverInto(test, method);
@@ -431,7 +553,7 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
         useStepFactoryForDataDrivenSteps();
 
         Statement baseStatement = super.methodInvoker(method, test);
-        return new ThucydidesStatement(baseStatement, stepListener.getBaseStepListener());
+        return new ThucydidesStatement(baseStatement, getStepListener().getBaseStepListener());
     }
 
     private void useStepFactoryForDataDrivenSteps() {
@@ -479,9 +601,33 @@ public class ThucydidesRunner extends BlockJUnit4ClassRunner {
     }
 
     public List<TestOutcome> getTestOutcomes() {
+        if (runTestMethodsInParallel) {
+            return mergedWorkerTestOutcomes();
+        }
         return getStepListener().getTestOutcomes();
     }
 
+    /**
+     * The test outcomes of each thread, in the order in which the test methods would have been run one at a time.
+     */
+    private List<TestOutcome> mergedWorkerTestOutcomes() {
+        List<TestOutcome> testOutcomes = Lists.newArrayList();
+        for (JUnitStepListener listener : workerStepListeners) {
+            testOutcomes.addAll(listener.getTestOutcomes());
+        }
+        final List<String> testMethodNames = Lists.newArrayList();
+        for (FrameworkMethod method : getChildren()) {
+            testMethodNames.add(method.getName());
+        }
+        Collections.sort(testOutcomes, new Comparator<TestOutcome>() {
+            public int compare(TestOutcome outcome, TestOutcome otherOutcome) {
+                return testMethodNames.indexOf(outcome.getMethodName())
+                        - testMethodNames.indexOf(otherOutcome.getMethodName());
+            }
+        });
+        return testOutcomes;
+    }
+
     /**
      * The default reporters applicable for standard test runs.
      */
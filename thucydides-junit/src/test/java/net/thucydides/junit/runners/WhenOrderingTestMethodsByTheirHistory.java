@@ -0,0 +1,85 @@
+package net.thucydides.junit.runners;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.statistics.HistoricalTestOrder;
+import net.thucydides.core.statistics.dao.TestOutcomeHistoryDAO;
+import net.thucydides.core.webdriver.SystemPropertiesConfiguration;
+import net.thucydides.core.webdriver.WebDriverFactory;
+import net.thucydides.junit.rules.DisableThucydidesHistoryRule;
+import net.thucydides.junit.rules.QuietThucydidesLoggingRule;
+import net.thucydides.samples.SamplePassingNonWebScenario;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.InitializationError;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static ch.lambdaj.Lambda.extract;
+import static ch.lambdaj.Lambda.on;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class WhenOrderingTestMethodsByTheirHistory extends AbstractTestStepRunnerTest {
+
+    @Rule
+    public QuietThucydidesLoggingRule quietThucydidesLoggingRule = new QuietThucydidesLoggingRule();
+
+    @Rule
+    public DisableThucydidesHistoryRule disableThucydidesHistoryRule = new DisableThucydidesHistoryRule();
+
+    @Mock
+    TestOutcomeHistoryDAO testOutcomeHistoryDAO;
+
+    @Before
+    public void recordTestHistory() {
+        MockitoAnnotations.initMocks(this);
+        ListMultimap<String, TestResult> results = ArrayListMultimap.create();
+        results.put("Happy day scenario", TestResult.SUCCESS);
+        results.put("Edge case 1", TestResult.SUCCESS);
+        results.put("Edge case 2", TestResult.FAILURE);
+        when(testOutcomeHistoryDAO.getResultsForTestsWithTitles(anyCollectionOf(String.class))).thenReturn(results);
+        when(testOutcomeHistoryDAO.getAverageDurationsForTestsWithTitles(anyCollectionOf(String.class)))
+                .thenReturn(ImmutableMap.of("Happy day scenario", 100L, "Edge case 1", 2000L, "Edge case 2", 10L));
+    }
+
+    private ThucydidesRunner getTestRunnerWithHistoryFor(Class<?> testClass) throws InitializationError {
+        return new ThucydidesRunner(testClass,
+                                    new WebDriverFactory(environmentVariables),
+                                    new SystemPropertiesConfiguration(environmentVariables)) {
+            @Override
+            protected HistoricalTestOrder getHistoricalTestOrder() {
+                return new HistoricalTestOrder(testOutcomeHistoryDAO);
+            }
+        };
+    }
+
+    private List<String> testMethodsOf(ThucydidesRunner runner) {
+        return extract(runner.getDescription().getChildren(), on(Description.class).getMethodName());
+    }
+
+    @Test
+    public void failing_and_long_tests_should_be_run_first_when_ordering_tests_by_history() throws InitializationError {
+        environmentVariables.setProperty("thucydides.test.order", "history");
+
+        ThucydidesRunner runner = getTestRunnerWithHistoryFor(SamplePassingNonWebScenario.class);
+
+        assertThat(testMethodsOf(runner), contains("edge_case_2", "edge_case_1", "happy_day_scenario"));
+    }
+
+    @Test
+    public void the_test_history_should_not_be_used_by_default() throws InitializationError {
+        getTestRunnerWithHistoryFor(SamplePassingNonWebScenario.class).getDescription();
+
+        verifyZeroInteractions(testOutcomeHistoryDAO);
+    }
+}
@@ -0,0 +1,131 @@
+package net.thucydides.junit.runners;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import net.thucydides.core.guice.ThucydidesModule;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.steps.StepEventBus;
+import net.thucydides.core.webdriver.SystemPropertiesConfiguration;
+import net.thucydides.core.webdriver.WebDriverFactory;
+import net.thucydides.junit.rules.DisableThucydidesHistoryRule;
+import net.thucydides.junit.rules.QuietThucydidesLoggingRule;
+import net.thucydides.samples.SampleConcurrentNonWebScenario;
+import net.thucydides.samples.SampleConcurrentScenarioUsingHtmlUnit;
+import net.thucydides.samples.SampleParallelDataDrivenScenario;
+import net.thucydides.samples.SamplePassingNonWebScenario;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.InitializationError;
+import org.openqa.selenium.WebDriver;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static ch.lambdaj.Lambda.extract;
+import static ch.lambdaj.Lambda.on;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class WhenRunningTestMethodsInParallel extends AbstractTestStepRunnerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public QuietThucydidesLoggingRule quietThucydidesLoggingRule = new QuietThucydidesLoggingRule();
+
+    @Rule
+    public DisableThucydidesHistoryRule disableThucydidesHistoryRule = new DisableThucydidesHistoryRule();
+
+    Injector injector;
+
+    @Before
+    public void createInjector() {
+        injector = Guice.createInjector(new ThucydidesModule());
+        StepEventBus.getEventBus().clear();
+        SampleConcurrentNonWebScenario.THREADS.clear();
+        SampleConcurrentNonWebScenario.allThreadsStarted = new CountDownLatch(3);
+        SampleConcurrentScenarioUsingHtmlUnit.DRIVERS_USED_BY_THREAD.clear();
+        SampleConcurrentScenarioUsingHtmlUnit.THREADS_USING_DRIVER.clear();
+    }
+
+    @Test
+    public void test_methods_should_run_in_parallel_for_a_concurrent_test_class() throws InitializationError {
+        ThucydidesRunner runner = new ThucydidesRunner(SampleConcurrentNonWebScenario.class, injector);
+
+        runner.run(new RunNotifier());
+
+        assertThat(SampleConcurrentNonWebScenario.THREADS.size(), is(3));
+    }
+
+    @Test
+    public void test_methods_should_not_run_in_parallel_by_default() throws InitializationError {
+        ThucydidesRunner runner = new ThucydidesRunner(SamplePassingNonWebScenario.class, injector);
+
+        assertThat(runner.runTestMethodsInParallelFor(SamplePassingNonWebScenario.class), is(false));
+        assertThat(runner.runTestMethodsInParallelFor(SampleConcurrentNonWebScenario.class), is(true));
+    }
+
+    @Test
+    public void the_outcomes_of_all_threads_should_be_reported_in_the_order_of_the_test_methods() throws InitializationError {
+        ThucydidesRunner runner = new ThucydidesRunner(SampleConcurrentNonWebScenario.class, injector);
+
+        runner.run(new RunNotifier());
+
+        List<String> testMethodsInOrder = extract(runner.getDescription().getChildren(),
+                                                  on(Description.class).getMethodName());
+        List<TestOutcome> testOutcomes = runner.getTestOutcomes();
+        assertThat(extract(testOutcomes, on(TestOutcome.class).getMethodName()), is(testMethodsInOrder));
+        assertThat(testOutcomes.size(), is(5));
+    }
+
+    @Test
+    public void each_test_outcome_should_record_the_steps_and_result_of_its_own_test() throws InitializationError {
+        ThucydidesRunner runner = new ThucydidesRunner(SampleConcurrentNonWebScenario.class, injector);
+
+        runner.run(new RunNotifier());
+
+        List<TestOutcome> testOutcomes = runner.getTestOutcomes();
+        assertThat(inTheTesOutcomes(testOutcomes).theResultFor("happy_day_scenario"), is(TestResult.SUCCESS));
+        assertThat(inTheTesOutcomes(testOutcomes).theResultFor("edge_case_1"), is(TestResult.FAILURE));
+        assertThat(inTheTesOutcomes(testOutcomes).theResultFor("edge_case_2"), is(TestResult.PENDING));
+        assertThat(inTheTesOutcomes(testOutcomes).theResultFor("edge_case_4"), is(TestResult.SUCCESS));
+        assertThat(inTheTesOutcomes(testOutcomes).theOutcomeFor("edge_case_1").getTestSteps().size(), is(3));
+        assertThat(inTheTesOutcomes(testOutcomes).theOutcomeFor("edge_case_4").getTestSteps().size(), is(2));
+    }
+
+    @Test
+    public void each_thread_should_use_its_own_browser() throws InitializationError {
+        ThucydidesRunner runner = new ThucydidesRunner(SampleConcurrentScenarioUsingHtmlUnit.class, injector);
+
+        runner.run(new RunNotifier());
+
+        List<TestOutcome> testOutcomes = runner.getTestOutcomes();
+        assertThat(testOutcomes.size(), is(4));
+        for (TestOutcome testOutcome : testOutcomes) {
+            assertThat(testOutcome.getResult(), is(TestResult.SUCCESS));
+        }
+        for (String thread : SampleConcurrentScenarioUsingHtmlUnit.DRIVERS_USED_BY_THREAD.keySet()) {
+            assertThat(SampleConcurrentScenarioUsingHtmlUnit.DRIVERS_USED_BY_THREAD.get(thread).size(), is(1));
+        }
+        for (WebDriver driver : SampleConcurrentScenarioUsingHtmlUnit.THREADS_USING_DRIVER.keySet()) {
+            assertThat(SampleConcurrentScenarioUsingHtmlUnit.THREADS_USING_DRIVER.get(driver).size(), is(1));
+        }
+    }
+
+    @Test
+    public void data_driven_tests_should_run_each_data_set_in_parallel_rather_than_each_test_method() throws Throwable {
+        TestClassRunnerForParameters runner
+                = new TestClassRunnerForParameters(SampleParallelDataDrivenScenario.class,
+                                                   new SystemPropertiesConfiguration(environmentVariables),
+                                                   new WebDriverFactory(environmentVariables),
+                                                   null, 0);
+
+        assertThat(runner.runTestMethodsInParallelFor(SampleParallelDataDrivenScenario.class), is(false));
+    }
+}
@@ -8,6 +8,9 @@ import org.mockito.MockitoAnnotations;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class WhenSchedulingParallelTestJobs {
 
@@ -47,4 +50,46 @@ public class WhenSchedulingParallelTestJobs {
         assertThat(scheduler.getTaskQueue().size(), is(0));
     }
 
+    @Mock
+    Runnable finishWorker;
+
+    @Test
+    public void scheduled_test_methods_should_all_be_run_when_the_run_is_finished() {
+        ConcurrentTestMethodScheduler scheduler
+                = new ConcurrentTestMethodScheduler(SampleParallelDataDrivenScenario.class, 4, finishWorker);
+
+        scheduler.schedule(testJob);
+        scheduler.schedule(testJob2);
+
+        assertThat(scheduler.getQueuedTestCount(), is(2));
+        scheduler.finished();
+        assertThat(scheduler.getQueuedTestCount(), is(0));
+        verify(testJob).run();
+        verify(testJob2).run();
+    }
+
+    @Test
+    public void each_worker_thread_should_be_finished_once_it_has_no_more_tests_to_run() {
+        ConcurrentTestMethodScheduler scheduler
+                = new ConcurrentTestMethodScheduler(SampleParallelDataDrivenScenario.class, 4, finishWorker);
+
+        scheduler.schedule(testJob);
+        scheduler.schedule(testJob2);
+        scheduler.finished();
+
+        verify(finishWorker, times(2)).run();
+    }
+
+    @Test
+    public void a_worker_thread_should_still_be_finished_if_a_test_fails_unexpectedly() {
+        ConcurrentTestMethodScheduler scheduler
+                = new ConcurrentTestMethodScheduler(SampleParallelDataDrivenScenario.class, 1, finishWorker);
+        doThrow(new IllegalStateException("Test failed")).when(testJob).run();
+
+        scheduler.schedule(testJob);
+        scheduler.finished();
+
+        verify(finishWorker).run();
+    }
+
 }
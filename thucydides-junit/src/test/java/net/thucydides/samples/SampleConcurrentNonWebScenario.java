@@ -0,0 +1,64 @@
+package net.thucydides.samples;
+
+import net.thucydides.core.annotations.Steps;
+import net.thucydides.junit.annotations.Concurrent;
+import net.thucydides.junit.runners.ThucydidesRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(ThucydidesRunner.class)
+@Concurrent(threads = "3")
+public class SampleConcurrentNonWebScenario {
+
+    public static final Set<String> THREADS = Collections.synchronizedSet(new HashSet<String>());
+
+    public static CountDownLatch allThreadsStarted = new CountDownLatch(3);
+
+    @Steps
+    public SampleNonWebSteps steps;
+
+    private void waitForTheOtherThreads() throws InterruptedException {
+        THREADS.add(Thread.currentThread().getName());
+        allThreadsStarted.countDown();
+        allThreadsStarted.await(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void happy_day_scenario() throws Throwable {
+        waitForTheOtherThreads();
+        steps.stepThatSucceeds();
+        steps.anotherStepThatSucceeds();
+    }
+
+    @Test
+    public void edge_case_1() throws Throwable {
+        waitForTheOtherThreads();
+        steps.stepThatSucceeds();
+        steps.stepThatFails();
+        steps.anotherStepThatSucceeds();
+    }
+
+    @Test
+    public void edge_case_2() throws Throwable {
+        waitForTheOtherThreads();
+        steps.stepThatSucceeds();
+        steps.stepThatIsPending();
+    }
+
+    @Test
+    public void edge_case_3() {
+        steps.stepThatSucceeds();
+    }
+
+    @Test
+    public void edge_case_4() {
+        steps.stepThatSucceeds();
+        steps.anotherStepThatSucceeds();
+    }
+}
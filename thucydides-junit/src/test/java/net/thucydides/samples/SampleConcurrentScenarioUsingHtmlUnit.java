@@ -0,0 +1,65 @@
+package net.thucydides.samples;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.SetMultimap;
+import net.thucydides.core.annotations.Managed;
+import net.thucydides.core.annotations.ManagedPages;
+import net.thucydides.core.annotations.Steps;
+import net.thucydides.core.pages.Pages;
+import net.thucydides.core.webdriver.WebDriverFacade;
+import net.thucydides.junit.annotations.Concurrent;
+import net.thucydides.junit.runners.ThucydidesRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openqa.selenium.WebDriver;
+
+@RunWith(ThucydidesRunner.class)
+@Concurrent(threads = "2")
+public class SampleConcurrentScenarioUsingHtmlUnit {
+
+    public static final SetMultimap<String, WebDriver> DRIVERS_USED_BY_THREAD
+            = Multimaps.synchronizedSetMultimap(HashMultimap.<String, WebDriver>create());
+
+    public static final SetMultimap<WebDriver, String> THREADS_USING_DRIVER
+            = Multimaps.synchronizedSetMultimap(HashMultimap.<WebDriver, String>create());
+
+    @Managed(driver = "htmlunit", uniqueSession = true)
+    public WebDriver webdriver;
+
+    @ManagedPages(defaultUrl = "classpath:static-site/index.html")
+    public Pages pages;
+
+    @Steps
+    public SampleScenarioSteps steps;
+
+    private void recordDriverThread() {
+        WebDriver driver = ((WebDriverFacade) webdriver).getProxiedDriver();
+        DRIVERS_USED_BY_THREAD.put(Thread.currentThread().getName(), driver);
+        THREADS_USING_DRIVER.put(driver, Thread.currentThread().getName());
+    }
+
+    @Test
+    public void happy_day_scenario() {
+        steps.stepThatUsesABrowser();
+        recordDriverThread();
+    }
+
+    @Test
+    public void edge_case_1() {
+        steps.stepThatUsesABrowser();
+        recordDriverThread();
+    }
+
+    @Test
+    public void edge_case_2() {
+        steps.stepThatUsesABrowser();
+        recordDriverThread();
+    }
+
+    @Test
+    public void edge_case_3() {
+        steps.stepThatUsesABrowser();
+        recordDriverThread();
+    }
+}